@@ -1,3 +1,5 @@
+import org.springframework.boot.gradle.tasks.bundling.BootJar
+
 plugins {
     java
     id("org.springframework.boot") version "3.3.3"
@@ -26,8 +28,11 @@ dependencies {
     implementation("org.flywaydb:flyway-core:10.17.0")
     implementation("org.flywaydb:flyway-database-postgresql:10.17.0")
     implementation("software.amazon.awssdk:s3:2.25.42")
+    implementation("software.amazon.awssdk:s3-transfer-manager:2.25.42")
+    implementation("software.amazon.awssdk:netty-nio-client:2.25.42")
+    implementation("software.amazon.awssdk.crt:aws-crt:0.29.18")
 
-    runtimeOnly("org.postgresql:postgresql:42.7.3")
+    implementation("org.postgresql:postgresql:42.7.3")
 
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testImplementation("org.testcontainers:junit-jupiter")
@@ -40,3 +45,195 @@ tasks.withType<Test> {
     useJUnitPlatform()
 }
 
+tasks.named<Test>("test") {
+    useJUnitPlatform {
+        excludeTags("load")
+    }
+}
+
+// Load test: ./gradlew loadTest -PloadCustomers=1000000 -PloadOrders=10000000
+// Seeds Testcontainers PostgreSQL, runs a full and an incremental sync against LocalStack and
+// writes rows/s, MB/s, peak heap and DB/serialization/S3 time per stage to build/load-test.
+val loadTest by tasks.registering(Test::class) {
+    group = "verification"
+    description = "Runs the end-to-end sync load test and writes its results as JSON."
+    testClassesDirs = sourceSets["test"].output.classesDirs
+    classpath = sourceSets["test"].runtimeClasspath
+    useJUnitPlatform {
+        includeTags("load")
+    }
+    maxHeapSize = providers.gradleProperty("loadHeap").getOrElse("2g")
+    outputs.upToDateWhen { false }
+    val loadProperties = mapOf(
+        "load.customers" to "loadCustomers",
+        "load.orders" to "loadOrders",
+        "load.countries" to "loadCountries",
+        "load.churn" to "loadChurn",
+        "load.seed" to "loadSeed",
+        "load.build" to "loadBuild")
+    loadProperties.forEach { (systemProperty, gradleProperty) ->
+        providers.gradleProperty(gradleProperty).orNull?.let { systemProperty(systemProperty, it) }
+    }
+    systemProperty("load.output", providers.gradleProperty("loadOutput")
+        .getOrElse(layout.buildDirectory.file("load-test/results-${System.currentTimeMillis()}.json")
+            .get().asFile.absolutePath))
+    testLogging {
+        showStandardStreams = true
+    }
+}
+
+
+// Startup profile: ./gradlew -PstartupOptimized startupBenchmark
+// Adds Spring AOT processing to the boot jar, trains an AppCDS archive on the extracted
+// jar and compares time-to-ready with and without both. The training run and every
+// benchmark launch need the PostgreSQL container from docker-compose.yml.
+val startupOptimized = providers.gradleProperty("startupOptimized").isPresent
+if (startupOptimized) {
+    apply(plugin = "org.springframework.boot.aot")
+}
+
+val startupDir = layout.buildDirectory.dir("startup")
+val startupJavaLauncher = javaToolchains.launcherFor {
+    languageVersion.set(JavaLanguageVersion.of(21))
+}
+val bootJarFile = tasks.named<BootJar>("bootJar").flatMap { it.archiveFile }
+val extractedJar = startupDir.zip(bootJarFile) { dir, jar -> dir.file("app/${jar.asFile.name}") }
+val cdsArchiveFile = startupDir.map { it.file("application.jsa") }
+val aotFlags = if (startupOptimized) listOf("-Dspring.aot.enabled=true") else emptyList()
+
+val extractBootJar by tasks.registering(Exec::class) {
+    group = "startup"
+    description = "Extracts the boot jar into the unpacked layout required by AppCDS."
+    dependsOn("bootJar")
+    inputs.file(bootJarFile)
+    outputs.dir(startupDir.map { it.dir("app") })
+    doFirst {
+        delete(startupDir.map { it.dir("app") })
+        executable = startupJavaLauncher.get().executablePath.asFile.absolutePath
+        args("-Djarmode=tools", "-jar", bootJarFile.get().asFile.absolutePath,
+            "extract", "--destination", startupDir.get().dir("app").asFile.absolutePath)
+    }
+}
+
+val cdsArchive by tasks.registering(Exec::class) {
+    group = "startup"
+    description = "Training run that refreshes the context once and dumps the AppCDS archive."
+    dependsOn(extractBootJar)
+    outputs.file(cdsArchiveFile)
+    doFirst {
+        executable = startupJavaLauncher.get().executablePath.asFile.absolutePath
+        args(listOf("-XX:ArchiveClassesAtExit=${cdsArchiveFile.get().asFile.absolutePath}",
+            "-Dspring.context.exit=onRefresh") + aotFlags + listOf("-jar", extractedJar.get().asFile.absolutePath))
+    }
+}
+
+tasks.register("startupBenchmark") {
+    group = "startup"
+    description = "Reports the median time-to-ready of the packaged application per startup mode."
+    dependsOn(cdsArchive)
+    doLast {
+        val java = startupJavaLauncher.get().executablePath.asFile.absolutePath
+        val runs = providers.gradleProperty("startupRuns").map(String::toInt).getOrElse(5)
+        val sharedArchive = "-XX:SharedArchiveFile=${cdsArchiveFile.get().asFile.absolutePath}"
+        val modes = linkedMapOf("baseline" to emptyList<String>(), "cds" to listOf(sharedArchive))
+        if (startupOptimized) {
+            modes["cds+aot"] = listOf(sharedArchive) + aotFlags
+        }
+        // Background work started at ready time is switched off so it cannot compete with the launch.
+        val benchmarkFlags = listOf("-Dstartup.exit-on-ready=true", "-Dsync.scheduler-enabled=false",
+            "-Dsync.retention.enabled=false", "-Daws.s3.async.warm-up-connections=0")
+        val timeToReady = Regex("Time to ready: (\\d+) ms")
+        val medians = linkedMapOf<String, Long>()
+
+        modes.forEach { (mode, flags) ->
+            val samples = (1..runs).map {
+                val process = ProcessBuilder(listOf(java) + flags + benchmarkFlags
+                        + listOf("-jar", extractedJar.get().asFile.absolutePath))
+                    .redirectErrorStream(true)
+                    .start()
+                val output = process.inputStream.bufferedReader().readText()
+                process.waitFor()
+                timeToReady.find(output)?.groupValues?.get(1)?.toLong()
+                    ?: throw GradleException("No time-to-ready reported by the $mode launch:\n$output")
+            }.sorted()
+            medians[mode] = samples[samples.size / 2]
+            logger.lifecycle("%-8s median %5d ms  min %5d ms  max %5d ms  (%d runs)"
+                .format(mode, samples[samples.size / 2], samples.first(), samples.last(), runs))
+        }
+        // Row for the results table in docs/startup-performance.md.
+        val memory = (java.lang.management.ManagementFactory.getOperatingSystemMXBean()
+            as com.sun.management.OperatingSystemMXBean).totalMemorySize
+        val cells = listOf("baseline", "cds", "cds+aot").map { mode -> medians[mode]?.let { "$it ms" } ?: "-" }
+        logger.lifecycle("| %s | %d CPUs, %d GB, %d runs | %s |".format(java.time.LocalDate.now(),
+            Runtime.getRuntime().availableProcessors(), memory / (1L shl 30), runs, cells.joinToString(" | ")))
+    }
+}
+
+// Dashboard load: ./gradlew dashboardLoadBenchmark -PbaseUrl=http://localhost:8080 -PloadClients=200
+// Replays the dashboard's polling requests against a running backend with a fixed number of
+// concurrent clients and reports throughput and latency percentiles. Run it once against a
+// backend on platform threads and once with SPRING_THREADS_VIRTUAL_ENABLED=true to compare.
+// -PduringSync=true triggers a sync run right before the load starts.
+tasks.register("dashboardLoadBenchmark") {
+    group = "benchmark"
+    description = "Measures REST throughput under concurrent dashboard load against a running backend."
+    doLast {
+        val baseUrl = providers.gradleProperty("baseUrl").getOrElse("http://localhost:8080")
+        val clients = providers.gradleProperty("loadClients").map(String::toInt).getOrElse(200)
+        val duration = java.time.Duration.ofSeconds(
+            providers.gradleProperty("loadSeconds").map(String::toLong).getOrElse(30))
+        val duringSync = providers.gradleProperty("duringSync").map(String::toBoolean).getOrElse(false)
+        val paths = listOf("/api/sync/runs?limit=10", "/api/sync/state", "/api/s3/files", "/api/sync/schedule")
+        val http = java.net.http.HttpClient.newBuilder()
+            .connectTimeout(java.time.Duration.ofSeconds(5))
+            .build()
+        // The endpoint answers when the run has finished, so a pending response means it overlapped the load.
+        val sync = if (duringSync) {
+            http.sendAsync(java.net.http.HttpRequest.newBuilder(java.net.URI.create("$baseUrl/api/sync/run"))
+                .POST(java.net.http.HttpRequest.BodyPublishers.noBody())
+                .build(), java.net.http.HttpResponse.BodyHandlers.discarding())
+        } else {
+            null
+        }
+        val latencies = java.util.concurrent.ConcurrentLinkedQueue<Long>()
+        val errors = java.util.concurrent.atomic.AtomicLong()
+        val deadline = System.nanoTime() + duration.toNanos()
+        val pool = java.util.concurrent.Executors.newFixedThreadPool(clients)
+        repeat(clients) { client ->
+            pool.execute {
+                var i = client
+                while (System.nanoTime() < deadline) {
+                    val request = java.net.http.HttpRequest.newBuilder(java.net.URI.create(baseUrl + paths[i++ % paths.size]))
+                        .timeout(java.time.Duration.ofSeconds(30))
+                        .build()
+                    val start = System.nanoTime()
+                    try {
+                        val status = http.send(request, java.net.http.HttpResponse.BodyHandlers.discarding()).statusCode()
+                        if (status >= 400) errors.incrementAndGet() else latencies.add(System.nanoTime() - start)
+                    } catch (ex: java.io.IOException) {
+                        errors.incrementAndGet()
+                    }
+                }
+            }
+        }
+        pool.shutdown()
+        pool.awaitTermination(duration.seconds + 60, java.util.concurrent.TimeUnit.SECONDS)
+
+        val sorted = latencies.sorted()
+        if (sorted.isEmpty()) {
+            throw GradleException("No successful requests against $baseUrl ($errors errors)")
+        }
+        fun percentile(p: Double) = sorted[((sorted.size - 1) * p).toInt()] / 1_000_000.0
+        val throughput = sorted.size / duration.seconds.toDouble()
+        logger.lifecycle("%d clients for %ds: %.1f req/s, p50 %.1f ms, p95 %.1f ms, p99 %.1f ms, %d errors"
+            .format(clients, duration.seconds, throughput, percentile(0.50), percentile(0.95), percentile(0.99),
+                errors.get()))
+        val syncOverlapped = sync != null && !sync.isDone
+        if (sync != null && !syncOverlapped) {
+            logger.warn("The sync run ended before the load did; use fewer -PloadSeconds or more data.")
+        }
+        // Cell for the comparison table in docs/virtual-threads.md.
+        logger.lifecycle("Sync running: %s, cell: %.1f (%.1f ms)"
+            .format(if (syncOverlapped) "yes" else "no", throughput, percentile(0.99)))
+    }
+}
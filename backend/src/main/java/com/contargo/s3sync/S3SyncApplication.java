@@ -3,14 +3,19 @@ package com.contargo.s3sync;
 /**
  * Spring Boot application entry point.
  */
+import com.contargo.s3sync.config.ReadReplicaProperties;
 import com.contargo.s3sync.config.S3Properties;
+import com.contargo.s3sync.country.CountryOverviewProperties;
+import com.contargo.s3sync.generator.GeneratorProperties;
+import com.contargo.s3sync.ingest.IngestProperties;
 import com.contargo.s3sync.sync.SyncProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 
 @SpringBootApplication
-@EnableConfigurationProperties({S3Properties.class, SyncProperties.class})
+@EnableConfigurationProperties({S3Properties.class, SyncProperties.class, GeneratorProperties.class,
+    IngestProperties.class, CountryOverviewProperties.class, ReadReplicaProperties.class})
 public class S3SyncApplication {
 
     /**
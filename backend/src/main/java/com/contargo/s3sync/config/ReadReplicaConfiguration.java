@@ -0,0 +1,74 @@
+package com.contargo.s3sync.config;
+
+/**
+ * Splits reads from writes when {@code read-replica.enabled} is set. The application data
+ * source becomes a {@link LazyConnectionDataSourceProxy} that opens the physical connection at
+ * the first statement, after the transaction has declared itself read-only: read-only
+ * transactions ({@code @Transactional(readOnly = true)}, Spring Data reads) go to the replica
+ * through {@link ReplicaAwareDataSource}, everything else, including Flyway, to the primary.
+ */
+import com.zaxxer.hikari.HikariDataSource;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "read-replica", name = "enabled", havingValue = "true")
+public class ReadReplicaConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    /**
+     * Pool of the primary, configured like the single pool without a replica.
+     */
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    /**
+     * Read-only pool of the replica; credentials default to those of the primary.
+     */
+    public HikariDataSource replicaDataSource(DataSourceProperties properties, ReadReplicaProperties replica) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+            .type(HikariDataSource.class)
+            .driverClassName(properties.determineDriverClassName())
+            .url(replica.getUrl())
+            .username(replica.getUsername() == null ? properties.determineUsername() : replica.getUsername())
+            .password(replica.getPassword() == null ? properties.determinePassword() : replica.getPassword())
+            .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    /**
+     * Measures the replay lag of the replica for routing decisions and metrics.
+     */
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+            ReadReplicaProperties replica) {
+        return new ReplicaLagMonitor(new JdbcTemplate(replicaDataSource), replica);
+    }
+
+    @Bean
+    @Primary
+    /**
+     * Application data source routing each transaction by its read-only flag.
+     */
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+            @Qualifier("replicaDataSource") DataSource replicaDataSource, ReplicaLagMonitor replicaLagMonitor) {
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primaryDataSource);
+        routing.setReadOnlyDataSource(
+            new ReplicaAwareDataSource(replicaDataSource, primaryDataSource, replicaLagMonitor));
+        return routing;
+    }
+}
@@ -0,0 +1,94 @@
+package com.contargo.s3sync.config;
+
+/**
+ * Configuration properties of the optional read replica that serves read-only transactions,
+ * and of the lag check that sends them back to the primary while the replica is behind.
+ */
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import java.time.Duration;
+import org.hibernate.validator.constraints.time.DurationMin;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@ConfigurationProperties(prefix = "read-replica")
+@Validated
+public class ReadReplicaProperties {
+
+    /** Routes read-only transactions to the replica; everything else stays on {@code spring.datasource}. */
+    private boolean enabled;
+
+    /** JDBC URL of the replica. */
+    private String url;
+
+    /** Replica user; defaults to {@code spring.datasource.username}. */
+    private String username;
+
+    /** Replica password; defaults to {@code spring.datasource.password}. */
+    private String password;
+
+    /** Largest replay lag at which the replica still serves reads. */
+    @NotNull(message = "read-replica.max-lag must not be null")
+    private Duration maxLag = Duration.ofSeconds(30);
+
+    /** How long a lag measurement is reused before the replica is asked again. */
+    @NotNull(message = "read-replica.lag-check-interval must not be null")
+    @DurationMin(millis = 100, message = "read-replica.lag-check-interval must be at least 100ms")
+    private Duration lagCheckInterval = Duration.ofSeconds(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public Duration getMaxLag() {
+        return maxLag;
+    }
+
+    public void setMaxLag(Duration maxLag) {
+        this.maxLag = maxLag;
+    }
+
+    public Duration getLagCheckInterval() {
+        return lagCheckInterval;
+    }
+
+    public void setLagCheckInterval(Duration lagCheckInterval) {
+        this.lagCheckInterval = lagCheckInterval;
+    }
+
+    /**
+     * Requires a replica URL once the replica is enabled.
+     */
+    @AssertTrue(message = "read-replica.url must be provided when read-replica.enabled is true")
+    public boolean isUrlPresentWhenEnabled() {
+        return !enabled || (url != null && !url.isBlank());
+    }
+}
@@ -0,0 +1,50 @@
+package com.contargo.s3sync.config;
+
+/**
+ * Read-only target of the routing data source: hands out replica connections while the
+ * {@link ReplicaLagMonitor} and the {@link ReplicaRouting} hints of the calling thread allow
+ * it, and primary connections otherwise or when the replica cannot be reached.
+ */
+import java.sql.Connection;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+public class ReplicaAwareDataSource extends DelegatingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaAwareDataSource.class);
+
+    private final DataSource primary;
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReplicaAwareDataSource(DataSource replica, DataSource primary, ReplicaLagMonitor lagMonitor) {
+        super(replica);
+        this.primary = primary;
+        this.lagMonitor = lagMonitor;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (ReplicaRouting.isPrimaryRequired()) {
+            return primary.getConnection();
+        }
+        if (!lagMonitor.canServe(ReplicaRouting.requiredReplay())) {
+            lagMonitor.recordFallback();
+            return primary.getConnection();
+        }
+        try {
+            return super.getConnection();
+        } catch (SQLException ex) {
+            log.warn("Read replica unavailable, using the primary: {}", ex.getMessage());
+            lagMonitor.recordFallback();
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+    }
+}
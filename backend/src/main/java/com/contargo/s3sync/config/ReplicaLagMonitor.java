@@ -0,0 +1,141 @@
+package com.contargo.s3sync.config;
+
+/**
+ * Tracks how far the read replica has replayed the primary. The replica reports the commit
+ * time of the last replayed transaction or, while it has replayed everything it received, the
+ * primary's send time of the last message from the WAL sender, so an idle primary does not
+ * count as lag but a replica that receives WAL late does ({@code pg_stat_wal_receiver} needs
+ * {@code pg_read_all_stats}). A measurement is reused for
+ * {@code read-replica.lag-check-interval}; an unreachable replica counts as unusable until the
+ * next check. Exposes {@code datasource.replica.lag} and {@code datasource.replica.fallbacks}.
+ */
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class ReplicaLagMonitor implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    static final String REPLAY_QUERY = """
+        SELECT now() AS checked_at,
+               CASE
+                   WHEN NOT pg_is_in_recovery() THEN now()
+                   WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn()
+                       THEN (SELECT last_msg_send_time FROM pg_stat_wal_receiver)
+                   ELSE pg_last_xact_replay_timestamp()
+               END AS replayed_up_to
+        """;
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final ReadReplicaProperties properties;
+    private final LongSupplier nanoTime;
+    private final AtomicLong fallbacks = new AtomicLong();
+    /** Serializes measurements; a monitor would pin a virtual thread's carrier during the query. */
+    private final ReentrantLock measureLock = new ReentrantLock();
+
+    private volatile Replay replay;
+    private volatile long checkedAtNanos;
+
+    public ReplicaLagMonitor(JdbcTemplate replicaJdbcTemplate, ReadReplicaProperties properties) {
+        this(replicaJdbcTemplate, properties, System::nanoTime);
+    }
+
+    ReplicaLagMonitor(JdbcTemplate replicaJdbcTemplate, ReadReplicaProperties properties, LongSupplier nanoTime) {
+        this.replicaJdbcTemplate = replicaJdbcTemplate;
+        this.properties = properties;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Returns whether the replica may serve a read: its lag is within {@code read-replica.max-lag}
+     * and, if a watermark is given, it has replayed at least up to it.
+     */
+    public boolean canServe(OffsetDateTime watermark) {
+        Replay current = current();
+        if (current == null || current.replayedUpTo() == null) {
+            return false;
+        }
+        if (current.lag().compareTo(properties.getMaxLag()) > 0) {
+            return false;
+        }
+        return watermark == null || !current.replayedUpTo().isBefore(watermark);
+    }
+
+    /**
+     * Counts a read-only connection that the primary served because the replica could not.
+     */
+    void recordFallback() {
+        fallbacks.incrementAndGet();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("datasource.replica.lag", this, ReplicaLagMonitor::lagSeconds)
+            .description("Replay lag of the read replica at the last check")
+            .baseUnit("seconds")
+            .register(registry);
+        FunctionCounter.builder("datasource.replica.fallbacks", fallbacks, AtomicLong::get)
+            .description("Read-only connections served by the primary because the replica lagged")
+            .register(registry);
+    }
+
+    private double lagSeconds() {
+        Replay current = replay;
+        return current == null || current.replayedUpTo() == null ? Double.NaN : current.lag().toMillis() / 1000.0;
+    }
+
+    private Replay current() {
+        if (replay != null && !isStale()) {
+            return replay;
+        }
+        measureLock.lock();
+        try {
+            if (replay == null || isStale()) {
+                replay = measure();
+                checkedAtNanos = nanoTime.getAsLong();
+            }
+            return replay;
+        } finally {
+            measureLock.unlock();
+        }
+    }
+
+    private boolean isStale() {
+        return nanoTime.getAsLong() - checkedAtNanos >= properties.getLagCheckInterval().toNanos();
+    }
+
+    private Replay measure() {
+        try {
+            Replay measured = replicaJdbcTemplate.queryForObject(REPLAY_QUERY, (rs, rowNum) -> new Replay(
+                rs.getObject("checked_at", OffsetDateTime.class),
+                rs.getObject("replayed_up_to", OffsetDateTime.class)));
+            if (measured != null && measured.replayedUpTo() != null
+                && measured.lag().compareTo(properties.getMaxLag()) > 0) {
+                log.warn("Read replica lags {} behind the primary (max {}); reads fall back to the primary",
+                    measured.lag(), properties.getMaxLag());
+            }
+            return measured;
+        } catch (DataAccessException ex) {
+            log.warn("Could not check the read replica, reads fall back to the primary: {}", ex.getMessage());
+            return null;
+        }
+    }
+
+    record Replay(OffsetDateTime checkedAt, OffsetDateTime replayedUpTo) {
+
+        Duration lag() {
+            return Duration.between(replayedUpTo, checkedAt);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.contargo.s3sync.config;
+
+/**
+ * Per-thread routing hints for the read replica. Read-only transactions go to the replica by
+ * default; code that needs more than that wraps its reads: {@link #onPrimary} pins them to the
+ * primary, and {@link #onReplicaCaughtUpTo} only lets the replica serve them once it has
+ * replayed past a watermark. The hints only matter while the connection of a transaction is
+ * opened, which happens lazily on the calling thread. Without a replica they have no effect.
+ */
+import java.time.OffsetDateTime;
+import java.util.function.Supplier;
+
+public final class ReplicaRouting {
+
+    private static final ThreadLocal<Route> ROUTE = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    /**
+     * Runs the work with every connection taken from the primary, e.g. reads whose result is
+     * written back right away.
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        return with(new Route(true, null), work);
+    }
+
+    /**
+     * Runs the work on the replica only if it has replayed the primary at least up to the
+     * given watermark; otherwise, or if the watermark is {@code null} and the replica lags too
+     * far, the primary serves it.
+     */
+    public static <T> T onReplicaCaughtUpTo(OffsetDateTime watermark, Supplier<T> work) {
+        return with(new Route(false, watermark), work);
+    }
+
+    static boolean isPrimaryRequired() {
+        Route route = ROUTE.get();
+        return route != null && route.primary();
+    }
+
+    static OffsetDateTime requiredReplay() {
+        Route route = ROUTE.get();
+        return route == null ? null : route.requiredReplay();
+    }
+
+    private static <T> T with(Route route, Supplier<T> work) {
+        Route previous = ROUTE.get();
+        ROUTE.set(route);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                ROUTE.remove();
+            } else {
+                ROUTE.set(previous);
+            }
+        }
+    }
+
+    private record Route(boolean primary, OffsetDateTime requiredReplay) {
+    }
+}
@@ -1,8 +1,12 @@
 package com.contargo.s3sync.config;
 
 /**
- * Configures the AWS SDK S3 client used by the application. Supports optional
- * endpoint override and path-style access for local stacks.
+ * Configures the AWS SDK S3 clients used by the application. Supports optional
+ * endpoint override and path-style access for local stacks. The synchronous
+ * client serves the dashboard; the asynchronous client (Netty or CRT based, with
+ * a tunable connection pool) is used by the export engine for uploads. The
+ * {@link S3TransferManager} runs on a second asynchronous client of the same kind with
+ * multipart transfers enabled above {@code aws.s3.transfer.multipart-threshold}.
  */
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,10 +14,20 @@ import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClientBuilder;
 import software.amazon.awssdk.services.s3.S3ClientBuilder;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.S3CrtAsyncClientBuilder;
+import software.amazon.awssdk.services.s3.crt.S3CrtConnectionHealthConfiguration;
+import software.amazon.awssdk.services.s3.crt.S3CrtHttpConfiguration;
+import software.amazon.awssdk.services.s3.crt.S3CrtRetryConfiguration;
+import software.amazon.awssdk.services.s3.multipart.MultipartConfiguration;
+import software.amazon.awssdk.transfer.s3.S3TransferManager;
 
 @Configuration
 public class S3ClientConfiguration {
@@ -38,7 +52,7 @@ public class S3ClientConfiguration {
                     .build());
         }
 
-        if (properties.getEndpoint() != null && !properties.getEndpoint().isBlank()) {
+        if (hasEndpointOverride()) {
             builder = builder.endpointOverride(java.net.URI.create(properties.getEndpoint()))
                     .credentialsProvider(localStackCredentials());
         } else {
@@ -48,10 +62,127 @@ public class S3ClientConfiguration {
         return builder.build();
     }
 
+    @Bean
+    /**
+     * Builds the asynchronous {@link S3AsyncClient} used for non-blocking export uploads,
+     * either CRT based or backed by a tuned Netty connection pool.
+     */
+    public S3AsyncClient s3AsyncClient() {
+        return properties.getAsync().isCrtEnabled() ? crtClientBuilder().build() : nettyClientBuilder().build();
+    }
+
+    @Bean(autowireCandidate = false)
+    /**
+     * Builds the multipart-enabled client behind the {@link S3TransferManager}. Parts of one
+     * object are uploaded in parallel; the CRT client also downloads byte ranges in parallel.
+     */
+    public S3AsyncClient s3TransferClient() {
+        S3Properties.Transfer transfer = properties.getTransfer();
+        long threshold = transfer.getMultipartThreshold().toBytes();
+        long partSize = transfer.getPartSize().toBytes();
+        if (properties.getAsync().isCrtEnabled()) {
+            return crtClientBuilder()
+                    .thresholdInBytes(threshold)
+                    .minimumPartSizeInBytes(partSize)
+                    .build();
+        }
+        return nettyClientBuilder()
+                .multipartEnabled(true)
+                .multipartConfiguration(MultipartConfiguration.builder()
+                        .thresholdInBytes(threshold)
+                        .minimumPartSizeInBytes(partSize)
+                        .build())
+                .build();
+    }
+
+    @Bean
+    /**
+     * Builds the {@link S3TransferManager} for large export uploads and directory downloads.
+     */
+    public S3TransferManager s3TransferManager() {
+        return S3TransferManager.builder()
+                .s3Client(s3TransferClient())
+                .build();
+    }
+
+    private S3AsyncClientBuilder nettyClientBuilder() {
+        S3Properties.Async async = properties.getAsync();
+        S3AsyncClientBuilder builder = createAsyncBuilder()
+                .region(Region.of(properties.getRegion()))
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(async.getMaxConcurrency())
+                        .connectionAcquisitionTimeout(async.getConnectionAcquisitionTimeout())
+                        .connectionTimeout(async.getConnectionTimeout())
+                        .readTimeout(async.getReadTimeout())
+                        .writeTimeout(async.getWriteTimeout())
+                        .tcpKeepAlive(async.isTcpKeepAlive()))
+                // Retries are handled by S3StorageService so that throttling feeds its concurrency limiter.
+                .overrideConfiguration(override -> override.retryPolicy(RetryPolicy.none()));
+
+        if (properties.isForcePathStyle()) {
+            builder = builder.serviceConfiguration(S3Configuration.builder()
+                    .pathStyleAccessEnabled(true)
+                    .build());
+        }
+
+        if (hasEndpointOverride()) {
+            builder = builder.endpointOverride(java.net.URI.create(properties.getEndpoint()))
+                    .credentialsProvider(localStackCredentials());
+        } else {
+            builder = builder.credentialsProvider(DefaultCredentialsProvider.create());
+        }
+
+        return builder;
+    }
+
+    /**
+     * The CRT client manages its own connection pool; read/write timeouts are mapped to
+     * its connection health check (a connection below 1 B/s for the read timeout is dropped).
+     */
+    private S3CrtAsyncClientBuilder crtClientBuilder() {
+        S3Properties.Async async = properties.getAsync();
+        S3CrtAsyncClientBuilder builder = createCrtBuilder()
+                .region(Region.of(properties.getRegion()))
+                .maxConcurrency(async.getMaxConcurrency())
+                .targetThroughputInGbps(async.getTargetThroughputGbps())
+                .forcePathStyle(properties.isForcePathStyle())
+                .retryConfiguration(S3CrtRetryConfiguration.builder()
+                        .numRetries(0)
+                        .build())
+                .httpConfiguration(S3CrtHttpConfiguration.builder()
+                        .connectionTimeout(async.getConnectionTimeout())
+                        .connectionHealthConfiguration(S3CrtConnectionHealthConfiguration.builder()
+                                .minimumThroughputInBps(1L)
+                                .minimumThroughputTimeout(async.getReadTimeout())
+                                .build())
+                        .build());
+
+        if (hasEndpointOverride()) {
+            builder = builder.endpointOverride(java.net.URI.create(properties.getEndpoint()))
+                    .credentialsProvider(localStackCredentials());
+        } else {
+            builder = builder.credentialsProvider(DefaultCredentialsProvider.create());
+        }
+
+        return builder;
+    }
+
     S3ClientBuilder createBuilder() {
         return S3Client.builder();
     }
 
+    S3AsyncClientBuilder createAsyncBuilder() {
+        return S3AsyncClient.builder();
+    }
+
+    S3CrtAsyncClientBuilder createCrtBuilder() {
+        return S3AsyncClient.crtBuilder();
+    }
+
+    private boolean hasEndpointOverride() {
+        return properties.getEndpoint() != null && !properties.getEndpoint().isBlank();
+    }
+
     /**
      * Simple static credentials for local test environments (e.g. LocalStack).
      */
@@ -0,0 +1,58 @@
+package com.contargo.s3sync.config;
+
+/**
+ * Opens a handful of connections on the asynchronous S3 client once the application
+ * is ready, so the first sync run does not pay DNS and TLS setup on every upload.
+ */
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.HeadBucketRequest;
+
+@Component
+public class S3ClientWarmUp {
+
+    private static final Logger log = LoggerFactory.getLogger(S3ClientWarmUp.class);
+
+    private final S3AsyncClient s3AsyncClient;
+    private final S3Properties properties;
+
+    public S3ClientWarmUp(S3AsyncClient s3AsyncClient, S3Properties properties) {
+        this.s3AsyncClient = s3AsyncClient;
+        this.properties = properties;
+    }
+
+    /**
+     * Fires concurrent HEAD bucket requests without blocking startup. Failures (e.g. the
+     * bucket does not exist yet) are logged only; the connections are established either way.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        int connections = properties.getAsync().getWarmUpConnections();
+        if (connections == 0) {
+            return;
+        }
+
+        HeadBucketRequest request = HeadBucketRequest.builder()
+                .bucket(properties.getBucketName())
+                .build();
+        CompletableFuture<?>[] probes = IntStream.range(0, connections)
+                .mapToObj(i -> s3AsyncClient.headBucket(request)
+                        .handle((response, ex) -> {
+                            if (ex != null) {
+                                log.debug("S3 warm-up request failed: {}", ex.getMessage());
+                            }
+                            return null;
+                        }))
+                .toArray(CompletableFuture[]::new);
+
+        CompletableFuture.allOf(probes)
+                .whenComplete((ignored, ex) -> log.info("Warmed up {} S3 connection(s) to bucket {}",
+                        connections, properties.getBucketName()));
+    }
+}
@@ -1,11 +1,21 @@
 package com.contargo.s3sync.config;
 
 /**
- * Configuration properties for S3 connectivity and addressing.
+ * Configuration properties for S3 connectivity and addressing, including the
+ * connection pool of the asynchronous client used by the export engine and
+ * its retry and throttling behaviour.
  */
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 import org.springframework.validation.annotation.Validated;
 
 @ConfigurationProperties(prefix = "aws.s3")
@@ -25,6 +35,15 @@ public class S3Properties {
 
     private boolean forcePathStyle;
 
+    @Valid
+    private final Async async = new Async();
+
+    @Valid
+    private final Retry retry = new Retry();
+
+    @Valid
+    private final Transfer transfer = new Transfer();
+
     public String getBucketName() {
         return bucketName;
     }
@@ -60,4 +79,260 @@ public class S3Properties {
     public void setForcePathStyle(boolean forcePathStyle) {
         this.forcePathStyle = forcePathStyle;
     }
+
+    public Async getAsync() {
+        return async;
+    }
+
+    public Retry getRetry() {
+        return retry;
+    }
+
+    public Transfer getTransfer() {
+        return transfer;
+    }
+
+    /**
+     * Tuning of the asynchronous S3 client ({@code aws.s3.async.*}).
+     */
+    public static class Async {
+
+        /** Use the AWS CRT based client instead of the Netty based one. */
+        private boolean crtEnabled;
+
+        @Min(value = 1, message = "aws.s3.async.max-concurrency must be at least 1")
+        private int maxConcurrency = 50;
+
+        @NotNull(message = "aws.s3.async.connection-acquisition-timeout must not be null")
+        private Duration connectionAcquisitionTimeout = Duration.ofSeconds(10);
+
+        @NotNull(message = "aws.s3.async.connection-timeout must not be null")
+        private Duration connectionTimeout = Duration.ofSeconds(2);
+
+        @NotNull(message = "aws.s3.async.read-timeout must not be null")
+        private Duration readTimeout = Duration.ofSeconds(30);
+
+        @NotNull(message = "aws.s3.async.write-timeout must not be null")
+        private Duration writeTimeout = Duration.ofSeconds(30);
+
+        private boolean tcpKeepAlive = true;
+
+        @DecimalMin(value = "0.1", message = "aws.s3.async.target-throughput-gbps must be at least 0.1")
+        private double targetThroughputGbps = 5.0;
+
+        @Min(value = 0, message = "aws.s3.async.warm-up-connections must not be negative")
+        private int warmUpConnections = 4;
+
+        public boolean isCrtEnabled() {
+            return crtEnabled;
+        }
+
+        public void setCrtEnabled(boolean crtEnabled) {
+            this.crtEnabled = crtEnabled;
+        }
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public Duration getConnectionAcquisitionTimeout() {
+            return connectionAcquisitionTimeout;
+        }
+
+        public void setConnectionAcquisitionTimeout(Duration connectionAcquisitionTimeout) {
+            this.connectionAcquisitionTimeout = connectionAcquisitionTimeout;
+        }
+
+        public Duration getConnectionTimeout() {
+            return connectionTimeout;
+        }
+
+        public void setConnectionTimeout(Duration connectionTimeout) {
+            this.connectionTimeout = connectionTimeout;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+
+        public Duration getWriteTimeout() {
+            return writeTimeout;
+        }
+
+        public void setWriteTimeout(Duration writeTimeout) {
+            this.writeTimeout = writeTimeout;
+        }
+
+        public boolean isTcpKeepAlive() {
+            return tcpKeepAlive;
+        }
+
+        public void setTcpKeepAlive(boolean tcpKeepAlive) {
+            this.tcpKeepAlive = tcpKeepAlive;
+        }
+
+        public double getTargetThroughputGbps() {
+            return targetThroughputGbps;
+        }
+
+        public void setTargetThroughputGbps(double targetThroughputGbps) {
+            this.targetThroughputGbps = targetThroughputGbps;
+        }
+
+        public int getWarmUpConnections() {
+            return warmUpConnections;
+        }
+
+        public void setWarmUpConnections(int warmUpConnections) {
+            this.warmUpConnections = warmUpConnections;
+        }
+    }
+
+    /**
+     * Retry and adaptive concurrency settings for uploads ({@code aws.s3.retry.*}).
+     * The concurrency limit starts at {@code aws.s3.async.max-concurrency}, grows by one
+     * per window of successful uploads and is multiplied by {@code backoff-ratio} on throttling.
+     */
+    public static class Retry {
+
+        @Min(value = 1, message = "aws.s3.retry.max-attempts must be at least 1")
+        private int maxAttempts = 3;
+
+        @NotNull(message = "aws.s3.retry.base-delay must not be null")
+        private Duration baseDelay = Duration.ofMillis(500);
+
+        @NotNull(message = "aws.s3.retry.max-delay must not be null")
+        private Duration maxDelay = Duration.ofSeconds(20);
+
+        @Min(value = 1, message = "aws.s3.retry.min-concurrency must be at least 1")
+        private int minConcurrency = 1;
+
+        @DecimalMin(value = "0.1", message = "aws.s3.retry.backoff-ratio must be at least 0.1")
+        @DecimalMax(value = "0.9", message = "aws.s3.retry.backoff-ratio must be at most 0.9")
+        private double backoffRatio = 0.5;
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getBaseDelay() {
+            return baseDelay;
+        }
+
+        public void setBaseDelay(Duration baseDelay) {
+            this.baseDelay = baseDelay;
+        }
+
+        public Duration getMaxDelay() {
+            return maxDelay;
+        }
+
+        public void setMaxDelay(Duration maxDelay) {
+            this.maxDelay = maxDelay;
+        }
+
+        public int getMinConcurrency() {
+            return minConcurrency;
+        }
+
+        public void setMinConcurrency(int minConcurrency) {
+            this.minConcurrency = minConcurrency;
+        }
+
+        public double getBackoffRatio() {
+            return backoffRatio;
+        }
+
+        public void setBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+        }
+    }
+
+    /**
+     * S3 Transfer Manager for large export objects and bulk downloads ({@code aws.s3.transfer.*}).
+     */
+    public static class Transfer {
+
+        private static final long MIN_PART_BYTES = DataSize.ofMegabytes(5).toBytes();
+
+        /** Upload exports of at least {@code multipart-threshold} through the Transfer Manager. */
+        private boolean enabled = true;
+
+        /** Object size from which uploads are split into parts sent in parallel. */
+        @NotNull(message = "aws.s3.transfer.multipart-threshold must not be null")
+        private DataSize multipartThreshold = DataSize.ofMegabytes(16);
+
+        /** Size of one upload part, and of one byte range of a parallel download on the CRT client. */
+        @NotNull(message = "aws.s3.transfer.part-size must not be null")
+        private DataSize partSize = DataSize.ofMegabytes(8);
+
+        /** Most objects one ZIP archive download of a prefix may contain. */
+        @Min(value = 1, message = "aws.s3.transfer.archive-max-objects must be at least 1")
+        private int archiveMaxObjects = 10_000;
+
+        /** Most bytes the objects of one ZIP archive download may add up to before compression. */
+        @NotNull(message = "aws.s3.transfer.archive-max-size must not be null")
+        private DataSize archiveMaxSize = DataSize.ofGigabytes(2);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public DataSize getMultipartThreshold() {
+            return multipartThreshold;
+        }
+
+        public void setMultipartThreshold(DataSize multipartThreshold) {
+            this.multipartThreshold = multipartThreshold;
+        }
+
+        public DataSize getPartSize() {
+            return partSize;
+        }
+
+        public void setPartSize(DataSize partSize) {
+            this.partSize = partSize;
+        }
+
+        public int getArchiveMaxObjects() {
+            return archiveMaxObjects;
+        }
+
+        public void setArchiveMaxObjects(int archiveMaxObjects) {
+            this.archiveMaxObjects = archiveMaxObjects;
+        }
+
+        public DataSize getArchiveMaxSize() {
+            return archiveMaxSize;
+        }
+
+        public void setArchiveMaxSize(DataSize archiveMaxSize) {
+            this.archiveMaxSize = archiveMaxSize;
+        }
+
+        /**
+         * S3 rejects parts below 5MB except for the last one of an upload.
+         */
+        @AssertTrue(message = "aws.s3.transfer.part-size must be at least 5MB and not exceed the multipart threshold")
+        public boolean isPartSizeValid() {
+            return partSize == null || multipartThreshold == null
+                    || (partSize.toBytes() >= MIN_PART_BYTES && partSize.compareTo(multipartThreshold) <= 0);
+        }
+    }
 }
@@ -3,9 +3,11 @@ package com.contargo.s3sync.config;
 /**
  * Enables Spring scheduling and provides the task scheduler used by sync jobs.
  */
+import com.contargo.s3sync.sync.SyncProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.scheduling.TaskScheduler;
 
@@ -15,9 +17,18 @@ public class SchedulingConfiguration {
 
     @Bean
     /**
-     * Dedicated single-threaded scheduler for running sync tasks sequentially.
+     * Scheduler for sync tasks. By default a dedicated single platform thread runs them
+     * sequentially; with {@code sync.virtual-threads} every execution gets its own virtual
+     * thread, so a blocked run does not tie up a carrier. Overlapping sync runs are prevented
+     * by {@code SyncScheduler} in both modes.
      */
-    public TaskScheduler syncTaskScheduler() {
+    public TaskScheduler syncTaskScheduler(SyncProperties syncProperties) {
+        if (syncProperties.isVirtualThreads()) {
+            SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler();
+            scheduler.setVirtualThreads(true);
+            scheduler.setThreadNamePrefix("sync-scheduler-");
+            return scheduler;
+        }
         ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
         scheduler.setPoolSize(1);
         scheduler.setThreadNamePrefix("sync-scheduler-");
@@ -26,4 +37,3 @@ public class SchedulingConfiguration {
         return scheduler;
     }
 }
-
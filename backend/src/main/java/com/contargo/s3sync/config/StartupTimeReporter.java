@@ -0,0 +1,39 @@
+package com.contargo.s3sync.config;
+
+/**
+ * Logs the time from JVM start until the application is ready to serve requests. The
+ * startup benchmark ({@code ./gradlew startupBenchmark}) sets {@code startup.exit-on-ready}
+ * so every measured launch shuts down right after reporting.
+ */
+import java.lang.management.ManagementFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+@Component
+public class StartupTimeReporter {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTimeReporter.class);
+
+    /**
+     * Reports JVM uptime at readiness, which includes class loading before {@code main}. Runs
+     * ahead of the other ready listeners (S3 warm-up, retention) so their work is not counted.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void report(ApplicationReadyEvent event) {
+        long uptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        log.info("Time to ready: {} ms since JVM start ({} ms in SpringApplication.run)",
+                uptimeMillis, event.getTimeTaken().toMillis());
+
+        if (event.getApplicationContext().getEnvironment()
+                .getProperty("startup.exit-on-ready", Boolean.class, false)) {
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.contargo.s3sync.config;
+
+/**
+ * Pinning diagnostics for virtual-thread mode. Streams the JFR {@code jdk.VirtualThreadPinned}
+ * event and logs every virtual thread that held on to its carrier for longer than the
+ * threshold, typically because it blocked on JDBC or SDK I/O inside a {@code synchronized}
+ * block, together with the frames that caused it.
+ */
+import com.contargo.s3sync.sync.SyncProperties;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+@Component
+public class VirtualThreadPinningMonitor implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final Duration THRESHOLD = Duration.ofMillis(20);
+    private static final int MAX_FRAMES = 8;
+
+    private final SyncProperties syncProperties;
+    private final AtomicLong pinnedCount = new AtomicLong();
+    private RecordingStream recording;
+
+    public VirtualThreadPinningMonitor(SyncProperties syncProperties) {
+        this.syncProperties = syncProperties;
+    }
+
+    @PostConstruct
+    /**
+     * Starts the event stream when the sync engine runs on virtual threads.
+     */
+    public void start() {
+        if (!syncProperties.isVirtualThreads()) {
+            return;
+        }
+        recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(THRESHOLD).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::report);
+        recording.startAsync();
+        log.info("Virtual thread pinning diagnostics enabled (threshold {} ms)", THRESHOLD.toMillis());
+    }
+
+    /**
+     * Number of pinning events reported since startup.
+     */
+    public long getPinnedCount() {
+        return pinnedCount.get();
+    }
+
+    private void report(RecordedEvent event) {
+        pinnedCount.incrementAndGet();
+        String thread = event.getThread() == null ? "unknown" : event.getThread().getJavaName();
+        String frames = event.getStackTrace() == null ? "no stack trace" : event.getStackTrace().getFrames().stream()
+            .limit(MAX_FRAMES)
+            .map(VirtualThreadPinningMonitor::describe)
+            .collect(Collectors.joining("\n\tat ", "\n\tat ", ""));
+        log.warn("Virtual thread {} pinned its carrier for {} ms{}", thread, event.getDuration().toMillis(), frames);
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return "%s.%s:%d".formatted(frame.getMethod().getType().getName(), frame.getMethod().getName(),
+            frame.getLineNumber());
+    }
+
+    @Override
+    public void destroy() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+}
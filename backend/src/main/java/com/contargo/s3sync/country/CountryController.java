@@ -0,0 +1,63 @@
+package com.contargo.s3sync.country;
+
+/**
+ * Endpoints for the per-country aggregates of the Data View and their drill-downs.
+ */
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/countries")
+public class CountryController {
+
+    private static final Logger log = LoggerFactory.getLogger(CountryController.class);
+
+    private final CountryOverviewService countryOverviewService;
+
+    public CountryController(CountryOverviewService countryOverviewService) {
+        this.countryOverviewService = countryOverviewService;
+    }
+
+    @GetMapping
+    /**
+     * Returns customers, orders and newest changes per country.
+     */
+    public List<CountrySummary> listCountries() {
+        log.info("Received request to list country aggregates");
+        return countryOverviewService.summaries();
+    }
+
+    @GetMapping("/{country}/customers")
+    /**
+     * Returns one page of the customers of a country.
+     */
+    public PageResult<CountryCustomer> listCustomers(@PathVariable String country,
+            @RequestParam(defaultValue = "0") int page, @RequestParam(required = false) Integer size) {
+        try {
+            return countryOverviewService.customers(country, page, size);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage(), ex);
+        }
+    }
+
+    @GetMapping("/{country}/customers/{customerId}/orders")
+    /**
+     * Returns one page of the orders of a customer of a country.
+     */
+    public PageResult<CustomerOrder> listOrders(@PathVariable String country, @PathVariable String customerId,
+            @RequestParam(defaultValue = "0") int page, @RequestParam(required = false) Integer size) {
+        try {
+            return countryOverviewService.orders(country, customerId, page, size);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage(), ex);
+        }
+    }
+}
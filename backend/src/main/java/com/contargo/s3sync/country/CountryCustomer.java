@@ -0,0 +1,17 @@
+package com.contargo.s3sync.country;
+
+/**
+ * Customer row of a country drill-down with the number of orders and the newest order change.
+ */
+import java.time.OffsetDateTime;
+
+public record CountryCustomer(
+    String id,
+    String firstName,
+    String lastName,
+    String companyName,
+    String city,
+    long orders,
+    OffsetDateTime lastOrderChange
+) {
+}
@@ -0,0 +1,62 @@
+package com.contargo.s3sync.country;
+
+/**
+ * Configuration properties of the country overview endpoints.
+ */
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import java.time.Duration;
+import org.hibernate.validator.constraints.time.DurationMin;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@ConfigurationProperties(prefix = "countries")
+@Validated
+public class CountryOverviewProperties {
+
+    /** Maximum age of the cached country aggregates, as a backstop for deletes made outside the application. */
+    @NotNull(message = "countries.cache-ttl must not be null")
+    @DurationMin(seconds = 1, message = "countries.cache-ttl must be at least 1 second")
+    private Duration cacheTtl = Duration.ofMinutes(10);
+
+    /** Page size of a drill-down when the request does not specify one. */
+    @Min(value = 1, message = "countries.default-page-size must be at least 1")
+    private int defaultPageSize = 50;
+
+    /** Largest page size a drill-down request may ask for. */
+    @Min(value = 1, message = "countries.max-page-size must be at least 1")
+    private int maxPageSize = 200;
+
+    public Duration getCacheTtl() {
+        return cacheTtl;
+    }
+
+    public void setCacheTtl(Duration cacheTtl) {
+        this.cacheTtl = cacheTtl;
+    }
+
+    public int getDefaultPageSize() {
+        return defaultPageSize;
+    }
+
+    public void setDefaultPageSize(int defaultPageSize) {
+        this.defaultPageSize = defaultPageSize;
+    }
+
+    public int getMaxPageSize() {
+        return maxPageSize;
+    }
+
+    public void setMaxPageSize(int maxPageSize) {
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Rejects a default page size that requests could never use.
+     */
+    @AssertTrue(message = "countries.default-page-size must not exceed countries.max-page-size")
+    public boolean isDefaultPageSizeValid() {
+        return defaultPageSize <= maxPageSize;
+    }
+}
@@ -0,0 +1,123 @@
+package com.contargo.s3sync.country;
+
+/**
+ * Aggregating and paging queries behind the country overview. Counts are computed in the
+ * database with {@code GROUP BY land}, so only one row per country leaves PostgreSQL.
+ */
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Objects;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class CountryOverviewRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CountryOverviewRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Returns customers, orders and newest changes of every country. Orders are grouped per
+     * customer first, so the join to {@code kunde} does not multiply customer rows.
+     */
+    public List<CountrySummary> findSummaries() {
+        return jdbcTemplate.query("""
+            SELECT k.land,
+                   count(*) AS customers,
+                   coalesce(sum(o.orders), 0) AS orders,
+                   max(k.updated_at) AS last_customer_change,
+                   max(o.last_change) AS last_order_change
+            FROM kunde k
+            LEFT JOIN (
+                SELECT kundeid, count(*) AS orders, max(lastchange) AS last_change
+                FROM auftraege
+                GROUP BY kundeid
+            ) o ON o.kundeid = k.kundeid
+            GROUP BY k.land
+            ORDER BY k.land
+            """, (rs, rowNum) -> new CountrySummary(
+                rs.getString("land"),
+                rs.getLong("customers"),
+                rs.getLong("orders"),
+                timestamp(rs, "last_customer_change"),
+                timestamp(rs, "last_order_change")));
+    }
+
+    /**
+     * Returns the newest change of both source tables, answered from the {@code updated_at} and
+     * {@code lastchange} indexes without a scan. Deletes do not move it.
+     */
+    public String findChangeFingerprint() {
+        return jdbcTemplate.queryForObject("""
+            SELECT (SELECT max(updated_at) FROM kunde) AS customers,
+                   (SELECT max(lastchange) FROM auftraege) AS orders
+            """, (rs, rowNum) -> timestamp(rs, "customers") + "|" + timestamp(rs, "orders"));
+    }
+
+    /**
+     * Returns one page of the customers of a country ordered by name, each with its order
+     * count and newest order change.
+     */
+    public List<CountryCustomer> findCustomers(String country, int limit, long offset) {
+        return jdbcTemplate.query("""
+            SELECT k.kundeid, k.vorname, k.nachname, k.firmenname, k.ort, o.orders, o.last_change
+            FROM kunde k
+            CROSS JOIN LATERAL (
+                SELECT count(*) AS orders, max(a.lastchange) AS last_change
+                FROM auftraege a
+                WHERE a.kundeid = k.kundeid
+            ) o
+            WHERE k.land = ?
+            ORDER BY k.nachname, k.vorname, k.kundeid
+            LIMIT ? OFFSET ?
+            """, (rs, rowNum) -> new CountryCustomer(
+                rs.getString("kundeid"),
+                rs.getString("vorname"),
+                rs.getString("nachname"),
+                rs.getString("firmenname"),
+                rs.getString("ort"),
+                rs.getLong("orders"),
+                timestamp(rs, "last_change")), country, limit, offset);
+    }
+
+    /**
+     * Returns the number of orders of a customer, or zero when the customer does not belong to
+     * the country.
+     */
+    public long countOrders(String country, String customerId) {
+        Long count = jdbcTemplate.queryForObject("""
+            SELECT count(*)
+            FROM auftraege a
+            JOIN kunde k ON k.kundeid = a.kundeid
+            WHERE k.land = ? AND a.kundeid = ?
+            """, Long.class, country, customerId);
+        return Objects.requireNonNullElse(count, 0L);
+    }
+
+    /**
+     * Returns one page of the orders of a customer of the country, newest change first.
+     */
+    public List<CustomerOrder> findOrders(String country, String customerId, int limit, long offset) {
+        return jdbcTemplate.query("""
+            SELECT a.auftragid, a.artikelnummer, a.created, a.lastchange
+            FROM auftraege a
+            JOIN kunde k ON k.kundeid = a.kundeid
+            WHERE k.land = ? AND a.kundeid = ?
+            ORDER BY a.lastchange DESC, a.auftragid
+            LIMIT ? OFFSET ?
+            """, (rs, rowNum) -> new CustomerOrder(
+                rs.getString("auftragid"),
+                rs.getString("artikelnummer"),
+                timestamp(rs, "created"),
+                timestamp(rs, "lastchange")), country, customerId, limit, offset);
+    }
+
+    private static OffsetDateTime timestamp(ResultSet rs, String column) throws SQLException {
+        return rs.getObject(column, OffsetDateTime.class);
+    }
+}
@@ -0,0 +1,144 @@
+package com.contargo.s3sync.country;
+
+/**
+ * Serves the per-country aggregates of the Data View from a cache and pages the drill-downs.
+ * The cache is dropped when the application changes the source tables
+ * ({@link SourceDataChangedEvent}); writes from outside are noticed through the change
+ * fingerprint checked on each read, and {@code countries.cache-ttl} bounds the age of the
+ * aggregates for changes neither catches, such as deletes.
+ */
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Service
+public class CountryOverviewService {
+
+    private static final Logger log = LoggerFactory.getLogger(CountryOverviewService.class);
+
+    private final CountryOverviewRepository countryOverviewRepository;
+    private final CountryOverviewProperties properties;
+    private final LongSupplier nanoTime;
+
+    /** Lets one request recompute the aggregates while concurrent ones wait for its result. */
+    private final ReentrantLock recomputeLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public CountryOverviewService(CountryOverviewRepository countryOverviewRepository,
+            CountryOverviewProperties properties) {
+        this(countryOverviewRepository, properties, System::nanoTime);
+    }
+
+    CountryOverviewService(CountryOverviewRepository countryOverviewRepository, CountryOverviewProperties properties,
+            LongSupplier nanoTime) {
+        this.countryOverviewRepository = countryOverviewRepository;
+        this.properties = properties;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Returns customers, orders and newest changes per country, recomputed only when the
+     * source tables changed or the cached aggregates expired.
+     */
+    @Transactional(readOnly = true)
+    public List<CountrySummary> summaries() {
+        String fingerprint = countryOverviewRepository.findChangeFingerprint();
+        Snapshot current = snapshot;
+        if (current != null && current.isValid(fingerprint, nanoTime.getAsLong(), properties)) {
+            return current.summaries();
+        }
+        return recompute(fingerprint);
+    }
+
+    /**
+     * Returns one page of the customers of a country. The total comes from the cached
+     * aggregates, so paging does not count the country again.
+     *
+     * @throws IllegalArgumentException if page or size are out of range
+     */
+    @Transactional(readOnly = true)
+    public PageResult<CountryCustomer> customers(String country, int page, Integer size) {
+        int pageSize = pageSize(page, size);
+        long total = summaries().stream()
+                .filter(summary -> summary.country().equals(country))
+                .mapToLong(CountrySummary::customers)
+                .findFirst()
+                .orElse(0);
+        List<CountryCustomer> content = total == 0
+                ? List.of()
+                : countryOverviewRepository.findCustomers(country, pageSize, (long) page * pageSize);
+        return PageResult.of(content, page, pageSize, total);
+    }
+
+    /**
+     * Returns one page of the orders of a customer of a country, newest change first.
+     *
+     * @throws IllegalArgumentException if page or size are out of range
+     */
+    @Transactional(readOnly = true)
+    public PageResult<CustomerOrder> orders(String country, String customerId, int page, Integer size) {
+        int pageSize = pageSize(page, size);
+        long total = countryOverviewRepository.countOrders(country, customerId);
+        List<CustomerOrder> content = total == 0
+                ? List.of()
+                : countryOverviewRepository.findOrders(country, customerId, pageSize, (long) page * pageSize);
+        return PageResult.of(content, page, pageSize, total);
+    }
+
+    /**
+     * Drops the cached aggregates once the change is committed, or at once outside a transaction.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSourceDataChanged(SourceDataChangedEvent event) {
+        log.debug("Evicting country aggregates after {}", event.source());
+        snapshot = null;
+    }
+
+    /**
+     * Runs the aggregation under a {@link ReentrantLock}: a virtual thread waiting on the query
+     * inside a monitor would pin its carrier.
+     */
+    private List<CountrySummary> recompute(String fingerprint) {
+        recomputeLock.lock();
+        try {
+            Snapshot current = snapshot;
+            long now = nanoTime.getAsLong();
+            if (current != null && current.isValid(fingerprint, now, properties)) {
+                return current.summaries();
+            }
+            List<CountrySummary> summaries = List.copyOf(countryOverviewRepository.findSummaries());
+            snapshot = new Snapshot(fingerprint, now, summaries);
+            log.info("Computed aggregates of {} countries in {} ms", summaries.size(),
+                    (nanoTime.getAsLong() - now) / 1_000_000);
+            return summaries;
+        } finally {
+            recomputeLock.unlock();
+        }
+    }
+
+    private int pageSize(int page, Integer size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("page must not be negative");
+        }
+        int pageSize = size == null ? properties.getDefaultPageSize() : size;
+        if (pageSize < 1 || pageSize > properties.getMaxPageSize()) {
+            throw new IllegalArgumentException("size must be between 1 and " + properties.getMaxPageSize());
+        }
+        return pageSize;
+    }
+
+    private record Snapshot(String fingerprint, long computedAtNanos, List<CountrySummary> summaries) {
+
+        boolean isValid(String currentFingerprint, long nowNanos, CountryOverviewProperties properties) {
+            return fingerprint.equals(currentFingerprint)
+                    && nowNanos - computedAtNanos < properties.getCacheTtl().toNanos();
+        }
+    }
+}
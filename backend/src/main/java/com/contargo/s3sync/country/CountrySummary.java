@@ -0,0 +1,15 @@
+package com.contargo.s3sync.country;
+
+/**
+ * Customers and orders of one country with the newest change of each.
+ */
+import java.time.OffsetDateTime;
+
+public record CountrySummary(
+    String country,
+    long customers,
+    long orders,
+    OffsetDateTime lastCustomerChange,
+    OffsetDateTime lastOrderChange
+) {
+}
@@ -0,0 +1,14 @@
+package com.contargo.s3sync.country;
+
+/**
+ * Order row of a customer drill-down.
+ */
+import java.time.OffsetDateTime;
+
+public record CustomerOrder(
+    String id,
+    String articleNumber,
+    OffsetDateTime created,
+    OffsetDateTime lastChange
+) {
+}
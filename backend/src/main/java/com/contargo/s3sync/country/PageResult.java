@@ -0,0 +1,19 @@
+package com.contargo.s3sync.country;
+
+/**
+ * One page of a drill-down together with the paging position and the total number of elements.
+ */
+import java.util.List;
+
+public record PageResult<T>(
+    List<T> content,
+    int page,
+    int size,
+    long totalElements,
+    int totalPages
+) {
+
+    static <T> PageResult<T> of(List<T> content, int page, int size, long totalElements) {
+        return new PageResult<>(content, page, size, totalElements, (int) ((totalElements + size - 1) / size));
+    }
+}
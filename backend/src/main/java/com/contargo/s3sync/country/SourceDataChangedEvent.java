@@ -0,0 +1,12 @@
+package com.contargo.s3sync.country;
+
+/**
+ * Published after the application itself changed customers or orders (bulk ingestion,
+ * synthetic data, order touches), so derived read models can be invalidated at once.
+ * Changes made directly in the database are picked up through {@link CountryOverviewService}'s
+ * change check instead.
+ *
+ * @param source operation that changed the data, for logging
+ */
+public record SourceDataChangedEvent(String source) {
+}
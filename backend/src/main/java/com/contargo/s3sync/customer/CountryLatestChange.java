@@ -0,0 +1,13 @@
+package com.contargo.s3sync.customer;
+
+/**
+ * Projection of the most recent change timestamp per country.
+ */
+import java.time.OffsetDateTime;
+
+public interface CountryLatestChange {
+
+    String getCountry();
+
+    OffsetDateTime getLatestChange();
+}
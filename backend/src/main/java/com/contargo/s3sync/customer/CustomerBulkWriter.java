@@ -0,0 +1,87 @@
+package com.contargo.s3sync.customer;
+
+/**
+ * Upserts chunks of customers with one {@code INSERT ... SELECT FROM unnest(...) ON CONFLICT}
+ * statement per chunk, so a chunk costs a single round trip however many rows it holds.
+ * Inserted and changed rows get {@code updated_at = clock_timestamp()}, the time the row is
+ * written rather than the start of the chunk's transaction, which lets the next sync run export
+ * them; rows sent with unchanged values keep their timestamp and are not exported again. Until
+ * the chunk commits, the sync ends its change windows before the transaction started (see
+ * {@link com.contargo.s3sync.sync.VisibilityHorizon}).
+ */
+import com.contargo.s3sync.ingest.ChunkWriter;
+import com.contargo.s3sync.ingest.UpsertCounts;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.function.Function;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CustomerBulkWriter implements ChunkWriter<CustomerUpsert> {
+
+    private static final String UPSERT = """
+            INSERT INTO kunde AS k (kundeid, vorname, nachname, email, strasse, strassenzusatz, ort, land, plz,
+                                    firmenname, created_at, updated_at)
+            SELECT u.kundeid, u.vorname, u.nachname, u.email, u.strasse, u.strassenzusatz, u.ort, u.land, u.plz,
+                   u.firmenname, clock_timestamp(), clock_timestamp()
+            FROM unnest(?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[],
+                        ?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[])
+                 AS u(kundeid, vorname, nachname, email, strasse, strassenzusatz, ort, land, plz, firmenname)
+            ON CONFLICT (kundeid) DO UPDATE SET
+                vorname = EXCLUDED.vorname,
+                nachname = EXCLUDED.nachname,
+                email = EXCLUDED.email,
+                strasse = EXCLUDED.strasse,
+                strassenzusatz = EXCLUDED.strassenzusatz,
+                ort = EXCLUDED.ort,
+                land = EXCLUDED.land,
+                plz = EXCLUDED.plz,
+                firmenname = EXCLUDED.firmenname,
+                updated_at = EXCLUDED.updated_at
+            WHERE (k.vorname, k.nachname, k.email, k.strasse, k.strassenzusatz, k.ort, k.land, k.plz, k.firmenname)
+                  IS DISTINCT FROM (EXCLUDED.vorname, EXCLUDED.nachname, EXCLUDED.email, EXCLUDED.strasse,
+                                    EXCLUDED.strassenzusatz, EXCLUDED.ort, EXCLUDED.land, EXCLUDED.plz,
+                                    EXCLUDED.firmenname)
+            RETURNING (xmax = 0) AS inserted
+            """;
+
+    private static final List<Function<CustomerUpsert, String>> COLUMNS = List.of(CustomerUpsert::id,
+            CustomerUpsert::firstName, CustomerUpsert::lastName, CustomerUpsert::email, CustomerUpsert::street,
+            CustomerUpsert::streetExtra, CustomerUpsert::city, CustomerUpsert::country, CustomerUpsert::postalCode,
+            CustomerUpsert::companyName);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CustomerBulkWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Upserts a chunk of customers with distinct ids.
+     */
+    @Override
+    public UpsertCounts write(List<CustomerUpsert> chunk) {
+        long[] counts = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(UPSERT);
+            for (int column = 0; column < COLUMNS.size(); column++) {
+                Function<CustomerUpsert, String> value = COLUMNS.get(column);
+                statement.setArray(column + 1, connection.createArrayOf("varchar",
+                        chunk.stream().map(value).toArray(String[]::new)));
+            }
+            return statement;
+        }, resultSet -> {
+            long inserted = 0;
+            long updated = 0;
+            while (resultSet.next()) {
+                if (resultSet.getBoolean(1)) {
+                    inserted++;
+                } else {
+                    updated++;
+                }
+            }
+            return new long[] {inserted, updated};
+        });
+        return new UpsertCounts(counts[0], counts[1], chunk.size() - counts[0] - counts[1]);
+    }
+}
@@ -1,12 +1,18 @@
 package com.contargo.s3sync.customer;
 
 /**
- * Demo endpoint for listing customers.
+ * Endpoints for listing customers and bulk-upserting them from upstream systems.
  */
+import com.contargo.s3sync.ingest.BulkIngestionService;
+import com.contargo.s3sync.ingest.IngestFormat;
+import com.contargo.s3sync.ingest.IngestionResult;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -17,9 +23,14 @@ public class CustomerController {
     private static final Logger log = LoggerFactory.getLogger(CustomerController.class);
 
     private final CustomerService customerService;
+    private final BulkIngestionService bulkIngestionService;
+    private final CustomerBulkWriter customerBulkWriter;
 
-    public CustomerController(CustomerService customerService) {
+    public CustomerController(CustomerService customerService, BulkIngestionService bulkIngestionService,
+            CustomerBulkWriter customerBulkWriter) {
         this.customerService = customerService;
+        this.bulkIngestionService = bulkIngestionService;
+        this.customerBulkWriter = customerBulkWriter;
     }
 
     @GetMapping
@@ -30,5 +41,16 @@ public class CustomerController {
         log.info("Received request to list customers");
         return customerService.findAll();
     }
+
+    @PostMapping(path = "/bulk", consumes = {IngestFormat.NDJSON, IngestFormat.JSONL, IngestFormat.TEXT_CSV})
+    /**
+     * Creates or updates customers from a JSON Lines or CSV body, streamed in chunks.
+     */
+    public IngestionResult upsertCustomers(HttpServletRequest request) throws IOException {
+        IngestFormat format = IngestFormat.fromContentType(request.getContentType());
+        log.info("Received bulk customer upsert ({})", format);
+        return bulkIngestionService.ingest(request.getInputStream(), format, CustomerUpsert.class,
+                CustomerUpsert::id, customerBulkWriter);
+    }
 }
 
@@ -0,0 +1,90 @@
+package com.contargo.s3sync.customer;
+
+/**
+ * Exports {@code kunde} partitioned by country, one CSV line per customer without header.
+ */
+import com.contargo.s3sync.sync.ObjectKeyTemplate;
+import com.contargo.s3sync.sync.TableExporter;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CustomerExporter implements TableExporter<Customer> {
+
+    private static final ObjectKeyTemplate KEY_TEMPLATE =
+            new ObjectKeyTemplate("{table}/{date}/{partition}/customers_{partition}_{date}_{run}.csv");
+
+    private final CustomerRepository customerRepository;
+
+    public CustomerExporter(CustomerRepository customerRepository) {
+        this.customerRepository = customerRepository;
+    }
+
+    @Override
+    public String tableName() {
+        return "kunde";
+    }
+
+    @Override
+    public List<String> partitions() {
+        return customerRepository.findDistinctCountries();
+    }
+
+    @Override
+    public Stream<Customer> load(String country, OffsetDateTime windowStart, OffsetDateTime windowEnd) {
+        if (windowEnd == null) {
+            return windowStart == null
+                ? customerRepository.findByCountry(country)
+                : customerRepository.findByCountryAndUpdatedAtAfter(country, windowStart);
+        }
+        return windowStart == null
+            ? customerRepository.findByCountryUpdatedUpToOrUnstamped(country, windowEnd)
+            : customerRepository.findByCountryAndUpdatedAtAfterAndUpdatedAtLessThanEqual(country, windowStart,
+                windowEnd);
+    }
+
+    @Override
+    public long count(String country, OffsetDateTime windowStart, OffsetDateTime windowEnd) {
+        if (windowEnd == null) {
+            return windowStart == null
+                ? customerRepository.countByCountry(country)
+                : customerRepository.countByCountryAndUpdatedAtAfter(country, windowStart);
+        }
+        return windowStart == null
+            ? customerRepository.countByCountryUpdatedUpToOrUnstamped(country, windowEnd)
+            : customerRepository.countByCountryAndUpdatedAtAfterAndUpdatedAtLessThanEqual(country, windowStart,
+                windowEnd);
+    }
+
+    @Override
+    public OffsetDateTime changedAt(Customer customer) {
+        return customer.getUpdatedAt();
+    }
+
+    @Override
+    public String rowId(Customer customer) {
+        return customer.getId();
+    }
+
+    @Override
+    public String encode(Customer customer) {
+        return String.join(",",
+            TableExporter.csvField(customer.getCompanyName()),
+            TableExporter.csvField(customer.getStreet()),
+            TableExporter.csvField(customer.getStreetExtra()),
+            TableExporter.csvField(customer.getCity()),
+            TableExporter.csvField(customer.getCountry()),
+            TableExporter.csvField(customer.getPostalCode()),
+            TableExporter.csvField(customer.getFirstName()),
+            TableExporter.csvField(customer.getLastName()),
+            TableExporter.csvField(customer.getId())
+        );
+    }
+
+    @Override
+    public ObjectKeyTemplate keyTemplate() {
+        return KEY_TEMPLATE;
+    }
+}
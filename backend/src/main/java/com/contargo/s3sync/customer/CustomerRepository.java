@@ -5,14 +5,55 @@ package com.contargo.s3sync.customer;
  */
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface CustomerRepository extends JpaRepository<Customer, String> {
 
     /** Finds customers updated after the given timestamp. */
     List<Customer> findByUpdatedAtAfter(OffsetDateTime updatedAt);
 
-    /** Finds customers by ISO country code. */
-    List<Customer> findByCountry(String country);
-}
+    /** Streams customers by ISO country code; the caller closes the stream within a transaction. */
+    Stream<Customer> findByCountry(String country);
+
+    /** Counts the customers of a country. */
+    long countByCountry(String country);
+
+    /** Streams customers of a country updated after the given timestamp. */
+    Stream<Customer> findByCountryAndUpdatedAtAfter(String country, OffsetDateTime updatedAt);
+
+    /** Counts the customers of a country updated after the given timestamp. */
+    long countByCountryAndUpdatedAtAfter(String country, OffsetDateTime updatedAt);
+
+    /**
+     * Streams customers of a country updated up to and including the given timestamp, and those
+     * without an update timestamp ({@code updated_at} is nullable), which only a full export reads.
+     */
+    @Query("select c from Customer c where c.country = :country and (c.updatedAt <= :windowEnd or c.updatedAt is null)")
+    Stream<Customer> findByCountryUpdatedUpToOrUnstamped(@Param("country") String country,
+            @Param("windowEnd") OffsetDateTime windowEnd);
 
+    /** Counts the customers {@link #findByCountryUpdatedUpToOrUnstamped} streams. */
+    @Query("select count(c) from Customer c where c.country = :country"
+            + " and (c.updatedAt <= :windowEnd or c.updatedAt is null)")
+    long countByCountryUpdatedUpToOrUnstamped(@Param("country") String country,
+            @Param("windowEnd") OffsetDateTime windowEnd);
+
+    /** Streams customers of a country updated within the half-open window {@code (windowStart, windowEnd]}. */
+    Stream<Customer> findByCountryAndUpdatedAtAfterAndUpdatedAtLessThanEqual(String country,
+            OffsetDateTime windowStart, OffsetDateTime windowEnd);
+
+    /** Counts the customers of a country updated within the half-open window {@code (windowStart, windowEnd]}. */
+    long countByCountryAndUpdatedAtAfterAndUpdatedAtLessThanEqual(String country, OffsetDateTime windowStart,
+            OffsetDateTime windowEnd);
+
+    /** Returns all ISO country codes that have at least one customer, the countries with most customers first. */
+    @Query("select c.country from Customer c group by c.country order by count(c) desc, c.country")
+    List<String> findDistinctCountries();
+
+    /** Returns the latest customer update per country. */
+    @Query("select c.country as country, max(c.updatedAt) as latestChange from Customer c group by c.country")
+    List<CountryLatestChange> findLatestChangePerCountry();
+}
@@ -0,0 +1,21 @@
+package com.contargo.s3sync.customer;
+
+/**
+ * One customer of a bulk ingestion request; field names match the {@link Customer} JSON.
+ * Column limits mirror {@code V1__init.sql}.
+ */
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public record CustomerUpsert(
+        @NotBlank @Size(max = 255) String id,
+        @NotBlank @Size(max = 255) String firstName,
+        @NotBlank @Size(max = 255) String lastName,
+        @Size(max = 255) String email,
+        @Size(max = 255) String street,
+        @Size(max = 255) String streetExtra,
+        @Size(max = 255) String city,
+        @NotBlank @Size(max = 10) String country,
+        @Size(max = 20) String postalCode,
+        @Size(max = 255) String companyName) {
+}
@@ -0,0 +1,21 @@
+package com.contargo.s3sync.generator;
+
+/**
+ * Update churn applied to an existing data set: a seeded sample of the customers is touched
+ * together with their most recent orders.
+ *
+ * @param customerFraction share of customers whose {@code updated_at} is set to now
+ * @param ordersPerCustomer most recent orders per touched customer whose {@code lastchange} is set to now
+ * @param seed selects the sampled customers; the same seed touches the same customers
+ */
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+
+public record ChurnRequest(
+        @DecimalMin(value = "0.0", message = "customerFraction must be between 0 and 1")
+        @DecimalMax(value = "1.0", message = "customerFraction must be between 0 and 1")
+        double customerFraction,
+        @Min(value = 0, message = "ordersPerCustomer must not be negative") int ordersPerCustomer,
+        long seed) {
+}
@@ -0,0 +1,10 @@
+package com.contargo.s3sync.generator;
+
+/**
+ * Rows touched by a churn run and the timestamp they were set to.
+ */
+import java.time.OffsetDateTime;
+
+public record ChurnResult(long customersTouched, long ordersTouched, OffsetDateTime appliedTimestamp,
+        long elapsedMillis) {
+}
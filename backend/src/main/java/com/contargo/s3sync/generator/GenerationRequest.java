@@ -0,0 +1,39 @@
+package com.contargo.s3sync.generator;
+
+/**
+ * Volume and shape of a synthetic data set. The same request (including the seed) always
+ * produces the same rows, so performance runs on different builds load identical data.
+ *
+ * @param customers number of {@code kunde} rows
+ * @param orders number of {@code auftraege} rows, spread over the customers with a long tail
+ * @param countries relative share of customers per country code
+ * @param seed seed of the row generator
+ * @param reference instant all generated timestamps lie before; {@code null} uses
+ *        {@link GeneratorProperties#DEFAULT_REFERENCE}, never the current time
+ * @param idPrefix prefix of the generated ids, so several data sets can be appended
+ * @param truncate when true, existing customers and orders are removed first
+ */
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+public record GenerationRequest(
+        @Min(value = 0, message = "customers must not be negative") long customers,
+        @Min(value = 0, message = "orders must not be negative") long orders,
+        @NotEmpty(message = "countries must not be empty") Map<String, @NotNull @Min(1) Integer> countries,
+        long seed,
+        OffsetDateTime reference,
+        @NotNull @Pattern(regexp = "[A-Za-z0-9]{1,16}", message = "idPrefix must be 1-16 letters or digits")
+        String idPrefix,
+        boolean truncate) {
+
+    /**
+     * The reference instant of the generated timestamps, falling back to the fixed default.
+     */
+    public OffsetDateTime effectiveReference() {
+        return reference == null ? GeneratorProperties.DEFAULT_REFERENCE : reference;
+    }
+}
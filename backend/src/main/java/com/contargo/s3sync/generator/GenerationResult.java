@@ -0,0 +1,7 @@
+package com.contargo.s3sync.generator;
+
+/**
+ * Rows loaded by a generator run and the achieved load rate.
+ */
+public record GenerationResult(long customers, long orders, long elapsedMillis, double rowsPerSecond) {
+}
@@ -0,0 +1,45 @@
+package com.contargo.s3sync.generator;
+
+/**
+ * CLI mode of the data generator: when {@code generator.command} is {@code generate} or
+ * {@code churn}, runs it with the configured {@code generator.*} defaults once the context
+ * is up and shuts the application down, e.g.
+ * {@code ./gradlew bootRun --args="--generator.command=generate --generator.customers=1000000"}.
+ */
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+@Component
+public class GeneratorCommandRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(GeneratorCommandRunner.class);
+
+    private final GeneratorProperties generatorProperties;
+    private final SyntheticDataGenerator generator;
+    private final ConfigurableApplicationContext context;
+
+    public GeneratorCommandRunner(GeneratorProperties generatorProperties, SyntheticDataGenerator generator,
+            ConfigurableApplicationContext context) {
+        this.generatorProperties = generatorProperties;
+        this.generator = generator;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        switch (generatorProperties.getCommand()) {
+            case NONE -> {
+                return;
+            }
+            case GENERATE -> log.info("Generator finished: {}",
+                    generator.generate(generatorProperties.toGenerationRequest()));
+            case CHURN -> log.info("Churn finished: {}", generator.churn(generatorProperties.toChurnRequest()));
+        }
+        System.exit(SpringApplication.exit(context));
+    }
+}
@@ -0,0 +1,54 @@
+package com.contargo.s3sync.generator;
+
+/**
+ * Admin endpoints for loading synthetic data and applying update churn. Only registered when
+ * {@code generator.endpoint-enabled} is set, since a generator run can truncate the tables.
+ */
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/admin/generator")
+@ConditionalOnProperty(prefix = "generator", name = "endpoint-enabled", havingValue = "true")
+public class GeneratorController {
+
+    private static final Logger log = LoggerFactory.getLogger(GeneratorController.class);
+
+    private final SyntheticDataGenerator generator;
+
+    public GeneratorController(SyntheticDataGenerator generator) {
+        this.generator = generator;
+    }
+
+    @PostMapping("/data")
+    /**
+     * Bulk-loads the requested synthetic data set.
+     */
+    public GenerationResult generate(@Valid @RequestBody GenerationRequest request) {
+        log.info("Received request to generate {} customers and {} orders (seed {})", request.customers(),
+                request.orders(), request.seed());
+        try {
+            return generator.generate(request);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage(), ex);
+        }
+    }
+
+    @PostMapping("/churn")
+    /**
+     * Touches a seeded sample of customers and their most recent orders.
+     */
+    public ChurnResult churn(@Valid @RequestBody ChurnRequest request) {
+        log.info("Received request to churn {} of the customers (seed {})", request.customerFraction(),
+                request.seed());
+        return generator.churn(request);
+    }
+}
@@ -0,0 +1,183 @@
+package com.contargo.s3sync.generator;
+
+/**
+ * Configuration of the synthetic data generator: whether its admin endpoint is exposed,
+ * which command the CLI mode runs, and the defaults of both.
+ */
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.validation.annotation.Validated;
+
+@ConfigurationProperties(prefix = "generator")
+@Validated
+public class GeneratorProperties {
+
+    /** Skew close to production, where most customers are German. */
+    public static final Map<String, Integer> DEFAULT_COUNTRIES = Map.of("DE", 60, "NL", 12, "FR", 8, "BE", 6,
+        "PL", 5, "IT", 4, "AT", 3, "CH", 2);
+
+    /** Generated timestamps lie before this instant, so the same seed always loads the same rows. */
+    public static final OffsetDateTime DEFAULT_REFERENCE = OffsetDateTime.parse("2025-01-01T00:00:00Z");
+
+    /** Expose {@code /api/admin/generator}; off by default because it can truncate the tables. */
+    private boolean endpointEnabled;
+
+    /** Command run at startup before the application exits; {@code none} starts the application normally. */
+    @NotNull(message = "generator.command must not be null")
+    private Command command = Command.NONE;
+
+    @Min(value = 0, message = "generator.customers must not be negative")
+    private long customers = 100_000;
+
+    @Min(value = 0, message = "generator.orders must not be negative")
+    private long orders = 1_000_000;
+
+    /** Relative share of customers per country; empty uses {@link #DEFAULT_COUNTRIES}. */
+    private Map<String, Integer> countries = new LinkedHashMap<>();
+
+    private long seed = 42;
+
+    /** Instant the generated timestamps lie before. */
+    @NotNull(message = "generator.reference must not be null")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private OffsetDateTime reference = DEFAULT_REFERENCE;
+
+    @NotNull(message = "generator.id-prefix must not be null")
+    @Pattern(regexp = "[A-Za-z0-9]{1,16}", message = "generator.id-prefix must be 1-16 letters or digits")
+    private String idPrefix = "G";
+
+    /** Remove existing customers and orders before generating; off so a run never wipes data by default. */
+    private boolean truncate;
+
+    @Valid
+    private final Churn churn = new Churn();
+
+    public GenerationRequest toGenerationRequest() {
+        return new GenerationRequest(customers, orders,
+            countries.isEmpty() ? DEFAULT_COUNTRIES : Map.copyOf(countries), seed, reference, idPrefix, truncate);
+    }
+
+    public ChurnRequest toChurnRequest() {
+        return new ChurnRequest(churn.getCustomerFraction(), churn.getOrdersPerCustomer(), seed);
+    }
+
+    public boolean isEndpointEnabled() {
+        return endpointEnabled;
+    }
+
+    public void setEndpointEnabled(boolean endpointEnabled) {
+        this.endpointEnabled = endpointEnabled;
+    }
+
+    public Command getCommand() {
+        return command;
+    }
+
+    public void setCommand(Command command) {
+        this.command = command;
+    }
+
+    public long getCustomers() {
+        return customers;
+    }
+
+    public void setCustomers(long customers) {
+        this.customers = customers;
+    }
+
+    public long getOrders() {
+        return orders;
+    }
+
+    public void setOrders(long orders) {
+        this.orders = orders;
+    }
+
+    public Map<String, Integer> getCountries() {
+        return countries;
+    }
+
+    public void setCountries(Map<String, Integer> countries) {
+        this.countries = countries;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public OffsetDateTime getReference() {
+        return reference;
+    }
+
+    public void setReference(OffsetDateTime reference) {
+        this.reference = reference;
+    }
+
+    public String getIdPrefix() {
+        return idPrefix;
+    }
+
+    public void setIdPrefix(String idPrefix) {
+        this.idPrefix = idPrefix;
+    }
+
+    public boolean isTruncate() {
+        return truncate;
+    }
+
+    public void setTruncate(boolean truncate) {
+        this.truncate = truncate;
+    }
+
+    public Churn getChurn() {
+        return churn;
+    }
+
+    /**
+     * What the CLI mode does before exiting.
+     */
+    public enum Command {
+        NONE,
+        GENERATE,
+        CHURN
+    }
+
+    public static class Churn {
+
+        @DecimalMin(value = "0.0", message = "generator.churn.customer-fraction must be between 0 and 1")
+        @DecimalMax(value = "1.0", message = "generator.churn.customer-fraction must be between 0 and 1")
+        private double customerFraction = 0.05;
+
+        @Min(value = 0, message = "generator.churn.orders-per-customer must not be negative")
+        private int ordersPerCustomer = 2;
+
+        public double getCustomerFraction() {
+            return customerFraction;
+        }
+
+        public void setCustomerFraction(double customerFraction) {
+            this.customerFraction = customerFraction;
+        }
+
+        public int getOrdersPerCustomer() {
+            return ordersPerCustomer;
+        }
+
+        public void setOrdersPerCustomer(int ordersPerCustomer) {
+            this.ordersPerCustomer = ordersPerCustomer;
+        }
+    }
+}
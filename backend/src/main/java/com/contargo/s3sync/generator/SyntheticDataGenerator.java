@@ -0,0 +1,158 @@
+package com.contargo.s3sync.generator;
+
+/**
+ * Bulk-loads synthetic customers and orders through PostgreSQL {@code COPY} and applies
+ * reproducible update churn. Rows are generated while they are streamed to the server in
+ * chunks, so memory use does not grow with the volume. Churn touches a seeded sample of
+ * customers and their latest orders batch by batch, the scalable counterpart of
+ * {@code OrderRepository.updateLastChangeForTopTwoPerCustomer}.
+ */
+import com.contargo.s3sync.country.SourceDataChangedEvent;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.function.LongFunction;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+@Service
+public class SyntheticDataGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+    private static final int COPY_CHUNK_CHARS = 1 << 20;
+    private static final int CHURN_BATCH_SIZE = 10_000;
+    private static final int SAMPLE_SCALE = 1_000_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public SyntheticDataGenerator(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Loads the requested data set. Customers are copied before orders, so the order rows
+     * only ever reference existing customers.
+     */
+    public GenerationResult generate(GenerationRequest request) {
+        if (request.orders() > 0 && request.customers() == 0) {
+            throw new IllegalArgumentException("orders require at least one customer");
+        }
+        long start = System.nanoTime();
+        SyntheticRows rows = new SyntheticRows(request);
+        if (request.truncate()) {
+            log.info("Removing existing customers and orders before generating data");
+            jdbcTemplate.execute("TRUNCATE auftraege, kunde");
+        }
+        long customers = copy("kunde", SyntheticRows.CUSTOMER_COLUMNS, request.customers(), rows::customer);
+        long orders = copy("auftraege", SyntheticRows.ORDER_COLUMNS, request.orders(), rows::order);
+        jdbcTemplate.execute("ANALYZE kunde");
+        jdbcTemplate.execute("ANALYZE auftraege");
+        eventPublisher.publishEvent(new SourceDataChangedEvent("generator"));
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        double rowsPerSecond = (customers + orders) * 1000.0 / elapsedMillis;
+        log.info("Generated {} customers and {} orders (seed {}) in {} ms ({} rows/s)", customers, orders,
+            request.seed(), elapsedMillis, Math.round(rowsPerSecond));
+        return new GenerationResult(customers, orders, elapsedMillis, rowsPerSecond);
+    }
+
+    /**
+     * Sets {@code updated_at} of a seeded sample of customers and {@code lastchange} of their
+     * most recent orders to now. Customers are walked in key order in batches of
+     * {@value #CHURN_BATCH_SIZE}, each committed on its own, so no statement scans or locks the
+     * whole table.
+     */
+    public ChurnResult churn(ChurnRequest request) {
+        long start = System.nanoTime();
+        OffsetDateTime timestamp = OffsetDateTime.now(ZoneOffset.UTC);
+        long threshold = Math.round(request.customerFraction() * SAMPLE_SCALE);
+        String salt = ":" + request.seed();
+        long customersTouched = 0;
+        long ordersTouched = 0;
+        String lower = "";
+        while (true) {
+            String upper = jdbcTemplate.queryForObject("""
+                SELECT max(kundeid) FROM (
+                    SELECT kundeid FROM kunde WHERE kundeid > ? ORDER BY kundeid LIMIT ?
+                ) batch
+                """, String.class, lower, CHURN_BATCH_SIZE);
+            if (upper == null) {
+                break;
+            }
+            customersTouched += jdbcTemplate.update("""
+                UPDATE kunde SET updated_at = ?
+                WHERE kundeid > ? AND kundeid <= ?
+                  AND (hashtext(kundeid || ?) & 2147483647) % ? < ?
+                """, timestamp, lower, upper, salt, SAMPLE_SCALE, threshold);
+            if (request.ordersPerCustomer() > 0) {
+                ordersTouched += jdbcTemplate.update("""
+                    UPDATE auftraege a SET lastchange = ?
+                    FROM (
+                        SELECT latest.auftragid
+                        FROM kunde k
+                        CROSS JOIN LATERAL (
+                            SELECT o.auftragid FROM auftraege o
+                            WHERE o.kundeid = k.kundeid
+                            ORDER BY o.lastchange DESC
+                            LIMIT ?
+                        ) latest
+                        WHERE k.kundeid > ? AND k.kundeid <= ?
+                          AND (hashtext(k.kundeid || ?) & 2147483647) % ? < ?
+                    ) selected
+                    WHERE a.auftragid = selected.auftragid
+                    """, timestamp, request.ordersPerCustomer(), lower, upper, salt, SAMPLE_SCALE, threshold);
+            }
+            lower = upper;
+        }
+        eventPublisher.publishEvent(new SourceDataChangedEvent("churn"));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Churn touched {} customers and {} orders at {} in {} ms", customersTouched, ordersTouched,
+            timestamp, elapsedMillis);
+        return new ChurnResult(customersTouched, ordersTouched, timestamp, elapsedMillis);
+    }
+
+    /**
+     * Streams {@code count} generated CSV lines into the table with {@code COPY ... FROM STDIN}.
+     */
+    private long copy(String table, String columns, long count, LongFunction<String> line) {
+        if (count == 0) {
+            return 0;
+        }
+        String sql = "COPY %s (%s) FROM STDIN WITH (FORMAT csv)".formatted(table, columns);
+        Long copied = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+            try {
+                StringBuilder chunk = new StringBuilder(COPY_CHUNK_CHARS + 4096);
+                for (long number = 1; number <= count; number++) {
+                    chunk.append(line.apply(number)).append('\n');
+                    if (chunk.length() >= COPY_CHUNK_CHARS) {
+                        write(copyIn, chunk);
+                    }
+                }
+                write(copyIn, chunk);
+                return copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        });
+        log.info("Copied {} rows into {}", copied, table);
+        return copied == null ? 0 : copied;
+    }
+
+    private static void write(CopyIn copyIn, StringBuilder chunk) throws SQLException {
+        byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        chunk.setLength(0);
+    }
+}
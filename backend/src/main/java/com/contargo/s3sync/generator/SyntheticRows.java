@@ -0,0 +1,176 @@
+package com.contargo.s3sync.generator;
+
+/**
+ * Produces the CSV lines of a synthetic data set for PostgreSQL {@code COPY}. Every row is
+ * derived from the seed, the reference instant and its own number only, so a row is identical
+ * however the data set is chunked or appended, and on every run. Countries follow the requested
+ * weights; orders are spread over the customers with a long tail, so the busiest customers (and
+ * their countries) dominate.
+ */
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+final class SyntheticRows {
+
+    static final String CUSTOMER_COLUMNS = "kundeid, vorname, nachname, email, strasse, strassenzusatz, ort, land, "
+        + "plz, firmenname, created_at, updated_at";
+    static final String ORDER_COLUMNS = "auftragid, artikelnummer, created, lastchange, kundeid";
+
+    private static final long CUSTOMER_STREAM = 0x9E3779B97F4A7C15L;
+    private static final long ORDER_STREAM = 0xC2B2AE3D27D4EB4FL;
+    private static final long DAY = 86_400;
+    private static final int[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+
+    private static final List<String> FIRST_NAMES = List.of("Anna", "Bernd", "Claire", "Daniel", "Eva", "Finn",
+        "Greta", "Hugo", "Ines", "Jan", "Katrin", "Luca", "Marie", "Noah", "Olga", "Paul", "Quentin", "Rosa",
+        "Stefan", "Tanja", "Ulrich", "Vera", "Willem", "Zofia");
+    private static final List<String> LAST_NAMES = List.of("Schmidt", "Meyer", "Dubois", "Rossi", "Jansen",
+        "Nowak", "Peeters", "Huber", "Keller", "Wagner", "Bakker", "Moreau", "Bianchi", "Kowalski", "Maes",
+        "Gruber", "Fischer", "de Vries", "Laurent", "Romano");
+    private static final List<String> COMPANY_SUFFIXES = List.of("GmbH", "AG", "Logistik", "Transport",
+        "Spedition", "Trading", "Handel", "Consulting");
+    private static final Map<String, CountryProfile> PROFILES = Map.of(
+        "DE", new CountryProfile(List.of("Berlin", "Hamburg", "Duisburg", "Mannheim", "Koblenz", "Frankfurt"),
+            "Strasse", 5),
+        "NL", new CountryProfile(List.of("Rotterdam", "Amsterdam", "Nijmegen", "Venlo", "Utrecht"), "straat", 4),
+        "FR", new CountryProfile(List.of("Paris", "Lyon", "Strasbourg", "Lille", "Marseille"), "Rue", 5),
+        "BE", new CountryProfile(List.of("Antwerpen", "Brussel", "Gent", "Liege", "Meerhout"), "laan", 4),
+        "PL", new CountryProfile(List.of("Warszawa", "Poznan", "Wroclaw", "Gdansk", "Lodz"), "ulica", 5),
+        "IT", new CountryProfile(List.of("Milano", "Genova", "Torino", "Verona", "Bologna"), "Via", 5),
+        "AT", new CountryProfile(List.of("Wien", "Linz", "Graz", "Salzburg", "Enns"), "Gasse", 4),
+        "CH", new CountryProfile(List.of("Basel", "Zuerich", "Bern", "Luzern", "Genf"), "Weg", 4));
+    private static final CountryProfile DEFAULT_PROFILE = new CountryProfile(List.of("Central", "Harbour", "North"),
+        "Road", 5);
+
+    private final GenerationRequest request;
+    private final long reference;
+    private final String[] countryCodes;
+    private final int[] cumulativeWeights;
+
+    SyntheticRows(GenerationRequest request) {
+        this.request = request;
+        this.reference = request.effectiveReference().toEpochSecond();
+        List<Map.Entry<String, Integer>> weights = request.countries().entrySet().stream()
+            .sorted(Map.Entry.comparingByKey())
+            .toList();
+        this.countryCodes = new String[weights.size()];
+        this.cumulativeWeights = new int[weights.size()];
+        int total = 0;
+        for (int i = 0; i < weights.size(); i++) {
+            total += weights.get(i).getValue();
+            countryCodes[i] = weights.get(i).getKey();
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    String customerId(long number) {
+        return appendCustomerId(new StringBuilder(16), number).toString();
+    }
+
+    String orderId(long number) {
+        return appendOrderId(new StringBuilder(16), number).toString();
+    }
+
+    /**
+     * CSV line of customer {@code number} (1-based), in {@link #CUSTOMER_COLUMNS} order.
+     */
+    String customer(long number) {
+        SplittableRandom random = random(CUSTOMER_STREAM, number);
+        String country = country(random);
+        CountryProfile profile = PROFILES.getOrDefault(country, DEFAULT_PROFILE);
+        String firstName = pick(random, FIRST_NAMES);
+        String lastName = pick(random, LAST_NAMES);
+        long created = reference - random.nextLong(3 * 365 * DAY);
+        long updated = created + random.nextLong(Math.max(1, reference - created));
+        StringBuilder line = new StringBuilder(192);
+        appendCustomerId(line, number).append(',')
+            .append(firstName).append(',')
+            .append(lastName).append(',')
+            .append(firstName.toLowerCase()).append('.').append(lastName.replace(" ", "").toLowerCase())
+            .append(number).append("@example.com,")
+            .append(pick(random, LAST_NAMES).replace(" ", "")).append(profile.streetWord()).append(' ')
+            .append(1 + random.nextInt(200)).append(',');
+        if (random.nextInt(10) == 0) {
+            line.append("Tor ").append(1 + random.nextInt(12));
+        }
+        line.append(',').append(pick(random, profile.cities()))
+            .append(',').append(country).append(',');
+        int postalBound = POWERS_OF_TEN[profile.postalCodeDigits()];
+        line.append(random.nextInt(postalBound / 10, postalBound))
+            .append(',').append(lastName).append(' ').append(pick(random, COMPANY_SUFFIXES)).append(',');
+        appendTimestamp(line, created).append(',');
+        return appendTimestamp(line, updated).toString();
+    }
+
+    /**
+     * CSV line of order {@code number} (1-based), in {@link #ORDER_COLUMNS} order. The customer
+     * is drawn with a quadratic bias towards low customer numbers, giving a long tail of
+     * customers with few orders.
+     */
+    String order(long number) {
+        SplittableRandom random = random(ORDER_STREAM, number);
+        double position = random.nextDouble();
+        long customer = 1 + Math.min(request.customers() - 1, (long) (request.customers() * position * position));
+        long created = reference - random.nextLong(180 * DAY);
+        long lastChange = created + random.nextLong(Math.max(1, reference - created));
+        StringBuilder line = new StringBuilder(80);
+        appendOrderId(line, number).append(",ART-");
+        appendPadded(line, random.nextInt(20_000), 5).append(',');
+        appendTimestamp(line, created).append(',');
+        appendTimestamp(line, lastChange).append(',');
+        return appendCustomerId(line, customer).toString();
+    }
+
+    private StringBuilder appendCustomerId(StringBuilder line, long number) {
+        return appendPadded(line.append(request.idPrefix()).append("-K"), number, 9);
+    }
+
+    private StringBuilder appendOrderId(StringBuilder line, long number) {
+        return appendPadded(line.append(request.idPrefix()).append("-A"), number, 10);
+    }
+
+    /**
+     * Appends a UTC timestamp as {@code yyyy-MM-dd HH:mm:ssZ}; hand-rolled because a
+     * {@code DateTimeFormatter} dominates the generation cost at millions of rows.
+     */
+    private static StringBuilder appendTimestamp(StringBuilder line, long epochSecond) {
+        LocalDateTime time = LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+        appendPadded(line, time.getYear(), 4).append('-');
+        appendPadded(line, time.getMonthValue(), 2).append('-');
+        appendPadded(line, time.getDayOfMonth(), 2).append(' ');
+        appendPadded(line, time.getHour(), 2).append(':');
+        appendPadded(line, time.getMinute(), 2).append(':');
+        return appendPadded(line, time.getSecond(), 2).append('Z');
+    }
+
+    private static StringBuilder appendPadded(StringBuilder line, long value, int width) {
+        for (int digits = value == 0 ? 1 : (int) Math.log10(value) + 1; digits < width; digits++) {
+            line.append('0');
+        }
+        return line.append(value);
+    }
+
+    private String country(SplittableRandom random) {
+        int draw = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (draw < cumulativeWeights[i]) {
+                return countryCodes[i];
+            }
+        }
+        return countryCodes[countryCodes.length - 1];
+    }
+
+    private SplittableRandom random(long stream, long number) {
+        return new SplittableRandom(request.seed() * 31 + stream * number);
+    }
+
+    private static String pick(SplittableRandom random, List<String> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private record CountryProfile(List<String> cities, String streetWord, int postalCodeDigits) {
+    }
+}
@@ -0,0 +1,183 @@
+package com.contargo.s3sync.ingest;
+
+/**
+ * Stream-parses bulk ingestion bodies (JSON Lines or CSV with a header row) and hands the
+ * records to a {@link ChunkWriter} in chunks of {@code ingest.chunk-size}. The body is never
+ * held in memory as a whole: at most one chunk of records is buffered. Records that cannot
+ * be parsed or fail bean validation are skipped and reported with their line number; each
+ * chunk commits on its own, so a client can resend a failed request as a whole because the
+ * writers upsert.
+ */
+import com.contargo.s3sync.country.SourceDataChangedEvent;
+import com.contargo.s3sync.ingest.IngestionResult.Rejection;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+@Service
+public class BulkIngestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkIngestionService.class);
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final IngestProperties ingestProperties;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public BulkIngestionService(ObjectMapper objectMapper, Validator validator, IngestProperties ingestProperties,
+            ApplicationEventPublisher eventPublisher) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.ingestProperties = ingestProperties;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Reads all records of the body and upserts them chunk by chunk. Within a chunk the last
+     * record for an id wins; earlier ones are counted as unchanged.
+     *
+     * @param type record type the lines are bound to
+     * @param id extracts the primary key of a record
+     * @param writer upserts one chunk of records
+     */
+    public <T> IngestionResult ingest(InputStream body, IngestFormat format, Class<T> type, Function<T, String> id,
+            ChunkWriter<T> writer) throws IOException {
+        long start = System.nanoTime();
+        Tally tally = new Tally(ingestProperties.getMaxReportedRejections());
+        Map<String, T> chunk = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            List<String> header = null;
+            long lineNumber = 0;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == IngestFormat.CSV && header == null) {
+                    header = CsvLine.split(line.strip());
+                    continue;
+                }
+                tally.received++;
+                T record = parse(line, format, header, type, lineNumber, tally);
+                if (record == null) {
+                    continue;
+                }
+                if (chunk.put(id.apply(record), record) != null) {
+                    tally.duplicates++;
+                }
+                if (chunk.size() >= ingestProperties.getChunkSize()) {
+                    flush(chunk, writer, tally);
+                }
+            }
+        }
+        flush(chunk, writer, tally);
+        if (tally.inserted + tally.updated > 0) {
+            eventPublisher.publishEvent(new SourceDataChangedEvent("bulk " + type.getSimpleName()));
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Ingested {} {} records in {} ms: {} inserted, {} updated, {} unchanged, {} duplicates, "
+                + "{} rejected", tally.received, type.getSimpleName(), elapsedMillis, tally.inserted, tally.updated,
+                tally.unchanged, tally.duplicates, tally.rejected);
+        return new IngestionResult(tally.received, tally.inserted, tally.updated, tally.unchanged + tally.duplicates,
+                tally.rejected, List.copyOf(tally.rejections), elapsedMillis);
+    }
+
+    private <T> T parse(String line, IngestFormat format, List<String> header, Class<T> type, long lineNumber,
+            Tally tally) {
+        T record;
+        try {
+            record = format == IngestFormat.CSV
+                    ? objectMapper.convertValue(toFields(header, CsvLine.split(line)), type)
+                    : objectMapper.readValue(line, type);
+        } catch (JsonProcessingException | IllegalArgumentException ex) {
+            tally.reject(lineNumber, "unreadable record: " + rootMessage(ex));
+            return null;
+        }
+        Set<ConstraintViolation<T>> violations = validator.validate(record);
+        if (!violations.isEmpty()) {
+            tally.reject(lineNumber, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+            return null;
+        }
+        return record;
+    }
+
+    private static Map<String, String> toFields(List<String> header, List<String> values) {
+        if (values.size() != header.size()) {
+            throw new IllegalArgumentException("expected %d fields but found %d".formatted(header.size(),
+                    values.size()));
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String value = values.get(i);
+            fields.put(header.get(i), value.isEmpty() ? null : value);
+        }
+        return fields;
+    }
+
+    private static <T> void flush(Map<String, T> chunk, ChunkWriter<T> writer, Tally tally) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        UpsertCounts counts = writer.write(new ArrayList<>(chunk.values()));
+        tally.inserted += counts.inserted();
+        tally.updated += counts.updated();
+        tally.unchanged += counts.unchanged();
+        chunk.clear();
+    }
+
+    private static String rootMessage(Exception ex) {
+        if (ex instanceof JsonProcessingException json) {
+            return json.getOriginalMessage();
+        }
+        Throwable root = ex;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return root instanceof JsonProcessingException json ? json.getOriginalMessage() : root.getMessage();
+    }
+
+    private static final class Tally {
+
+        private final int maxReportedRejections;
+        private final List<Rejection> rejections = new ArrayList<>();
+        private long received;
+        private long inserted;
+        private long updated;
+        private long unchanged;
+        private long duplicates;
+        private long rejected;
+
+        private Tally(int maxReportedRejections) {
+            this.maxReportedRejections = maxReportedRejections;
+        }
+
+        private void reject(long line, String message) {
+            rejected++;
+            if (rejections.size() < maxReportedRejections) {
+                rejections.add(new Rejection(line, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.contargo.s3sync.ingest;
+
+/**
+ * Writes one chunk of validated records, typically as a single multi-row upsert.
+ */
+import java.util.List;
+
+@FunctionalInterface
+public interface ChunkWriter<T> {
+
+    UpsertCounts write(List<T> chunk);
+}
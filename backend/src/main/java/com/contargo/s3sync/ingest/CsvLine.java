@@ -0,0 +1,49 @@
+package com.contargo.s3sync.ingest;
+
+/**
+ * Splits a single CSV line into fields (RFC 4180 quoting: fields may be enclosed in double
+ * quotes, and a doubled quote inside a quoted field is a literal quote). Line breaks inside
+ * quoted fields are not supported, since the body is read line by line.
+ */
+import java.util.ArrayList;
+import java.util.List;
+
+final class CsvLine {
+
+    private CsvLine() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if a quoted field is not closed
+     */
+    static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
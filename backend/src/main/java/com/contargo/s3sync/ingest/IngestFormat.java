@@ -0,0 +1,39 @@
+package com.contargo.s3sync.ingest;
+
+/**
+ * Request body formats accepted by the bulk ingestion endpoints.
+ */
+import org.springframework.http.MediaType;
+
+public enum IngestFormat {
+
+    /** One JSON object per line ({@code application/x-ndjson} or {@code application/jsonl}). */
+    JSON_LINES,
+
+    /** Comma-separated values with a header row naming the fields ({@code text/csv}). */
+    CSV;
+
+    public static final String NDJSON = "application/x-ndjson";
+    public static final String JSONL = "application/jsonl";
+    public static final String TEXT_CSV = "text/csv";
+
+    /**
+     * Resolves the format of a request from its {@code Content-Type}.
+     *
+     * @throws IllegalArgumentException if the content type is not supported
+     */
+    public static IngestFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            if (mediaType.isCompatibleWith(MediaType.parseMediaType(TEXT_CSV))) {
+                return CSV;
+            }
+            if (mediaType.isCompatibleWith(MediaType.parseMediaType(NDJSON))
+                    || mediaType.isCompatibleWith(MediaType.parseMediaType(JSONL))) {
+                return JSON_LINES;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported content type " + contentType + "; use " + NDJSON
+                + " or " + TEXT_CSV);
+    }
+}
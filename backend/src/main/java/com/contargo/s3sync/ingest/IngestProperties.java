@@ -0,0 +1,39 @@
+package com.contargo.s3sync.ingest;
+
+/**
+ * Configuration properties of the bulk ingestion endpoints.
+ */
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@ConfigurationProperties(prefix = "ingest")
+@Validated
+public class IngestProperties {
+
+    /** Records per upsert statement; each chunk commits on its own. */
+    @Min(value = 1, message = "ingest.chunk-size must be at least 1")
+    @Max(value = 50_000, message = "ingest.chunk-size must be at most 50000")
+    private int chunkSize = 2_000;
+
+    /** Rejected records reported in the response; all rejections are counted. */
+    @Min(value = 0, message = "ingest.max-reported-rejections must not be negative")
+    private int maxReportedRejections = 100;
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getMaxReportedRejections() {
+        return maxReportedRejections;
+    }
+
+    public void setMaxReportedRejections(int maxReportedRejections) {
+        this.maxReportedRejections = maxReportedRejections;
+    }
+}
@@ -0,0 +1,24 @@
+package com.contargo.s3sync.ingest;
+
+/**
+ * Summary of a bulk ingestion request.
+ *
+ * @param received records read from the body
+ * @param inserted rows created
+ * @param updated existing rows whose values changed; their change timestamp was advanced
+ * @param unchanged existing rows sent with identical values, plus records superseded by a later
+ *        record with the same id in the same chunk
+ * @param rejected records skipped because they could not be parsed or failed validation
+ * @param rejections the first rejected records with their line number
+ */
+import java.util.List;
+
+public record IngestionResult(long received, long inserted, long updated, long unchanged, long rejected,
+        List<Rejection> rejections, long elapsedMillis) {
+
+    /**
+     * A skipped record; {@code line} is 1-based and counts the CSV header.
+     */
+    public record Rejection(long line, String message) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.contargo.s3sync.ingest;
+
+/**
+ * Outcome of one upsert chunk. Unchanged rows matched an existing row with identical values
+ * and kept their change timestamp, so they are not exported again.
+ */
+public record UpsertCounts(long inserted, long updated, long unchanged) {
+}
@@ -0,0 +1,71 @@
+package com.contargo.s3sync.order;
+
+/**
+ * Upserts chunks of orders with one {@code INSERT ... SELECT FROM unnest(...) ON CONFLICT}
+ * statement per chunk. Inserted and changed orders get {@code lastchange = clock_timestamp()},
+ * the time the row is written rather than the start of the chunk's transaction, which lets the
+ * next sync run export them; orders sent with unchanged values keep their timestamp. The
+ * creation time of an existing order is never changed.
+ */
+import com.contargo.s3sync.ingest.ChunkWriter;
+import com.contargo.s3sync.ingest.UpsertCounts;
+import java.sql.PreparedStatement;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+public class OrderBulkWriter implements ChunkWriter<OrderUpsert> {
+
+    private static final String UPSERT = """
+            INSERT INTO auftraege AS a (auftragid, artikelnummer, created, lastchange, kundeid)
+            SELECT u.auftragid, u.artikelnummer, coalesce(u.created::timestamptz, clock_timestamp()),
+                   clock_timestamp(), u.kundeid
+            FROM unnest(?::varchar[], ?::varchar[], ?::text[], ?::varchar[])
+                 AS u(auftragid, artikelnummer, created, kundeid)
+            ON CONFLICT (auftragid) DO UPDATE SET
+                artikelnummer = EXCLUDED.artikelnummer,
+                kundeid = EXCLUDED.kundeid,
+                lastchange = EXCLUDED.lastchange
+            WHERE (a.artikelnummer, a.kundeid) IS DISTINCT FROM (EXCLUDED.artikelnummer, EXCLUDED.kundeid)
+            RETURNING (xmax = 0) AS inserted
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderBulkWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Upserts a chunk of orders with distinct ids.
+     */
+    @Override
+    public UpsertCounts write(List<OrderUpsert> chunk) {
+        long[] counts = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(UPSERT);
+            statement.setArray(1, connection.createArrayOf("varchar",
+                    chunk.stream().map(OrderUpsert::id).toArray(String[]::new)));
+            statement.setArray(2, connection.createArrayOf("varchar",
+                    chunk.stream().map(OrderUpsert::articleNumber).toArray(String[]::new)));
+            statement.setArray(3, connection.createArrayOf("text", chunk.stream()
+                    .map(order -> order.created() == null ? null : order.created().toString())
+                    .toArray(String[]::new)));
+            statement.setArray(4, connection.createArrayOf("varchar",
+                    chunk.stream().map(OrderUpsert::customerId).toArray(String[]::new)));
+            return statement;
+        }, resultSet -> {
+            long inserted = 0;
+            long updated = 0;
+            while (resultSet.next()) {
+                if (resultSet.getBoolean(1)) {
+                    inserted++;
+                } else {
+                    updated++;
+                }
+            }
+            return new long[] {inserted, updated};
+        });
+        return new UpsertCounts(counts[0], counts[1], chunk.size() - counts[0] - counts[1]);
+    }
+}
@@ -1,10 +1,16 @@
 package com.contargo.s3sync.order;
 
 /**
- * Demo endpoints for listing orders and touching their lastChange timestamp.
+ * Endpoints for listing orders, bulk-upserting them from upstream systems and touching their
+ * lastChange timestamp (demo).
  */
+import com.contargo.s3sync.ingest.BulkIngestionService;
+import com.contargo.s3sync.ingest.IngestFormat;
+import com.contargo.s3sync.ingest.IngestionResult;
 import com.contargo.s3sync.order.OrderService.OrderSummaryDto;
 import com.contargo.s3sync.order.OrderService.OrderUpdateResult;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
 import java.time.OffsetDateTime;
 import java.util.List;
 import org.slf4j.Logger;
@@ -21,9 +27,14 @@ public class OrderController {
     private static final Logger log = LoggerFactory.getLogger(OrderController.class);
 
     private final OrderService orderService;
+    private final BulkIngestionService bulkIngestionService;
+    private final OrderBulkWriter orderBulkWriter;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, BulkIngestionService bulkIngestionService,
+            OrderBulkWriter orderBulkWriter) {
         this.orderService = orderService;
+        this.bulkIngestionService = bulkIngestionService;
+        this.orderBulkWriter = orderBulkWriter;
     }
 
     @GetMapping
@@ -35,6 +46,17 @@ public class OrderController {
         return orderService.findAllSummaries();
     }
 
+    @PostMapping(path = "/bulk", consumes = {IngestFormat.NDJSON, IngestFormat.JSONL, IngestFormat.TEXT_CSV})
+    /**
+     * Creates or updates orders from a JSON Lines or CSV body, streamed in chunks.
+     */
+    public IngestionResult upsertOrders(HttpServletRequest request) throws IOException {
+        IngestFormat format = IngestFormat.fromContentType(request.getContentType());
+        log.info("Received bulk order upsert ({})", format);
+        return bulkIngestionService.ingest(request.getInputStream(), format, OrderUpsert.class, OrderUpsert::id,
+                orderBulkWriter);
+    }
+
     @PostMapping("/lastchange/touch")
     /**
      * Updates lastChange for the two most recent orders per customer.
@@ -0,0 +1,88 @@
+package com.contargo.s3sync.order;
+
+/**
+ * Exports {@code auftraege} partitioned by the country of the ordering customer, one CSV line
+ * per order without header.
+ */
+import com.contargo.s3sync.customer.CustomerRepository;
+import com.contargo.s3sync.sync.ObjectKeyTemplate;
+import com.contargo.s3sync.sync.TableExporter;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Component;
+
+@Component
+public class OrderExporter implements TableExporter<Order> {
+
+    private static final ObjectKeyTemplate KEY_TEMPLATE =
+            new ObjectKeyTemplate("{table}/{date}/{partition}/orders_{partition}_{date}_{run}.csv");
+
+    private final OrderRepository orderRepository;
+    private final CustomerRepository customerRepository;
+
+    public OrderExporter(OrderRepository orderRepository, CustomerRepository customerRepository) {
+        this.orderRepository = orderRepository;
+        this.customerRepository = customerRepository;
+    }
+
+    @Override
+    public String tableName() {
+        return "auftraege";
+    }
+
+    @Override
+    public List<String> partitions() {
+        return customerRepository.findDistinctCountries();
+    }
+
+    @Override
+    public Stream<Order> load(String country, OffsetDateTime windowStart, OffsetDateTime windowEnd) {
+        if (windowEnd == null) {
+            return windowStart == null
+                ? orderRepository.findByCustomerCountry(country)
+                : orderRepository.findByCustomerCountryAndLastChangeAfter(country, windowStart);
+        }
+        return windowStart == null
+            ? orderRepository.findByCustomerCountryAndLastChangeLessThanEqual(country, windowEnd)
+            : orderRepository.findByCustomerCountryAndLastChangeAfterAndLastChangeLessThanEqual(country,
+                windowStart, windowEnd);
+    }
+
+    @Override
+    public long count(String country, OffsetDateTime windowStart, OffsetDateTime windowEnd) {
+        if (windowEnd == null) {
+            return windowStart == null
+                ? orderRepository.countByCustomerCountry(country)
+                : orderRepository.countByCustomerCountryAndLastChangeAfter(country, windowStart);
+        }
+        return windowStart == null
+            ? orderRepository.countByCustomerCountryAndLastChangeLessThanEqual(country, windowEnd)
+            : orderRepository.countByCustomerCountryAndLastChangeAfterAndLastChangeLessThanEqual(country,
+                windowStart, windowEnd);
+    }
+
+    @Override
+    public OffsetDateTime changedAt(Order order) {
+        return order.getLastChange();
+    }
+
+    @Override
+    public String rowId(Order order) {
+        return order.getId();
+    }
+
+    @Override
+    public String encode(Order order) {
+        return String.join(",",
+            TableExporter.csvField(order.getId()),
+            TableExporter.csvField(order.getArticleNumber()),
+            TableExporter.csvField(order.getCustomer().getId())
+        );
+    }
+
+    @Override
+    public ObjectKeyTemplate keyTemplate() {
+        return KEY_TEMPLATE;
+    }
+}
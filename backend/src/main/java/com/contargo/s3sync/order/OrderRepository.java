@@ -5,7 +5,10 @@ package com.contargo.s3sync.order;
  */
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
+import com.contargo.s3sync.customer.CountryLatestChange;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -13,11 +16,71 @@ import org.springframework.data.repository.query.Param;
 
 public interface OrderRepository extends JpaRepository<Order, String> {
 
+    /**
+     * Returns all orders with their customer fetched, so the country can be read outside a transaction.
+     */
+    @Override
+    @EntityGraph(attributePaths = "customer")
+    List<Order> findAll();
+
     /**
      * Finds orders changed after the given timestamp.
      */
+    @EntityGraph(attributePaths = "customer")
     List<Order> findByLastChangeAfter(OffsetDateTime lastChange);
 
+    /**
+     * Streams all orders of customers in a country; the caller closes the stream within a transaction.
+     */
+    @EntityGraph(attributePaths = "customer")
+    Stream<Order> findByCustomerCountry(String country);
+
+    /**
+     * Counts the orders of customers in a country.
+     */
+    long countByCustomerCountry(String country);
+
+    /**
+     * Streams orders of customers in a country changed after the given timestamp.
+     */
+    @EntityGraph(attributePaths = "customer")
+    Stream<Order> findByCustomerCountryAndLastChangeAfter(String country, OffsetDateTime lastChange);
+
+    /**
+     * Counts the orders of customers in a country changed after the given timestamp.
+     */
+    long countByCustomerCountryAndLastChangeAfter(String country, OffsetDateTime lastChange);
+
+    /**
+     * Streams orders of customers in a country changed up to and including the given timestamp.
+     */
+    @EntityGraph(attributePaths = "customer")
+    Stream<Order> findByCustomerCountryAndLastChangeLessThanEqual(String country, OffsetDateTime windowEnd);
+
+    /**
+     * Counts the orders of customers in a country changed up to and including the given timestamp.
+     */
+    long countByCustomerCountryAndLastChangeLessThanEqual(String country, OffsetDateTime windowEnd);
+
+    /**
+     * Streams orders of customers in a country changed within the half-open window {@code (windowStart, windowEnd]}.
+     */
+    @EntityGraph(attributePaths = "customer")
+    Stream<Order> findByCustomerCountryAndLastChangeAfterAndLastChangeLessThanEqual(String country,
+            OffsetDateTime windowStart, OffsetDateTime windowEnd);
+
+    /**
+     * Counts the orders of customers in a country changed within the half-open window {@code (windowStart, windowEnd]}.
+     */
+    long countByCustomerCountryAndLastChangeAfterAndLastChangeLessThanEqual(String country,
+            OffsetDateTime windowStart, OffsetDateTime windowEnd);
+
+    /**
+     * Returns the latest order change per customer country.
+     */
+    @Query("select o.customer.country as country, max(o.lastChange) as latestChange from Order o group by o.customer.country")
+    List<CountryLatestChange> findLatestChangePerCountry();
+
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Query(
             value
@@ -3,10 +3,12 @@ package com.contargo.s3sync.order;
 /**
  * Read model and maintenance operations for orders.
  */
+import com.contargo.s3sync.country.SourceDataChangedEvent;
 import java.time.OffsetDateTime;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,9 +20,11 @@ public class OrderService {
     private static final Logger log = LoggerFactory.getLogger(OrderService.class);
 
     private final OrderRepository orderRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public OrderService(OrderRepository orderRepository) {
+    public OrderService(OrderRepository orderRepository, ApplicationEventPublisher eventPublisher) {
         this.orderRepository = orderRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -47,6 +51,7 @@ public class OrderService {
     public OrderUpdateResult updateLastChangeForTopTwoOrdersPerCustomer() {
         OffsetDateTime timestamp = OffsetDateTime.now();
         int updatedRows = orderRepository.updateLastChangeForTopTwoPerCustomer(timestamp);
+        eventPublisher.publishEvent(new SourceDataChangedEvent("order touch"));
         log.info(
                 "Updated lastChange timestamp for {} orders across customers using timestamp {}",
                 updatedRows,
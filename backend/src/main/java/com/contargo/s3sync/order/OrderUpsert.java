@@ -0,0 +1,16 @@
+package com.contargo.s3sync.order;
+
+/**
+ * One order of a bulk ingestion request. {@code created} defaults to the time of ingestion;
+ * {@code lastChange} is always set by the server.
+ */
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import java.time.OffsetDateTime;
+
+public record OrderUpsert(
+        @NotBlank @Size(max = 255) String id,
+        @NotBlank @Size(max = 255) String articleNumber,
+        OffsetDateTime created,
+        @NotBlank @Size(max = 255) String customerId) {
+}
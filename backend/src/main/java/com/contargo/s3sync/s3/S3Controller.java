@@ -3,19 +3,30 @@ package com.contargo.s3sync.s3;
 /**
  * REST endpoints to browse and download objects stored in S3.
  */
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/s3")
@@ -27,20 +38,20 @@ public class S3Controller {
         this.s3Service = s3Service;
     }
 
-    @GetMapping("/files")
     /**
      * Lists all objects available in the configured S3 bucket.
      */
+    @GetMapping("/files")
     public List<S3ObjectMetadata> listFiles() {
         return s3Service.listAllObjects();
     }
 
-    @GetMapping(value = "/files", params = "key")
     /**
      * Streams the content of the given object key as a file download.
      *
      * @param key the object key within the bucket
      */
+    @GetMapping(value = "/files", params = "key")
     public ResponseEntity<byte[]> downloadFile(@RequestParam("key") String key) {
         // key is already decoded here
         S3ObjectContent object = s3Service.getObject(key);
@@ -58,6 +69,71 @@ public class S3Controller {
                 .body(object.data());
     }
 
+    /**
+     * Downloads every object below the key prefix through the Transfer Manager and streams them
+     * as one ZIP file, with entry names relative to the prefix. The downloads are kept in a
+     * temporary directory until the archive is written. A blank prefix, which would archive the
+     * whole bucket, and prefixes beyond {@code aws.s3.transfer.archive-max-*} are rejected.
+     *
+     * @param prefix key prefix, e.g. {@code auftraege/2025-04-01/}
+     */
+    @GetMapping(value = "/archive", params = "prefix")
+    public ResponseEntity<StreamingResponseBody> downloadArchive(@RequestParam("prefix") String prefix)
+            throws IOException {
+        if (prefix.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "prefix must not be blank");
+        }
+        Path directory = Files.createTempDirectory("s3-archive-");
+        List<Path> files;
+        try {
+            files = s3Service.downloadPrefix(prefix, directory);
+        } catch (IllegalArgumentException e) {
+            deleteRecursively(directory);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (RuntimeException e) {
+            deleteRecursively(directory);
+            throw e;
+        }
+        if (files.isEmpty()) {
+            deleteRecursively(directory);
+            throw new S3ObjectNotFoundException(prefix, null);
+        }
+
+        StreamingResponseBody body = output -> {
+            try (ZipOutputStream zip = new ZipOutputStream(output)) {
+                for (Path file : files) {
+                    zip.putNextEntry(new ZipEntry(directory.relativize(file).toString().replace('\\', '/')));
+                    Files.copy(file, zip);
+                    zip.closeEntry();
+                }
+            } finally {
+                deleteRecursively(directory);
+            }
+        };
+        String name = prefix.replaceAll("[^A-Za-z0-9._-]+", "_").replaceAll("^_+|_+$", "");
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename((name.isEmpty() ? "archive" : name) + ".zip", StandardCharsets.UTF_8)
+                .build();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(body);
+    }
+
+    private static void deleteRecursively(Path directory) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            // Left for the OS to clean up with the rest of the temp directory.
+        }
+    }
+
     /**
      * Parses the content type or falls back to octet-stream when
      * invalid/unknown.
@@ -2,10 +2,18 @@ package com.contargo.s3sync.s3;
 
 /**
  * Thin wrapper around the AWS SDK S3 client for listing and reading objects.
- * Translates SDK exceptions to domain-specific ones.
+ * Translates SDK exceptions to domain-specific ones. Whole prefixes are downloaded through the
+ * {@link S3TransferManager}, many objects at a time.
  */
 import com.contargo.s3sync.config.S3Properties;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.core.ResponseBytes;
 import software.amazon.awssdk.services.s3.S3Client;
@@ -17,15 +25,23 @@ import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.NoSuchBucketException;
 import software.amazon.awssdk.services.s3.model.S3Exception;
 import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.transfer.s3.S3TransferManager;
+import software.amazon.awssdk.transfer.s3.model.CompletedDirectoryDownload;
+import software.amazon.awssdk.transfer.s3.model.DownloadDirectoryRequest;
 
 @Service
 public class S3Service {
 
     private final S3Client s3Client;
+    private final S3TransferManager transferManager;
+    private final S3TransferMetrics transferMetrics;
     private final S3Properties properties;
 
-    public S3Service(S3Client s3Client, S3Properties properties) {
+    public S3Service(S3Client s3Client, S3TransferManager transferManager, S3TransferMetrics transferMetrics,
+        S3Properties properties) {
         this.s3Client = s3Client;
+        this.transferManager = transferManager;
+        this.transferMetrics = transferMetrics;
         this.properties = properties;
     }
 
@@ -77,6 +93,78 @@ public class S3Service {
         }
     }
 
+    /**
+     * Downloads every object below the given key prefix into the directory, keeping the key
+     * structure below the prefix. Objects are fetched concurrently; on the CRT client large
+     * objects are additionally split into parallel byte-range requests. The prefix is listed
+     * first and refused if its objects exceed {@code aws.s3.transfer.archive-max-objects} or
+     * {@code aws.s3.transfer.archive-max-size}; only the listed objects are downloaded.
+     *
+     * @param prefix key prefix, e.g. {@code kunde/2025-04-01/}
+     * @param destination existing local directory to download into
+     * @return the downloaded files, in key order
+     * @throws IllegalArgumentException if the objects below the prefix exceed the archive limits
+     */
+    public List<Path> downloadPrefix(String prefix, Path destination) {
+        Set<String> keys = listKeysWithinArchiveLimits(prefix);
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        DownloadDirectoryRequest request = DownloadDirectoryRequest.builder()
+            .bucket(properties.getBucketName())
+            .listObjectsV2RequestTransformer(list -> list.prefix(prefix))
+            .filter(object -> keys.contains(object.key()))
+            .destination(destination)
+            .downloadFileRequestTransformer(download -> download.addTransferListener(
+                transferMetrics.listener(S3TransferMetrics.DOWNLOAD)))
+            .build();
+
+        CompletedDirectoryDownload completed;
+        try {
+            completed = transferManager.downloadDirectory(request).completionFuture().join();
+        } catch (CompletionException e) {
+            throw new S3OperationException("Failed to download objects below %s".formatted(prefix), e.getCause());
+        }
+        if (!completed.failedTransfers().isEmpty()) {
+            throw new S3OperationException("Failed to download %d objects below %s".formatted(
+                completed.failedTransfers().size(), prefix), completed.failedTransfers().get(0).exception());
+        }
+        try (Stream<Path> files = Files.walk(destination)) {
+            return files.filter(Files::isRegularFile).sorted().toList();
+        } catch (IOException e) {
+            throw new S3OperationException("Failed to list the downloads below %s".formatted(prefix), e);
+        }
+    }
+
+    /**
+     * Lists the keys below the prefix and checks them against the archive limits.
+     */
+    private Set<String> listKeysWithinArchiveLimits(String prefix) {
+        S3Properties.Transfer transfer = properties.getTransfer();
+        ListObjectsV2Request request = ListObjectsV2Request.builder()
+            .bucket(properties.getBucketName())
+            .prefix(prefix)
+            .build();
+        Set<String> keys = new HashSet<>();
+        long bytes = 0;
+        try {
+            for (S3Object object : s3Client.listObjectsV2Paginator(request).contents()) {
+                keys.add(object.key());
+                bytes += object.size();
+                if (keys.size() > transfer.getArchiveMaxObjects() || bytes > transfer.getArchiveMaxSize().toBytes()) {
+                    throw new IllegalArgumentException(
+                        "Objects below %s exceed the archive limit of %d objects or %s".formatted(prefix,
+                            transfer.getArchiveMaxObjects(), transfer.getArchiveMaxSize()));
+                }
+            }
+        } catch (NoSuchBucketException e) {
+            return Set.of();
+        } catch (S3Exception e) {
+            throw new S3OperationException("Failed to list objects below %s".formatted(prefix), e);
+        }
+        return keys;
+    }
+
     /**
      * Maps an SDK S3Object to the simplified metadata type.
      */
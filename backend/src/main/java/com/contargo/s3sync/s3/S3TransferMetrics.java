@@ -0,0 +1,113 @@
+package com.contargo.s3sync.s3;
+
+/**
+ * Progress of S3 transfers as metrics: transferred bytes ({@code s3.transfer.bytes}), running
+ * transfers ({@code s3.transfer.active}) and transfer durations ({@code s3.transfer.duration}
+ * by outcome), each tagged with the direction. Transfer Manager transfers report through a
+ * {@link TransferListener} per transfer; single-request uploads record their size when done.
+ */
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.transfer.s3.progress.TransferListener;
+
+@Component
+public class S3TransferMetrics {
+
+    public static final String UPLOAD = "upload";
+    public static final String DOWNLOAD = "download";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicInteger> active = Map.of(UPLOAD, new AtomicInteger(),
+            DOWNLOAD, new AtomicInteger());
+
+    public S3TransferMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        active.forEach((direction, count) -> Gauge.builder("s3.transfer.active", count, AtomicInteger::get)
+                .description("S3 transfers in progress")
+                .tag("direction", direction)
+                .register(meterRegistry));
+    }
+
+    /**
+     * Returns a listener for one Transfer Manager transfer in the given direction.
+     */
+    public TransferListener listener(String direction) {
+        return new MetricsListener(direction);
+    }
+
+    /**
+     * Records bytes moved outside the Transfer Manager, e.g. by a single {@code PutObject}.
+     */
+    public void recordBytes(String direction, long bytes) {
+        bytes(direction).increment(bytes);
+    }
+
+    private Counter bytes(String direction) {
+        return Counter.builder("s3.transfer.bytes")
+                .description("Bytes transferred to or from S3")
+                .baseUnit("bytes")
+                .tag("direction", direction)
+                .register(meterRegistry);
+    }
+
+    private Timer duration(String direction, String outcome) {
+        return Timer.builder("s3.transfer.duration")
+                .description("Duration of Transfer Manager transfers")
+                .tag("direction", direction)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Turns the cumulative progress snapshots of one transfer into counter increments.
+     */
+    private final class MetricsListener implements TransferListener {
+
+        private final String direction;
+        private final Counter bytes;
+        private long reported;
+        private volatile long startNanos;
+
+        private MetricsListener(String direction) {
+            this.direction = direction;
+            this.bytes = bytes(direction);
+        }
+
+        @Override
+        public void transferInitiated(Context.TransferInitiated context) {
+            startNanos = System.nanoTime();
+            active.get(direction).incrementAndGet();
+        }
+
+        @Override
+        public synchronized void bytesTransferred(Context.BytesTransferred context) {
+            long transferred = context.progressSnapshot().transferredBytes();
+            if (transferred > reported) {
+                bytes.increment(transferred - reported);
+                reported = transferred;
+            }
+        }
+
+        @Override
+        public void transferComplete(Context.TransferComplete context) {
+            bytesTransferred(context);
+            finish("success");
+        }
+
+        @Override
+        public void transferFailed(Context.TransferFailed context) {
+            finish("failure");
+        }
+
+        private void finish(String outcome) {
+            active.get(direction).decrementAndGet();
+            duration(direction, outcome).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.contargo.s3sync.sync;
+
+/**
+ * AIMD limiter for in-flight S3 requests. The limit grows additively (about one slot
+ * per window of successful requests) and is cut multiplicatively when S3 throttles,
+ * so parallel exports converge on the request rate the bucket prefix can sustain.
+ * Callers waiting for a slot receive a future instead of blocking a thread.
+ */
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+final class AdaptiveConcurrencyLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    /**
+     * Result of a request, reported back when its slot is released.
+     */
+    enum Outcome {
+        SUCCESS,
+        THROTTLED,
+        FAILED
+    }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final Deque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+
+    private double limit;
+    private int inFlight;
+
+    AdaptiveConcurrencyLimiter(int minLimit, int maxLimit, double backoffRatio) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid concurrency bounds [%d, %d]".formatted(minLimit, maxLimit));
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.limit = maxLimit;
+    }
+
+    /**
+     * Completes once a slot is available. Every completed acquisition must be matched by {@link #release}.
+     */
+    CompletableFuture<Void> acquire() {
+        synchronized (this) {
+            if (inFlight < currentLimit()) {
+                inFlight++;
+                return CompletableFuture.completedFuture(null);
+            }
+            CompletableFuture<Void> waiter = new CompletableFuture<>();
+            waiters.add(waiter);
+            return waiter;
+        }
+    }
+
+    /**
+     * Frees a slot and adjusts the limit according to the outcome of the request.
+     */
+    void release(Outcome outcome) {
+        List<CompletableFuture<Void>> admitted = new ArrayList<>();
+        synchronized (this) {
+            inFlight--;
+            int previous = currentLimit();
+            if (outcome == Outcome.SUCCESS) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            } else if (outcome == Outcome.THROTTLED) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            }
+            if (currentLimit() != previous) {
+                log.debug("S3 concurrency limit changed from {} to {} after {}", previous, currentLimit(), outcome);
+            }
+            while (!waiters.isEmpty() && inFlight < currentLimit()) {
+                inFlight++;
+                admitted.add(waiters.poll());
+            }
+        }
+        admitted.forEach(waiter -> waiter.complete(null));
+    }
+
+    synchronized int currentLimit() {
+        return (int) limit;
+    }
+
+    synchronized int inFlight() {
+        return inFlight;
+    }
+}
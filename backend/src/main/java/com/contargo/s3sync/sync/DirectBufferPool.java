@@ -0,0 +1,107 @@
+package com.contargo.s3sync.sync;
+
+/**
+ * Pool of fixed-size direct buffers that staged partitions are serialized into and uploaded
+ * from. Buffers are allocated lazily up to {@code sync.staging.memory-budget} and kept for
+ * later runs, so the 3-hourly export burst neither allocates nor collects payload memory on
+ * the heap. When every buffer is taken, the staging writer spills to disk instead.
+ */
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+
+@Component
+public class DirectBufferPool implements MeterBinder {
+
+    private final int bufferSize;
+    private final int maxBuffers;
+    private final Queue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger allocated = new AtomicInteger();
+    private final AtomicInteger inUse = new AtomicInteger();
+    private final AtomicInteger highWaterMark = new AtomicInteger();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong exhausted = new AtomicLong();
+
+    public DirectBufferPool(SyncProperties syncProperties) {
+        SyncProperties.Staging staging = syncProperties.getStaging();
+        this.bufferSize = Math.toIntExact(staging.getBufferSize().toBytes());
+        this.maxBuffers = Math.toIntExact(staging.getMemoryBudget().toBytes() / bufferSize);
+    }
+
+    /**
+     * Borrows a cleared buffer. A buffer that is not available from the pool counts as a miss
+     * and is allocated while the budget allows it; otherwise {@code null} is returned.
+     */
+    ByteBuffer tryAcquire() {
+        ByteBuffer buffer = free.poll();
+        if (buffer == null) {
+            misses.incrementAndGet();
+            if (allocated.getAndUpdate(count -> count < maxBuffers ? count + 1 : count) >= maxBuffers) {
+                exhausted.incrementAndGet();
+                return null;
+            }
+            buffer = ByteBuffer.allocateDirect(bufferSize);
+        }
+        int current = inUse.incrementAndGet();
+        highWaterMark.accumulateAndGet(current, Math::max);
+        return buffer;
+    }
+
+    /**
+     * Returns a borrowed buffer to the pool.
+     */
+    void release(ByteBuffer buffer) {
+        buffer.clear();
+        inUse.decrementAndGet();
+        free.add(buffer);
+    }
+
+    int bufferSize() {
+        return bufferSize;
+    }
+
+    int inUse() {
+        return inUse.get();
+    }
+
+    int highWaterMark() {
+        return highWaterMark.get();
+    }
+
+    long misses() {
+        return misses.get();
+    }
+
+    long exhausted() {
+        return exhausted.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("sync.staging.buffers.capacity", this, pool -> pool.maxBuffers)
+            .description("Direct buffers the staging pool may allocate")
+            .register(registry);
+        Gauge.builder("sync.staging.buffers.allocated", allocated, AtomicInteger::get)
+            .description("Direct buffers allocated by the staging pool")
+            .register(registry);
+        Gauge.builder("sync.staging.buffers.in.use", inUse, AtomicInteger::get)
+            .description("Direct buffers currently borrowed by staged partitions")
+            .register(registry);
+        Gauge.builder("sync.staging.buffers.high.water.mark", highWaterMark, AtomicInteger::get)
+            .description("Most direct buffers borrowed at the same time")
+            .register(registry);
+        FunctionCounter.builder("sync.staging.buffers.misses", misses, AtomicLong::get)
+            .description("Borrow requests that could not be served from pooled buffers")
+            .register(registry);
+        FunctionCounter.builder("sync.staging.buffers.exhausted", exhausted, AtomicLong::get)
+            .description("Borrow requests refused because the budget was used up (partition spilled)")
+            .register(registry);
+    }
+}
@@ -0,0 +1,60 @@
+package com.contargo.s3sync.sync;
+
+/**
+ * Template of the S3 key of an exported partition. Placeholders: {@code {table}},
+ * {@code {partition}} (blank partitions become {@code unknown}), {@code {date}} (ISO date of
+ * the run start), {@code {timestamp}} ({@code yyyyMMdd_HHmmss} of the run start) and
+ * {@code {run}} ({@code run-000042}). Keys are deterministic, so a resumed run rewrites its
+ * own objects; {@code {partition}} and {@code {run}} are required so that neither partitions
+ * nor runs overwrite each other. A partition split into several objects gets a
+ * {@code _part-00001} suffix per part in front of the file extension.
+ */
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+
+public record ObjectKeyTemplate(String pattern) {
+
+    /** Layout for tables whose exporter does not define its own. */
+    public static final ObjectKeyTemplate DEFAULT =
+            new ObjectKeyTemplate("{table}/{date}/{partition}/{table}_{timestamp}_{run}.csv");
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE;
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+
+    public ObjectKeyTemplate {
+        if (pattern == null || !isValid(pattern)) {
+            throw new IllegalArgumentException("Key template must contain {partition} and {run}: " + pattern);
+        }
+    }
+
+    static boolean isValid(String pattern) {
+        return pattern.contains("{partition}") && pattern.contains("{run}");
+    }
+
+    /**
+     * Renders the key of one partition of a run.
+     */
+    public String render(String tableName, String partition, Long runId, OffsetDateTime generationTime) {
+        String normalizedPartition = (partition == null || partition.isBlank()) ? "unknown" : partition;
+        return pattern
+                .replace("{table}", tableName)
+                .replace("{partition}", normalizedPartition)
+                .replace("{date}", DATE_FORMAT.format(generationTime))
+                .replace("{timestamp}", TIMESTAMP_FORMAT.format(generationTime))
+                .replace("{run}", "run-%06d".formatted(runId));
+    }
+
+    /**
+     * Renders the key of one part of a partition that is split into several objects,
+     * e.g. {@code kunde/2025-04-01/DE/kunde_20250401_060000_run-000042_part-00001.csv}.
+     */
+    public String renderPart(String tableName, String partition, Long runId, OffsetDateTime generationTime,
+            int part) {
+        String key = render(tableName, partition, runId, generationTime);
+        int extension = key.lastIndexOf('.');
+        if (extension <= key.lastIndexOf('/')) {
+            extension = key.length();
+        }
+        return key.substring(0, extension) + "_part-%05d".formatted(part) + key.substring(extension);
+    }
+}
@@ -0,0 +1,70 @@
+package com.contargo.s3sync.sync;
+
+/**
+ * Streams the source query of a partition in a read-only transaction with the table's
+ * {@code sync.tables.<name>.fetch-size}. PostgreSQL only fetches through a cursor inside a
+ * transaction, so the driver pulls the rows in round trips of that size instead of buffering
+ * the whole result set. The rows are handed on in chunks of the fetch size and detached from the
+ * persistence context, so neither the driver nor Hibernate holds more than about one chunk.
+ */
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.hibernate.Session;
+import org.postgresql.PGConnection;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+public class PartitionReader {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Executes the query with the given default fetch size on the transaction's connection and
+     * passes its rows to {@code chunks} in lists of at most {@code fetchSize} rows. The consumer
+     * may block, which holds the cursor open and pushes back on the database. The previous
+     * default fetch size is restored before the connection returns to the pool.
+     */
+    @Transactional(readOnly = true)
+    public <T> void read(int fetchSize, Supplier<Stream<T>> query, Consumer<List<T>> chunks) {
+        Session session = entityManager.unwrap(Session.class);
+        int previous = session.doReturningWork(connection -> {
+            if (!connection.isWrapperFor(PGConnection.class)) {
+                return -1;
+            }
+            PGConnection pgConnection = connection.unwrap(PGConnection.class);
+            int current = pgConnection.getDefaultFetchSize();
+            pgConnection.setDefaultFetchSize(fetchSize);
+            return current;
+        });
+        try (Stream<T> rows = query.get()) {
+            List<T> chunk = new ArrayList<>(fetchSize);
+            for (Iterator<T> iterator = rows.iterator(); iterator.hasNext(); ) {
+                chunk.add(iterator.next());
+                if (chunk.size() == fetchSize) {
+                    handOff(chunk, chunks);
+                    chunk = new ArrayList<>(fetchSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                handOff(chunk, chunks);
+            }
+        } finally {
+            if (previous >= 0) {
+                session.doWork(connection -> connection.unwrap(PGConnection.class).setDefaultFetchSize(previous));
+            }
+        }
+    }
+
+    private <T> void handOff(List<T> chunk, Consumer<List<T>> chunks) {
+        entityManager.clear();
+        chunks.accept(chunk);
+    }
+}
@@ -0,0 +1,158 @@
+package com.contargo.s3sync.sync;
+
+/**
+ * Stages serialized partitions before upload. Content stays in pooled direct buffers within
+ * the shared {@code sync.staging.memory-budget}; partitions that do not fit spill to
+ * {@code sync.staging.directory}, one sub-directory per run. A spilled partition whose
+ * upload fails is kept, so the resumed run uploads the same file instead of querying the
+ * database again; files of other runs are removed when a run starts. The file name carries the
+ * record count and checksums of the partition, so resuming never reads the file before uploading it.
+ */
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PartitionStagingArea {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionStagingArea.class);
+    private static final Pattern STAGED_FILE =
+        Pattern.compile("([A-Za-z0-9_-]+)\\.(\\d+)\\.([0-9a-f]{64})\\.([0-9a-f]{8})\\.csv");
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final Path directory;
+    private final DirectBufferPool bufferPool;
+
+    public PartitionStagingArea(SyncProperties syncProperties, DirectBufferPool bufferPool) {
+        this.directory = syncProperties.getStaging().getDirectory();
+        this.bufferPool = bufferPool;
+    }
+
+    /**
+     * Opens a writer for the given partition of a run, replacing whatever an earlier attempt staged for it.
+     *
+     * @param part number of the part of a partition split into several objects, {@code null} if it is not split
+     */
+    StagingWriter open(Long runId, String tableName, String country, Integer part) {
+        Path runDirectory = runDirectory(runId);
+        String baseName = part == null ? baseName(tableName, country)
+            : baseName(tableName, country) + "_part-%05d".formatted(part);
+        try {
+            for (Path stale : stagedFiles(runDirectory, baseName)) {
+                Files.deleteIfExists(stale);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to clear staged files of " + baseName, ex);
+        }
+        return new StagingWriter(runDirectory, baseName, bufferPool);
+    }
+
+    /**
+     * Returns the completed file staged for an unsplit partition by an earlier attempt of the run, if any.
+     * Record count and checksums are taken from the file name.
+     */
+    Optional<StagedContent> find(Long runId, String tableName, String country) {
+        Path runDirectory = runDirectory(runId);
+        try {
+            Optional<Path> staged = stagedFiles(runDirectory, baseName(tableName, country)).stream().findFirst();
+            if (staged.isEmpty()) {
+                return Optional.empty();
+            }
+            Path file = staged.get();
+            Matcher matcher = STAGED_FILE.matcher(file.getFileName().toString());
+            if (!matcher.matches()) {
+                return Optional.empty();
+            }
+            return Optional.of(StagedContent.spilled(file, Files.size(file), fromHex(matcher.group(3)),
+                fromHex(matcher.group(4)), Long.parseLong(matcher.group(2))));
+        } catch (IOException ex) {
+            log.warn("Could not read staged files in {}; partition {}/{} is read from the database", runDirectory,
+                tableName, country, ex);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Deletes the staged files of every run except the given one.
+     */
+    void purgeOtherRuns(Long runId) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        Path keep = runDirectory(runId);
+        try (Stream<Path> runs = Files.list(directory)) {
+            runs.filter(run -> !run.equals(keep)).forEach(PartitionStagingArea::deleteRecursively);
+        } catch (IOException ex) {
+            log.warn("Could not clean up staging directory {}", directory, ex);
+        }
+    }
+
+    /**
+     * Bytes of pooled buffer memory currently borrowed by staged partitions.
+     */
+    long memoryInUse() {
+        return (long) bufferPool.inUse() * bufferPool.bufferSize();
+    }
+
+    private static List<Path> stagedFiles(Path runDirectory, String baseName) throws IOException {
+        if (!Files.isDirectory(runDirectory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(runDirectory)) {
+            return files
+                .filter(file -> {
+                    Matcher matcher = STAGED_FILE.matcher(file.getFileName().toString());
+                    return matcher.matches() && matcher.group(1).equals(baseName);
+                })
+                .toList();
+        }
+    }
+
+    static String fileName(String baseName, long records, String checksumSha256, String checksumCrc32c) {
+        return "%s.%d.%s.%s.csv".formatted(baseName, records, toHex(checksumSha256), toHex(checksumCrc32c));
+    }
+
+    private static String toHex(String base64) {
+        return HEX.formatHex(Base64.getDecoder().decode(base64));
+    }
+
+    private static String fromHex(String hex) {
+        return StagedContent.encode(HEX.parseHex(hex));
+    }
+
+    private Path runDirectory(Long runId) {
+        return directory.resolve("run-%06d".formatted(runId));
+    }
+
+    private static String baseName(String tableName, String country) {
+        String normalizedCountry = (country == null || country.isBlank()) ? "unknown" : country;
+        return (tableName + "_" + normalizedCountry).replaceAll("[^A-Za-z0-9_-]", "_");
+    }
+
+    private static void deleteRecursively(Path root) {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            log.info("Removed staged files in {}", root);
+        } catch (IOException | UncheckedIOException ex) {
+            log.warn("Could not remove staged files in {}", root, ex);
+        }
+    }
+}
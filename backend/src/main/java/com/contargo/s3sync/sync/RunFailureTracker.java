@@ -0,0 +1,41 @@
+package com.contargo.s3sync.sync;
+
+/**
+ * Collects failed partitions of a run across concurrently running table pipelines
+ * and applies the configured {@link SyncFailurePolicy}.
+ */
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+final class RunFailureTracker {
+
+    private final SyncFailurePolicy policy;
+    private final Queue<String> failedPartitions = new ConcurrentLinkedQueue<>();
+
+    RunFailureTracker(SyncFailurePolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Records a failed (table, country) partition.
+     */
+    void record(String tableName, String country) {
+        failedPartitions.add(tableName + "/" + country);
+    }
+
+    /**
+     * Returns true when pipelines should stop scheduling new partitions.
+     */
+    boolean shouldStop() {
+        return policy == SyncFailurePolicy.FAIL_FAST && !failedPartitions.isEmpty();
+    }
+
+    boolean hasFailures() {
+        return !failedPartitions.isEmpty();
+    }
+
+    List<String> failedPartitions() {
+        return List.copyOf(failedPartitions);
+    }
+}
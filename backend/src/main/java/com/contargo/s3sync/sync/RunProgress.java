@@ -0,0 +1,83 @@
+package com.contargo.s3sync.sync;
+
+/**
+ * Progress of one sync run across all table pipelines, published through the
+ * {@link SyncProgressPublisher}. Counts planned and completed partitions, rows and bytes, and
+ * estimates the remaining time from the average time per completed partition. Partitions
+ * without changes or already committed by an earlier attempt complete without an event.
+ */
+import com.contargo.s3sync.sync.api.SyncProgressEvent;
+import com.contargo.s3sync.sync.api.SyncProgressEvent.Type;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+final class RunProgress {
+
+    private final SyncProgressPublisher publisher;
+    private final SyncRun run;
+    private final long startNanos = System.nanoTime();
+    private final AtomicInteger plannedPartitions = new AtomicInteger();
+    private final AtomicInteger completedPartitions = new AtomicInteger();
+    private final AtomicLong totalRows = new AtomicLong();
+    private final AtomicLong totalBytes = new AtomicLong();
+
+    RunProgress(SyncProgressPublisher publisher, SyncRun run) {
+        this.publisher = publisher;
+        this.run = run;
+    }
+
+    void runStarted() {
+        publish(Type.RUN_STARTED, null, null, null, null, "attempt " + run.getAttempts());
+    }
+
+    void tableStarted(String tableName, int partitions) {
+        plannedPartitions.addAndGet(partitions);
+        publish(Type.TABLE_STARTED, tableName, null, null, null, null);
+    }
+
+    void partitionStarted(String tableName, String country, long rows) {
+        publish(Type.PARTITION_STARTED, tableName, country, rows, null, null);
+    }
+
+    void partitionSkipped() {
+        completedPartitions.incrementAndGet();
+    }
+
+    void partitionFinished(String tableName, String country, long rows, long bytes) {
+        completedPartitions.incrementAndGet();
+        totalRows.addAndGet(rows);
+        totalBytes.addAndGet(bytes);
+        publish(Type.PARTITION_FINISHED, tableName, country, rows, bytes, null);
+    }
+
+    void partitionFailed(String tableName, String country, String reason) {
+        completedPartitions.incrementAndGet();
+        publish(Type.PARTITION_FAILED, tableName, country, null, null, reason);
+    }
+
+    void runFinished() {
+        publish(Type.RUN_FINISHED, null, null, null, null,
+            run.getErrorMessage() == null ? run.getStatus().name() : run.getStatus() + ": " + run.getErrorMessage());
+    }
+
+    /**
+     * Remaining seconds at the average pace so far, or {@code null} before the first partition completed.
+     */
+    Long etaSeconds() {
+        int completed = completedPartitions.get();
+        if (completed == 0) {
+            return null;
+        }
+        int remaining = Math.max(0, plannedPartitions.get() - completed);
+        long elapsedNanos = System.nanoTime() - startNanos;
+        return elapsedNanos / completed * remaining / 1_000_000_000L;
+    }
+
+    private void publish(Type type, String tableName, String country, Long rows, Long bytes, String message) {
+        publisher.publish(new SyncProgressEvent(type, run.getId(), tableName, country, rows, bytes, null,
+            completedPartitions.get(), plannedPartitions.get(), totalRows.get(), totalBytes.get(), etaSeconds(),
+            message, OffsetDateTime.now(ZoneOffset.UTC)));
+    }
+}
@@ -0,0 +1,96 @@
+package com.contargo.s3sync.sync;
+
+/**
+ * Decides whether a failed S3 call is worth retrying and how long to wait before the
+ * next attempt. Delays use exponential back-off with full jitter so that parallel
+ * uploads hitting the same error do not retry in lock-step.
+ */
+import com.contargo.s3sync.config.S3Properties;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkException;
+
+final class S3RetryPolicy {
+
+    /**
+     * Outcome of classifying a failed call.
+     */
+    enum ErrorType {
+        /** S3 asked us to slow down (503 SlowDown, 429); retried and reported to the limiter. */
+        THROTTLED,
+        /** Server-side or network failure that is expected to go away; retried. */
+        TRANSIENT,
+        /** Client error such as 403 or 404; retrying cannot succeed. */
+        PERMANENT
+    }
+
+    private static final int MAX_BACKOFF_EXPONENT = 30;
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final DoubleSupplier jitter;
+
+    S3RetryPolicy(S3Properties.Retry properties) {
+        this(properties, () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    S3RetryPolicy(S3Properties.Retry properties, DoubleSupplier jitter) {
+        this.maxAttempts = properties.getMaxAttempts();
+        this.baseDelayMillis = properties.getBaseDelay().toMillis();
+        this.maxDelayMillis = properties.getMaxDelay().toMillis();
+        this.jitter = jitter;
+    }
+
+    int maxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Classifies an error raised by the SDK. Errors that do not come from the SDK are
+     * treated as transient, matching the previous retry-everything behaviour.
+     */
+    ErrorType classify(Throwable error) {
+        if (error instanceof AwsServiceException serviceException) {
+            int status = serviceException.statusCode();
+            String code = serviceException.awsErrorDetails() == null
+                    ? null
+                    : serviceException.awsErrorDetails().errorCode();
+            if (serviceException.isThrottlingException() || status == 503 || status == 429
+                    || "SlowDown".equals(code)) {
+                return ErrorType.THROTTLED;
+            }
+            if (status >= 500 || status == 408 || "RequestTimeout".equals(code)
+                    || "InternalError".equals(code)) {
+                return ErrorType.TRANSIENT;
+            }
+            return ErrorType.PERMANENT;
+        }
+        if (error instanceof SdkClientException) {
+            return ErrorType.TRANSIENT;
+        }
+        if (error instanceof SdkException sdkException) {
+            return sdkException.retryable() ? ErrorType.TRANSIENT : ErrorType.PERMANENT;
+        }
+        return ErrorType.TRANSIENT;
+    }
+
+    /**
+     * Returns whether another attempt should follow the given failed attempt.
+     */
+    boolean shouldRetry(ErrorType type, int attempt) {
+        return type != ErrorType.PERMANENT && attempt < maxAttempts;
+    }
+
+    /**
+     * Full jitter: a random delay between zero and {@code min(maxDelay, baseDelay * 2^(attempt - 1))}.
+     */
+    Duration backoff(int attempt) {
+        int exponent = Math.min(Math.max(attempt - 1, 0), MAX_BACKOFF_EXPONENT);
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis * (1L << exponent));
+        return Duration.ofMillis((long) (jitter.getAsDouble() * ceiling));
+    }
+}
@@ -1,131 +1,255 @@
 package com.contargo.s3sync.sync;
 
 /**
- * Low-level utility for writing CSV exports to S3.
- * Ensures the bucket exists, builds stable keys, and retries transient upload failures.
+ * Low-level utility for writing CSV exports and sync manifests to S3.
+ * Ensures the bucket exists and uploads {@link StagedContent} through the asynchronous client,
+ * via the {@link S3TransferManager} from {@code aws.s3.transfer.multipart-threshold} on, with
+ * non-blocking retries of transient failures under an adaptive concurrency limit.
  */
 import com.contargo.s3sync.config.S3Properties;
-import java.nio.charset.StandardCharsets;
-import java.time.OffsetDateTime;
-import java.time.format.DateTimeFormatter;
+import com.contargo.s3sync.s3.S3TransferMetrics;
+import com.contargo.s3sync.sync.api.SyncProgressEvent;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.model.BucketAlreadyExistsException;
 import software.amazon.awssdk.services.s3.model.BucketAlreadyOwnedByYouException;
+import software.amazon.awssdk.services.s3.model.ChecksumAlgorithm;
 import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Error;
+import software.amazon.awssdk.transfer.s3.S3TransferManager;
+import software.amazon.awssdk.transfer.s3.model.CompletedUpload;
+import software.amazon.awssdk.transfer.s3.model.UploadRequest;
 
 @Component
 public class S3StorageService {
 
     private static final Logger log = LoggerFactory.getLogger(S3StorageService.class);
-    private static final DateTimeFormatter DATE_FOLDER_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE;
-    private static final DateTimeFormatter FILE_DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
-    private static final int MAX_UPLOAD_ATTEMPTS = 3;
+    private static final int MAX_KEYS_PER_DELETE = 1_000;
 
-    private final S3Client s3Client;
+    private final S3AsyncClient s3AsyncClient;
+    private final S3TransferManager transferManager;
     private final S3Properties properties;
+    private final S3RetryPolicy retryPolicy;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final SyncProgressPublisher progressPublisher;
+    private final S3TransferMetrics transferMetrics;
 
-    public S3StorageService(S3Client s3Client, S3Properties properties) {
-        this.s3Client = s3Client;
+    public S3StorageService(S3AsyncClient s3AsyncClient, S3TransferManager transferManager, S3Properties properties,
+            SyncProgressPublisher progressPublisher, S3TransferMetrics transferMetrics) {
+        this.s3AsyncClient = s3AsyncClient;
+        this.transferManager = transferManager;
         this.properties = properties;
+        this.progressPublisher = progressPublisher;
+        this.transferMetrics = transferMetrics;
+        S3Properties.Retry retry = properties.getRetry();
+        this.retryPolicy = new S3RetryPolicy(retry);
+        this.limiter = new AdaptiveConcurrencyLimiter(
+                Math.min(retry.getMinConcurrency(), properties.getAsync().getMaxConcurrency()),
+                properties.getAsync().getMaxConcurrency(),
+                retry.getBackoffRatio());
     }
 
     /**
-     * Stores the given content as a CSV object and returns the S3 key used.
+     * Stores the given content as a CSV object and returns the stored object.
+     * Blocks until {@link #storeAsync} completes.
      *
-     * @param tableName logical source table (e.g. "kunde", "auftraege")
-     * @param country partition key used in the path (defaults to "unknown")
-     * @param generationTime timestamp used for folder and filename
-     * @param content CSV payload to upload
-     * @return the S3 object key
+     * @param tableName logical source table (e.g. "kunde", "auftraege"), used for logging
+     * @param country partition the content belongs to, used for logging
+     * @param key object key rendered from the table's key template
+     * @param content staged CSV payload to upload
+     * @return the S3 key, size and checksum of the uploaded object
      */
-    public String store(String tableName, String country, OffsetDateTime generationTime, String content) {
-        ensureBucketExists();
+    public StoredObject store(String tableName, String country, String key, StagedContent content) {
+        return join(storeAsync(tableName, country, key, content));
+    }
+
+    /**
+     * Stores the given content as a CSV object without blocking the caller.
+     *
+     * @return a future completing with the stored object, or exceptionally with the last upload failure
+     */
+    public CompletableFuture<StoredObject> storeAsync(String tableName, String country, String key,
+            StagedContent content) {
+        return ensureBucketExists()
+                .thenCompose(ignored -> upload(key, "text/csv", tableName + ":" + country, content,
+                        (attempt, errorType) -> progressPublisher.publish(
+                                SyncProgressEvent.uploadRetry(tableName, country, attempt, errorType.name()))));
+    }
+
+    /**
+     * Stores a document (e.g. a sync manifest) under a fixed key, overwriting any previous version.
+     */
+    public StoredObject storeDocument(String key, String contentType, String content) {
+        return join(ensureBucketExists()
+                .thenCompose(ignored -> upload(key, contentType, key, StagedContent.of(content), RetryListener.NONE)));
+    }
 
-        String key = buildKey(tableName, country, generationTime);
+    /**
+     * Deletes the given objects, e.g. part objects a resumed partition no longer produces, in
+     * requests of at most {@value #MAX_KEYS_PER_DELETE} keys. Missing objects count as deleted.
+     *
+     * @throws IllegalStateException if S3 reports any key it could not delete
+     */
+    public void deleteObjects(List<String> keys) {
+        for (int from = 0; from < keys.size(); from += MAX_KEYS_PER_DELETE) {
+            List<ObjectIdentifier> objects = keys.subList(from, Math.min(from + MAX_KEYS_PER_DELETE, keys.size()))
+                    .stream()
+                    .map(key -> ObjectIdentifier.builder().key(key).build())
+                    .toList();
+            DeleteObjectsResponse response = join(s3AsyncClient.deleteObjects(DeleteObjectsRequest.builder()
+                    .bucket(properties.getBucketName())
+                    .delete(Delete.builder().objects(objects).quiet(true).build())
+                    .build()));
+            if (response.hasErrors() && !response.errors().isEmpty()) {
+                S3Error first = response.errors().get(0);
+                throw new IllegalStateException("Failed to delete %d object(s) from s3://%s, e.g. %s: %s".formatted(
+                        response.errors().size(), properties.getBucketName(), first.key(), first.message()));
+            }
+            log.info("Deleted {} obsolete object(s) from s3://{}", objects.size(), properties.getBucketName());
+        }
+    }
+
+    private CompletableFuture<StoredObject> upload(String key, String contentType, String label,
+            StagedContent content, RetryListener retryListener) {
         PutObjectRequest request = PutObjectRequest.builder()
                 .bucket(properties.getBucketName())
                 .key(key)
-                .contentType("text/csv")
+                .contentType(contentType)
+                .contentLength(content.contentLength())
+                .checksumSHA256(content.checksumSha256())
                 .build();
+        return upload(request, label, content, retryListener, 1)
+                .thenApply(storedKey -> new StoredObject(storedKey, content.contentLength(), content.checksumSha256(),
+                        content.checksumCrc32c()));
+    }
 
-        for (int attempt = 1; attempt <= MAX_UPLOAD_ATTEMPTS; attempt++) {
-            try {
-                s3Client.putObject(request, RequestBody.fromString(content, StandardCharsets.UTF_8));
-                log.info("Uploaded {} records for {}:{} to s3://{}/{} (attempt {}/{})", countLines(content), tableName,
-                        country, properties.getBucketName(), key, attempt, MAX_UPLOAD_ATTEMPTS);
-                return key;
-            } catch (RuntimeException ex) {
-                log.error("Failed to upload data for {}:{} to s3://{}/{} (attempt {}/{})", tableName, country,
-                        properties.getBucketName(), key, attempt, MAX_UPLOAD_ATTEMPTS, ex);
-                if (attempt == MAX_UPLOAD_ATTEMPTS) {
-                    throw ex;
-                }
-                try {
-                    TimeUnit.SECONDS.sleep(attempt);
-                } catch (InterruptedException interrupted) {
-                    Thread.currentThread().interrupt();
-                    throw new RuntimeException("Upload interrupted while retrying S3 putObject", interrupted);
-                }
+    /**
+     * Uploads the object once a limiter slot is free. Retryable failures are re-attempted after a
+     * jittered back-off; the slot is released while waiting so other uploads can proceed.
+     */
+    private CompletableFuture<String> upload(PutObjectRequest request, String label, StagedContent content,
+            RetryListener retryListener, int attempt) {
+        int maxAttempts = retryPolicy.maxAttempts();
+        return limiter.acquire()
+                .thenCompose(ignored -> putObject(request, content))
+                .handle((response, error) -> {
+                    if (error == null) {
+                        limiter.release(AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+                        log.info("Uploaded {} records for {} to s3://{}/{} (attempt {}/{})", content.recordCount(),
+                                label, properties.getBucketName(), request.key(), attempt, maxAttempts);
+                        return CompletableFuture.completedFuture(request.key());
+                    }
+                    Throwable cause = unwrap(error);
+                    S3RetryPolicy.ErrorType errorType = retryPolicy.classify(cause);
+                    limiter.release(errorType == S3RetryPolicy.ErrorType.THROTTLED
+                            ? AdaptiveConcurrencyLimiter.Outcome.THROTTLED
+                            : AdaptiveConcurrencyLimiter.Outcome.FAILED);
+                    log.error("Failed to upload data for {} to s3://{}/{} (attempt {}/{}, {})", label,
+                            properties.getBucketName(), request.key(), attempt, maxAttempts, errorType, cause);
+                    if (!retryPolicy.shouldRetry(errorType, attempt)) {
+                        return CompletableFuture.<String>failedFuture(cause);
+                    }
+                    retryListener.retrying(attempt + 1, errorType);
+                    Executor delayed = CompletableFuture.delayedExecutor(
+                            retryPolicy.backoff(attempt).toMillis(), TimeUnit.MILLISECONDS);
+                    return CompletableFuture.runAsync(() -> { }, delayed)
+                            .thenCompose(ignored -> upload(request, label, content, retryListener, attempt + 1));
+                })
+                .thenCompose(Function.identity());
+    }
+
+    private CompletableFuture<PutObjectResponse> putObject(PutObjectRequest request, StagedContent content) {
+        try {
+            if (isMultipart(content)) {
+                return transfer(request, content);
             }
+            return s3AsyncClient.putObject(request, content.requestBody())
+                    .thenApply(response -> {
+                        transferMetrics.recordBytes(S3TransferMetrics.UPLOAD, content.contentLength());
+                        return response;
+                    });
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
         }
-        // Unreachable but required by compiler.
-        return key;
+    }
+
+    private boolean isMultipart(StagedContent content) {
+        S3Properties.Transfer transfer = properties.getTransfer();
+        return transfer.isEnabled() && content.contentLength() >= transfer.getMultipartThreshold().toBytes();
     }
 
     /**
-     * Creates the bucket if it does not yet exist.
+     * Uploads through the Transfer Manager. A multipart object has no single whole-object checksum,
+     * so the staged SHA-256 is replaced by CRC32C checksums of the parts, the cheapest algorithm for
+     * the SDK to compute, which S3 verifies part by part; the staged checksums are still recorded
+     * with the stored object.
      */
-    private void ensureBucketExists() {
-        try {
-            s3Client.createBucket(CreateBucketRequest.builder()
-                    .bucket(properties.getBucketName())
-                    .build());
-        } catch (BucketAlreadyExistsException | BucketAlreadyOwnedByYouException ignored) {
-            // ignore
-        }
+    private CompletableFuture<PutObjectResponse> transfer(PutObjectRequest request, StagedContent content) {
+        UploadRequest upload = UploadRequest.builder()
+                .putObjectRequest(request.toBuilder()
+                        .checksumSHA256(null)
+                        .checksumAlgorithm(ChecksumAlgorithm.CRC32C)
+                        .build())
+                .requestBody(content.requestBody())
+                .addTransferListener(transferMetrics.listener(S3TransferMetrics.UPLOAD))
+                .build();
+        return transferManager.upload(upload).completionFuture().thenApply(CompletedUpload::response);
     }
 
     /**
-     * Builds a deterministic S3 key from table name, date and country.
+     * Creates the bucket if it does not yet exist.
      */
-    private String buildKey(String tableName, String country, OffsetDateTime generationTime) {
-        String normalizedCountry = (country == null || country.isBlank()) ? "unknown" : country;
-        String dateFolder = DATE_FOLDER_FORMAT.format(generationTime);
-
-        if ("kunde".equals(tableName)) {
-            return "%s/%s/%s/customers_%s_%s.csv".formatted(
-                    tableName,
-                    dateFolder,
-                    normalizedCountry,
-                    normalizedCountry,
-                    dateFolder
-            );
-        }
+    private CompletableFuture<Void> ensureBucketExists() {
+        return s3AsyncClient.createBucket(CreateBucketRequest.builder()
+                        .bucket(properties.getBucketName())
+                        .build())
+                .handle((response, error) -> {
+                    Throwable cause = error == null ? null : unwrap(error);
+                    if (cause == null || cause instanceof BucketAlreadyExistsException
+                            || cause instanceof BucketAlreadyOwnedByYouException) {
+                        return null;
+                    }
+                    throw cause instanceof RuntimeException runtime ? runtime : new CompletionException(cause);
+                });
+    }
 
-        if ("auftraege".equals(tableName)) {
-            return "%s/%s/%s/orders_%s_%s.csv".formatted(
-                    tableName,
-                    dateFolder,
-                    normalizedCountry,
-                    normalizedCountry,
-                    dateFolder
-            );
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
         }
+    }
 
-        String timestamp = FILE_DATE_TIME_FORMAT.format(generationTime);
-        return "%s/%s/%s/%s_%s.csv".formatted(tableName, dateFolder, normalizedCountry, tableName, timestamp);
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
     }
 
     /**
-     * Counts non-empty lines to aid logging.
+     * Notified when a failed upload is scheduled for another attempt.
      */
-    private long countLines(String content) {
-        return content.lines().filter(line -> !line.isBlank()).count();
+    @FunctionalInterface
+    private interface RetryListener {
+
+        RetryListener NONE = (attempt, errorType) -> { };
+
+        void retrying(int attempt, S3RetryPolicy.ErrorType errorType);
     }
 }
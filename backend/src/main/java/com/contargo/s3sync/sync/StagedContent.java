@@ -0,0 +1,195 @@
+package com.contargo.s3sync.sync;
+
+/**
+ * Serialized payload of one S3 object, held in buffers borrowed from the
+ * {@link DirectBufferPool} or, once the pool ran dry, in a local file. Spilled content is
+ * uploaded from a read-only memory mapping of the file; either way the payload is never
+ * copied onto the heap, and the same buffers serve every retry.
+ */
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.CRC32C;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+
+public final class StagedContent implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(StagedContent.class);
+
+    private final List<ByteBuffer> buffers;
+    private final Path file;
+    private final long contentLength;
+    private final String checksumSha256;
+    private final String checksumCrc32c;
+    private final long recordCount;
+    private final Runnable releaseMemory;
+    private MappedByteBuffer mapping;
+    private boolean closed;
+
+    private StagedContent(List<ByteBuffer> buffers, Path file, long contentLength, String checksumSha256,
+            String checksumCrc32c, long recordCount, Runnable releaseMemory) {
+        this.buffers = buffers;
+        this.file = file;
+        this.contentLength = contentLength;
+        this.checksumSha256 = checksumSha256;
+        this.checksumCrc32c = checksumCrc32c;
+        this.recordCount = recordCount;
+        this.releaseMemory = releaseMemory;
+    }
+
+    /**
+     * Wraps a small in-memory payload such as a manifest; every non-blank line counts as a record.
+     */
+    public static StagedContent of(String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        long records = content.lines().filter(line -> !line.isBlank()).count();
+        CRC32C crc32c = new CRC32C();
+        crc32c.update(bytes);
+        return new StagedContent(List.of(ByteBuffer.wrap(bytes)), null, bytes.length,
+            encode(newDigest().digest(bytes)), encodeCrc32c(crc32c.getValue()), records, () -> { });
+    }
+
+    /**
+     * Wraps flipped pool buffers; {@code releaseMemory} hands them back to the pool on close.
+     */
+    static StagedContent inMemory(List<ByteBuffer> buffers, long contentLength, String checksumSha256,
+            String checksumCrc32c, long recordCount, Runnable releaseMemory) {
+        return new StagedContent(List.copyOf(buffers), null, contentLength, checksumSha256, checksumCrc32c,
+            recordCount, releaseMemory);
+    }
+
+    static StagedContent spilled(Path file, long contentLength, String checksumSha256, String checksumCrc32c,
+            long recordCount) {
+        return new StagedContent(null, file, contentLength, checksumSha256, checksumCrc32c, recordCount, () -> { });
+    }
+
+    public long contentLength() {
+        return contentLength;
+    }
+
+    /**
+     * Base64 encoded SHA-256 checksum of the payload.
+     */
+    public String checksumSha256() {
+        return checksumSha256;
+    }
+
+    /**
+     * Base64 encoded CRC32C checksum of the payload, in the big-endian form S3 uses.
+     */
+    public String checksumCrc32c() {
+        return checksumCrc32c;
+    }
+
+    public long recordCount() {
+        return recordCount;
+    }
+
+    public boolean isSpilled() {
+        return file != null;
+    }
+
+    /**
+     * Returns a fresh request body for one upload attempt. Buffers and spilled files (mapped
+     * once) are shared read-only between attempts; files beyond the size of a single mapping
+     * are streamed.
+     */
+    public synchronized AsyncRequestBody requestBody() {
+        if (closed) {
+            throw new IllegalStateException("Staged content was already released");
+        }
+        if (file == null) {
+            return AsyncRequestBody.fromRemainingByteBuffersUnsafe(duplicates());
+        }
+        if (contentLength > Integer.MAX_VALUE) {
+            return AsyncRequestBody.fromFile(file);
+        }
+        if (mapping == null) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, contentLength);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Failed to map staged file " + file, ex);
+            }
+        }
+        return AsyncRequestBody.fromRemainingByteBufferUnsafe(mapping.duplicate());
+    }
+
+    /**
+     * Reads the payload back as text; meant for diagnostics and tests, not for upload.
+     */
+    String asString() {
+        if (file == null) {
+            ByteBuffer joined = ByteBuffer.allocate(Math.toIntExact(contentLength));
+            for (ByteBuffer buffer : duplicates()) {
+                joined.put(buffer);
+            }
+            return new String(joined.array(), StandardCharsets.UTF_8);
+        }
+        try {
+            return Files.readString(file, StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Returns pooled buffers and drops the mapping but keeps a spilled file, so a failed
+     * upload can be retried from it by the next attempt of the run.
+     */
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            mapping = null;
+            releaseMemory.run();
+        }
+    }
+
+    /**
+     * Closes the content and deletes its file; called once the upload is committed.
+     */
+    public void discard() {
+        close();
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            // A mapping that is not yet garbage collected can keep the file locked on some platforms.
+            log.warn("Could not delete staged file {}; it is removed when the next run starts", file, ex);
+        }
+    }
+
+    private ByteBuffer[] duplicates() {
+        return buffers.stream().map(ByteBuffer::asReadOnlyBuffer).toArray(ByteBuffer[]::new);
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    static String encode(byte[] digest) {
+        return Base64.getEncoder().encodeToString(digest);
+    }
+
+    static String encodeCrc32c(long crc) {
+        return encode(ByteBuffer.allocate(Integer.BYTES).putInt((int) crc).array());
+    }
+}
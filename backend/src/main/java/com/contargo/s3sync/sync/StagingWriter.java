@@ -0,0 +1,220 @@
+package com.contargo.s3sync.sync;
+
+/**
+ * Serializes one partition record by record. Characters are encoded straight into direct
+ * buffers borrowed from the {@link DirectBufferPool}; once the pool has no buffer left, the
+ * filled buffers are written to a file in the run's staging directory and the rest of the
+ * partition streams through a single buffer. The SHA-256 and CRC32C checksums, the byte count
+ * and the record count are computed while writing, so the payload is never read twice.
+ */
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+final class StagingWriter implements AutoCloseable {
+
+    private static final char SEPARATOR = '\n';
+
+    private final Path directory;
+    private final String baseName;
+    private final DirectBufferPool pool;
+    private final MessageDigest digest = StagedContent.newDigest();
+    private final CRC32C crc32c = new CRC32C();
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    private final List<ByteBuffer> borrowed = new ArrayList<>();
+    private ByteBuffer current;
+    private FileChannel spill;
+    private Path partFile;
+    private long length;
+    private long records;
+    private boolean finished;
+
+    StagingWriter(Path directory, String baseName, DirectBufferPool pool) {
+        this.directory = directory;
+        this.baseName = baseName;
+        this.pool = pool;
+    }
+
+    /**
+     * Appends one record; records are separated by a line feed without a trailing one.
+     */
+    void append(String record) {
+        try {
+            if (records > 0) {
+                encode(CharBuffer.wrap(new char[] {SEPARATOR}));
+            }
+            encode(CharBuffer.wrap(record));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to stage " + baseName + " in " + directory, ex);
+        }
+        records++;
+    }
+
+    long recordCount() {
+        return records;
+    }
+
+    long contentLength() {
+        return length;
+    }
+
+    /**
+     * Completes the partition. A spilled partition is moved to its final name, which carries
+     * the record count and checksums so that a resumed run can reuse the file without reading
+     * the database or the file.
+     */
+    StagedContent finish() {
+        finished = true;
+        String checksum = StagedContent.encode(digest.digest());
+        String crc = StagedContent.encodeCrc32c(crc32c.getValue());
+        if (spill == null) {
+            List<ByteBuffer> buffers = new ArrayList<>(borrowed);
+            borrowed.clear();
+            current = null;
+            buffers.forEach(ByteBuffer::flip);
+            return StagedContent.inMemory(buffers, length, checksum, crc, records,
+                () -> buffers.forEach(pool::release));
+        }
+        try {
+            flush();
+            spill.close();
+            releaseBuffers();
+            Path target = directory.resolve(PartitionStagingArea.fileName(baseName, records, checksum, crc));
+            Files.move(partFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return StagedContent.spilled(target, length, checksum, crc, records);
+        } catch (IOException ex) {
+            releaseBuffers();
+            deletePartFile();
+            throw new UncheckedIOException("Failed to complete staged file for " + baseName, ex);
+        }
+    }
+
+    private void encode(CharBuffer chars) throws IOException {
+        while (true) {
+            if (current == null || !current.hasRemaining()) {
+                nextBuffer();
+            }
+            int start = current.position();
+            CoderResult result = encoder.encode(chars, current, true);
+            written(start);
+            if (result.isUnderflow()) {
+                break;
+            }
+            if (!result.isOverflow()) {
+                result.throwException();
+            }
+            if (current.position() == start) {
+                // a multi-byte sequence did not fit into the rest of the buffer
+                current.limit(current.position());
+            }
+        }
+        encoder.reset();
+    }
+
+    private void written(int start) {
+        ByteBuffer region = current.duplicate();
+        region.limit(current.position()).position(start);
+        length += region.remaining();
+        crc32c.update(region);
+        region.position(start);
+        digest.update(region);
+    }
+
+    private void nextBuffer() throws IOException {
+        if (spill != null) {
+            flush();
+            return;
+        }
+        ByteBuffer buffer = pool.tryAcquire();
+        if (buffer != null) {
+            borrowed.add(buffer);
+            current = buffer;
+            return;
+        }
+        spillToDisk();
+    }
+
+    private void spillToDisk() throws IOException {
+        Files.createDirectories(directory);
+        partFile = directory.resolve(baseName + ".part");
+        spill = FileChannel.open(partFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE);
+        for (ByteBuffer buffer : borrowed) {
+            buffer.flip();
+            writeFully(buffer);
+        }
+        // Keep one borrowed buffer as the write buffer and give the rest back to other partitions.
+        if (borrowed.isEmpty()) {
+            current = ByteBuffer.allocate(pool.bufferSize());
+        } else {
+            ByteBuffer writeBuffer = borrowed.remove(0);
+            releaseBuffers();
+            borrowed.add(writeBuffer);
+            current = writeBuffer;
+        }
+        current.clear();
+    }
+
+    private void flush() throws IOException {
+        current.flip();
+        writeFully(current);
+        current.clear();
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            spill.write(buffer);
+        }
+    }
+
+    /**
+     * Releases an unfinished partition: its pooled buffers and any partial file.
+     */
+    @Override
+    public void close() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        releaseBuffers();
+        if (spill != null) {
+            try {
+                spill.close();
+            } catch (IOException ignored) {
+                // the partial file is deleted below
+            }
+            deletePartFile();
+        }
+    }
+
+    private void releaseBuffers() {
+        borrowed.forEach(pool::release);
+        borrowed.clear();
+        current = null;
+    }
+
+    private void deletePartFile() {
+        try {
+            Files.deleteIfExists(partFile);
+        } catch (IOException ignored) {
+            // leftovers are removed when the next run starts
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.contargo.s3sync.sync;
+
+/**
+ * An object written to S3: its key, size in bytes and Base64 encoded SHA-256 and CRC32C checksums.
+ */
+public record StoredObject(String key, long sizeBytes, String checksumSha256, String checksumCrc32c) {
+}
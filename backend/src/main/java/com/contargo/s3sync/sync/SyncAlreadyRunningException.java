@@ -0,0 +1,15 @@
+package com.contargo.s3sync.sync;
+
+/**
+ * Signals that a sync run was requested while another one is still running.
+ */
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class SyncAlreadyRunningException extends RuntimeException {
+
+    public SyncAlreadyRunningException() {
+        super("A sync run is already in progress");
+    }
+}
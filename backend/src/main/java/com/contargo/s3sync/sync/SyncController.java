@@ -24,7 +24,8 @@ public class SyncController {
 
     @PostMapping("/run")
     /**
-     * Triggers an asynchronous sync run and returns the accepted {@link SyncRun}.
+     * Triggers an asynchronous sync run and returns the accepted {@link SyncRun}; responds with
+     * 409 while another run is in progress.
      */
     public ResponseEntity<SyncRun> triggerSync() {
         log.info("Received request to trigger sync run");
@@ -0,0 +1,11 @@
+package com.contargo.s3sync.sync;
+
+/**
+ * Run-level reaction to a failed partition, shared by all table pipelines of a run.
+ */
+public enum SyncFailurePolicy {
+    /** Keep exporting the remaining partitions; the run is marked failed at the end. */
+    CONTINUE,
+    /** Stop scheduling new partitions in every pipeline once any partition has failed. */
+    FAIL_FAST
+}
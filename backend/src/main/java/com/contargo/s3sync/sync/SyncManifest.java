@@ -0,0 +1,44 @@
+package com.contargo.s3sync.sync;
+
+/**
+ * Partner-facing description of a completed sync run, published as JSON next to the
+ * exported files. Lists every object of the run with row count, size, checksums and the
+ * change window it covers, plus its part number if the partition was split into several
+ * objects, and links to the manifest of the previous run so consumers can catch up without
+ * listing the bucket.
+ */
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public record SyncManifest(
+    long runId,
+    Long previousRunId,
+    String previousManifestKey,
+    OffsetDateTime runStartedAt,
+    OffsetDateTime publishedAt,
+    List<Entry> objects
+) {
+
+    /**
+     * A single exported object of the run.
+     */
+    public record Entry(
+        String tableName,
+        String country,
+        Integer part,
+        String key,
+        int rowCount,
+        Long sizeBytes,
+        String checksumSha256,
+        String checksumCrc32c,
+        OffsetDateTime windowStart,
+        OffsetDateTime windowEnd
+    ) {
+    }
+
+    /**
+     * Content of the rolling {@code latest} pointer: the most recently published manifest.
+     */
+    public record Pointer(long runId, String manifestKey, OffsetDateTime publishedAt) {
+    }
+}
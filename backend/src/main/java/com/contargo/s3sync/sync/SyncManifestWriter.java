@@ -0,0 +1,79 @@
+package com.contargo.s3sync.sync;
+
+/**
+ * Publishes the manifest of a successful sync run and moves the rolling
+ * {@code manifests/latest.json} pointer to it. The manifest is written before the
+ * pointer, so the pointer never references a manifest that does not exist yet.
+ */
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SyncManifestWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(SyncManifestWriter.class);
+    static final String LATEST_POINTER_KEY = "manifests/latest.json";
+
+    private final S3StorageService s3StorageService;
+    private final SyncRunRepository syncRunRepository;
+    private final ObjectMapper objectMapper;
+
+    public SyncManifestWriter(S3StorageService s3StorageService, SyncRunRepository syncRunRepository,
+        ObjectMapper objectMapper) {
+        this.s3StorageService = s3StorageService;
+        this.syncRunRepository = syncRunRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes the manifest for the committed partitions of the run, updates the latest pointer
+     * and records the manifest key on the run.
+     *
+     * @return the S3 key of the manifest
+     */
+    public String publish(SyncRun run) {
+        Optional<SyncRun> previous = syncRunRepository.findFirstByIdLessThanAndManifestKeyIsNotNullOrderByIdDesc(
+            run.getId());
+        OffsetDateTime publishedAt = OffsetDateTime.now(ZoneOffset.UTC);
+        List<SyncManifest.Entry> objects = run.getItems().stream()
+            .filter(SyncRunItem::isCommitted)
+            .sorted(Comparator.comparing(SyncRunItem::getTableName).thenComparing(SyncRunItem::getCountry)
+                .thenComparing(SyncRunItem::getPartNumber, Comparator.nullsFirst(Comparator.naturalOrder())))
+            .map(item -> new SyncManifest.Entry(item.getTableName(), item.getCountry(), item.getPartNumber(),
+                item.getS3Key(), item.getObjectCount(), item.getSizeBytes(), item.getChecksumSha256(),
+                item.getChecksumCrc32c(), item.getWindowStart(), item.getWindowEnd()))
+            .toList();
+        SyncManifest manifest = new SyncManifest(run.getId(),
+            previous.map(SyncRun::getId).orElse(null),
+            previous.map(SyncRun::getManifestKey).orElse(null),
+            run.getStartedAt(), publishedAt, objects);
+
+        String manifestKey = manifestKey(run.getId());
+        s3StorageService.storeDocument(manifestKey, "application/json", toJson(manifest));
+        s3StorageService.storeDocument(LATEST_POINTER_KEY, "application/json",
+            toJson(new SyncManifest.Pointer(run.getId(), manifestKey, publishedAt)));
+        run.setManifestKey(manifestKey);
+        log.info("Published manifest {} with {} object(s) for sync run {}", manifestKey, objects.size(), run.getId());
+        return manifestKey;
+    }
+
+    static String manifestKey(long runId) {
+        return "manifests/run-%06d.json".formatted(runId);
+    }
+
+    private String toJson(Object document) {
+        try {
+            return objectMapper.writeValueAsString(document);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize sync manifest", ex);
+        }
+    }
+}
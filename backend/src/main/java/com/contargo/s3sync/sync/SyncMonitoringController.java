@@ -1,17 +1,19 @@
 package com.contargo.s3sync.sync;
 
 /**
- * Read-only endpoints to inspect recent sync runs and current sync state.
+ * Read-only endpoints to inspect recent sync runs, current sync state and live run progress.
  */
 import com.contargo.s3sync.sync.api.SyncRunResponse;
 import com.contargo.s3sync.sync.api.SyncStateResponse;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/sync")
@@ -20,9 +22,12 @@ public class SyncMonitoringController {
     private static final Logger log = LoggerFactory.getLogger(SyncMonitoringController.class);
 
     private final SyncMonitoringService monitoringService;
+    private final SyncProgressPublisher progressPublisher;
 
-    public SyncMonitoringController(SyncMonitoringService monitoringService) {
+    public SyncMonitoringController(SyncMonitoringService monitoringService,
+        SyncProgressPublisher progressPublisher) {
         this.monitoringService = monitoringService;
+        this.progressPublisher = progressPublisher;
     }
 
     @GetMapping("/runs")
@@ -38,7 +43,7 @@ public class SyncMonitoringController {
 
     @GetMapping("/state")
     /**
-     * Returns the latest known last-successful-sync timestamps per logical table.
+     * Returns the latest known last-successful-sync timestamps and lag per logical table and country.
      */
     public List<SyncStateResponse> listStates() {
         log.info("Fetching current sync states");
@@ -46,5 +51,13 @@ public class SyncMonitoringController {
         log.info("Returning {} sync states", responses.size());
         return responses;
     }
-}
 
+    @GetMapping(path = "/progress", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    /**
+     * Streams live progress events of sync runs as Server-Sent Events.
+     */
+    public SseEmitter streamProgress() {
+        log.info("Opening sync progress stream");
+        return progressPublisher.subscribe();
+    }
+}
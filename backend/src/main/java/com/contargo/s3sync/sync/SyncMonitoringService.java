@@ -3,10 +3,17 @@ package com.contargo.s3sync.sync;
 /**
  * Prepares read-models for monitoring sync runs and sync state.
  */
+import com.contargo.s3sync.customer.CountryLatestChange;
+import com.contargo.s3sync.customer.CustomerRepository;
+import com.contargo.s3sync.order.OrderRepository;
 import com.contargo.s3sync.sync.api.SyncRunItemResponse;
 import com.contargo.s3sync.sync.api.SyncRunResponse;
 import com.contargo.s3sync.sync.api.SyncStateResponse;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,10 +28,15 @@ public class SyncMonitoringService {
 
     private final SyncRunRepository syncRunRepository;
     private final SyncStateRepository syncStateRepository;
+    private final CustomerRepository customerRepository;
+    private final OrderRepository orderRepository;
 
-    public SyncMonitoringService(SyncRunRepository syncRunRepository, SyncStateRepository syncStateRepository) {
+    public SyncMonitoringService(SyncRunRepository syncRunRepository, SyncStateRepository syncStateRepository,
+        CustomerRepository customerRepository, OrderRepository orderRepository) {
         this.syncRunRepository = syncRunRepository;
         this.syncStateRepository = syncStateRepository;
+        this.customerRepository = customerRepository;
+        this.orderRepository = orderRepository;
     }
 
     /**
@@ -40,12 +52,14 @@ public class SyncMonitoringService {
                 run.getFinishedAt(),
                 run.getStatus().name(),
                 run.getErrorMessage(),
+                run.getManifestKey(),
                 run.getItems().stream()
                     .map(item -> new SyncRunItemResponse(
                         item.getTableName(),
                         item.getCountry(),
                         item.getObjectCount(),
-                        item.getS3Key()))
+                        item.getS3Key(),
+                        item.getStatus().name()))
                     .collect(Collectors.toList())
             ))
             .collect(Collectors.toList());
@@ -54,15 +68,41 @@ public class SyncMonitoringService {
     }
 
     /**
-     * Returns the current last-successful-sync timestamps per table.
+     * Returns the current last-successful-sync timestamps per table and country, together
+     * with the lag between each watermark and the newest change of that partition.
      */
     public List<SyncStateResponse> fetchSyncStates() {
         log.debug("Fetching sync state overview");
+        Map<String, Map<String, OffsetDateTime>> latestChanges = Map.of(
+            "kunde", toMap(customerRepository.findLatestChangePerCountry()),
+            "auftraege", toMap(orderRepository.findLatestChangePerCountry()));
+
         List<SyncStateResponse> responses = syncStateRepository.findAll().stream()
-            .map(state -> new SyncStateResponse(state.getTableName(), state.getLastSuccessfulSync()))
+            .sorted(Comparator.comparing(SyncState::getTableName).thenComparing(SyncState::getCountry))
+            .map(state -> {
+                OffsetDateTime latestChange = latestChanges.getOrDefault(state.getTableName(), Map.of())
+                    .get(state.getCountry());
+                return new SyncStateResponse(state.getTableName(), state.getCountry(), state.getLastSuccessfulSync(),
+                    latestChange, lagSeconds(state.getLastSuccessfulSync(), latestChange));
+            })
             .collect(Collectors.toList());
         log.info("Prepared {} sync state responses", responses.size());
         return responses;
     }
-}
 
+    private Map<String, OffsetDateTime> toMap(List<CountryLatestChange> changes) {
+        return changes.stream()
+            .filter(change -> change.getLatestChange() != null)
+            .collect(Collectors.toMap(CountryLatestChange::getCountry, CountryLatestChange::getLatestChange));
+    }
+
+    /**
+     * Seconds of source changes not yet covered by the watermark; zero when caught up.
+     */
+    private Long lagSeconds(OffsetDateTime watermark, OffsetDateTime latestChange) {
+        if (watermark == null || latestChange == null) {
+            return null;
+        }
+        return latestChange.isAfter(watermark) ? Duration.between(watermark, latestChange).toSeconds() : 0L;
+    }
+}
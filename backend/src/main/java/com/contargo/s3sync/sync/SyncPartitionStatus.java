@@ -0,0 +1,10 @@
+package com.contargo.s3sync.sync;
+
+/**
+ * Checkpoint states of a single country partition within a sync run.
+ */
+public enum SyncPartitionStatus {
+    PENDING,
+    COMMITTED,
+    FAILED
+}
@@ -0,0 +1,163 @@
+package com.contargo.s3sync.sync;
+
+/**
+ * Fans live run progress out to Server-Sent Event subscribers. Publishing never blocks an
+ * export thread: each subscriber has a bounded queue ({@code sync.progress.buffer-size}) that
+ * drops its oldest event when the client falls behind, and a sender thread of its own that
+ * writes to the connection, so a slow browser only delays itself. Dropped events are counted
+ * as {@code sync.progress.dropped}.
+ */
+import com.contargo.s3sync.sync.api.SyncProgressEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@Component
+public class SyncProgressPublisher implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(SyncProgressPublisher.class);
+
+    private final SyncProperties.Progress settings;
+    private final boolean virtualThreads;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberIds = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile SyncProgressEvent latest;
+
+    public SyncProgressPublisher(SyncProperties syncProperties) {
+        this.settings = syncProperties.getProgress();
+        this.virtualThreads = syncProperties.isVirtualThreads();
+    }
+
+    /**
+     * Opens an event stream. The latest event is replayed first, so a client that connects
+     * during a run sees the current counters and ETA right away.
+     */
+    public SseEmitter subscribe() {
+        return subscribe(new SseEmitter(settings.getTimeout().toMillis()));
+    }
+
+    SseEmitter subscribe(SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(settings.getBufferSize()));
+        emitter.onCompletion(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        emitter.onTimeout(() -> {
+            subscriber.close();
+            emitter.complete();
+        });
+        SyncProgressEvent current = latest;
+        if (current != null) {
+            subscriber.offer(current);
+        }
+        subscribers.add(subscriber);
+        Thread.Builder threads = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform().daemon();
+        threads.name("sync-progress-" + subscriberIds.incrementAndGet()).start(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Queues the event for every subscriber without waiting for any of them.
+     */
+    public void publish(SyncProgressEvent event) {
+        latest = event;
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(event);
+        }
+    }
+
+    SyncProgressEvent latest() {
+        return latest;
+    }
+
+    long dropped() {
+        return dropped.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("sync.progress.subscribers", subscribers, Set::size)
+            .description("Open live progress streams")
+            .register(registry);
+        FunctionCounter.builder("sync.progress.dropped", dropped, AtomicLong::get)
+            .description("Progress events dropped because a subscriber fell behind")
+            .register(registry);
+    }
+
+    @PreDestroy
+    void completeAll() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    /**
+     * One open stream: a bounded queue drained by a dedicated sender thread.
+     */
+    private final class Subscriber implements Runnable {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<SyncProgressEvent> queue;
+        private volatile boolean closed;
+        private volatile Thread sender;
+
+        private Subscriber(SseEmitter emitter, BlockingQueue<SyncProgressEvent> queue) {
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+
+        /**
+         * Queues the event, dropping the oldest queued events while the queue is full.
+         */
+        void offer(SyncProgressEvent event) {
+            while (!queue.offer(event)) {
+                if (queue.poll() != null) {
+                    dropped.incrementAndGet();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            sender = Thread.currentThread();
+            long heartbeatMillis = settings.getHeartbeat().toMillis();
+            try {
+                while (!closed) {
+                    SyncProgressEvent event = queue.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+                    if (event == null) {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    } else {
+                        emitter.send(SseEmitter.event().name(event.type().name()).data(event));
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | IllegalStateException ex) {
+                log.debug("Progress stream closed: {}", ex.getMessage());
+                emitter.complete();
+            } finally {
+                close();
+            }
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+            Thread thread = sender;
+            if (thread != null && thread != Thread.currentThread()) {
+                thread.interrupt();
+            }
+        }
+    }
+}
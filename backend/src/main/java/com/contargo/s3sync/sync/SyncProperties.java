@@ -1,12 +1,23 @@
 package com.contargo.s3sync.sync;
 
 /**
- * Configuration properties controlling the sync scheduler.
+ * Configuration properties controlling the sync scheduler, export pipelines, per-table
+ * tuning, staging of serialized partitions, live progress streaming and retention of the
+ * run history.
  */
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import org.hibernate.validator.constraints.time.DurationMin;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 import org.springframework.validation.annotation.Validated;
 
 @ConfigurationProperties(prefix = "sync")
@@ -19,6 +30,45 @@ public class SyncProperties {
 
     private boolean schedulerEnabled = true;
 
+    @Min(value = 1, message = "sync.upload-concurrency must be at least 1")
+    private int uploadConcurrency = 4;
+
+    @NotNull(message = "sync.failure-policy must not be null")
+    private SyncFailurePolicy failurePolicy = SyncFailurePolicy.CONTINUE;
+
+    /** Run the sync scheduler, table pipelines and upload fan-out on virtual threads. */
+    private boolean virtualThreads;
+
+    /**
+     * How far change windows end before the oldest open write transaction, to cover timestamps
+     * the application takes before the row is written.
+     */
+    @NotNull(message = "sync.visibility-lag must not be null")
+    private Duration visibilityLag = Duration.ofSeconds(1);
+
+    /**
+     * Attempts a failed run gets before the next run starts afresh from the watermarks instead of
+     * resuming it.
+     */
+    @Min(value = 1, message = "sync.max-attempts must be at least 1")
+    private int maxAttempts = 3;
+
+    /** Per-table overrides keyed by logical table name ({@code sync.tables.kunde.*}). */
+    @Valid
+    private Map<String, Table> tables = new LinkedHashMap<>();
+
+    @Valid
+    private final Pipeline pipeline = new Pipeline();
+
+    @Valid
+    private final Staging staging = new Staging();
+
+    @Valid
+    private final Retention retention = new Retention();
+
+    @Valid
+    private final Progress progress = new Progress();
+
     public Duration getScheduleInterval() {
         return scheduleInterval;
     }
@@ -34,4 +84,415 @@ public class SyncProperties {
     public void setSchedulerEnabled(boolean schedulerEnabled) {
         this.schedulerEnabled = schedulerEnabled;
     }
+
+    public int getUploadConcurrency() {
+        return uploadConcurrency;
+    }
+
+    public void setUploadConcurrency(int uploadConcurrency) {
+        this.uploadConcurrency = uploadConcurrency;
+    }
+
+    public SyncFailurePolicy getFailurePolicy() {
+        return failurePolicy;
+    }
+
+    public void setFailurePolicy(SyncFailurePolicy failurePolicy) {
+        this.failurePolicy = failurePolicy;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    public Duration getVisibilityLag() {
+        return visibilityLag;
+    }
+
+    public void setVisibilityLag(Duration visibilityLag) {
+        this.visibilityLag = visibilityLag;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public Map<String, Table> getTables() {
+        return tables;
+    }
+
+    public void setTables(Map<String, Table> tables) {
+        this.tables = tables;
+    }
+
+    /**
+     * Returns the settings of a table, or the defaults if it has no {@code sync.tables} entry.
+     */
+    public Table table(String tableName) {
+        return tables.getOrDefault(tableName, new Table());
+    }
+
+    /**
+     * Parallelism of a table pipeline, falling back to {@code sync.upload-concurrency}.
+     */
+    public int uploadConcurrency(String tableName) {
+        Integer parallelism = table(tableName).getParallelism();
+        return parallelism == null ? uploadConcurrency : parallelism;
+    }
+
+    public Pipeline getPipeline() {
+        return pipeline;
+    }
+
+    public Staging getStaging() {
+        return staging;
+    }
+
+    public Retention getRetention() {
+        return retention;
+    }
+
+    public Progress getProgress() {
+        return progress;
+    }
+
+    /**
+     * Tuning of one exported table ({@code sync.tables.<name>.*}); unset values use the defaults
+     * of the run and of the table's exporter.
+     */
+    public static class Table {
+
+        /** Export the table at all; disabled tables keep their watermarks. */
+        private boolean enabled = true;
+
+        /** Rows per database round trip while a partition is read, and per chunk handed to the encoders. */
+        @Min(value = 1, message = "sync.tables.*.fetch-size must be at least 1")
+        private int fetchSize = 1_000;
+
+        /** Partitions of the table uploaded in parallel; defaults to {@code sync.upload-concurrency}. */
+        @Min(value = 1, message = "sync.tables.*.parallelism must be at least 1")
+        private Integer parallelism;
+
+        /**
+         * Size at which a partition rolls over into its next {@code _part-00001} object; a part
+         * exceeds it by at most one row. Unset never splits by size.
+         */
+        private DataSize maxFileSize;
+
+        /** Rows after which a partition rolls over into its next part object; unset never splits by rows. */
+        @Min(value = 1, message = "sync.tables.*.max-rows-per-file must be at least 1")
+        private Integer maxRowsPerFile;
+
+        /**
+         * Rows above which a partition read in one piece is split into {@code sub-partitions} hash
+         * sub-partitions by row id that are staged in parallel; unset never splits by skew.
+         */
+        @Min(value = 1, message = "sync.tables.*.skew-threshold must be at least 1")
+        private Integer skewThreshold;
+
+        /**
+         * Hash sub-partitions of a partition above the {@code skew-threshold}; each numbers its
+         * parts within its own range of 1000 so part keys keep five digits.
+         */
+        @Min(value = 2, message = "sync.tables.*.sub-partitions must be at least 2")
+        @Max(value = 99, message = "sync.tables.*.sub-partitions must be at most 99")
+        private int subPartitions = 4;
+
+        /** Minimum time between two exports of the table; unset exports it in every run. */
+        @DurationMin(seconds = 1, message = "sync.tables.*.schedule-interval must be at least 1 second")
+        private Duration scheduleInterval;
+
+        /** Object key template overriding the exporter's default, see {@link ObjectKeyTemplate}. */
+        private String keyTemplate;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+
+        public Integer getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(Integer parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public DataSize getMaxFileSize() {
+            return maxFileSize;
+        }
+
+        public void setMaxFileSize(DataSize maxFileSize) {
+            this.maxFileSize = maxFileSize;
+        }
+
+        public Integer getMaxRowsPerFile() {
+            return maxRowsPerFile;
+        }
+
+        public void setMaxRowsPerFile(Integer maxRowsPerFile) {
+            this.maxRowsPerFile = maxRowsPerFile;
+        }
+
+        public Integer getSkewThreshold() {
+            return skewThreshold;
+        }
+
+        public void setSkewThreshold(Integer skewThreshold) {
+            this.skewThreshold = skewThreshold;
+        }
+
+        public int getSubPartitions() {
+            return subPartitions;
+        }
+
+        public void setSubPartitions(int subPartitions) {
+            this.subPartitions = subPartitions;
+        }
+
+        public Duration getScheduleInterval() {
+            return scheduleInterval;
+        }
+
+        public void setScheduleInterval(Duration scheduleInterval) {
+            this.scheduleInterval = scheduleInterval;
+        }
+
+        public String getKeyTemplate() {
+            return keyTemplate;
+        }
+
+        public void setKeyTemplate(String keyTemplate) {
+            this.keyTemplate = keyTemplate;
+        }
+
+        /**
+         * Rejects templates that would let partitions or runs overwrite each other.
+         */
+        @AssertTrue(message = "sync.tables.*.key-template must contain {partition} and {run}")
+        public boolean isKeyTemplateValid() {
+            return keyTemplate == null || ObjectKeyTemplate.isValid(keyTemplate);
+        }
+
+        /**
+         * Rejects a zero or negative file size limit, which would give every row its own part.
+         */
+        @AssertTrue(message = "sync.tables.*.max-file-size must be positive")
+        public boolean isMaxFileSizeValid() {
+            return maxFileSize == null || maxFileSize.toBytes() > 0;
+        }
+    }
+
+    /**
+     * Staging of serialized partitions before upload ({@code sync.staging.*}).
+     */
+    public static class Staging {
+
+        /** Directory for partitions spilled to disk; one sub-directory per run. */
+        @NotNull(message = "sync.staging.directory must not be null")
+        private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "s3sync-staging");
+
+        /** Off-heap buffer pool shared by all partitions staged at the same time; larger partitions spill to disk. */
+        @NotNull(message = "sync.staging.memory-budget must not be null")
+        private DataSize memoryBudget = DataSize.ofMegabytes(32);
+
+        /** Size of each pooled direct buffer; partitions occupy whole buffers. */
+        @NotNull(message = "sync.staging.buffer-size must not be null")
+        private DataSize bufferSize = DataSize.ofKilobytes(256);
+
+        public Path getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(Path directory) {
+            this.directory = directory;
+        }
+
+        public DataSize getMemoryBudget() {
+            return memoryBudget;
+        }
+
+        public void setMemoryBudget(DataSize memoryBudget) {
+            this.memoryBudget = memoryBudget;
+        }
+
+        public DataSize getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(DataSize bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        /**
+         * Rejects buffers below 1 KB (or above 1 GB), which would make the pool useless or unaddressable.
+         */
+        @AssertTrue(message = "sync.staging.buffer-size must be between 1KB and 1GB")
+        public boolean isBufferSizeValid() {
+            return bufferSize == null
+                || (bufferSize.toBytes() >= 1024 && bufferSize.toBytes() <= DataSize.ofGigabytes(1).toBytes());
+        }
+    }
+
+    /**
+     * Stages of a table pipeline between the database reader and the upload workers
+     * ({@code sync.pipeline.*}).
+     */
+    public static class Pipeline {
+
+        /** Workers per table that serialize the chunks of read partitions into the staging area. */
+        @Min(value = 1, message = "sync.pipeline.encoders must be at least 1")
+        private int encoders = 2;
+
+        /**
+         * Partitions a table may read beyond its upload parallelism while earlier ones are still
+         * encoded or uploaded, and chunks of {@code fetch-size} rows that may wait for an encoder;
+         * together they bound the rows and staged content held per table. 0 reads the next
+         * partition only when an upload slot is free.
+         */
+        @Min(value = 0, message = "sync.pipeline.read-ahead must not be negative")
+        private int readAhead = 2;
+
+        public int getEncoders() {
+            return encoders;
+        }
+
+        public void setEncoders(int encoders) {
+            this.encoders = encoders;
+        }
+
+        public int getReadAhead() {
+            return readAhead;
+        }
+
+        public void setReadAhead(int readAhead) {
+            this.readAhead = readAhead;
+        }
+    }
+
+    /**
+     * Live run progress streamed to {@code /api/sync/progress} ({@code sync.progress.*}).
+     */
+    public static class Progress {
+
+        /** Events queued per subscriber; when a slow client falls behind, the oldest are dropped. */
+        @Min(value = 1, message = "sync.progress.buffer-size must be at least 1")
+        private int bufferSize = 256;
+
+        /** Interval of keep-alive comments on an idle stream; also detects closed connections. */
+        @NotNull(message = "sync.progress.heartbeat must not be null")
+        @DurationMin(seconds = 1, message = "sync.progress.heartbeat must be at least 1 second")
+        private Duration heartbeat = Duration.ofSeconds(15);
+
+        /** Lifetime of one event stream; browsers reconnect automatically afterwards. */
+        @NotNull(message = "sync.progress.timeout must not be null")
+        @DurationMin(seconds = 1, message = "sync.progress.timeout must be at least 1 second")
+        private Duration timeout = Duration.ofMinutes(30);
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public Duration getHeartbeat() {
+            return heartbeat;
+        }
+
+        public void setHeartbeat(Duration heartbeat) {
+            this.heartbeat = heartbeat;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    /**
+     * Retention of the partitioned run history ({@code sync.retention.*}).
+     */
+    public static class Retention {
+
+        /** Roll up and expire old history; upcoming monthly partitions are created either way. */
+        private boolean enabled = true;
+
+        /** Age after which a monthly history partition expires (all its runs must be older). */
+        @NotNull(message = "sync.retention.run-history must not be null")
+        @DurationMin(days = 1, message = "sync.retention.run-history must be at least 1 day")
+        private Duration runHistory = Duration.ofDays(90);
+
+        /** Detach expired partitions and keep them as standalone tables instead of dropping them. */
+        private boolean archive;
+
+        @NotBlank(message = "sync.retention.cron must be provided")
+        private String cron = "0 30 3 * * *";
+
+        @Min(value = 1, message = "sync.retention.partitions-ahead must be at least 1")
+        private int partitionsAhead = 2;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getRunHistory() {
+            return runHistory;
+        }
+
+        public void setRunHistory(Duration runHistory) {
+            this.runHistory = runHistory;
+        }
+
+        public boolean isArchive() {
+            return archive;
+        }
+
+        public void setArchive(boolean archive) {
+            this.archive = archive;
+        }
+
+        public String getCron() {
+            return cron;
+        }
+
+        public void setCron(String cron) {
+            this.cron = cron;
+        }
+
+        public int getPartitionsAhead() {
+            return partitionsAhead;
+        }
+
+        public void setPartitionsAhead(int partitionsAhead) {
+            this.partitionsAhead = partitionsAhead;
+        }
+    }
 }
@@ -0,0 +1,179 @@
+package com.contargo.s3sync.sync;
+
+/**
+ * Maintains the monthly-partitioned run history. Each pass keeps partitions created ahead of
+ * time, even with retention disabled, so new runs never land in the default partitions. With
+ * retention enabled it also rolls the detailed history up into {@code sync_run_daily_stats},
+ * and then detaches or drops every monthly partition whose runs are all older than
+ * {@code sync.retention.run-history}, so expiry costs a catalog change instead of a bulk delete.
+ */
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Service;
+
+@Service
+public class SyncRetentionService {
+
+    private static final Logger log = LoggerFactory.getLogger(SyncRetentionService.class);
+    private static final String RUN_PARTITION_PREFIX = "sync_run_p";
+
+    private static final String LIST_RUN_PARTITIONS = """
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        JOIN pg_class p ON p.oid = i.inhparent
+        WHERE p.relname = 'sync_run'
+        ORDER BY c.relname
+        """;
+
+    private static final String ROLLUP_START = """
+        SELECT COALESCE((SELECT MAX(day) FROM sync_run_daily_stats),
+                        (SELECT MIN(started_at AT TIME ZONE 'UTC')::date FROM sync_run))
+        """;
+
+    private static final String ROLLUP_DAILY_STATS = """
+        INSERT INTO sync_run_daily_stats (day, runs, successful_runs, failed_runs, attempts, partitions_committed,
+                                          partitions_failed, rows_exported, bytes_exported, avg_duration_seconds)
+        SELECT (r.started_at AT TIME ZONE 'UTC')::date,
+               COUNT(*),
+               COUNT(*) FILTER (WHERE r.status = 'SUCCESS'),
+               COUNT(*) FILTER (WHERE r.status = 'FAILED'),
+               SUM(r.attempts),
+               COALESCE(SUM(i.committed), 0),
+               COALESCE(SUM(i.failed), 0),
+               COALESCE(SUM(i.row_count), 0),
+               COALESCE(SUM(i.byte_count), 0),
+               AVG(EXTRACT(EPOCH FROM r.finished_at - r.started_at))
+        FROM sync_run r
+        LEFT JOIN (
+            SELECT run_id, run_started_at,
+                   COUNT(*) FILTER (WHERE status = 'COMMITTED') AS committed,
+                   COUNT(*) FILTER (WHERE status = 'FAILED') AS failed,
+                   SUM(object_count) FILTER (WHERE status = 'COMMITTED') AS row_count,
+                   SUM(size_bytes) FILTER (WHERE status = 'COMMITTED') AS byte_count
+            FROM sync_run_item
+            WHERE run_started_at >= ? AND run_started_at < ?
+            GROUP BY run_id, run_started_at
+        ) i ON i.run_id = r.id AND i.run_started_at = r.started_at
+        WHERE r.started_at >= ? AND r.started_at < ?
+        GROUP BY 1
+        ON CONFLICT (day) DO UPDATE SET
+            runs = EXCLUDED.runs,
+            successful_runs = EXCLUDED.successful_runs,
+            failed_runs = EXCLUDED.failed_runs,
+            attempts = EXCLUDED.attempts,
+            partitions_committed = EXCLUDED.partitions_committed,
+            partitions_failed = EXCLUDED.partitions_failed,
+            rows_exported = EXCLUDED.rows_exported,
+            bytes_exported = EXCLUDED.bytes_exported,
+            avg_duration_seconds = EXCLUDED.avg_duration_seconds
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskScheduler taskScheduler;
+    private final SyncProperties syncProperties;
+
+    public SyncRetentionService(JdbcTemplate jdbcTemplate, TaskScheduler taskScheduler,
+        SyncProperties syncProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.taskScheduler = taskScheduler;
+        this.syncProperties = syncProperties;
+    }
+
+    /**
+     * Runs one pass once the application is ready and schedules further passes. Passes run with
+     * retention disabled as well, since upcoming partitions are needed either way.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        SyncProperties.Retention retention = syncProperties.getRetention();
+        if (!retention.isEnabled()) {
+            log.info("Sync history retention disabled via configuration; only creating upcoming partitions");
+        }
+        taskScheduler.schedule(this::applyRetentionSafely, new CronTrigger(retention.getCron(), ZoneOffset.UTC));
+        applyRetentionSafely();
+    }
+
+    /**
+     * Ensures upcoming partitions and, if retention is enabled, refreshes the daily rollup and
+     * expires old partitions.
+     */
+    public void applyRetention() {
+        applyRetention(LocalDate.now(ZoneOffset.UTC));
+    }
+
+    void applyRetention(LocalDate today) {
+        SyncProperties.Retention retention = syncProperties.getRetention();
+        LocalDate currentMonth = today.withDayOfMonth(1);
+        for (int i = 0; i <= retention.getPartitionsAhead(); i++) {
+            jdbcTemplate.queryForObject("SELECT sync_history_ensure_partition(?)", String.class,
+                currentMonth.plusMonths(i));
+        }
+        if (!retention.isEnabled()) {
+            return;
+        }
+
+        rollUpDailyStats(today);
+
+        LocalDate cutoff = today.minusDays(retention.getRunHistory().toDays());
+        for (LocalDate month : partitionMonths()) {
+            if (month.plusMonths(1).isAfter(cutoff)) {
+                continue;
+            }
+            String partition = jdbcTemplate.queryForObject("SELECT sync_history_expire_partition(?, ?)",
+                String.class, month, !retention.isArchive());
+            log.info("{} expired sync history partition {} (runs before {})",
+                retention.isArchive() ? "Detached" : "Dropped", partition, cutoff);
+        }
+    }
+
+    /**
+     * Re-aggregates the daily statistics from the last rolled-up day up to (excluding) today.
+     */
+    private void rollUpDailyStats(LocalDate today) {
+        LocalDate from = jdbcTemplate.queryForObject(ROLLUP_START, LocalDate.class);
+        if (from == null || !from.isBefore(today)) {
+            return;
+        }
+        var lower = from.atStartOfDay().atOffset(ZoneOffset.UTC);
+        var upper = today.atStartOfDay().atOffset(ZoneOffset.UTC);
+        int days = jdbcTemplate.update(ROLLUP_DAILY_STATS, lower, upper, lower, upper);
+        log.debug("Rolled up sync statistics for {} day(s) from {}", days, from);
+    }
+
+    /**
+     * Returns the first day of every monthly partition of the run history.
+     */
+    private List<LocalDate> partitionMonths() {
+        return jdbcTemplate.queryForList(LIST_RUN_PARTITIONS, String.class).stream()
+            .map(SyncRetentionService::partitionMonth)
+            .filter(Objects::nonNull)
+            .toList();
+    }
+
+    static LocalDate partitionMonth(String partitionName) {
+        String suffix = partitionName.substring(RUN_PARTITION_PREFIX.length());
+        if (!suffix.matches("\\d{6}")) {
+            return null;
+        }
+        return LocalDate.parse(suffix + "01", DateTimeFormatter.BASIC_ISO_DATE);
+    }
+
+    private void applyRetentionSafely() {
+        try {
+            applyRetention();
+        } catch (RuntimeException ex) {
+            log.error("Sync history retention pass failed", ex);
+        }
+    }
+}
@@ -15,6 +15,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
@@ -25,7 +26,8 @@ import java.util.List;
 public class SyncRun {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sync_run_id")
+    @SequenceGenerator(name = "sync_run_id", sequenceName = "sync_run_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "started_at", nullable = false)
@@ -41,6 +43,12 @@ public class SyncRun {
     @Column(name = "error_message")
     private String errorMessage;
 
+    @Column(name = "attempts", nullable = false)
+    private int attempts = 1;
+
+    @Column(name = "manifest_key")
+    private String manifestKey;
+
     @OneToMany(mappedBy = "run", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<SyncRunItem> items = new ArrayList<>();
 
@@ -80,6 +88,28 @@ public class SyncRun {
         this.errorMessage = errorMessage;
     }
 
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public String getManifestKey() {
+        return manifestKey;
+    }
+
+    public void setManifestKey(String manifestKey) {
+        this.manifestKey = manifestKey;
+    }
+
+    /**
+     * Re-opens this run for another attempt after a failure or interruption.
+     */
+    public void resume() {
+        this.attempts++;
+        this.status = SyncStatus.RUNNING;
+        this.errorMessage = null;
+        this.finishedAt = null;
+    }
+
     public List<SyncRunItem> getItems() {
         return items;
     }
@@ -2,30 +2,42 @@ package com.contargo.s3sync.sync;
 
 /**
  * JPA entity representing a single exported batch (file) within a sync run.
- * Captures table, country partition, object count, and stored S3 key.
+ * Captures table, country partition, object count, and stored S3 key. Doubles
+ * as the partition checkpoint: the status and change window are persisted as
+ * the run proceeds so that an interrupted run can resume the missing partitions.
+ * A partition split into several objects has one item per part, numbered from 1.
  */
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import java.time.OffsetDateTime;
 
 @Entity
 @Table(name = "sync_run_item")
 public class SyncRunItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sync_run_item_id")
+    @SequenceGenerator(name = "sync_run_item_id", sequenceName = "sync_run_item_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "run_id", nullable = false)
     private SyncRun run;
 
+    /** Start time of the owning run; the partition key shared with {@code sync_run}. */
+    @Column(name = "run_started_at", nullable = false)
+    private OffsetDateTime runStartedAt;
+
     @Column(name = "table_name", nullable = false)
     private String tableName;
 
@@ -35,9 +47,32 @@ public class SyncRunItem {
     @Column(name = "object_count", nullable = false)
     private int objectCount;
 
-    @Column(name = "s3_key", nullable = false)
+    @Column(name = "s3_key")
     private String s3Key;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private SyncPartitionStatus status = SyncPartitionStatus.COMMITTED;
+
+    @Column(name = "window_start")
+    private OffsetDateTime windowStart;
+
+    @Column(name = "window_end")
+    private OffsetDateTime windowEnd;
+
+    @Column(name = "size_bytes")
+    private Long sizeBytes;
+
+    @Column(name = "checksum_sha256")
+    private String checksumSha256;
+
+    @Column(name = "checksum_crc32c")
+    private String checksumCrc32c;
+
+    /** Number of the part object; {@code null} if the partition is not split. */
+    @Column(name = "part_number")
+    private Integer partNumber;
+
     public SyncRunItem() {
     }
 
@@ -48,6 +83,81 @@ public class SyncRunItem {
         this.s3Key = s3Key;
     }
 
+    /**
+     * Creates a pending checkpoint for a partition that still has to be uploaded.
+     *
+     * @param windowStart exclusive lower bound of the change window ({@code null} for a full export)
+     * @param windowEnd inclusive upper bound of the change window
+     */
+    public static SyncRunItem pending(String tableName, String country, OffsetDateTime windowStart,
+            OffsetDateTime windowEnd) {
+        SyncRunItem item = new SyncRunItem(tableName, country, 0, null);
+        item.status = SyncPartitionStatus.PENDING;
+        item.windowStart = windowStart;
+        item.windowEnd = windowEnd;
+        return item;
+    }
+
+    /**
+     * Creates a pending checkpoint for a further part of the partition of {@code first}.
+     */
+    static SyncRunItem pendingPart(SyncRunItem first, int part) {
+        SyncRunItem item = pending(first.tableName, first.country, first.windowStart, first.windowEnd);
+        item.partNumber = part;
+        return item;
+    }
+
+    /**
+     * Resets the checkpoint to pending before its partition is staged again as the given part.
+     */
+    void restage(Integer part) {
+        this.partNumber = part;
+        this.status = SyncPartitionStatus.PENDING;
+    }
+
+    /**
+     * Marks the partition as uploaded under the given key.
+     */
+    public void markCommitted(String s3Key, int objectCount) {
+        this.s3Key = s3Key;
+        this.objectCount = objectCount;
+        this.status = SyncPartitionStatus.COMMITTED;
+    }
+
+    /**
+     * Marks the partition as uploaded and records the size and checksums of the stored object.
+     */
+    public void markCommitted(StoredObject stored, int objectCount) {
+        markCommitted(stored.key(), objectCount);
+        this.sizeBytes = stored.sizeBytes();
+        this.checksumSha256 = stored.checksumSha256();
+        this.checksumCrc32c = stored.checksumCrc32c();
+    }
+
+    /**
+     * Marks the partition as failed so the next run picks it up again.
+     */
+    public void markFailed() {
+        this.status = SyncPartitionStatus.FAILED;
+    }
+
+    /**
+     * Copies the upload outcome of a detached copy of this checkpoint onto this instance.
+     */
+    void copyProgressFrom(SyncRunItem other) {
+        this.status = other.status;
+        this.s3Key = other.s3Key;
+        this.objectCount = other.objectCount;
+        this.sizeBytes = other.sizeBytes;
+        this.checksumSha256 = other.checksumSha256;
+        this.checksumCrc32c = other.checksumCrc32c;
+        this.partNumber = other.partNumber;
+    }
+
+    public boolean isCommitted() {
+        return status == SyncPartitionStatus.COMMITTED;
+    }
+
     public Long getId() {
         return id;
     }
@@ -58,6 +168,7 @@ public class SyncRunItem {
 
     void setRun(SyncRun run) {
         this.run = run;
+        this.runStartedAt = run.getStartedAt();
     }
 
     public String getTableName() {
@@ -75,5 +186,32 @@ public class SyncRunItem {
     public String getS3Key() {
         return s3Key;
     }
-}
 
+    public SyncPartitionStatus getStatus() {
+        return status;
+    }
+
+    public OffsetDateTime getWindowStart() {
+        return windowStart;
+    }
+
+    public OffsetDateTime getWindowEnd() {
+        return windowEnd;
+    }
+
+    public Long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public String getChecksumSha256() {
+        return checksumSha256;
+    }
+
+    public String getChecksumCrc32c() {
+        return checksumCrc32c;
+    }
+
+    public Integer getPartNumber() {
+        return partNumber;
+    }
+}
@@ -0,0 +1,9 @@
+package com.contargo.s3sync.sync;
+
+/**
+ * Repository for persisting partition checkpoints ({@link SyncRunItem}) as a run proceeds.
+ */
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface SyncRunItemRepository extends JpaRepository<SyncRunItem, Long>, SyncRunItemRepositoryCustom {
+}
@@ -0,0 +1,15 @@
+package com.contargo.s3sync.sync;
+
+/**
+ * Bulk write operations for partition checkpoints.
+ */
+import java.util.Collection;
+
+public interface SyncRunItemRepositoryCustom {
+
+    /**
+     * Writes the upload outcome (status, key, counts, checksums) of already persisted checkpoints
+     * in a single transaction, so the updates are sent as JDBC batches.
+     */
+    void saveProgress(Collection<SyncRunItem> items);
+}
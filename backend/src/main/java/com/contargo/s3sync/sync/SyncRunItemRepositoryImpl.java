@@ -0,0 +1,33 @@
+package com.contargo.s3sync.sync;
+
+/**
+ * Implements {@link SyncRunItemRepositoryCustom}: loads the managed checkpoints with one
+ * query and lets Hibernate flush the changes as batched updates.
+ */
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.transaction.annotation.Transactional;
+
+class SyncRunItemRepositoryImpl implements SyncRunItemRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public void saveProgress(Collection<SyncRunItem> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        Map<Long, SyncRunItem> byId = items.stream()
+            .collect(Collectors.toMap(SyncRunItem::getId, Function.identity(), (first, second) -> second));
+        entityManager.createQuery("select i from SyncRunItem i where i.id in :ids", SyncRunItem.class)
+            .setParameter("ids", byId.keySet())
+            .getResultList()
+            .forEach(managed -> managed.copyProgressFrom(byId.get(managed.getId())));
+    }
+}
@@ -0,0 +1,113 @@
+package com.contargo.s3sync.sync;
+
+/**
+ * Lets one sync run at a time execute, whether it was triggered by the scheduler or through
+ * {@code POST /api/sync/run}, and across instances sharing the database. The holder keeps a
+ * PostgreSQL session-level advisory lock on a primary connection of its own for the whole run;
+ * the database releases it when that session ends, so a crashed instance never blocks the next
+ * run, and a run left {@link SyncStatus#RUNNING} that the holder finds has no live owner.
+ */
+import com.contargo.s3sync.config.ReplicaRouting;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SyncRunLock {
+
+    private static final Logger log = LoggerFactory.getLogger(SyncRunLock.class);
+    /** Advisory lock key of the sync run ("S3SYNC"). */
+    static final long LOCK_KEY = 0x5333_5359_4E43L;
+
+    private final DataSource dataSource;
+    private final ReentrantLock local = new ReentrantLock();
+    private Connection session;
+
+    public SyncRunLock(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Takes the lock for the calling thread if no run holds it in this or another instance.
+     *
+     * @return true if the caller now holds the lock and must {@link #unlock} it
+     * @throws DataAccessResourceFailureException if the lock cannot be checked
+     */
+    public boolean tryLock() {
+        if (!local.tryLock()) {
+            return false;
+        }
+        try {
+            session = ReplicaRouting.onPrimary(this::lockedSession);
+        } catch (RuntimeException ex) {
+            local.unlock();
+            throw ex;
+        }
+        if (session == null) {
+            local.unlock();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Releases the lock held by the calling thread.
+     */
+    public void unlock() {
+        try (Connection connection = session) {
+            query(connection, "SELECT pg_advisory_unlock(?)");
+        } catch (SQLException ex) {
+            // the session is broken then, and the database releases the lock when it ends
+            log.warn("Could not release the sync run lock: {}", ex.getMessage());
+        } finally {
+            session = null;
+            local.unlock();
+        }
+    }
+
+    /**
+     * Opens a session and takes the advisory lock in it; returns the session, or {@code null} if
+     * another session holds the lock.
+     */
+    private Connection lockedSession() {
+        Connection connection = null;
+        try {
+            connection = dataSource.getConnection();
+            if (query(connection, "SELECT pg_try_advisory_lock(?)")) {
+                return connection;
+            }
+            connection.close();
+            return null;
+        } catch (SQLException ex) {
+            closeQuietly(connection);
+            throw new DataAccessResourceFailureException("Could not take the sync run lock", ex);
+        }
+    }
+
+    private static boolean query(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, LOCK_KEY);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ex) {
+            log.debug("Could not close the sync run lock session: {}", ex.getMessage());
+        }
+    }
+}
@@ -3,7 +3,13 @@ package com.contargo.s3sync.sync;
 /**
  * Repository for persisting and querying {@link SyncRun} entities.
  */
+import java.util.Optional;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface SyncRunRepository extends JpaRepository<SyncRun, Long> {
 
@@ -11,5 +17,28 @@ public interface SyncRunRepository extends JpaRepository<SyncRun, Long> {
      * Returns the most recent runs ordered by start time (descending).
      */
     java.util.List<SyncRun> findTop20ByOrderByStartedAtDesc();
-}
 
+    /**
+     * Returns the latest run together with its partition checkpoints.
+     */
+    @EntityGraph(attributePaths = "items")
+    Optional<SyncRun> findFirstByOrderByStartedAtDesc();
+
+    /**
+     * Returns the latest run before the given one that published a manifest.
+     */
+    Optional<SyncRun> findFirstByIdLessThanAndManifestKeyIsNotNullOrderByIdDesc(Long id);
+
+    /**
+     * Writes the state columns of a run with a single update, without merging its items.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        update SyncRun r
+        set r.status = :#{#run.status}, r.attempts = :#{#run.attempts}, r.finishedAt = :#{#run.finishedAt},
+            r.errorMessage = :#{#run.errorMessage}, r.manifestKey = :#{#run.manifestKey}
+        where r.id = :#{#run.id}
+        """)
+    int updateState(@Param("run") SyncRun run);
+}
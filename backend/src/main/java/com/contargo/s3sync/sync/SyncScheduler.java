@@ -7,7 +7,6 @@ package com.contargo.s3sync.sync;
 import java.time.Duration;
 import java.util.Objects;
 import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -26,7 +25,6 @@ public class SyncScheduler implements DisposableBean {
     private final TaskScheduler taskScheduler;
     private final SyncService syncService;
     private final SyncProperties syncProperties;
-    private final AtomicBoolean running = new AtomicBoolean(false);
 
     private final Object monitor = new Object();
     private ScheduledFuture<?> scheduledTask;
@@ -111,26 +109,22 @@ public class SyncScheduler implements DisposableBean {
     }
 
     /**
-     * Guards against overlapping runs and logs failures without crashing the scheduler thread.
+     * Skips the execution while a run is in progress and logs failures without crashing the
+     * scheduler thread. {@link SyncService} itself keeps runs from overlapping, including manual ones.
      */
     private void runSafely() {
         if (!syncProperties.isSchedulerEnabled()) {
             return;
         }
 
-        if (!running.compareAndSet(false, true)) {
-            log.warn("Previous sync still running; skipping this scheduled execution");
-            return;
-        }
-
         try {
             log.info("Starting scheduled sync");
             SyncRun run = syncService.runSync();
             logSyncSummary(run);
+        } catch (SyncAlreadyRunningException ex) {
+            log.warn("Previous sync still running; skipping this scheduled execution");
         } catch (Exception ex) {
             log.error("Scheduled sync failed", ex);
-        } finally {
-            running.set(false);
         }
     }
 
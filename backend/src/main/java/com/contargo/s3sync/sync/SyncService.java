@@ -2,62 +2,133 @@ package com.contargo.s3sync.sync;
 
 /**
  * Orchestrates synchronization of domain data to S3.
- * Determines the effective change window, exports customers and orders,
- * persists run state, and updates last successful sync timestamps.
+ * Runs one bounded read, encode and upload pipeline per {@link TableExporter} and exports each
+ * (table, country) partition from its own watermark, which advances once the partition is
+ * committed. Partitions are checkpointed as {@link SyncRunItem}s, so a failed run is resumed
+ * with only its uncommitted partitions; large partitions are rolled over into part objects and
+ * skewed ones split into hash sub-partitions. A successful run publishes a manifest.
  */
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 
-import com.contargo.s3sync.customer.Customer;
-import com.contargo.s3sync.customer.CustomerRepository;
-import com.contargo.s3sync.order.Order;
-import com.contargo.s3sync.order.OrderRepository;
+import com.contargo.s3sync.config.ReplicaRouting;
 import com.contargo.s3sync.s3.S3Service;
 
-import jakarta.transaction.Transactional;
-
 @Service
 public class SyncService {
 
     private static final Logger log = LoggerFactory.getLogger(SyncService.class);
+    private static final int PROGRESS_BATCH_SIZE = 50;
+    /** Part numbers reserved per hash sub-partition; sub-partition {@code b} starts at {@code b * 1000 + 1}. */
+    private static final int PARTS_PER_SUB_PARTITION = 1_000;
 
-    private final CustomerRepository customerRepository;
-    private final OrderRepository orderRepository;
+    private final List<TableExporter<?>> exporters;
+    private final PartitionReader partitionReader;
+    private final VisibilityHorizon visibilityHorizon;
+    private final SyncRunLock syncRunLock;
     private final SyncStateRepository syncStateRepository;
     private final SyncRunRepository syncRunRepository;
+    private final SyncRunItemRepository syncRunItemRepository;
     private final S3StorageService s3StorageService;
     private final S3Service s3Service;
+    private final SyncManifestWriter syncManifestWriter;
+    private final PartitionStagingArea partitionStagingArea;
+    private final SyncProgressPublisher progressPublisher;
+    private final SyncProperties syncProperties;
+    private final MeterRegistry meterRegistry;
+    /** Start of the last export per table, for tables with their own {@code schedule-interval}. */
+    private final Map<String, OffsetDateTime> lastExportStarts = new ConcurrentHashMap<>();
 
-    public SyncService(CustomerRepository customerRepository, OrderRepository orderRepository,
-        SyncStateRepository syncStateRepository, SyncRunRepository syncRunRepository,
-        S3StorageService s3StorageService, S3Service s3Service) {
-        this.customerRepository = customerRepository;
-        this.orderRepository = orderRepository;
+    public SyncService(List<TableExporter<?>> exporters, PartitionReader partitionReader,
+        VisibilityHorizon visibilityHorizon, SyncRunLock syncRunLock, SyncStateRepository syncStateRepository,
+        SyncRunRepository syncRunRepository, SyncRunItemRepository syncRunItemRepository,
+        S3StorageService s3StorageService, S3Service s3Service,
+        SyncManifestWriter syncManifestWriter, PartitionStagingArea partitionStagingArea,
+        SyncProgressPublisher progressPublisher, SyncProperties syncProperties, MeterRegistry meterRegistry) {
+        List<String> duplicates = exporters.stream()
+            .collect(Collectors.groupingBy(TableExporter::tableName, Collectors.counting()))
+            .entrySet().stream()
+            .filter(entry -> entry.getValue() > 1)
+            .map(Map.Entry::getKey)
+            .toList();
+        if (!duplicates.isEmpty()) {
+            throw new IllegalStateException("More than one exporter registered for table(s) " + duplicates);
+        }
+        this.exporters = List.copyOf(exporters);
+        this.partitionReader = partitionReader;
+        this.visibilityHorizon = visibilityHorizon;
+        this.syncRunLock = syncRunLock;
         this.syncStateRepository = syncStateRepository;
         this.syncRunRepository = syncRunRepository;
+        this.syncRunItemRepository = syncRunItemRepository;
         this.s3StorageService = s3StorageService;
         this.s3Service = s3Service;
+        this.syncManifestWriter = syncManifestWriter;
+        this.partitionStagingArea = partitionStagingArea;
+        this.progressPublisher = progressPublisher;
+        this.syncProperties = syncProperties;
+        this.meterRegistry = meterRegistry;
     }
 
-    @Transactional
     /**
      * Executes a single sync run: exports changed data, writes to S3, and records status.
+     * Every enabled table that is due is exported by its own concurrent table pipeline; all
+     * pipelines share the run-level {@link SyncFailurePolicy}. Not transactional on purpose:
+     * run state, partition checkpoints and watermarks are committed as they are written so that
+     * progress survives failures and JVM crashes. Runs never overlap, see {@link SyncRunLock}.
      *
      * @return the persisted {@link SyncRun} with collected item batches
+     * @throws SyncAlreadyRunningException if a run is in progress in this or another instance
      */
     public SyncRun runSync() {
-        OffsetDateTime startedAt = OffsetDateTime.now(ZoneOffset.UTC);
-        SyncRun run = new SyncRun();
-        run.setStartedAt(startedAt);
-        run.setStatus(SyncStatus.RUNNING);
-        run = syncRunRepository.save(run);
+        if (!syncRunLock.tryLock()) {
+            throw new SyncAlreadyRunningException();
+        }
+        try {
+            return runLocked();
+        } finally {
+            syncRunLock.unlock();
+        }
+    }
+
+    private SyncRun runLocked() {
+        SyncRun run = findResumableRun()
+            .map(this::resumeRun)
+            .orElseGet(this::startRun);
+        partitionStagingArea.purgeOtherRuns(run.getId());
+        RunProgress progress = new RunProgress(progressPublisher, run);
 
         try {
             boolean forceFullSync = shouldForceFullSync();
@@ -65,10 +136,26 @@ public class SyncService {
                 log.info("Detected empty S3 bucket; forcing full data export for this run");
             }
 
-            log.info("Starting sync run {}", run.getId());
-            processCustomers(run, startedAt, forceFullSync);
-            processOrders(run, startedAt, forceFullSync);
+            log.info("Starting sync run {} (attempt {})", run.getId(), run.getAttempts());
+            progress.runStarted();
+            Map<String, List<SyncRunItem>> checkpoints = indexCheckpoints(run);
+            RunFailureTracker failures = new RunFailureTracker(syncProperties.getFailurePolicy());
 
+            runTablePipelines(exporters.stream()
+                .filter(exporter -> isDue(exporter.tableName(), run, forceFullSync))
+                .<Runnable>map(exporter -> () -> exportTable(run, pipelineOf(exporter), checkpoints, forceFullSync,
+                    failures, progress))
+                .toList());
+
+            if (failures.hasFailures()) {
+                List<String> failedPartitions = failures.failedPartitions();
+                throw new IllegalStateException("%d partition(s) failed to export: %s".formatted(
+                    failedPartitions.size(), String.join(", ", failedPartitions)));
+            }
+
+            if (run.getItems().stream().anyMatch(SyncRunItem::isCommitted)) {
+                syncManifestWriter.publish(run);
+            }
             run.setStatus(SyncStatus.SUCCESS);
             log.info("Sync run {} completed successfully with {} items", run.getId(), run.getItems().size());
             return run;
@@ -79,165 +166,768 @@ public class SyncService {
             throw e;
         } finally {
             run.setFinishedAt(OffsetDateTime.now(ZoneOffset.UTC));
-            syncRunRepository.save(run);
+            syncRunRepository.updateState(run);
+            progress.runFinished();
         }
     }
 
     /**
-     * Processes customer changes and stores country-partitioned CSV files to S3.
-     *
-     * @param run the current sync run
-     * @param startedAt the run start timestamp
-     * @param forceFullSync when true, exports all data regardless of stored state
+     * Runs the given table pipelines concurrently and waits for all of them, so the run
+     * takes as long as the slowest table rather than the sum of all tables.
+     */
+    private void runTablePipelines(List<Runnable> pipelines) {
+        if (pipelines.isEmpty()) {
+            return;
+        }
+        ExecutorService executor = newExecutor(pipelines.size(), "sync-table-");
+        try {
+            CompletableFuture.allOf(pipelines.stream()
+                    .map(pipeline -> CompletableFuture.runAsync(pipeline, executor))
+                    .toArray(CompletableFuture[]::new))
+                .join();
+        } catch (CompletionException ex) {
+            throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the latest run if it did not complete successfully and has attempts left. Called
+     * under the {@link SyncRunLock}, so a run left in {@link SyncStatus#RUNNING} has no live owner:
+     * it was interrupted (e.g. by a JVM crash) and is resumed as well.
+     */
+    private Optional<SyncRun> findResumableRun() {
+        return ReplicaRouting.onPrimary(syncRunRepository::findFirstByOrderByStartedAtDesc)
+            .filter(run -> run.getStatus() != SyncStatus.SUCCESS)
+            .filter(this::hasAttemptsLeft);
+    }
+
+    /**
+     * A resumed run only retries its uncommitted partitions, so the committed ones do not export
+     * changes past the run's windows until it succeeds. After {@code sync.max-attempts} the run
+     * is therefore given up: it is closed as failed with its uncommitted checkpoints, and the
+     * next run reads every partition from its watermark, the failing ones included.
+     */
+    private boolean hasAttemptsLeft(SyncRun run) {
+        if (run.getAttempts() < syncProperties.getMaxAttempts()) {
+            return true;
+        }
+        List<SyncRunItem> uncommitted = run.getItems().stream().filter(item -> !item.isCommitted()).toList();
+        log.warn("Giving up sync run {} after {} attempts; {} uncommitted partition(s) are exported again from "
+            + "their watermarks by a new run", run.getId(), run.getAttempts(), uncommitted.size());
+        uncommitted.forEach(SyncRunItem::markFailed);
+        syncRunItemRepository.saveProgress(uncommitted);
+        if (run.getStatus() == SyncStatus.RUNNING) {
+            run.setStatus(SyncStatus.FAILED);
+            run.setErrorMessage("Interrupted during its last attempt");
+            run.setFinishedAt(OffsetDateTime.now(ZoneOffset.UTC));
+            syncRunRepository.updateState(run);
+        }
+        return false;
+    }
+
+    private SyncRun startRun() {
+        SyncRun run = new SyncRun();
+        run.setStartedAt(OffsetDateTime.now(ZoneOffset.UTC));
+        run.setStatus(SyncStatus.RUNNING);
+        return syncRunRepository.save(run);
+    }
+
+    private SyncRun resumeRun(SyncRun run) {
+        long committed = run.getItems().stream().filter(SyncRunItem::isCommitted).count();
+        log.info("Resuming sync run {} left in status {} ({} of {} partitions already committed)",
+            run.getId(), run.getStatus(), committed, run.getItems().size());
+        run.resume();
+        syncRunRepository.updateState(run);
+        return run;
+    }
+
+    /**
+     * Decides whether a table is exported by this run. Disabled tables never are. A table with
+     * its own {@code schedule-interval} is skipped until the interval has passed since its last
+     * export, unless the run is a forced full export or still has uncommitted partitions of the
+     * table from an earlier attempt. The last export is tracked in memory, so the first run
+     * after a restart exports every table.
+     */
+    private boolean isDue(String tableName, SyncRun run, boolean forceFullSync) {
+        SyncProperties.Table settings = syncProperties.table(tableName);
+        if (!settings.isEnabled()) {
+            log.info("Skipping table {}: disabled via sync.tables.{}.enabled", tableName, tableName);
+            return false;
+        }
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        OffsetDateTime lastStart = lastExportStarts.get(tableName);
+        boolean pendingPartitions = run.getItems().stream()
+            .anyMatch(item -> item.getTableName().equals(tableName) && !item.isCommitted());
+        if (forceFullSync || pendingPartitions || settings.getScheduleInterval() == null || lastStart == null
+            || !now.isBefore(lastStart.plus(settings.getScheduleInterval()))) {
+            lastExportStarts.put(tableName, now);
+            return true;
+        }
+        log.info("Skipping table {}: last exported at {}, next export due after {}", tableName, lastStart,
+            lastStart.plus(settings.getScheduleInterval()));
+        return false;
+    }
+
+    /**
+     * Resolves the settings of a table pipeline from {@code sync.tables.<name>} and the exporter defaults.
      */
-    private void processCustomers(SyncRun run, OffsetDateTime startedAt, boolean forceFullSync) {
-        OffsetDateTime persistedSince = syncStateRepository.findById("kunde")
-            .map(SyncState::getLastSuccessfulSync)
-            .orElse(OffsetDateTime.MIN);
-        OffsetDateTime effectiveSince = forceFullSync ? OffsetDateTime.MIN : persistedSince;
+    private <T> TablePipeline<T> pipelineOf(TableExporter<T> exporter) {
+        String tableName = exporter.tableName();
+        SyncProperties.Table settings = syncProperties.table(tableName);
+        ObjectKeyTemplate keyTemplate = settings.getKeyTemplate() == null
+            ? exporter.keyTemplate()
+            : new ObjectKeyTemplate(settings.getKeyTemplate());
+        return new TablePipeline<>(exporter, settings.getFetchSize(), syncProperties.uploadConcurrency(tableName),
+            settings.getMaxFileSize(), settings.getMaxRowsPerFile(), settings.getSkewThreshold(),
+            settings.getSubPartitions(), keyTemplate);
+    }
 
+    /**
+     * Table pipeline of three overlapping stages connected by bounded queues: the calling
+     * thread streams the partitions one after another, {@code sync.pipeline.encoders} workers
+     * serialize their rows into the staging area and {@code sync.tables.<name>.parallelism}
+     * (default {@code sync.upload-concurrency}) workers upload them, part by part for a partition
+     * that is split. Rows are handed to the encoders in chunks of the table's {@code fetch-size},
+     * at most {@code encoders + sync.pipeline.read-ahead} of them waiting, so the rows held per
+     * table are bounded by that queue and the chunks being encoded rather than by the size of a
+     * partition. The reader also blocks while {@code parallelism + sync.pipeline.read-ahead}
+     * partitions of the table are read but not yet uploaded, which bounds the staged content and
+     * pushes back on the database when encoding or uploads fall behind. A country whose rows
+     * cannot be read is recorded as failed and the reader goes on with the next one. New
+     * checkpoints are inserted together when the first of them is about to be uploaded, and upload
+     * outcomes are written back in batches of {@value #PROGRESS_BATCH_SIZE} checkpoints; a crash
+     * before a batch is written only causes the affected partitions to be exported again on resume.
+     */
+    private <T> void exportTable(SyncRun run, TablePipeline<T> pipeline, Map<String, List<SyncRunItem>> checkpoints,
+        boolean forceFullSync, RunFailureTracker failures, RunProgress progress) {
+        String tableName = pipeline.exporter().tableName();
+        List<String> countries = pipeline.exporter().partitions();
+        progress.tableStarted(tableName, countries.size());
         if (forceFullSync) {
-            if (persistedSince.equals(OffsetDateTime.MIN)) {
-                log.info("Executing first-time full customer export");
-            } else {
-                log.info("Ignoring stored customer sync timestamp {} because S3 bucket is empty", persistedSince);
+            log.info("Executing full {} export for {} partitions", tableName, countries.size());
+        }
+        Map<String, OffsetDateTime> watermarks = forceFullSync ? Map.of() : watermarksOf(tableName);
+        int uploaders = pipeline.concurrency();
+        int encoders = syncProperties.getPipeline().getEncoders();
+        int readAhead = syncProperties.getPipeline().getReadAhead();
+        int capacity = uploaders + readAhead;
+        Semaphore inFlight = new Semaphore(capacity);
+        // Holds at most encoders + read-ahead chunks of fetch-size rows; the reader waits for the encoders.
+        BlockingQueue<Chunk<T>> toEncode = new ArrayBlockingQueue<>(encoders + readAhead);
+        // Parts of split partitions can fill it up; encoders then wait for the uploaders.
+        BlockingQueue<EncodedPart> toUpload = new ArrayBlockingQueue<>(capacity + uploaders);
+        CheckpointWriter checkpointWriter = new CheckpointWriter(syncRunItemRepository);
+        Consumer<PartitionUpload> completed = upload -> {
+            try {
+                partitionCompleted(run, upload, checkpointWriter, failures, progress);
+            } finally {
+                inFlight.release();
+            }
+        };
+        AtomicInteger runningEncoders = new AtomicInteger(encoders);
+        ExecutorService encoding = newExecutor(encoders, "sync-" + tableName + "-encode-");
+        ExecutorService uploads = newExecutor(uploaders, "sync-" + tableName + "-");
+        List<CompletableFuture<Void>> workers = new ArrayList<>();
+        for (int i = 0; i < encoders; i++) {
+            workers.add(CompletableFuture.runAsync(() -> {
+                try {
+                    for (Chunk<T> chunk = take(toEncode); !chunk.isEnd(); chunk = take(toEncode)) {
+                        if (encodeChunk(run, pipeline, chunk, part -> put(toUpload, part), checkpointWriter,
+                            failures, progress)) {
+                            completed.accept(chunk.unit().upload);
+                        }
+                    }
+                } finally {
+                    if (runningEncoders.decrementAndGet() == 0) {
+                        for (int j = 0; j < uploaders; j++) {
+                            put(toUpload, EncodedPart.END);
+                        }
+                    }
+                }
+            }, encoding));
+        }
+        for (int i = 0; i < uploaders; i++) {
+            workers.add(CompletableFuture.runAsync(() -> {
+                for (EncodedPart part = take(toUpload); !part.isEnd(); part = take(toUpload)) {
+                    boolean last = uploadPart(run, pipeline, part, checkpointWriter, failures, progress);
+                    checkpointWriter.finished(part.checkpoint());
+                    if (last) {
+                        completed.accept(part.upload());
+                    }
+                }
+            }, uploads));
+        }
+        try {
+            for (String country : countries) {
+                acquire(inFlight);
+                if (failures.shouldStop()) {
+                    inFlight.release();
+                    log.warn("Stopping {} pipeline after partition failure (policy {})", tableName,
+                        syncProperties.getFailurePolicy());
+                    break;
+                }
+                List<SyncRunItem> existing = checkpoints.getOrDefault(partitionKey(tableName, country), List.of());
+                boolean started;
+                try {
+                    started = readPartition(run, pipeline, country, existing, watermarks.get(country), toEncode,
+                        checkpointWriter, failures, progress);
+                } catch (RuntimeException ex) {
+                    inFlight.release();
+                    readFailed(run, tableName, country, existing, watermarks.get(country), ex, checkpointWriter,
+                        failures, progress);
+                    continue;
+                }
+                if (!started) {
+                    progress.partitionSkipped();
+                    inFlight.release();
+                    continue;
+                }
+                if (checkpointWriter.isFlushDue()) {
+                    checkpointWriter.flush();
+                }
             }
+        } finally {
+            for (int i = 0; i < encoders; i++) {
+                put(toEncode, Chunk.end());
+            }
+            // Workers record their own failures, so waiting here never masks a read error.
+            CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new)).join();
+            encoding.shutdown();
+            uploads.shutdown();
+            checkpointWriter.flush();
+        }
+    }
+
+    /**
+     * Reads a single (table, country) partition and hands its rows to the encoders as they are
+     * streamed. An uncommitted checkpoint left by an earlier attempt of this run is retried
+     * within its recorded window; otherwise the changes since the partition watermark up to the
+     * {@link VisibilityHorizon} are read and checkpointed as pending with the first chunk, so that
+     * rows of transactions still in flight fall into the next window instead of below the new
+     * watermark. A split partition with an uncommitted part is read and staged again as a whole,
+     * since its rows cannot be told apart by part. Once rows were handed on, a read failure is
+     * recorded on the partition, whose units are then closed like those of a complete read.
+     *
+     * @param existing checkpoints of the partition from earlier attempts of this run, in part order
+     * @param since exclusive lower bound of the change window ({@code null} for a full export)
+     * @param checkpointWriter inserts the new pending checkpoint together with others before its upload
+     * @return false if there is nothing to export
+     * @throws RuntimeException if the partition could not be read before any of its rows were handed on
+     */
+    private <T> boolean readPartition(SyncRun run, TablePipeline<T> pipeline, String country,
+        List<SyncRunItem> existing, OffsetDateTime since, BlockingQueue<Chunk<T>> toEncode,
+        CheckpointWriter checkpointWriter, RunFailureTracker failures, RunProgress progress) {
+        String tableName = pipeline.exporter().tableName();
+        if (!existing.isEmpty() && existing.stream().allMatch(SyncRunItem::isCommitted)) {
+            log.debug("Partition {}/{} already committed in run {}", tableName, country, run.getId());
+            return false;
         }
 
-        List<Customer> customers = effectiveSince.equals(OffsetDateTime.MIN)
-            ? customerRepository.findAll()
-            : customerRepository.findByUpdatedAtAfter(effectiveSince);
+        PartitionFeed<T> feed;
+        OffsetDateTime windowStart;
+        OffsetDateTime windowEnd;
+        OffsetDateTime replayedTo;
+        if (!existing.isEmpty()) {
+            SyncRunItem first = existing.get(0);
+            if (existing.size() == 1 && first.getPartNumber() == null) {
+                Optional<StagedContent> staged = partitionStagingArea.find(run.getId(), tableName, country);
+                if (staged.isPresent()) {
+                    log.info("Resuming partition {}/{} from its staged file ({} rows, {} bytes)", tableName,
+                        country, staged.get().recordCount(), staged.get().contentLength());
+                    progress.partitionStarted(tableName, country, staged.get().recordCount());
+                    PartitionUnit<T> unit = new PartitionUnit<>(new PartitionUpload(existing), staged.get(), 0);
+                    put(toEncode, Chunk.close(unit));
+                    return true;
+                }
+            }
+            windowStart = first.getWindowStart();
+            windowEnd = first.getWindowEnd();
+            replayedTo = null;
+            feed = new PartitionFeed<>(pipeline, toEncode, rows -> {
+                log.info("Resuming partition {}/{} with {} rows in window ({}, {}]", tableName, country, rows,
+                    first.getWindowStart(), first.getWindowEnd());
+                progress.partitionStarted(tableName, country, rows);
+                return new PartitionUpload(existing);
+            });
+        } else {
+            VisibilityHorizon.Horizon horizon = visibilityHorizon.current();
+            windowStart = since;
+            windowEnd = horizon.windowEnd();
+            replayedTo = horizon.measuredAt();
+            OffsetDateTime recordedEnd = windowEnd == null ? run.getStartedAt() : windowEnd;
+            feed = new PartitionFeed<>(pipeline, toEncode, rows -> {
+                log.info("Processing {} {} updates for {} since {}", rows, tableName, country,
+                    since == null ? "the beginning" : since);
+                progress.partitionStarted(tableName, country, rows);
+                SyncRunItem checkpoint = SyncRunItem.pending(tableName, country, since, recordedEnd);
+                synchronized (run) {
+                    run.addItem(checkpoint);
+                }
+                checkpointWriter.plan(checkpoint);
+                return new PartitionUpload(List.of(checkpoint));
+            });
+        }
 
-        if (customers.isEmpty()) {
-            if (forceFullSync) {
-                log.info("No customer records available to export during forced full sync");
-            } else {
-                log.info("No customer updates detected since {}", effectiveSince);
+        try {
+            read(pipeline, country, windowStart, windowEnd, replayedTo, feed);
+        } catch (RuntimeException ex) {
+            if (!feed.isStarted()) {
+                throw ex;
             }
-            updateSyncState("kunde", startedAt);
-            return;
+            PartitionUpload upload = feed.upload();
+            partitionFailed(upload, null, null, ex, failures, progress);
+            List<SyncRunItem> uncommitted = upload.uncommitted();
+            uncommitted.forEach(SyncRunItem::markFailed);
+            checkpointWriter.finished(uncommitted);
+            feed.close();
+            return true;
+        }
+        if (!feed.isStarted()) {
+            if (existing.isEmpty()) {
+                log.info("No {} updates detected for {} since {}", tableName, country,
+                    since == null ? "the beginning" : since);
+                return false;
+            }
+            // an empty window still replaces the objects of an earlier attempt
+            feed.start();
+        } else if (existing.isEmpty()) {
+            feed.upload().advanceWatermarkTo(feed.newestChange());
         }
+        feed.close();
+        return true;
+    }
 
-        log.info("Processing {} customer updates since {}", customers.size(),
-            effectiveSince.equals(OffsetDateTime.MIN) ? "the beginning" : effectiveSince);
-        Map<String, List<Customer>> customersByCountry = customers.stream()
-            .collect(Collectors.groupingBy(Customer::getCountry));
+    /**
+     * Records a partition whose rows could not be read as failed, so that the table pipeline goes
+     * on with the next country and the next run retries this one. The checkpoints of an earlier
+     * attempt are marked failed; a partition read for the first time gets a failed checkpoint
+     * whose window ends at the run start.
+     */
+    private void readFailed(SyncRun run, String tableName, String country, List<SyncRunItem> existing,
+        OffsetDateTime since, RuntimeException ex, CheckpointWriter checkpointWriter, RunFailureTracker failures,
+        RunProgress progress) {
+        log.error("Failed to read partition {}/{}; it will be retried by the next run", tableName, country, ex);
+        if (existing.isEmpty()) {
+            SyncRunItem checkpoint = SyncRunItem.pending(tableName, country, since, run.getStartedAt());
+            checkpoint.markFailed();
+            synchronized (run) {
+                run.addItem(checkpoint);
+            }
+            checkpointWriter.plan(checkpoint);
+        } else {
+            List<SyncRunItem> uncommitted = existing.stream().filter(item -> !item.isCommitted()).toList();
+            uncommitted.forEach(SyncRunItem::markFailed);
+            checkpointWriter.finished(uncommitted);
+        }
+        failures.record(tableName, country);
+        progress.partitionFailed(tableName, country, ex.getMessage());
+    }
 
-        OffsetDateTime latestUpdate = customers.stream()
-            .map(Customer::getUpdatedAt)
-            .filter(date -> date != null)
-            .max(OffsetDateTime::compareTo)
-            .orElse(startedAt);
+    /**
+     * Splits a partition of more than {@code skew-threshold} rows into {@code sub-partitions} units
+     * by the hash of the row id, so that encoders stage them in parallel, each into parts of its own.
+     * The rows are counted before the partition is streamed; smaller partitions remain a single
+     * unit. The split is deterministic and every sub-partition numbers its parts within its own
+     * range of {@value #PARTS_PER_SUB_PARTITION}, so a resumed partition writes the same rows to the
+     * same keys. A sub-partition that receives no rows stages no part.
+     */
+    private <T> List<PartitionUnit<T>> subPartitions(TablePipeline<T> pipeline, PartitionUpload upload,
+        long rowCount) {
+        Integer threshold = pipeline.skewThreshold();
+        if (threshold == null || rowCount <= threshold) {
+            return List.of(new PartitionUnit<>(upload, null, 0));
+        }
+        int count = pipeline.subPartitions();
+        List<PartitionUnit<T>> units = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            units.add(new PartitionUnit<>(upload, null, i * PARTS_PER_SUB_PARTITION));
+        }
+        upload.split(count);
+        SyncRunItem checkpoint = upload.checkpoint();
+        log.info("Splitting partition {}/{} with {} rows into {} hash sub-partitions", checkpoint.getTableName(),
+            checkpoint.getCountry(), rowCount, count);
+        return units;
+    }
 
-        customersByCountry.forEach((country, group) -> {
-            String csv = group.stream()
-                .map(this::customerToCsv)
-                .collect(Collectors.joining("\n"));
-            String key = s3StorageService.store("kunde", country, startedAt, csv);
-            run.addItem(new SyncRunItem("kunde", country, group.size(), key));
-        });
+    /**
+     * Sub-partition of a row id; mixes the high bits of the hash into the low ones, like
+     * {@link java.util.HashMap}, so that sequential ids spread evenly over the buckets.
+     */
+    private static int bucketOf(String rowId, int buckets) {
+        int hash = rowId == null ? 0 : rowId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), buckets);
+    }
 
-        syncRunRepository.save(run);
-        updateSyncState("kunde", latestUpdate);
+    /**
+     * Counts and streams the rows of one partition with the table's fetch size into the feed. A
+     * read replica only serves a new window once it has replayed the primary up to the moment the
+     * horizon was measured, when every row of the window had committed; replaying past the window
+     * start, or even its end, is not enough, as rows stamped earlier may commit later. A recorded
+     * window, whose measurement is not kept, is read on the primary ({@code replayedTo} is
+     * {@code null}). The read timer leaves out the time the reader waited for the encoders.
+     */
+    private <T> void read(TablePipeline<T> pipeline, String country, OffsetDateTime windowStart,
+        OffsetDateTime windowEnd, OffsetDateTime replayedTo, PartitionFeed<T> feed) {
+        TableExporter<T> exporter = pipeline.exporter();
+        Supplier<Void> query = () -> {
+            feed.sized(exporter.count(country, windowStart, windowEnd));
+            partitionReader.read(pipeline.fetchSize(), () -> exporter.load(country, windowStart, windowEnd), feed);
+            return null;
+        };
+        long start = System.nanoTime();
+        try {
+            if (replayedTo == null) {
+                ReplicaRouting.onPrimary(query);
+            } else {
+                ReplicaRouting.onReplicaCaughtUpTo(replayedTo, query);
+            }
+        } finally {
+            stageTimer("read", exporter.tableName())
+                .record(Duration.ofNanos(System.nanoTime() - start - feed.waitedNanos()));
+        }
     }
 
     /**
-     * Processes order changes and stores country-partitioned CSV files to S3.
+     * Serializes a chunk of rows into the staging area of its unit, unless the partition already
+     * failed, and hands each finished part to the uploaders. A table with {@code max-rows-per-file}
+     * or {@code max-file-size} starts a new part whenever one reaches either limit, numbered from
+     * the unit's first part; checkpoints of earlier attempts are reused by part number. Chunks of
+     * one unit are encoded one at a time, in any order; once the unit is closed and its last chunk
+     * is encoded, the open part, or the content an earlier attempt already staged, is handed off.
+     * Failures are recorded in the partition's upload state instead of propagated.
      *
-     * @param run the current sync run
-     * @param startedAt the run start timestamp
-     * @param forceFullSync when true, exports all data regardless of stored state
+     * @return true if this completed the partition, i.e. it was the last unit to be staged and all
+     *     of the partition's parts are already done
      */
-    private void processOrders(SyncRun run, OffsetDateTime startedAt, boolean forceFullSync) {
-        OffsetDateTime persistedSince = syncStateRepository.findById("auftraege")
-            .map(SyncState::getLastSuccessfulSync)
-            .orElse(OffsetDateTime.MIN);
-        OffsetDateTime effectiveSince = forceFullSync ? OffsetDateTime.MIN : persistedSince;
-
-        if (forceFullSync) {
-            if (persistedSince.equals(OffsetDateTime.MIN)) {
-                log.info("Executing first-time full order export");
+    private <T> boolean encodeChunk(SyncRun run, TablePipeline<T> pipeline, Chunk<T> chunk,
+        Consumer<EncodedPart> uploads, CheckpointWriter checkpointWriter, RunFailureTracker failures,
+        RunProgress progress) {
+        PartitionUnit<T> unit = chunk.unit();
+        unit.lock.lock();
+        try {
+            if (chunk.isClose()) {
+                unit.closed = true;
             } else {
-                log.info("Ignoring stored order sync timestamp {} because S3 bucket is empty", persistedSince);
+                unit.pendingChunks--;
+                if (!unit.upload.isFailed()) {
+                    stage(run, pipeline, unit, chunk.rows(), uploads, checkpointWriter, failures, progress);
+                }
+            }
+            if (!unit.closed || unit.pendingChunks > 0) {
+                return false;
             }
+            finish(run, pipeline, unit, uploads, checkpointWriter, failures, progress);
+            return unit.upload.stagingDone();
+        } finally {
+            unit.lock.unlock();
         }
+    }
 
-        List<Order> orders = effectiveSince.equals(OffsetDateTime.MIN)
-            ? orderRepository.findAll()
-            : orderRepository.findByLastChangeAfter(effectiveSince);
+    private <T> void stage(SyncRun run, TablePipeline<T> pipeline, PartitionUnit<T> unit, List<T> rows,
+        Consumer<EncodedPart> uploads, CheckpointWriter checkpointWriter, RunFailureTracker failures,
+        RunProgress progress) {
+        TableExporter<T> exporter = pipeline.exporter();
+        long start = System.nanoTime();
+        try {
+            for (T row : rows) {
+                if (unit.writer == null) {
+                    unit.checkpoint = partCheckpoint(run, pipeline, unit, ++unit.parts, checkpointWriter);
+                    unit.writer = open(run, unit.checkpoint);
+                }
+                unit.writer.append(exporter.encode(row));
+                if (pipeline.isPartFull(unit.writer)) {
+                    handOff(unit.checkpoint, unit.writer, unit.upload, uploads);
+                    unit.writer = null;
+                }
+            }
+        } catch (RuntimeException ex) {
+            unitFailed(unit, ex, checkpointWriter, failures, progress);
+        } finally {
+            unit.stagingNanos += System.nanoTime() - start;
+        }
+    }
 
-        if (orders.isEmpty()) {
-            if (forceFullSync) {
-                log.info("No order records available to export during forced full sync");
-            } else {
-                log.info("No order updates detected since {}", effectiveSince);
+    /**
+     * Hands off the last part of a closed unit. An unsplit partition without rows still stages an
+     * empty part, which replaces the object of an earlier attempt; the stage timer records the
+     * time spent encoding the unit's chunks.
+     */
+    private <T> void finish(SyncRun run, TablePipeline<T> pipeline, PartitionUnit<T> unit,
+        Consumer<EncodedPart> uploads, CheckpointWriter checkpointWriter, RunFailureTracker failures,
+        RunProgress progress) {
+        PartitionUpload upload = unit.upload;
+        if (unit.staged != null) {
+            upload.partStaged(upload.checkpoint());
+            uploads.accept(new EncodedPart(upload.checkpoint(), unit.staged, upload));
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            if (upload.isFailed()) {
+                if (unit.writer != null) {
+                    unit.writer.close();
+                    unit.checkpoint.markFailed();
+                    checkpointWriter.finished(unit.checkpoint);
+                    unit.writer = null;
+                }
+                return;
+            }
+            if (unit.parts == 0 && !upload.isSplit()) {
+                unit.checkpoint = partCheckpoint(run, pipeline, unit, ++unit.parts, checkpointWriter);
+                unit.writer = open(run, unit.checkpoint);
             }
-            updateSyncState("auftraege", startedAt);
+            if (unit.writer != null) {
+                handOff(unit.checkpoint, unit.writer, upload, uploads);
+                unit.writer = null;
+            }
+        } catch (RuntimeException ex) {
+            unitFailed(unit, ex, checkpointWriter, failures, progress);
+        } finally {
+            unit.stagingNanos += System.nanoTime() - start;
+            stageTimer("stage", pipeline.exporter().tableName()).record(Duration.ofNanos(unit.stagingNanos));
+        }
+    }
+
+    /**
+     * Records a failure to stage a unit, marking the part it was writing as failed.
+     */
+    private void unitFailed(PartitionUnit<?> unit, RuntimeException ex, CheckpointWriter checkpointWriter,
+        RunFailureTracker failures, RunProgress progress) {
+        SyncRunItem checkpoint = null;
+        if (unit.writer != null) {
+            unit.writer.close();
+            unit.writer = null;
+            checkpoint = unit.checkpoint;
+        }
+        partitionFailed(unit.upload, checkpoint, null, ex, failures, progress);
+        if (checkpoint != null) {
+            checkpointWriter.finished(checkpoint);
+        }
+    }
+
+    /**
+     * Returns the checkpoint of the given part of a unit, reusing the one an earlier attempt
+     * recorded under the same part number. Parts are only numbered when the table or the
+     * partition is split.
+     *
+     * @throws IllegalStateException if a hash sub-partition outgrows its range of part numbers
+     */
+    private SyncRunItem partCheckpoint(SyncRun run, TablePipeline<?> pipeline, PartitionUnit<?> unit,
+        int unitPart, CheckpointWriter checkpointWriter) {
+        PartitionUpload upload = unit.upload;
+        if (upload.isSplit() && unitPart >= PARTS_PER_SUB_PARTITION) {
+            throw new IllegalStateException("Hash sub-partition exceeds %d parts; raise max-rows-per-file"
+                .formatted(PARTS_PER_SUB_PARTITION - 1));
+        }
+        int part = unit.firstPart + unitPart;
+        Integer partNumber = pipeline.splitsPartitions() || upload.isSplit() ? part : null;
+        SyncRunItem checkpoint = upload.reuse(part, partNumber);
+        if (checkpoint != null) {
+            return checkpoint;
+        }
+        checkpoint = SyncRunItem.pendingPart(upload.checkpoint(), part);
+        synchronized (run) {
+            run.addItem(checkpoint);
+        }
+        checkpointWriter.plan(checkpoint);
+        return checkpoint;
+    }
+
+    private StagingWriter open(SyncRun run, SyncRunItem checkpoint) {
+        return partitionStagingArea.open(run.getId(), checkpoint.getTableName(), checkpoint.getCountry(),
+            checkpoint.getPartNumber());
+    }
+
+    private static void handOff(SyncRunItem checkpoint, StagingWriter writer, PartitionUpload upload,
+        Consumer<EncodedPart> uploads) {
+        StagedContent content = writer.finish();
+        upload.partStaged(checkpoint);
+        uploads.accept(new EncodedPart(checkpoint, content, upload));
+    }
+
+    /**
+     * Drops checkpoints of parts an earlier attempt produced beyond the parts staged now.
+     */
+    private void removeCheckpoints(SyncRun run, List<SyncRunItem> surplus, CheckpointWriter checkpointWriter) {
+        if (surplus.isEmpty()) {
             return;
         }
+        synchronized (run) {
+            run.getItems().removeAll(surplus);
+        }
+        checkpointWriter.discard(surplus);
+        syncRunItemRepository.deleteAll(surplus);
+    }
 
-        log.info("Processing {} order updates since {}", orders.size(),
-            effectiveSince.equals(OffsetDateTime.MIN) ? "the beginning" : effectiveSince);
-        Map<String, List<Order>> ordersByCountry = orders.stream()
-            .collect(Collectors.groupingBy(order -> order.getCustomer().getCountry()));
+    /**
+     * Uploads a staged part and commits its checkpoint. The staged content is discarded once
+     * committed; after a failure a spilled file is kept for the next attempt. Failures are
+     * recorded instead of propagated. The checkpoint, and any planned with it, is inserted before
+     * the upload so that an object in the bucket always has a checkpoint to resume from.
+     *
+     * @return true if this was the last outstanding part of a fully staged partition
+     */
+    private boolean uploadPart(SyncRun run, TablePipeline<?> pipeline, EncodedPart part,
+        CheckpointWriter checkpointWriter, RunFailureTracker failures, RunProgress progress) {
+        SyncRunItem checkpoint = part.checkpoint();
+        String tableName = checkpoint.getTableName();
+        String country = checkpoint.getCountry();
+        StagedContent content = part.content();
+        try {
+            checkpointWriter.persist(checkpoint);
+            String key = checkpoint.getPartNumber() == null
+                ? pipeline.keyTemplate().render(tableName, country, run.getId(), run.getStartedAt())
+                : pipeline.keyTemplate().renderPart(tableName, country, run.getId(), run.getStartedAt(),
+                    checkpoint.getPartNumber());
+            StoredObject stored = stageTimer("upload", tableName).record(() -> s3StorageService.store(tableName,
+                country, key, content));
+            checkpoint.markCommitted(stored, Math.toIntExact(content.recordCount()));
+            content.discard();
+            return part.upload().partDone(content.recordCount(), content.contentLength());
+        } catch (RuntimeException ex) {
+            partitionFailed(part.upload(), checkpoint, content, ex, failures, progress);
+            return part.upload().partDone(0, 0);
+        }
+    }
 
-        OffsetDateTime latestUpdate = orders.stream()
-            .map(Order::getLastChange)
-            .max(OffsetDateTime::compareTo)
-            .orElse(startedAt);
+    /**
+     * Once all parts of a partition are committed, deletes the objects an earlier attempt
+     * uploaded under keys this attempt did not write again, so that no stale part duplicates rows
+     * under the run prefix, drops the checkpoints of surplus parts and advances the partition
+     * watermark to the newest change read, or to the window end. If that fails, the parts are
+     * marked failed so the next attempt exports them again.
+     */
+    private void partitionCompleted(SyncRun run, PartitionUpload upload, CheckpointWriter checkpointWriter,
+        RunFailureTracker failures, RunProgress progress) {
+        if (upload.isFailed()) {
+            return;
+        }
+        SyncRunItem first = upload.checkpoint();
+        try {
+            List<String> obsoleteKeys = upload.obsoleteKeys();
+            if (!obsoleteKeys.isEmpty()) {
+                log.info("Deleting {} object(s) of partition {}/{} that the earlier attempt left behind",
+                    obsoleteKeys.size(), first.getTableName(), first.getCountry());
+                s3StorageService.deleteObjects(obsoleteKeys);
+            }
+            removeCheckpoints(run, upload.surplus(), checkpointWriter);
+            updateSyncState(first.getTableName(), first.getCountry(), upload.watermark());
+            progress.partitionFinished(first.getTableName(), first.getCountry(), upload.rows(), upload.bytes());
+        } catch (RuntimeException ex) {
+            List<SyncRunItem> parts = upload.parts();
+            parts.forEach(SyncRunItem::markFailed);
+            checkpointWriter.finished(parts);
+            partitionFailed(upload, null, null, ex, failures, progress);
+        }
+    }
 
-        ordersByCountry.forEach((country, group) -> {
-            String csv = group.stream()
-                .map(this::orderToCsv)
-                .collect(Collectors.joining("\n"));
-            String key = s3StorageService.store("auftraege", country, startedAt, csv);
-            run.addItem(new SyncRunItem("auftraege", country, group.size(), key));
-        });
+    /**
+     * Marks the failed part, if any, and reports the partition as failed once.
+     */
+    private void partitionFailed(PartitionUpload upload, SyncRunItem checkpoint, StagedContent content,
+        RuntimeException ex, RunFailureTracker failures, RunProgress progress) {
+        String tableName = upload.checkpoint().getTableName();
+        String country = upload.checkpoint().getCountry();
+        log.error("Failed to export partition {}/{}; it will be retried by the next run", tableName, country, ex);
+        if (checkpoint != null) {
+            checkpoint.markFailed();
+        }
+        if (content != null) {
+            content.close();
+        }
+        if (upload.fail()) {
+            failures.record(tableName, country);
+            progress.partitionFailed(tableName, country, ex.getMessage());
+        }
+    }
 
-        syncRunRepository.save(run);
-        updateSyncState("auftraege", latestUpdate);
+    /**
+     * Timer for one stage of the partition pipeline ({@code read}, {@code stage} or {@code upload}).
+     */
+    private Timer stageTimer(String stage, String tableName) {
+        return Timer.builder("sync.partition." + stage)
+            .description("Time spent per partition in the " + stage + " stage")
+            .tag("table", tableName)
+            .register(meterRegistry);
     }
 
     /**
-     * Persists the last successful sync timestamp for a given logical table.
+     * Indexes the checkpoints recorded by earlier attempts of the run by partition, in part order.
      */
-    private void updateSyncState(String tableName, OffsetDateTime lastSync) {
-        syncStateRepository.save(new SyncState(tableName, lastSync));
+    private Map<String, List<SyncRunItem>> indexCheckpoints(SyncRun run) {
+        return run.getItems().stream()
+            .sorted(Comparator.comparing(SyncRunItem::getPartNumber, Comparator.nullsFirst(Comparator.naturalOrder())))
+            .collect(Collectors.groupingBy(item -> partitionKey(item.getTableName(), item.getCountry())));
+    }
+
+    private static String partitionKey(String tableName, String country) {
+        return tableName + "/" + country;
+    }
+
+    private static void acquire(Semaphore semaphore) {
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an upload slot", ex);
+        }
+    }
+
+    private static <E> E take(BlockingQueue<E> queue) {
+        try {
+            return queue.take();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the previous pipeline stage", ex);
+        }
+    }
+
+    private static <E> void put(BlockingQueue<E> queue, E element) {
+        try {
+            queue.put(element);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while handing over to the next pipeline stage", ex);
+        }
     }
 
     /**
-     * Serializes a customer into a simple comma-separated line.
+     * Creates the executor for a pipeline stage. On virtual threads every task gets its own
+     * thread; the stage's concurrency is then bounded by its caller (pipeline count, upload
+     * semaphore) instead of by the pool size.
      */
-    private String customerToCsv(Customer customer) {
-        return String.join(",",
-            safe(customer.getCompanyName()),
-            safe(customer.getStreet()),
-            safe(customer.getStreetExtra()),
-            safe(customer.getCity()),
-            safe(customer.getCountry()),
-            safe(customer.getPostalCode()),
-            safe(customer.getFirstName()),
-            safe(customer.getLastName()),
-            safe(customer.getId())
-        );
+    private ExecutorService newExecutor(int threads, String prefix) {
+        if (syncProperties.isVirtualThreads()) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix, 1).factory());
+        }
+        return Executors.newFixedThreadPool(threads, threadFactory(prefix));
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
     }
 
     /**
-     * Serializes an order into a simple comma-separated line.
+     * Returns the stored watermark per country for a logical table.
      */
-    private String orderToCsv(Order order) {
-        return String.join(",",
-            safe(order.getId()),
-            safe(order.getArticleNumber()),
-            safe(order.getCustomer().getId())
-        );
+    private Map<String, OffsetDateTime> watermarksOf(String tableName) {
+        return ReplicaRouting.onPrimary(() -> syncStateRepository.findByTableName(tableName)).stream()
+            .filter(state -> state.getLastSuccessfulSync() != null)
+            .collect(Collectors.toMap(SyncState::getCountry, SyncState::getLastSuccessfulSync));
     }
 
     /**
-     * Returns the input with commas replaced and null mapped to empty string.
+     * Persists the last successful sync timestamp for a given table and country partition.
      */
-    private String safe(String value) {
-        return value == null ? "" : value.replace(",", " ");
+    private void updateSyncState(String tableName, String country, OffsetDateTime lastSync) {
+        syncStateRepository.save(new SyncState(tableName, country, lastSync));
     }
 
     /**
@@ -246,5 +936,411 @@ public class SyncService {
     private boolean shouldForceFullSync() {
         return s3Service.isBucketEmpty();
     }
-}
 
+    /**
+     * Rows of one unit on their way to the encoders. A chunk without rows closes its unit, one
+     * without unit stops an encoder worker.
+     */
+    private record Chunk<T>(PartitionUnit<T> unit, List<T> rows) {
+
+        /** End marker that stops an encoder worker. */
+        static <T> Chunk<T> end() {
+            return new Chunk<>(null, null);
+        }
+
+        /** Marker after the last chunk of a unit. */
+        static <T> Chunk<T> close(PartitionUnit<T> unit) {
+            return new Chunk<>(unit, null);
+        }
+
+        boolean isEnd() {
+            return unit == null;
+        }
+
+        boolean isClose() {
+            return rows == null;
+        }
+    }
+
+    /**
+     * A partition, or one hash sub-partition of it, staged by the encoders chunk by chunk, with
+     * the upload state shared by all of its units, or the content an earlier attempt already staged
+     * for it ({@code staged}). Its parts are numbered from {@code firstPart + 1}. The encoding state
+     * is guarded by {@code lock}, so that any encoder can take the unit's next chunk.
+     */
+    private static final class PartitionUnit<T> {
+
+        private final PartitionUpload upload;
+        private final StagedContent staged;
+        private final int firstPart;
+        private final ReentrantLock lock = new ReentrantLock();
+        private int pendingChunks;
+        private boolean closed;
+        private SyncRunItem checkpoint;
+        private StagingWriter writer;
+        private int parts;
+        private long stagingNanos;
+
+        private PartitionUnit(PartitionUpload upload, StagedContent staged, int firstPart) {
+            this.upload = upload;
+            this.staged = staged;
+            this.firstPart = firstPart;
+        }
+
+        /** Counts a chunk handed to the encoders, so the unit is only finished after it. */
+        void chunkQueued() {
+            lock.lock();
+            try {
+                pendingChunks++;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Hands the rows of one partition to the encoders while they are streamed. The first chunk
+     * starts the partition: it gets its upload state and, if counted above the skew threshold,
+     * its hash sub-partitions. Tracks the newest change read and the time spent waiting for the
+     * encoders. Used by the reader thread only.
+     */
+    private final class PartitionFeed<T> implements Consumer<List<T>> {
+
+        private final TablePipeline<T> pipeline;
+        private final BlockingQueue<Chunk<T>> toEncode;
+        private final LongFunction<PartitionUpload> starter;
+        private long rowCount;
+        private PartitionUpload upload;
+        private List<PartitionUnit<T>> units;
+        private OffsetDateTime newestChange;
+        private long waitedNanos;
+
+        /**
+         * @param starter creates the upload state from the counted rows once the partition starts
+         */
+        private PartitionFeed(TablePipeline<T> pipeline, BlockingQueue<Chunk<T>> toEncode,
+            LongFunction<PartitionUpload> starter) {
+            this.pipeline = pipeline;
+            this.toEncode = toEncode;
+            this.starter = starter;
+        }
+
+        void sized(long rows) {
+            rowCount = rows;
+        }
+
+        @Override
+        public void accept(List<T> rows) {
+            if (!isStarted()) {
+                start();
+            }
+            TableExporter<T> exporter = pipeline.exporter();
+            for (T row : rows) {
+                OffsetDateTime changedAt = exporter.changedAt(row);
+                if (changedAt != null && (newestChange == null || changedAt.isAfter(newestChange))) {
+                    newestChange = changedAt;
+                }
+            }
+            if (units.size() == 1) {
+                hand(units.get(0), rows);
+                return;
+            }
+            List<List<T>> buckets = new ArrayList<>(units.size());
+            for (int i = 0; i < units.size(); i++) {
+                buckets.add(new ArrayList<>());
+            }
+            for (T row : rows) {
+                buckets.get(bucketOf(exporter.rowId(row), units.size())).add(row);
+            }
+            for (int i = 0; i < units.size(); i++) {
+                if (!buckets.get(i).isEmpty()) {
+                    hand(units.get(i), buckets.get(i));
+                }
+            }
+        }
+
+        void start() {
+            upload = starter.apply(rowCount);
+            units = subPartitions(pipeline, upload, rowCount);
+        }
+
+        boolean isStarted() {
+            return upload != null;
+        }
+
+        PartitionUpload upload() {
+            return upload;
+        }
+
+        OffsetDateTime newestChange() {
+            return newestChange;
+        }
+
+        long waitedNanos() {
+            return waitedNanos;
+        }
+
+        /** Closes the units of a started partition after their last chunk. */
+        void close() {
+            for (PartitionUnit<T> unit : units) {
+                hand(unit, null);
+            }
+        }
+
+        private void hand(PartitionUnit<T> unit, List<T> rows) {
+            if (rows != null) {
+                unit.chunkQueued();
+            }
+            long start = System.nanoTime();
+            put(toEncode, new Chunk<>(unit, rows));
+            waitedNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * A part of a partition serialized into the staging area and waiting for an upload worker.
+     */
+    private record EncodedPart(SyncRunItem checkpoint, StagedContent content, PartitionUpload upload) {
+
+        /** End marker that stops an upload worker. */
+        static final EncodedPart END = new EncodedPart(null, null, null);
+
+        boolean isEnd() {
+            return checkpoint == null;
+        }
+    }
+
+    /**
+     * Upload state of one partition, whose units are staged by the encoders and whose parts are
+     * uploaded by any upload worker. It completes once every unit is staged and each staged part
+     * has been uploaded or has failed; exactly one of {@link #stagingDone} and {@link #partDone}
+     * reports the completion.
+     */
+    private static final class PartitionUpload {
+
+        private final List<SyncRunItem> checkpoints;
+        private final List<String> previousKeys;
+        private final List<SyncRunItem> parts = new ArrayList<>();
+        private int units = 1;
+        private boolean split;
+        private int outstanding;
+        private boolean staged;
+        private boolean failed;
+        private long rows;
+        private long bytes;
+        private OffsetDateTime watermark;
+
+        /**
+         * @param checkpoints checkpoints of the partition recorded so far, in part order
+         */
+        private PartitionUpload(List<SyncRunItem> checkpoints) {
+            this.checkpoints = checkpoints;
+            this.previousKeys = checkpoints.stream().map(SyncRunItem::getS3Key).filter(Objects::nonNull).toList();
+        }
+
+        /** Checkpoint of the first part, which carries the partition and its change window. */
+        SyncRunItem checkpoint() {
+            return checkpoints.get(0);
+        }
+
+        /** Checkpoints of the partition recorded so far that are not committed. */
+        synchronized List<SyncRunItem> uncommitted() {
+            return checkpoints.stream().filter(checkpoint -> !checkpoint.isCommitted()).toList();
+        }
+
+        /** Lets the watermark advance to the newest change read instead of the window end. */
+        synchronized void advanceWatermarkTo(OffsetDateTime newestChange) {
+            watermark = newestChange;
+        }
+
+        /** Watermark of the partition once it is committed. */
+        synchronized OffsetDateTime watermark() {
+            return watermark == null ? checkpoint().getWindowEnd() : watermark;
+        }
+
+        /** Records that the partition is staged as the given number of hash sub-partitions. */
+        synchronized void split(int subPartitions) {
+            units = subPartitions;
+            split = true;
+        }
+
+        synchronized boolean isSplit() {
+            return split;
+        }
+
+        /**
+         * Returns the checkpoint an earlier attempt recorded for the given part, restaged under
+         * its part number, or {@code null}. An unnumbered checkpoint counts as part 1.
+         */
+        synchronized SyncRunItem reuse(int part, Integer partNumber) {
+            for (SyncRunItem checkpoint : checkpoints) {
+                int recorded = checkpoint.getPartNumber() == null ? 1 : checkpoint.getPartNumber();
+                if (recorded == part) {
+                    checkpoint.restage(partNumber);
+                    return checkpoint;
+                }
+            }
+            return null;
+        }
+
+        synchronized void partStaged(SyncRunItem part) {
+            parts.add(part);
+            outstanding++;
+        }
+
+        /** Returns true if this was the last unit to be staged and every staged part is already done. */
+        synchronized boolean stagingDone() {
+            staged = --units == 0;
+            return staged && outstanding == 0;
+        }
+
+        /** Returns true if this was the last outstanding part of the fully staged partition. */
+        synchronized boolean partDone(long partRows, long partBytes) {
+            outstanding--;
+            rows += partRows;
+            bytes += partBytes;
+            return staged && outstanding == 0;
+        }
+
+        /** Returns true for the first failure of the partition. */
+        synchronized boolean fail() {
+            boolean first = !failed;
+            failed = true;
+            return first;
+        }
+
+        synchronized boolean isFailed() {
+            return failed;
+        }
+
+        synchronized List<SyncRunItem> parts() {
+            return List.copyOf(parts);
+        }
+
+        /** Keys earlier attempts uploaded to that none of the parts committed now were stored under. */
+        synchronized List<String> obsoleteKeys() {
+            List<String> keys = parts.stream().map(SyncRunItem::getS3Key).toList();
+            return previousKeys.stream().filter(key -> !keys.contains(key)).distinct().toList();
+        }
+
+        /** Checkpoints of earlier attempts that none of the parts staged now reused. */
+        synchronized List<SyncRunItem> surplus() {
+            return checkpoints.stream().filter(checkpoint -> !parts.contains(checkpoint)).toList();
+        }
+
+        synchronized long rows() {
+            return rows;
+        }
+
+        synchronized long bytes() {
+            return bytes;
+        }
+    }
+
+    /**
+     * Writes the checkpoints of one table in batches instead of one transaction per row. New
+     * checkpoints are planned while partitions are read and staged and inserted together with
+     * {@code saveAll} as soon as one of them is about to be uploaded, so a checkpoint still exists
+     * before its object does. Finished checkpoints are collected until the reader flushes them.
+     * Inserts and flushes run under a {@link ReentrantLock} rather than a monitor, since a virtual
+     * thread blocked on JDBC inside {@code synchronized} would pin its carrier.
+     */
+    private static final class CheckpointWriter {
+
+        private final SyncRunItemRepository repository;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final List<SyncRunItem> planned = new ArrayList<>();
+        private final Queue<SyncRunItem> finished = new ConcurrentLinkedQueue<>();
+
+        private CheckpointWriter(SyncRunItemRepository repository) {
+            this.repository = repository;
+        }
+
+        void plan(SyncRunItem checkpoint) {
+            lock.lock();
+            try {
+                planned.add(checkpoint);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** Forgets planned checkpoints that are dropped before they were inserted. */
+        void discard(Collection<SyncRunItem> checkpoints) {
+            lock.lock();
+            try {
+                planned.removeAll(checkpoints);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** Inserts the planned checkpoints if the given one is among them. */
+        void persist(SyncRunItem checkpoint) {
+            lock.lock();
+            try {
+                if (planned.contains(checkpoint)) {
+                    insertPlanned();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void finished(SyncRunItem checkpoint) {
+            finished.add(checkpoint);
+        }
+
+        void finished(Collection<SyncRunItem> checkpoints) {
+            finished.addAll(checkpoints);
+        }
+
+        boolean isFlushDue() {
+            return finished.size() >= PROGRESS_BATCH_SIZE;
+        }
+
+        /** Inserts the planned checkpoints and writes the outcome of the finished ones in one batch each. */
+        void flush() {
+            lock.lock();
+            try {
+                insertPlanned();
+                List<SyncRunItem> batch = new ArrayList<>();
+                for (SyncRunItem item = finished.poll(); item != null; item = finished.poll()) {
+                    batch.add(item);
+                }
+                if (!batch.isEmpty()) {
+                    repository.saveProgress(batch);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void insertPlanned() {
+            if (!planned.isEmpty()) {
+                repository.saveAll(List.copyOf(planned));
+                planned.clear();
+            }
+        }
+    }
+
+    /**
+     * An exporter with the settings its pipeline runs with in this run.
+     */
+    private record TablePipeline<T>(TableExporter<T> exporter, int fetchSize, int concurrency,
+        DataSize maxFileSize, Integer maxRowsPerFile, Integer skewThreshold, int subPartitions,
+        ObjectKeyTemplate keyTemplate) {
+
+        boolean splitsPartitions() {
+            return maxFileSize != null || maxRowsPerFile != null;
+        }
+
+        /**
+         * Returns true once the part being written reached the table's row or size limit.
+         */
+        boolean isPartFull(StagingWriter writer) {
+            return (maxRowsPerFile != null && writer.recordCount() >= maxRowsPerFile)
+                || (maxFileSize != null && writer.contentLength() >= maxFileSize.toBytes());
+        }
+    }
+}
@@ -1,30 +1,38 @@
 package com.contargo.s3sync.sync;
 
 /**
- * JPA entity storing the last successful sync timestamp per logical table.
+ * JPA entity storing the last successful sync timestamp (watermark) per logical
+ * table and country partition.
  */
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
 import jakarta.persistence.Table;
 import java.time.OffsetDateTime;
 
 @Entity
 @Table(name = "sync_state")
+@IdClass(SyncStateId.class)
 public class SyncState {
 
     @Id
     @Column(name = "table_name")
     private String tableName;
 
+    @Id
+    @Column(name = "country")
+    private String country;
+
     @Column(name = "last_successful_sync")
     private OffsetDateTime lastSuccessfulSync;
 
     public SyncState() {
     }
 
-    public SyncState(String tableName, OffsetDateTime lastSuccessfulSync) {
+    public SyncState(String tableName, String country, OffsetDateTime lastSuccessfulSync) {
         this.tableName = tableName;
+        this.country = country;
         this.lastSuccessfulSync = lastSuccessfulSync;
     }
 
@@ -36,6 +44,14 @@ public class SyncState {
         this.tableName = tableName;
     }
 
+    public String getCountry() {
+        return country;
+    }
+
+    public void setCountry(String country) {
+        this.country = country;
+    }
+
     public OffsetDateTime getLastSuccessfulSync() {
         return lastSuccessfulSync;
     }
@@ -44,4 +60,3 @@ public class SyncState {
         this.lastSuccessfulSync = lastSuccessfulSync;
     }
 }
-
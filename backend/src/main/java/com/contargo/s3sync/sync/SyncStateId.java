@@ -0,0 +1,45 @@
+package com.contargo.s3sync.sync;
+
+/**
+ * Composite primary key of {@link SyncState}: logical table plus country partition.
+ */
+import java.io.Serializable;
+import java.util.Objects;
+
+public class SyncStateId implements Serializable {
+
+    private String tableName;
+    private String country;
+
+    public SyncStateId() {
+    }
+
+    public SyncStateId(String tableName, String country) {
+        this.tableName = tableName;
+        this.country = country;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public String getCountry() {
+        return country;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof SyncStateId that)) {
+            return false;
+        }
+        return Objects.equals(tableName, that.tableName) && Objects.equals(country, that.country);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(tableName, country);
+    }
+}
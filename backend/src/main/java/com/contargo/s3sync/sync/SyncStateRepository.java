@@ -3,14 +3,13 @@ package com.contargo.s3sync.sync;
 /**
  * Repository for reading and writing {@link SyncState} rows.
  */
-import java.util.Optional;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-public interface SyncStateRepository extends JpaRepository<SyncState, String> {
+public interface SyncStateRepository extends JpaRepository<SyncState, SyncStateId> {
 
     /**
-     * Finds the state row for the given logical table name.
+     * Finds the per-country state rows for the given logical table name.
      */
-    Optional<SyncState> findByTableName(String tableName);
+    List<SyncState> findByTableName(String tableName);
 }
-
@@ -0,0 +1,69 @@
+package com.contargo.s3sync.sync;
+
+/**
+ * Exports one logical table to S3: which partitions it has, how the rows of a partition are
+ * read, how a row is encoded as a CSV line and where its objects are stored. Every exporter
+ * bean gets its own table pipeline in {@link SyncService}, with its own watermarks, checkpoints
+ * and {@code sync.tables.<name>} tuning, so adding a table means adding an exporter.
+ *
+ * @param <T> row type read from the source
+ */
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface TableExporter<T> {
+
+    /**
+     * Logical table name; keys watermarks, checkpoints, metrics and {@code sync.tables.<name>}.
+     */
+    String tableName();
+
+    /**
+     * Partition keys to export in this run, e.g. the customer countries, largest first where the
+     * exporter can tell, so that the biggest partitions enter the pipeline first.
+     */
+    List<String> partitions();
+
+    /**
+     * Source query: streams the rows of a partition changed within the half-open window
+     * {@code (windowStart, windowEnd]}; either bound may be {@code null} for an open window. The
+     * stream is consumed and closed within the transaction of the {@link PartitionReader}.
+     */
+    Stream<T> load(String partition, OffsetDateTime windowStart, OffsetDateTime windowEnd);
+
+    /**
+     * Counts the rows {@link #load} streams for the same window; sizes the partition before it is
+     * read, e.g. to split a skewed one.
+     */
+    long count(String partition, OffsetDateTime windowStart, OffsetDateTime windowEnd);
+
+    /**
+     * Change timestamp of a row; the newest one becomes the partition watermark.
+     */
+    OffsetDateTime changedAt(T row);
+
+    /**
+     * Stable identity of a row; spreads the rows of a skewed partition over its hash sub-partitions.
+     */
+    String rowId(T row);
+
+    /**
+     * Row encoder: serializes a row into one CSV line without line break.
+     */
+    String encode(T row);
+
+    /**
+     * Object key layout of the table unless {@code sync.tables.<name>.key-template} overrides it.
+     */
+    default ObjectKeyTemplate keyTemplate() {
+        return ObjectKeyTemplate.DEFAULT;
+    }
+
+    /**
+     * Returns a CSV field with commas replaced and {@code null} mapped to an empty string.
+     */
+    static String csvField(String value) {
+        return value == null ? "" : value.replace(",", " ");
+    }
+}
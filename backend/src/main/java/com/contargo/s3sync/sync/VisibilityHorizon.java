@@ -0,0 +1,57 @@
+package com.contargo.s3sync.sync;
+
+/**
+ * Tells up to which change timestamp a partition can be read without missing rows of
+ * transactions that are still in flight. Writers stamp a row no earlier than their transaction
+ * started, but the row only becomes visible at commit; a change window ending after that start
+ * could advance the watermark past it. Windows therefore end at the start of the oldest open
+ * transaction that has written, less {@code sync.visibility-lag} for timestamps the application
+ * takes shortly before its statement runs. Transactions of other database roles are only seen
+ * with {@code pg_read_all_stats}.
+ */
+import com.contargo.s3sync.config.ReplicaRouting;
+import java.time.OffsetDateTime;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+public class VisibilityHorizon {
+
+    private static final String OLDEST_OPEN_WRITE = """
+        SELECT clock_timestamp() AS measured_at, min(xact_start) AS oldest_open_write
+        FROM pg_stat_activity
+        WHERE datname = current_database() AND backend_xid IS NOT NULL AND pid <> pg_backend_pid()
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SyncProperties syncProperties;
+
+    public VisibilityHorizon(JdbcTemplate jdbcTemplate, SyncProperties syncProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.syncProperties = syncProperties;
+    }
+
+    /**
+     * Measures on the primary the latest change timestamp up to which every change is committed
+     * or rolled back.
+     */
+    public Horizon current() {
+        return ReplicaRouting.onPrimary(() -> jdbcTemplate.queryForObject(OLDEST_OPEN_WRITE, (rs, rowNum) -> {
+            OffsetDateTime measuredAt = rs.getObject("measured_at", OffsetDateTime.class);
+            OffsetDateTime oldestOpenWrite = rs.getObject("oldest_open_write", OffsetDateTime.class);
+            OffsetDateTime end = oldestOpenWrite == null || oldestOpenWrite.isAfter(measuredAt)
+                ? measuredAt
+                : oldestOpenWrite;
+            return new Horizon(end.minus(syncProperties.getVisibilityLag()), measuredAt);
+        }));
+    }
+
+    /**
+     * A horizon and the primary's time when it was measured. Every change up to {@code windowEnd}
+     * had committed by {@code measuredAt}, so a replica can only serve a window ending at the
+     * horizon once it has replayed the primary up to {@code measuredAt}, not just up to the
+     * window start or end.
+     */
+    public record Horizon(OffsetDateTime windowEnd, OffsetDateTime measuredAt) {
+    }
+}
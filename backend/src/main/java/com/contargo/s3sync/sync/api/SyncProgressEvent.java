@@ -0,0 +1,48 @@
+package com.contargo.s3sync.sync.api;
+
+/**
+ * Live progress event of a sync run, streamed as a Server-Sent Event named after its type.
+ * Fields that do not apply to a type are omitted. Partition and volume counters are
+ * cumulative for the run, and {@code etaSeconds} extrapolates the average time per
+ * partition completed so far.
+ */
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SyncProgressEvent(
+    Type type,
+    Long runId,
+    String tableName,
+    String country,
+    Long rows,
+    Long bytes,
+    Integer attempt,
+    Integer completedPartitions,
+    Integer plannedPartitions,
+    Long totalRows,
+    Long totalBytes,
+    Long etaSeconds,
+    String message,
+    OffsetDateTime timestamp
+) {
+
+    public enum Type {
+        RUN_STARTED,
+        TABLE_STARTED,
+        PARTITION_STARTED,
+        PARTITION_FINISHED,
+        PARTITION_FAILED,
+        UPLOAD_RETRY,
+        RUN_FINISHED
+    }
+
+    /**
+     * A failed upload of a partition that is attempted again.
+     */
+    public static SyncProgressEvent uploadRetry(String tableName, String country, int attempt, String reason) {
+        return new SyncProgressEvent(Type.UPLOAD_RETRY, null, tableName, country, null, null, attempt, null, null,
+            null, null, null, reason, OffsetDateTime.now(ZoneOffset.UTC));
+    }
+}
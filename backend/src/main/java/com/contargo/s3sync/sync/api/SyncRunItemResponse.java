@@ -7,7 +7,8 @@ public record SyncRunItemResponse(
     String tableName,
     String country,
     int objectCount,
-    String s3Key
+    String s3Key,
+    String status
 ) {
 }
 
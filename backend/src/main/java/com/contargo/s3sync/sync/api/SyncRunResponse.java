@@ -12,6 +12,7 @@ public record SyncRunResponse(
     OffsetDateTime finishedAt,
     String status,
     String errorMessage,
+    String manifestKey,
     List<SyncRunItemResponse> items
 ) {
 }
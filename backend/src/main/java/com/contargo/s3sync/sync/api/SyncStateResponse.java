@@ -1,13 +1,16 @@
 package com.contargo.s3sync.sync.api;
 
 /**
- * Summary of the last successful sync timestamp per table.
+ * Summary of the last successful sync timestamp per table and country, including
+ * how far the watermark lags behind the newest change in the source table.
  */
 import java.time.OffsetDateTime;
 
 public record SyncStateResponse(
     String tableName,
-    OffsetDateTime lastSuccessfulSync
+    String country,
+    OffsetDateTime lastSuccessfulSync,
+    OffsetDateTime latestChange,
+    Long lagSeconds
 ) {
 }
-
@@ -0,0 +1,15 @@
+-- Indexes behind the incremental sync, the order drill-downs and the lastchange update,
+-- guarded by QueryPlanRegressionTest.
+
+-- Incremental customer windows, per country and across all countries. The composite index
+-- also serves every lookup by land alone, so it replaces idx_kunde_land.
+CREATE INDEX idx_kunde_land_updated_at ON kunde (land, updated_at);
+CREATE INDEX idx_kunde_updated_at ON kunde (updated_at);
+DROP INDEX idx_kunde_land;
+
+-- Orders of a customer, newest first: joins from kunde, per-customer drill-downs and the
+-- "latest orders per customer" updates read it without sorting.
+CREATE INDEX idx_auftraege_kundeid_lastchange ON auftraege (kundeid, lastchange DESC);
+
+ANALYZE kunde;
+ANALYZE auftraege;
@@ -0,0 +1,4 @@
+-- Customers of a country in name order for the paged country drill-down, read without sorting.
+CREATE INDEX idx_kunde_land_name ON kunde (land, nachname, vorname, kundeid);
+
+ANALYZE kunde;
@@ -0,0 +1,2 @@
+-- CRC32C of the exported object, computed while the partition is staged, next to its SHA-256.
+ALTER TABLE sync_run_item ADD COLUMN checksum_crc32c VARCHAR(16);
@@ -0,0 +1,2 @@
+-- Partitions split into several part objects keep one checkpoint per part.
+ALTER TABLE sync_run_item ADD COLUMN part_number INTEGER;
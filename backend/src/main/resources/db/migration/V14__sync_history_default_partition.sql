@@ -0,0 +1,38 @@
+-- Rows a month receives before its partitions exist land in the default partitions, and
+-- PostgreSQL refuses to create a partition whose range still has rows there. The function
+-- now moves those rows out of the default partitions before it creates the month's partitions.
+CREATE OR REPLACE FUNCTION sync_history_ensure_partition(month_start DATE) RETURNS TEXT AS $$
+DECLARE
+    suffix TEXT := to_char(month_start, 'YYYYMM');
+    lower_bound TIMESTAMP WITH TIME ZONE := month_start::TIMESTAMP AT TIME ZONE 'UTC';
+    upper_bound TIMESTAMP WITH TIME ZONE := (month_start::TIMESTAMP + INTERVAL '1 month') AT TIME ZONE 'UTC';
+    stranded BOOLEAN;
+BEGIN
+    IF to_regclass('sync_run_p' || suffix) IS NOT NULL THEN
+        RETURN 'sync_run_p' || suffix;
+    END IF;
+    SELECT EXISTS (SELECT 1 FROM sync_run_pdefault WHERE started_at >= lower_bound AND started_at < upper_bound)
+        INTO stranded;
+    IF stranded THEN
+        CREATE TEMP TABLE stranded_sync_run ON COMMIT DROP AS
+            SELECT * FROM sync_run_pdefault WHERE started_at >= lower_bound AND started_at < upper_bound;
+        CREATE TEMP TABLE stranded_sync_run_item ON COMMIT DROP AS
+            SELECT * FROM sync_run_item_pdefault
+            WHERE run_started_at >= lower_bound AND run_started_at < upper_bound;
+        -- cascades to the items of these runs
+        DELETE FROM sync_run_pdefault WHERE started_at >= lower_bound AND started_at < upper_bound;
+        DELETE FROM sync_run_item_pdefault WHERE run_started_at >= lower_bound AND run_started_at < upper_bound;
+    END IF;
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF sync_run FOR VALUES FROM (%L) TO (%L)',
+        'sync_run_p' || suffix, lower_bound, upper_bound);
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF sync_run_item FOR VALUES FROM (%L) TO (%L)',
+        'sync_run_item_p' || suffix, lower_bound, upper_bound);
+    IF stranded THEN
+        INSERT INTO sync_run SELECT * FROM stranded_sync_run;
+        INSERT INTO sync_run_item SELECT * FROM stranded_sync_run_item;
+        DROP TABLE stranded_sync_run;
+        DROP TABLE stranded_sync_run_item;
+    END IF;
+    RETURN 'sync_run_p' || suffix;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,8 @@
+ALTER TABLE sync_run ADD COLUMN attempts INTEGER NOT NULL DEFAULT 1;
+
+ALTER TABLE sync_run_item ADD COLUMN status VARCHAR(32) NOT NULL DEFAULT 'COMMITTED';
+ALTER TABLE sync_run_item ADD COLUMN window_start TIMESTAMP WITH TIME ZONE;
+ALTER TABLE sync_run_item ADD COLUMN window_end TIMESTAMP WITH TIME ZONE;
+ALTER TABLE sync_run_item ALTER COLUMN s3_key DROP NOT NULL;
+
+CREATE INDEX idx_sync_run_item_run_status ON sync_run_item (run_id, status);
@@ -0,0 +1,14 @@
+ALTER TABLE sync_state ADD COLUMN country VARCHAR(10);
+ALTER TABLE sync_state DROP CONSTRAINT sync_state_pkey;
+
+-- Seed per-country watermarks from the previous per-table watermark.
+INSERT INTO sync_state (table_name, country, last_successful_sync)
+SELECT s.table_name, k.land, s.last_successful_sync
+FROM sync_state s
+CROSS JOIN (SELECT DISTINCT land FROM kunde) k
+WHERE s.country IS NULL;
+
+DELETE FROM sync_state WHERE country IS NULL;
+
+ALTER TABLE sync_state ALTER COLUMN country SET NOT NULL;
+ALTER TABLE sync_state ADD PRIMARY KEY (table_name, country);
@@ -0,0 +1,4 @@
+ALTER TABLE sync_run ADD COLUMN manifest_key VARCHAR(512);
+
+ALTER TABLE sync_run_item ADD COLUMN size_bytes BIGINT;
+ALTER TABLE sync_run_item ADD COLUMN checksum_sha256 VARCHAR(64);
@@ -0,0 +1,12 @@
+-- Replace the BIGSERIAL identity columns with pooled sequences so Hibernate can
+-- allocate ids in blocks of 50 and batch inserts. The sequences start one block
+-- above the current maximum id, matching Hibernate's pooled optimizer.
+CREATE SEQUENCE sync_run_seq INCREMENT BY 50;
+SELECT setval('sync_run_seq', COALESCE((SELECT MAX(id) FROM sync_run), 0) + 50, false);
+ALTER TABLE sync_run ALTER COLUMN id DROP DEFAULT;
+DROP SEQUENCE IF EXISTS sync_run_id_seq;
+
+CREATE SEQUENCE sync_run_item_seq INCREMENT BY 50;
+SELECT setval('sync_run_item_seq', COALESCE((SELECT MAX(id) FROM sync_run_item), 0) + 50, false);
+ALTER TABLE sync_run_item ALTER COLUMN id DROP DEFAULT;
+DROP SEQUENCE IF EXISTS sync_run_item_id_seq;
@@ -0,0 +1,127 @@
+-- Range-partition the run history by month of started_at so expired history can be
+-- removed by detaching or dropping whole partitions. sync_run_item is co-partitioned
+-- on the start time of its run (run_started_at), so both tables expire together.
+
+ALTER TABLE sync_run RENAME TO sync_run_legacy;
+ALTER INDEX sync_run_pkey RENAME TO sync_run_legacy_pkey;
+ALTER INDEX idx_sync_run_started_at RENAME TO idx_sync_run_legacy_started_at;
+ALTER TABLE sync_run_item RENAME TO sync_run_item_legacy;
+ALTER INDEX sync_run_item_pkey RENAME TO sync_run_item_legacy_pkey;
+ALTER INDEX idx_sync_run_item_run_status RENAME TO idx_sync_run_item_legacy_run_status;
+
+CREATE TABLE sync_run (
+    id BIGINT NOT NULL,
+    started_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    finished_at TIMESTAMP WITH TIME ZONE,
+    status VARCHAR(32) NOT NULL,
+    error_message TEXT,
+    attempts INTEGER NOT NULL DEFAULT 1,
+    manifest_key VARCHAR(512),
+    PRIMARY KEY (id, started_at)
+) PARTITION BY RANGE (started_at);
+
+CREATE TABLE sync_run_item (
+    id BIGINT NOT NULL,
+    run_id BIGINT NOT NULL,
+    run_started_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    table_name VARCHAR(64) NOT NULL,
+    country VARCHAR(10) NOT NULL,
+    object_count INTEGER NOT NULL,
+    s3_key VARCHAR(512),
+    status VARCHAR(32) NOT NULL DEFAULT 'COMMITTED',
+    window_start TIMESTAMP WITH TIME ZONE,
+    window_end TIMESTAMP WITH TIME ZONE,
+    size_bytes BIGINT,
+    checksum_sha256 VARCHAR(64),
+    PRIMARY KEY (id, run_started_at),
+    FOREIGN KEY (run_id, run_started_at) REFERENCES sync_run (id, started_at) ON DELETE CASCADE
+) PARTITION BY RANGE (run_started_at);
+
+-- Rows outside every monthly partition land here; the retention job keeps
+-- monthly partitions created ahead of time so the default partitions stay empty.
+CREATE TABLE sync_run_pdefault PARTITION OF sync_run DEFAULT;
+CREATE TABLE sync_run_item_pdefault PARTITION OF sync_run_item DEFAULT;
+
+-- Creates the partitions of both tables for the month starting at month_start (first day, UTC).
+CREATE FUNCTION sync_history_ensure_partition(month_start DATE) RETURNS TEXT AS $$
+DECLARE
+    suffix TEXT := to_char(month_start, 'YYYYMM');
+    lower_bound TIMESTAMP WITH TIME ZONE := month_start::TIMESTAMP AT TIME ZONE 'UTC';
+    upper_bound TIMESTAMP WITH TIME ZONE := (month_start::TIMESTAMP + INTERVAL '1 month') AT TIME ZONE 'UTC';
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF sync_run FOR VALUES FROM (%L) TO (%L)',
+        'sync_run_p' || suffix, lower_bound, upper_bound);
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF sync_run_item FOR VALUES FROM (%L) TO (%L)',
+        'sync_run_item_p' || suffix, lower_bound, upper_bound);
+    RETURN 'sync_run_p' || suffix;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Detaches the partitions of one month from both tables (items first, so the foreign key
+-- never points into a detached run partition) and optionally drops them. Detached tables
+-- are kept as standalone archive tables without foreign keys.
+CREATE FUNCTION sync_history_expire_partition(month_start DATE, drop_tables BOOLEAN) RETURNS TEXT AS $$
+DECLARE
+    suffix TEXT := to_char(month_start, 'YYYYMM');
+    item_partition TEXT := 'sync_run_item_p' || suffix;
+    run_partition TEXT := 'sync_run_p' || suffix;
+    fk RECORD;
+BEGIN
+    EXECUTE format('ALTER TABLE sync_run_item DETACH PARTITION %I', item_partition);
+    FOR fk IN
+        SELECT conname FROM pg_constraint WHERE conrelid = item_partition::regclass AND contype = 'f'
+    LOOP
+        EXECUTE format('ALTER TABLE %I DROP CONSTRAINT %I', item_partition, fk.conname);
+    END LOOP;
+    EXECUTE format('ALTER TABLE sync_run DETACH PARTITION %I', run_partition);
+    IF drop_tables THEN
+        EXECUTE format('DROP TABLE %I', item_partition);
+        EXECUTE format('DROP TABLE %I', run_partition);
+    END IF;
+    RETURN run_partition;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Monthly partitions for the existing history up to two months ahead.
+DO $$
+DECLARE
+    month_start DATE := date_trunc('month', COALESCE(
+        (SELECT MIN(started_at) FROM sync_run_legacy), now()) AT TIME ZONE 'UTC')::DATE;
+BEGIN
+    WHILE month_start <= (date_trunc('month', now() AT TIME ZONE 'UTC') + INTERVAL '2 months')::DATE LOOP
+        PERFORM sync_history_ensure_partition(month_start);
+        month_start := (month_start + INTERVAL '1 month')::DATE;
+    END LOOP;
+END;
+$$;
+
+INSERT INTO sync_run (id, started_at, finished_at, status, error_message, attempts, manifest_key)
+SELECT id, started_at, finished_at, status, error_message, attempts, manifest_key
+FROM sync_run_legacy;
+
+INSERT INTO sync_run_item (id, run_id, run_started_at, table_name, country, object_count, s3_key, status,
+                           window_start, window_end, size_bytes, checksum_sha256)
+SELECT i.id, i.run_id, r.started_at, i.table_name, i.country, i.object_count, i.s3_key, i.status,
+       i.window_start, i.window_end, i.size_bytes, i.checksum_sha256
+FROM sync_run_item_legacy i
+JOIN sync_run_legacy r ON r.id = i.run_id;
+
+DROP TABLE sync_run_item_legacy;
+DROP TABLE sync_run_legacy;
+
+CREATE INDEX idx_sync_run_started_at ON sync_run (started_at DESC);
+CREATE INDEX idx_sync_run_item_run_status ON sync_run_item (run_id, status);
+
+-- Compact per-day statistics that outlive the detailed run history.
+CREATE TABLE sync_run_daily_stats (
+    day DATE PRIMARY KEY,
+    runs INTEGER NOT NULL,
+    successful_runs INTEGER NOT NULL,
+    failed_runs INTEGER NOT NULL,
+    attempts INTEGER NOT NULL,
+    partitions_committed INTEGER NOT NULL,
+    partitions_failed INTEGER NOT NULL,
+    rows_exported BIGINT NOT NULL,
+    bytes_exported BIGINT NOT NULL,
+    avg_duration_seconds DOUBLE PRECISION
+);
@@ -0,0 +1,156 @@
+package com.contargo.s3sync.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaAwareDataSourceTest {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.of(2024, 5, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private JdbcTemplate replicaJdbcTemplate;
+
+    @Mock
+    private Connection replicaConnection;
+
+    @Mock
+    private Connection primaryConnection;
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ReplicaAwareDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        ReadReplicaProperties properties = new ReadReplicaProperties();
+        properties.setMaxLag(Duration.ofSeconds(30));
+        properties.setLagCheckInterval(Duration.ofSeconds(5));
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replicaJdbcTemplate, properties, nanoTime::get);
+        monitor.bindTo(meterRegistry);
+        dataSource = new ReplicaAwareDataSource(replica, primary, monitor);
+    }
+
+    @Test
+    void getConnection_usesReplicaWhileLagIsWithinMax() throws SQLException {
+        replicaReplayedUpTo(NOW.minusSeconds(10));
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        assertThat(dataSource.getConnection()).isSameAs(replicaConnection);
+        assertThat(meterRegistry.get("datasource.replica.lag").gauge().value()).isEqualTo(10.0);
+    }
+
+    @Test
+    void getConnection_fallsBackToPrimaryWhenReplicaLagsTooFar() throws SQLException {
+        replicaReplayedUpTo(NOW.minusMinutes(2));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        assertThat(fallbacks()).isEqualTo(1.0);
+        verifyNoInteractions(replica);
+    }
+
+    @Test
+    void getConnection_fallsBackToPrimaryUntilReplicaReachesWatermark() throws SQLException {
+        replicaReplayedUpTo(NOW.minusSeconds(10));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        Connection behind = ReplicaRouting.onReplicaCaughtUpTo(NOW.minusSeconds(5), this::connection);
+        Connection caughtUp = ReplicaRouting.onReplicaCaughtUpTo(NOW.minusSeconds(10), this::connection);
+
+        assertThat(behind).isSameAs(primaryConnection);
+        assertThat(caughtUp).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void getConnection_usesPrimaryWhenPinnedWithoutCheckingReplica() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        assertThat(ReplicaRouting.onPrimary(this::connection)).isSameAs(primaryConnection);
+        assertThat(fallbacks()).isZero();
+        verifyNoInteractions(replicaJdbcTemplate, replica);
+    }
+
+    @Test
+    void getConnection_reusesLagMeasurementWithinCheckInterval() throws SQLException {
+        replicaReplayedUpTo(NOW);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        dataSource.getConnection();
+        nanoTime.addAndGet(Duration.ofSeconds(4).toNanos());
+        dataSource.getConnection();
+        nanoTime.addAndGet(Duration.ofSeconds(2).toNanos());
+        dataSource.getConnection();
+
+        verify(replicaJdbcTemplate, times(2)).queryForObject(eq(ReplicaLagMonitor.REPLAY_QUERY),
+                ArgumentMatchers.<RowMapper<ReplicaLagMonitor.Replay>>any());
+    }
+
+    @Test
+    void getConnection_fallsBackToPrimaryWhenReplicaIsUnreachable() throws SQLException {
+        when(replicaJdbcTemplate.queryForObject(eq(ReplicaLagMonitor.REPLAY_QUERY),
+                ArgumentMatchers.<RowMapper<ReplicaLagMonitor.Replay>>any()))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        assertThat(meterRegistry.get("datasource.replica.lag").gauge().value()).isNaN();
+    }
+
+    @Test
+    void getConnection_fallsBackToPrimaryWhenReplicaPoolFails() throws SQLException {
+        replicaReplayedUpTo(NOW);
+        when(replica.getConnection()).thenThrow(new SQLException("pool exhausted"));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        assertThat(fallbacks()).isEqualTo(1.0);
+    }
+
+    private void replicaReplayedUpTo(OffsetDateTime replayedUpTo) {
+        when(replicaJdbcTemplate.queryForObject(eq(ReplicaLagMonitor.REPLAY_QUERY),
+                ArgumentMatchers.<RowMapper<ReplicaLagMonitor.Replay>>any()))
+                .thenReturn(new ReplicaLagMonitor.Replay(NOW, replayedUpTo));
+    }
+
+    private Connection connection() {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private double fallbacks() {
+        return meterRegistry.get("datasource.replica.fallbacks").functionCounter().count();
+    }
+}
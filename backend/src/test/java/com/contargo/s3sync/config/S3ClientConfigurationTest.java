@@ -1,6 +1,7 @@
 package com.contargo.s3sync.config;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.RETURNS_SELF;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -9,15 +10,20 @@ import static org.mockito.Mockito.when;
 import java.net.URI;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.springframework.util.unit.DataSize;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.AwsCredentials;
 import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClientBuilder;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.S3ClientBuilder;
 import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.multipart.MultipartConfiguration;
 
 class S3ClientConfigurationTest {
 
@@ -81,18 +87,85 @@ class S3ClientConfigurationTest {
         assertThat(provider).isInstanceOf(DefaultCredentialsProvider.class);
     }
 
+    @Test
+    void s3AsyncClient_usesNettyPoolAndStaticCredentialsWhenEndpointConfigured() {
+        S3Properties properties = new S3Properties();
+        properties.setRegion("eu-central-1");
+        properties.setBucketName("test-bucket");
+        properties.setEndpoint("http://localhost:4566");
+        properties.setForcePathStyle(true);
+        properties.getAsync().setMaxConcurrency(16);
+
+        S3AsyncClientBuilder asyncBuilder = mock(S3AsyncClientBuilder.class, RETURNS_SELF);
+        S3AsyncClient client = mock(S3AsyncClient.class);
+
+        when(asyncBuilder.build()).thenReturn(client);
+
+        S3ClientConfiguration configuration = new TestableS3ClientConfiguration(properties, asyncBuilder);
+
+        assertThat(configuration.s3AsyncClient()).isSameAs(client);
+
+        verify(asyncBuilder).region(Region.of("eu-central-1"));
+        verify(asyncBuilder).httpClientBuilder(any(NettyNioAsyncHttpClient.Builder.class));
+        ArgumentCaptor<S3Configuration> configCaptor = ArgumentCaptor.forClass(S3Configuration.class);
+        verify(asyncBuilder).serviceConfiguration(configCaptor.capture());
+        assertThat(configCaptor.getValue().pathStyleAccessEnabled()).isTrue();
+        verify(asyncBuilder).endpointOverride(URI.create("http://localhost:4566"));
+
+        ArgumentCaptor<AwsCredentialsProvider> captor = ArgumentCaptor.forClass(AwsCredentialsProvider.class);
+        verify(asyncBuilder).credentialsProvider(captor.capture());
+        assertThat(captor.getValue()).isInstanceOf(StaticCredentialsProvider.class);
+    }
+
+    @Test
+    void s3TransferClient_enablesMultipartWithConfiguredThresholdAndPartSize() {
+        S3Properties properties = new S3Properties();
+        properties.setRegion("eu-central-1");
+        properties.setBucketName("test-bucket");
+        properties.getTransfer().setMultipartThreshold(DataSize.ofMegabytes(32));
+        properties.getTransfer().setPartSize(DataSize.ofMegabytes(16));
+
+        S3AsyncClientBuilder asyncBuilder = mock(S3AsyncClientBuilder.class, RETURNS_SELF);
+        S3AsyncClient client = mock(S3AsyncClient.class);
+
+        when(asyncBuilder.build()).thenReturn(client);
+
+        S3ClientConfiguration configuration = new TestableS3ClientConfiguration(properties, asyncBuilder);
+
+        assertThat(configuration.s3TransferClient()).isSameAs(client);
+
+        verify(asyncBuilder).multipartEnabled(true);
+        ArgumentCaptor<MultipartConfiguration> captor = ArgumentCaptor.forClass(MultipartConfiguration.class);
+        verify(asyncBuilder).multipartConfiguration(captor.capture());
+        assertThat(captor.getValue().thresholdInBytes()).isEqualTo(DataSize.ofMegabytes(32).toBytes());
+        assertThat(captor.getValue().minimumPartSizeInBytes()).isEqualTo(DataSize.ofMegabytes(16).toBytes());
+    }
+
     private static class TestableS3ClientConfiguration extends S3ClientConfiguration {
 
         private final S3ClientBuilder builder;
+        private final S3AsyncClientBuilder asyncBuilder;
 
         private TestableS3ClientConfiguration(S3Properties properties, S3ClientBuilder builder) {
             super(properties);
             this.builder = builder;
+            this.asyncBuilder = null;
+        }
+
+        private TestableS3ClientConfiguration(S3Properties properties, S3AsyncClientBuilder asyncBuilder) {
+            super(properties);
+            this.builder = null;
+            this.asyncBuilder = asyncBuilder;
         }
 
         @Override
         S3ClientBuilder createBuilder() {
             return builder;
         }
+
+        @Override
+        S3AsyncClientBuilder createAsyncBuilder() {
+            return asyncBuilder;
+        }
     }
 }
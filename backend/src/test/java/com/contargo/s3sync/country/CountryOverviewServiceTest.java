@@ -0,0 +1,143 @@
+package com.contargo.s3sync.country;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CountryOverviewServiceTest {
+
+    private static final OffsetDateTime CHANGED = OffsetDateTime.of(2024, 5, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+    private static final List<CountrySummary> SUMMARIES = List.of(
+            new CountrySummary("DE", 120, 480, CHANGED, CHANGED),
+            new CountrySummary("NL", 30, 90, CHANGED, CHANGED));
+
+    @Mock
+    private CountryOverviewRepository repository;
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private CountryOverviewProperties properties;
+    private CountryOverviewService service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CountryOverviewProperties();
+        properties.setCacheTtl(Duration.ofMinutes(10));
+        service = new CountryOverviewService(repository, properties, nanoTime::get);
+    }
+
+    @Test
+    void summaries_areCachedWhileFingerprintIsUnchanged() {
+        when(repository.findChangeFingerprint()).thenReturn("a|b");
+        when(repository.findSummaries()).thenReturn(SUMMARIES);
+
+        assertThat(service.summaries()).isEqualTo(SUMMARIES);
+        assertThat(service.summaries()).isEqualTo(SUMMARIES);
+
+        verify(repository, times(1)).findSummaries();
+    }
+
+    @Test
+    void summaries_areRecomputedWhenFingerprintChanges() {
+        when(repository.findChangeFingerprint()).thenReturn("a|b", "a|c");
+        when(repository.findSummaries()).thenReturn(SUMMARIES);
+
+        service.summaries();
+        service.summaries();
+
+        verify(repository, times(2)).findSummaries();
+    }
+
+    @Test
+    void summaries_areRecomputedAfterTtl() {
+        when(repository.findChangeFingerprint()).thenReturn("a|b");
+        when(repository.findSummaries()).thenReturn(SUMMARIES);
+
+        service.summaries();
+        nanoTime.addAndGet(Duration.ofMinutes(9).toNanos());
+        service.summaries();
+        verify(repository, times(1)).findSummaries();
+
+        nanoTime.addAndGet(Duration.ofMinutes(2).toNanos());
+        service.summaries();
+        verify(repository, times(2)).findSummaries();
+    }
+
+    @Test
+    void onSourceDataChanged_evictsCachedSummaries() {
+        when(repository.findChangeFingerprint()).thenReturn("a|b");
+        when(repository.findSummaries()).thenReturn(SUMMARIES);
+
+        service.summaries();
+        service.onSourceDataChanged(new SourceDataChangedEvent("test"));
+        service.summaries();
+
+        verify(repository, times(2)).findSummaries();
+    }
+
+    @Test
+    void customers_takeTotalFromCachedSummary() {
+        when(repository.findChangeFingerprint()).thenReturn("a|b");
+        when(repository.findSummaries()).thenReturn(SUMMARIES);
+        CountryCustomer customer = new CountryCustomer("K-1", "Anna", "Schmidt", null, "Duisburg", 4, CHANGED);
+        when(repository.findCustomers("DE", 50, 100)).thenReturn(List.of(customer));
+
+        PageResult<CountryCustomer> page = service.customers("DE", 2, null);
+
+        assertThat(page.content()).containsExactly(customer);
+        assertThat(page.size()).isEqualTo(50);
+        assertThat(page.totalElements()).isEqualTo(120);
+        assertThat(page.totalPages()).isEqualTo(3);
+    }
+
+    @Test
+    void customers_ofUnknownCountryAreEmptyWithoutQuery() {
+        when(repository.findChangeFingerprint()).thenReturn("a|b");
+        when(repository.findSummaries()).thenReturn(SUMMARIES);
+
+        PageResult<CountryCustomer> page = service.customers("XX", 0, 10);
+
+        assertThat(page.content()).isEmpty();
+        assertThat(page.totalPages()).isZero();
+        verify(repository, never()).findCustomers(anyString(), anyInt(), anyLong());
+    }
+
+    @Test
+    void orders_areRequestedWithOffsetOfPage() {
+        CustomerOrder order = new CustomerOrder("A-1", "ART-1", CHANGED, CHANGED);
+        when(repository.countOrders("DE", "K-1")).thenReturn(25L);
+        when(repository.findOrders("DE", "K-1", 10, 20)).thenReturn(List.of(order));
+
+        PageResult<CustomerOrder> page = service.orders("DE", "K-1", 2, 10);
+
+        assertThat(page.content()).containsExactly(order);
+        assertThat(page.totalPages()).isEqualTo(3);
+    }
+
+    @Test
+    void paging_rejectsNegativePageAndOversizedPages() {
+        assertThatThrownBy(() -> service.orders("DE", "K-1", -1, 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("page");
+        assertThatThrownBy(() -> service.customers("DE", 0, properties.getMaxPageSize() + 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("size");
+    }
+}
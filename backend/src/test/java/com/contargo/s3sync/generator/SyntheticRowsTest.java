@@ -0,0 +1,80 @@
+package com.contargo.s3sync.generator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+class SyntheticRowsTest {
+
+    private static final OffsetDateTime REFERENCE = OffsetDateTime.parse("2025-04-01T12:00:00Z");
+
+    @Test
+    void sameSeedProducesSameRows() {
+        SyntheticRows first = new SyntheticRows(request(42));
+        SyntheticRows second = new SyntheticRows(request(42));
+        SyntheticRows otherSeed = new SyntheticRows(request(7));
+
+        assertThat(first.customer(17)).isEqualTo(second.customer(17));
+        assertThat(first.order(123)).isEqualTo(second.order(123));
+        assertThat(first.customer(17)).isNotEqualTo(otherSeed.customer(17));
+    }
+
+    @Test
+    void timestampsDefaultToFixedReferenceInsteadOfTheClock() {
+        GenerationRequest withoutReference = new GenerationRequest(1_000, 10_000, Map.of("DE", 1), 42, null, "T",
+                false);
+        GenerationRequest withDefault = new GenerationRequest(1_000, 10_000, Map.of("DE", 1), 42,
+                GeneratorProperties.DEFAULT_REFERENCE, "T", false);
+
+        SyntheticRows rows = new SyntheticRows(withoutReference);
+        SyntheticRows expected = new SyntheticRows(withDefault);
+
+        assertThat(rows.customer(3)).isEqualTo(expected.customer(3));
+        assertThat(rows.order(9)).isEqualTo(expected.order(9));
+    }
+
+    @Test
+    void customerLinesMatchCopyColumns() {
+        String[] fields = new SyntheticRows(request(42)).customer(5).split(",", -1);
+
+        assertThat(fields).hasSize(SyntheticRows.CUSTOMER_COLUMNS.split(",").length);
+        assertThat(fields[0]).isEqualTo("T-K000000005");
+        assertThat(fields[7]).isIn("DE", "NL", "FR");
+        assertThat(OffsetDateTime.parse(fields[11].replace(' ', 'T'))).isBeforeOrEqualTo(REFERENCE);
+    }
+
+    @Test
+    void ordersReferenceGeneratedCustomers() {
+        SyntheticRows rows = new SyntheticRows(request(42));
+
+        LongStream.rangeClosed(1, 1_000).mapToObj(rows::order).forEach(order -> {
+            String[] fields = order.split(",", -1);
+            assertThat(fields).hasSize(SyntheticRows.ORDER_COLUMNS.split(",").length);
+            long customer = Long.parseLong(fields[4].substring("T-K".length()));
+            assertThat(customer).isBetween(1L, 1_000L);
+        });
+    }
+
+    @Test
+    void countriesFollowConfiguredWeights() {
+        SyntheticRows rows = new SyntheticRows(request(42));
+
+        Map<String, Long> perCountry = LongStream.rangeClosed(1, 10_000)
+                .mapToObj(number -> rows.customer(number).split(",", -1)[7])
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+
+        assertThat(perCountry.get("DE")).isBetween(7_700L, 8_300L);
+        assertThat(perCountry.get("NL")).isBetween(1_300L, 1_700L);
+        assertThat(perCountry.get("FR")).isBetween(300L, 700L);
+    }
+
+    private static GenerationRequest request(long seed) {
+        return new GenerationRequest(1_000, 10_000, Map.of("DE", 80, "NL", 15, "FR", 5), seed, REFERENCE, "T",
+                true);
+    }
+}
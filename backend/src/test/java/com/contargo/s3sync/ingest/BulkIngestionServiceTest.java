@@ -0,0 +1,147 @@
+package com.contargo.s3sync.ingest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.contargo.s3sync.customer.CustomerUpsert;
+import com.contargo.s3sync.order.OrderUpsert;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BulkIngestionServiceTest {
+
+    private final List<List<CustomerUpsert>> chunks = new ArrayList<>();
+    private final ChunkWriter<CustomerUpsert> writer = chunk -> {
+        chunks.add(chunk);
+        return new UpsertCounts(chunk.size(), 0, 0);
+    };
+
+    private IngestProperties properties;
+    private BulkIngestionService service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new IngestProperties();
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        service = new BulkIngestionService(objectMapper,
+                Validation.buildDefaultValidatorFactory().getValidator(), properties, event -> { });
+    }
+
+    @Test
+    void ingest_readsCsvWithHeaderAndQuotedFields() throws IOException {
+        String body = """
+                id,firstName,lastName,email,city,country,companyName
+                K-1,Anna,Schmidt,anna@example.com,Duisburg,DE,"Schmidt, Meyer & ""Partner"""
+                K-2,Jan,Jansen,,Rotterdam,NL,
+                """;
+
+        IngestionResult result = service.ingest(stream(body), IngestFormat.CSV, CustomerUpsert.class,
+                CustomerUpsert::id, writer);
+
+        assertThat(result.received()).isEqualTo(2);
+        assertThat(result.inserted()).isEqualTo(2);
+        assertThat(result.rejected()).isZero();
+        assertThat(chunks).hasSize(1);
+        assertThat(chunks.get(0).get(0).companyName()).isEqualTo("Schmidt, Meyer & \"Partner\"");
+        assertThat(chunks.get(0).get(1).email()).isNull();
+        assertThat(chunks.get(0).get(1).country()).isEqualTo("NL");
+    }
+
+    @Test
+    void ingest_readsJsonLinesIntoRecords() throws IOException {
+        String body = """
+                {"id":"A-1","articleNumber":"ART-1","created":"2025-04-01T10:00:00Z","customerId":"K-1"}
+
+                {"id":"A-2","articleNumber":"ART-2","customerId":"K-1","lastChange":"ignored"}
+                """;
+        List<OrderUpsert> written = new ArrayList<>();
+
+        IngestionResult result = service.ingest(stream(body), IngestFormat.JSON_LINES, OrderUpsert.class,
+                OrderUpsert::id, chunk -> {
+                    written.addAll(chunk);
+                    return new UpsertCounts(1, 1, 0);
+                });
+
+        assertThat(result.received()).isEqualTo(2);
+        assertThat(result.inserted()).isEqualTo(1);
+        assertThat(result.updated()).isEqualTo(1);
+        assertThat(written).extracting(OrderUpsert::id).containsExactly("A-1", "A-2");
+        assertThat(written.get(0).created()).isEqualTo(OffsetDateTime.parse("2025-04-01T10:00:00Z"));
+        assertThat(written.get(1).created()).isNull();
+    }
+
+    @Test
+    void ingest_flushesChunksOfConfiguredSize() throws IOException {
+        properties.setChunkSize(2);
+        StringBuilder body = new StringBuilder();
+        for (int i = 1; i <= 5; i++) {
+            body.append("{\"id\":\"K-%d\",\"firstName\":\"A\",\"lastName\":\"B\",\"country\":\"DE\"}\n".formatted(i));
+        }
+
+        IngestionResult result = service.ingest(stream(body.toString()), IngestFormat.JSON_LINES,
+                CustomerUpsert.class, CustomerUpsert::id, writer);
+
+        assertThat(chunks).extracting(List::size).containsExactly(2, 2, 1);
+        assertThat(result.inserted()).isEqualTo(5);
+    }
+
+    @Test
+    void ingest_keepsLastRecordPerIdWithinChunk() throws IOException {
+        String body = """
+                id,firstName,lastName,country
+                K-1,Anna,Schmidt,DE
+                K-2,Jan,Jansen,NL
+                K-1,Anna,Meyer,DE
+                """;
+
+        IngestionResult result = service.ingest(stream(body), IngestFormat.CSV, CustomerUpsert.class,
+                CustomerUpsert::id, writer);
+
+        assertThat(chunks.get(0)).extracting(CustomerUpsert::lastName).containsExactly("Meyer", "Jansen");
+        assertThat(result.received()).isEqualTo(3);
+        assertThat(result.inserted()).isEqualTo(2);
+        assertThat(result.unchanged()).isEqualTo(1);
+    }
+
+    @Test
+    void ingest_reportsRejectedLinesAndWritesTheRest() throws IOException {
+        properties.setMaxReportedRejections(2);
+        String body = """
+                id,firstName,lastName,country
+                K-1,Anna,Schmidt,DE
+                K-2,,Jansen,NL
+                K-3,"Olga,Nowak,PL
+                K-4,Hugo,Huber
+                K-5,Rosa,Rossi,IT
+                """;
+
+        IngestionResult result = service.ingest(stream(body), IngestFormat.CSV, CustomerUpsert.class,
+                CustomerUpsert::id, writer);
+
+        assertThat(result.received()).isEqualTo(5);
+        assertThat(result.rejected()).isEqualTo(3);
+        assertThat(result.inserted()).isEqualTo(2);
+        assertThat(result.rejections()).hasSize(2);
+        assertThat(result.rejections().get(0).line()).isEqualTo(3);
+        assertThat(result.rejections().get(0).message()).contains("firstName");
+        assertThat(result.rejections().get(1).line()).isEqualTo(4);
+        assertThat(result.rejections().get(1).message()).contains("unterminated");
+        assertThat(chunks.get(0)).extracting(CustomerUpsert::id).containsExactly("K-1", "K-5");
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,294 @@
+package com.contargo.s3sync.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.contargo.s3sync.generator.ChurnRequest;
+import com.contargo.s3sync.generator.GenerationRequest;
+import com.contargo.s3sync.generator.SyntheticDataGenerator;
+import com.contargo.s3sync.sync.SyncRun;
+import com.contargo.s3sync.sync.SyncRunItem;
+import com.contargo.s3sync.sync.SyncService;
+import com.contargo.s3sync.sync.SyncStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.localstack.LocalStackContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * End-to-end load test: seeds PostgreSQL with a configurable, skewed data volume, runs a
+ * full and an incremental sync against LocalStack and writes throughput, peak heap and the
+ * time spent in the database and in S3 per stage as JSON. Excluded from {@code test}; run it
+ * with {@code ./gradlew loadTest}, see docs/load-testing.md for the parameters.
+ */
+@SpringBootTest(properties = {"sync.retention.enabled=false", "aws.s3.async.warm-up-connections=0"})
+@Testcontainers
+@ActiveProfiles("test")
+@Tag("load")
+class SyncLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(SyncLoadTest.class);
+    private static final String[] TABLES = {"kunde", "auftraege"};
+    private static final String[] STAGES = {"read", "stage", "upload"};
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("s3sync")
+            .withUsername("s3sync")
+            .withPassword("s3sync")
+            .withCommand("postgres", "-c", "shared_buffers=512MB", "-c", "max_wal_size=4GB");
+
+    @Container
+    static LocalStackContainer localstack = new LocalStackContainer(
+            DockerImageName.parse("localstack/localstack:3.4"))
+            .withServices(LocalStackContainer.Service.S3);
+
+    @DynamicPropertySource
+    static void overrideProps(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("aws.s3.endpoint", () -> localstack.getEndpointOverride(LocalStackContainer.Service.S3).toString());
+        registry.add("aws.s3.region", localstack::getRegion);
+        registry.add("aws.s3.bucket-name", () -> "load-test-bucket");
+    }
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private SyntheticDataGenerator generator;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void fullAndIncrementalSync() throws IOException {
+        LoadProfile profile = LoadProfile.fromSystemProperties();
+        log.info("Load profile: {}", profile);
+        Map<String, Object> stages = new LinkedHashMap<>();
+
+        stages.put("seed", measure(() -> {
+            seed(profile);
+            return null;
+        }).summary(Map.of("customers", profile.customers(), "orders", profile.orders())));
+
+        Measured<SyncRun> full = measure(syncService::runSync);
+        assertThat(full.result().getStatus()).isEqualTo(SyncStatus.SUCCESS);
+        stages.put("fullSync", full.runSummary());
+
+        Measured<Void> churn = measure(() -> {
+            touchChangedRows(profile);
+            return null;
+        });
+        stages.put("churn", churn.summary(Map.of("churn", profile.churn())));
+
+        Measured<SyncRun> incremental = measure(syncService::runSync);
+        assertThat(incremental.result().getStatus()).isEqualTo(SyncStatus.SUCCESS);
+        stages.put("incrementalSync", incremental.runSummary());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("build", System.getProperty("load.build", "local"));
+        report.put("javaVersion", Runtime.version().toString());
+        report.put("maxHeapBytes", Runtime.getRuntime().maxMemory());
+        report.put("profile", profile);
+        report.put("stages", stages);
+
+        Path output = Path.of(System.getProperty("load.output", "build/load-test/results.json"));
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), report);
+        log.info("Load test results written to {}", output.toAbsolutePath());
+    }
+
+    /**
+     * Replaces the sample data with the configured volume through the COPY-based generator,
+     * so every run with the same parameters loads identical rows.
+     */
+    private void seed(LoadProfile profile) {
+        generator.generate(new GenerationRequest(profile.customers(), profile.orders(), profile.countryWeights(),
+                profile.seed(), null, "L", true));
+    }
+
+    /**
+     * Touches a seeded sample of customers and their two most recent orders for the incremental run.
+     */
+    private void touchChangedRows(LoadProfile profile) {
+        generator.churn(new ChurnRequest(profile.churn(), 2, profile.seed()));
+    }
+
+    /**
+     * Runs one stage while sampling the heap and records the partition timers it advanced.
+     */
+    private <T> Measured<T> measure(Supplier<T> stage) {
+        Map<String, Double> timersBefore = timerTotals();
+        HeapSampler sampler = new HeapSampler();
+        sampler.start();
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = stage.get();
+        } finally {
+            sampler.stop();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        Map<String, Double> timersAfter = timerTotals();
+        Map<String, Double> timerDeltas = new LinkedHashMap<>();
+        timersAfter.forEach((name, total) -> timerDeltas.put(name, total - timersBefore.getOrDefault(name, 0.0)));
+        return new Measured<>(result, elapsedNanos, sampler.peak(), timerDeltas);
+    }
+
+    private Map<String, Double> timerTotals() {
+        Map<String, Double> totals = new LinkedHashMap<>();
+        for (String table : TABLES) {
+            for (String stage : STAGES) {
+                Timer timer = meterRegistry.find("sync.partition." + stage).tag("table", table).timer();
+                totals.put(table + "." + stage, timer == null ? 0.0 : timer.totalTime(TimeUnit.MILLISECONDS));
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Configured volume of a load test run, read from {@code load.*} system properties.
+     *
+     * @param countryWeights relative share of customers per country, e.g. {@code DE:60,NL:12}
+     * @param churn fraction of customers changed (with their two latest orders) before the incremental run
+     * @param seed seed of the data generator
+     */
+    record LoadProfile(long customers, long orders, Map<String, Integer> countryWeights, double churn, long seed) {
+
+        static LoadProfile fromSystemProperties() {
+            Map<String, Integer> weights = new LinkedHashMap<>();
+            for (String entry : System.getProperty("load.countries",
+                    "DE:60,NL:12,FR:8,BE:6,PL:5,IT:4,AT:3,CH:2").split(",")) {
+                String[] parts = entry.trim().split(":");
+                weights.put(parts[0], Integer.parseInt(parts[1]));
+            }
+            return new LoadProfile(
+                    Long.getLong("load.customers", 1_000_000),
+                    Long.getLong("load.orders", 10_000_000),
+                    weights,
+                    Double.parseDouble(System.getProperty("load.churn", "0.01")),
+                    Long.getLong("load.seed", 42));
+        }
+    }
+
+    /**
+     * Outcome of one measured stage.
+     */
+    private record Measured<T>(T result, long elapsedNanos, long peakHeapBytes, Map<String, Double> timerMillis) {
+
+        Map<String, Object> summary(Map<String, Object> details) {
+            Map<String, Object> summary = new LinkedHashMap<>(details);
+            summary.put("elapsedMillis", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+            summary.put("peakHeapBytes", peakHeapBytes);
+            return summary;
+        }
+
+        /**
+         * Summary of a sync run with throughput over the wall-clock time of the run and the
+         * database ({@code read}), serialization ({@code stage}) and S3 ({@code upload}) time per
+         * table. Stage times are summed over partitions and can exceed the wall-clock time when
+         * partitions run concurrently.
+         */
+        Map<String, Object> runSummary() {
+            SyncRun run = (SyncRun) result;
+            double seconds = elapsedNanos / 1e9;
+            Map<String, Object> tables = new LinkedHashMap<>();
+            long totalRows = 0;
+            long totalBytes = 0;
+            for (String table : TABLES) {
+                List<SyncRunItem> items = run.getItems().stream()
+                        .filter(item -> item.getTableName().equals(table) && item.isCommitted())
+                        .toList();
+                long rows = items.stream().mapToLong(SyncRunItem::getObjectCount).sum();
+                long bytes = items.stream().map(SyncRunItem::getSizeBytes).filter(Objects::nonNull)
+                        .mapToLong(Long::longValue).sum();
+                totalRows += rows;
+                totalBytes += bytes;
+                Map<String, Object> tableSummary = new LinkedHashMap<>();
+                tableSummary.put("partitions", items.size());
+                tableSummary.put("rows", rows);
+                tableSummary.put("bytes", bytes);
+                tableSummary.put("dbMillis", timerMillis.get(table + ".read"));
+                tableSummary.put("serializeMillis", timerMillis.get(table + ".stage"));
+                tableSummary.put("s3Millis", timerMillis.get(table + ".upload"));
+                tables.put(table, tableSummary);
+            }
+            Map<String, Object> summary = summary(Map.of("runId", run.getId()));
+            summary.put("rows", totalRows);
+            summary.put("bytes", totalBytes);
+            summary.put("rowsPerSecond", totalRows / seconds);
+            summary.put("megabytesPerSecond", totalBytes / 1_048_576.0 / seconds);
+            summary.put("tables", tables);
+            return summary;
+        }
+    }
+
+    /**
+     * Samples used heap every 50 ms; more reliable than summing the per-pool peaks, which
+     * are reached at different times.
+     */
+    private static final class HeapSampler {
+
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final AtomicLong peak = new AtomicLong();
+        private volatile boolean running = true;
+        private Thread thread;
+
+        void start() {
+            sample();
+            thread = Thread.ofPlatform().daemon().name("heap-sampler").start(() -> {
+                while (running) {
+                    sample();
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                }
+            });
+        }
+
+        void stop() {
+            running = false;
+            thread.interrupt();
+            sample();
+        }
+
+        long peak() {
+            return peak.get();
+        }
+
+        private void sample() {
+            peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.contargo.s3sync.plan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.contargo.s3sync.generator.GenerationRequest;
+import com.contargo.s3sync.generator.GeneratorProperties;
+import com.contargo.s3sync.generator.SyntheticDataGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Runs {@code EXPLAIN (FORMAT JSON)} for the sync and dashboard queries against a seeded,
+ * analyzed PostgreSQL and fails when a selective query falls back to a sequential scan of a
+ * large table or its estimated cost grows beyond a budget. Budgets are fractions of the cost
+ * of scanning the whole table, so they do not depend on the seeded volume. The SQL mirrors
+ * what Hibernate generates for the repository methods named on each test.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Import(SyntheticDataGenerator.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers
+@ActiveProfiles("test")
+class QueryPlanRegressionTest {
+
+    private static final GenerationRequest DATA = new GenerationRequest(50_000, 250_000,
+            GeneratorProperties.DEFAULT_COUNTRIES, 42, null, "Q", true);
+    private static final int HISTORIC_RUNS = 20_000;
+    /** Rows inside the incremental windows, a typical change volume between two runs. */
+    private static final int WINDOW_ROWS = 50;
+    /** A selective query must cost less than this share of a full scan of its table. */
+    private static final double SELECTIVE_BUDGET = 0.25;
+    /** The lastchange update reads every order by design, but must not grow beyond sort-and-join cost. */
+    private static final double FULL_TABLE_UPDATE_BUDGET = 25;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("s3sync")
+            .withUsername("s3sync")
+            .withPassword("s3sync");
+
+    @DynamicPropertySource
+    static void overrideProps(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    private static boolean seeded;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SyntheticDataGenerator generator;
+
+    @BeforeEach
+    void seed() {
+        if (seeded) {
+            return;
+        }
+        generator.generate(DATA);
+        jdbcTemplate.update("""
+                INSERT INTO sync_run (id, started_at, finished_at, status, attempts)
+                SELECT g, TIMESTAMPTZ '2021-01-01 00:00:00Z' + g * INTERVAL '1 hour',
+                       TIMESTAMPTZ '2021-01-01 00:05:00Z' + g * INTERVAL '1 hour', 'SUCCESS', 1
+                FROM generate_series(1, ?) g
+                """, HISTORIC_RUNS);
+        jdbcTemplate.execute("ANALYZE sync_run");
+        seeded = true;
+    }
+
+    /** {@code CustomerRepository.findByUpdatedAtAfter}. */
+    @Test
+    void customersChangedAfter_useUpdatedAtIndex() {
+        OffsetDateTime windowStart = windowStart("kunde", "updated_at");
+
+        QueryPlan plan = explain("SELECT * FROM kunde WHERE updated_at > ?", windowStart);
+
+        assertThat(plan.seqScans()).as("%s", plan).doesNotContain("kunde");
+        assertThat(plan.indexNames()).contains("idx_kunde_updated_at");
+        assertThat(plan.totalCost()).as("%s", plan).isLessThan(SELECTIVE_BUDGET * fullScanCost("kunde"));
+    }
+
+    /** {@code CustomerRepository.findByCountryAndUpdatedAtAfterAndUpdatedAtLessThanEqual}, the incremental export. */
+    @Test
+    void customerPartitionWindow_usesCountryAndUpdatedAtIndex() {
+        OffsetDateTime windowStart = windowStart("kunde", "updated_at");
+
+        QueryPlan plan = explain("SELECT * FROM kunde WHERE land = ? AND updated_at > ? AND updated_at <= ?",
+                "DE", windowStart, OffsetDateTime.now());
+
+        assertThat(plan.seqScans()).as("%s", plan).doesNotContain("kunde");
+        assertThat(plan.indexNames()).contains("idx_kunde_land_updated_at");
+        assertThat(plan.totalCost()).as("%s", plan).isLessThan(SELECTIVE_BUDGET * fullScanCost("kunde"));
+    }
+
+    /** {@code OrderRepository.findByLastChangeAfter} with its customer fetch join. */
+    @Test
+    void ordersChangedAfter_useLastChangeIndexAndCustomerKey() {
+        OffsetDateTime windowStart = windowStart("auftraege", "lastchange");
+
+        QueryPlan plan = explain("""
+                SELECT o.*, c.* FROM auftraege o JOIN kunde c ON c.kundeid = o.kundeid
+                WHERE o.lastchange > ?
+                """, windowStart);
+
+        assertThat(plan.seqScans()).as("%s", plan).doesNotContain("auftraege", "kunde");
+        assertThat(plan.indexNames()).contains("idx_auftraege_lastchange", "kunde_pkey");
+        assertThat(plan.totalCost()).as("%s", plan).isLessThan(SELECTIVE_BUDGET * fullScanCost("auftraege"));
+    }
+
+    /**
+     * {@code OrderRepository.findByCustomerCountryAndLastChangeAfterAndLastChangeLessThanEqual},
+     * the incremental export.
+     */
+    @Test
+    void orderPartitionWindow_avoidsSequentialScans() {
+        OffsetDateTime windowStart = windowStart("auftraege", "lastchange");
+
+        QueryPlan plan = explain("""
+                SELECT o.*, c.* FROM auftraege o JOIN kunde c ON c.kundeid = o.kundeid
+                WHERE c.land = ? AND o.lastchange > ? AND o.lastchange <= ?
+                """, "DE", windowStart, OffsetDateTime.now());
+
+        assertThat(plan.seqScans()).as("%s", plan).doesNotContain("auftraege", "kunde");
+        assertThat(plan.totalCost()).as("%s", plan).isLessThan(SELECTIVE_BUDGET * fullScanCost("auftraege"));
+    }
+
+    /** Latest orders of one customer, as read by the churn and per-customer drill-downs. */
+    @Test
+    void latestOrdersOfCustomer_readIndexWithoutSorting() {
+        QueryPlan plan = explain("SELECT auftragid FROM auftraege WHERE kundeid = ? ORDER BY lastchange DESC LIMIT 2",
+                "Q-K000000001");
+
+        assertThat(plan.seqScans()).as("%s", plan).doesNotContain("auftraege");
+        assertThat(plan.nodeTypes()).doesNotContain("Sort");
+        assertThat(plan.indexNames()).contains("idx_auftraege_kundeid_lastchange");
+    }
+
+    /** {@code SyncRunRepository.findTop20ByOrderByStartedAtDesc}, the dashboard's run list. */
+    @Test
+    void recentRuns_readStartedAtIndex() {
+        QueryPlan plan = explain("SELECT * FROM sync_run ORDER BY started_at DESC FETCH FIRST 20 ROWS ONLY");
+
+        assertThat(plan.seqScans()).as("%s", plan).doesNotContain("sync_run_pdefault");
+        assertThat(plan.totalCost()).as("%s", plan).isLessThan(SELECTIVE_BUDGET * fullScanCost("sync_run"));
+    }
+
+    /** {@code OrderRepository.updateLastChangeForTopTwoPerCustomer}. */
+    @Test
+    void topTwoPerCustomerUpdate_staysWithinFullTableBudget() {
+        QueryPlan plan = explain("""
+                WITH selected_auftraege AS (
+                    SELECT auftragid
+                    FROM (
+                        SELECT
+                            auftragid,
+                            kundeid,
+                            ROW_NUMBER() OVER (PARTITION BY kundeid ORDER BY lastchange DESC) AS rn
+                        FROM auftraege
+                    ) ranked
+                    WHERE rn <= 2
+                )
+                UPDATE auftraege a
+                SET lastchange = ?
+                FROM selected_auftraege sa
+                WHERE a.auftragid = sa.auftragid
+                """, OffsetDateTime.now());
+
+        assertThat(plan.totalCost()).as("%s", plan).isLessThan(FULL_TABLE_UPDATE_BUDGET * fullScanCost("auftraege"));
+    }
+
+    /**
+     * Start of a change window holding the {@value #WINDOW_ROWS} most recent changes.
+     */
+    private OffsetDateTime windowStart(String table, String column) {
+        return jdbcTemplate.queryForObject("SELECT %s FROM %s ORDER BY %s DESC OFFSET ? LIMIT 1"
+                .formatted(column, table, column), OffsetDateTime.class, WINDOW_ROWS);
+    }
+
+    private double fullScanCost(String table) {
+        return explain("SELECT * FROM " + table).totalCost();
+    }
+
+    private QueryPlan explain(String sql, Object... args) {
+        String json = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class, args);
+        try {
+            return new QueryPlan(objectMapper.readTree(json).get(0).get("Plan"));
+        } catch (Exception ex) {
+            throw new IllegalStateException("Unreadable plan: " + json, ex);
+        }
+    }
+
+    /**
+     * Root node of a JSON plan with accessors over all of its nodes.
+     */
+    private record QueryPlan(JsonNode root) {
+
+        double totalCost() {
+            return root.get("Total Cost").asDouble();
+        }
+
+        List<String> nodeTypes() {
+            return collect("Node Type", null);
+        }
+
+        List<String> indexNames() {
+            return collect("Index Name", null);
+        }
+
+        /** Relations read by a (parallel) sequential scan. */
+        List<String> seqScans() {
+            return collect("Relation Name", "Seq Scan");
+        }
+
+        private List<String> collect(String field, String nodeType) {
+            List<String> values = new ArrayList<>();
+            collect(root, field, nodeType, values);
+            return values;
+        }
+
+        private static void collect(JsonNode node, String field, String nodeType, List<String> values) {
+            if (node.has(field) && (nodeType == null || nodeType.equals(node.get("Node Type").asText()))) {
+                values.add(node.get(field).asText());
+            }
+            for (JsonNode child : node.path("Plans")) {
+                collect(child, field, nodeType, values);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return root.toPrettyString();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.contargo.s3sync.sync;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void acquire_queuesCallersBeyondLimitUntilSlotIsReleased() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 2, 0.5);
+
+        CompletableFuture<Void> first = limiter.acquire();
+        CompletableFuture<Void> second = limiter.acquire();
+        CompletableFuture<Void> third = limiter.acquire();
+
+        assertThat(first).isDone();
+        assertThat(second).isDone();
+        assertThat(third).isNotDone();
+
+        limiter.release(AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+
+        assertThat(third).isDone();
+        assertThat(limiter.inFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void release_cutsLimitMultiplicativelyOnThrottlingAndGrowsAdditively() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 8, 0.5);
+
+        limiter.acquire();
+        limiter.release(AdaptiveConcurrencyLimiter.Outcome.THROTTLED);
+        assertThat(limiter.currentLimit()).isEqualTo(4);
+
+        limiter.acquire();
+        limiter.release(AdaptiveConcurrencyLimiter.Outcome.THROTTLED);
+        limiter.acquire();
+        limiter.release(AdaptiveConcurrencyLimiter.Outcome.THROTTLED);
+        limiter.acquire();
+        limiter.release(AdaptiveConcurrencyLimiter.Outcome.THROTTLED);
+        assertThat(limiter.currentLimit()).isEqualTo(1);
+
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire();
+            limiter.release(AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+        }
+        assertThat(limiter.currentLimit()).isEqualTo(2);
+
+        limiter.acquire();
+        limiter.release(AdaptiveConcurrencyLimiter.Outcome.FAILED);
+        assertThat(limiter.currentLimit()).isEqualTo(2);
+    }
+}
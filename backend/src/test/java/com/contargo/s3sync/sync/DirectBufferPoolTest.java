@@ -0,0 +1,61 @@
+package com.contargo.s3sync.sync;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+class DirectBufferPoolTest {
+
+    @Test
+    void tryAcquire_allocatesDirectBuffersUpToBudgetAndReusesReleasedOnes() {
+        DirectBufferPool pool = pool(2048, 1024);
+
+        ByteBuffer first = pool.tryAcquire();
+        ByteBuffer second = pool.tryAcquire();
+        ByteBuffer third = pool.tryAcquire();
+
+        assertThat(first.isDirect()).isTrue();
+        assertThat(first.capacity()).isEqualTo(1024);
+        assertThat(second).isNotSameAs(first);
+        assertThat(third).isNull();
+        assertThat(pool.exhausted()).isEqualTo(1);
+
+        first.put((byte) 1);
+        pool.release(first);
+        ByteBuffer reused = pool.tryAcquire();
+
+        assertThat(reused).isSameAs(first);
+        assertThat(reused.position()).isZero();
+        assertThat(pool.misses()).isEqualTo(3);
+        assertThat(pool.inUse()).isEqualTo(2);
+        assertThat(pool.highWaterMark()).isEqualTo(2);
+    }
+
+    @Test
+    void bindTo_publishesUsageMissesAndHighWaterMark() {
+        DirectBufferPool pool = pool(4096, 1024);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        pool.bindTo(registry);
+
+        ByteBuffer first = pool.tryAcquire();
+        pool.tryAcquire();
+        pool.release(first);
+
+        assertThat(registry.get("sync.staging.buffers.capacity").gauge().value()).isEqualTo(4);
+        assertThat(registry.get("sync.staging.buffers.allocated").gauge().value()).isEqualTo(2);
+        assertThat(registry.get("sync.staging.buffers.in.use").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("sync.staging.buffers.high.water.mark").gauge().value()).isEqualTo(2);
+        assertThat(registry.get("sync.staging.buffers.misses").functionCounter().count()).isEqualTo(2);
+        assertThat(registry.get("sync.staging.buffers.exhausted").functionCounter().count()).isZero();
+    }
+
+    private static DirectBufferPool pool(long budget, long bufferSize) {
+        SyncProperties syncProperties = new SyncProperties();
+        syncProperties.getStaging().setMemoryBudget(DataSize.ofBytes(budget));
+        syncProperties.getStaging().setBufferSize(DataSize.ofBytes(bufferSize));
+        return new DirectBufferPool(syncProperties);
+    }
+}
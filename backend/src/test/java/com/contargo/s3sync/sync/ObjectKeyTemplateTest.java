@@ -0,0 +1,58 @@
+package com.contargo.s3sync.sync;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.contargo.s3sync.customer.CustomerExporter;
+import com.contargo.s3sync.order.OrderExporter;
+import java.time.OffsetDateTime;
+import org.junit.jupiter.api.Test;
+
+class ObjectKeyTemplateTest {
+
+    @Test
+    void render_buildsCustomerKeyWithCountryDateAndRun() {
+        ObjectKeyTemplate template = new CustomerExporter(null).keyTemplate();
+
+        String key = template.render("kunde", "DE", 42L, OffsetDateTime.parse("2025-01-15T10:15:30Z"));
+
+        assertThat(key).isEqualTo("kunde/2025-01-15/DE/customers_DE_2025-01-15_run-000042.csv");
+    }
+
+    @Test
+    void render_buildsOrderKeyWithCountryDateAndRun() {
+        ObjectKeyTemplate template = new OrderExporter(null, null).keyTemplate();
+
+        String key = template.render("auftraege", "FR", 42L, OffsetDateTime.parse("2024-12-24T08:00:00Z"));
+
+        assertThat(key).isEqualTo("auftraege/2024-12-24/FR/orders_FR_2024-12-24_run-000042.csv");
+    }
+
+    @Test
+    void renderPart_appendsPartNumberInFrontOfExtension() {
+        ObjectKeyTemplate template = new CustomerExporter(null).keyTemplate();
+
+        String key = template.renderPart("kunde", "DE", 42L, OffsetDateTime.parse("2025-01-15T10:15:30Z"), 3);
+
+        assertThat(key).isEqualTo("kunde/2025-01-15/DE/customers_DE_2025-01-15_run-000042_part-00003.csv");
+        assertThat(new ObjectKeyTemplate("exports/{partition}.v1/{run}")
+                .renderPart("kunde", "DE", 42L, OffsetDateTime.parse("2025-01-15T10:15:30Z"), 1))
+                .isEqualTo("exports/DE.v1/run-000042_part-00001");
+    }
+
+    @Test
+    void render_usesTimestampAndUnknownPartitionInDefaultLayout() {
+        String key = ObjectKeyTemplate.DEFAULT.render("lager", " ", 7L, OffsetDateTime.parse("2025-04-01T12:30:05Z"));
+
+        assertThat(key).isEqualTo("lager/2025-04-01/unknown/lager_20250401_123005_run-000007.csv");
+    }
+
+    @Test
+    void rejectsTemplatesWithoutPartitionOrRun() {
+        assertThatThrownBy(() -> new ObjectKeyTemplate("{table}/{date}/{partition}.csv"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("{run}");
+        assertThatThrownBy(() -> new ObjectKeyTemplate("{table}/{date}/{run}.csv"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
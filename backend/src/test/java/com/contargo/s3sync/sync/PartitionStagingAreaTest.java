@@ -0,0 +1,135 @@
+package com.contargo.s3sync.sync;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+class PartitionStagingAreaTest {
+
+    @TempDir
+    Path directory;
+
+    private DirectBufferPool bufferPool;
+    private PartitionStagingArea stagingArea;
+
+    @BeforeEach
+    void setUp() {
+        SyncProperties syncProperties = new SyncProperties();
+        syncProperties.getStaging().setDirectory(directory);
+        syncProperties.getStaging().setMemoryBudget(DataSize.ofBytes(16));
+        syncProperties.getStaging().setBufferSize(DataSize.ofBytes(8));
+        bufferPool = new DirectBufferPool(syncProperties);
+        stagingArea = new PartitionStagingArea(syncProperties, bufferPool);
+    }
+
+    @Test
+    void keepsPartitionsWithinBudgetInPooledBuffers() {
+        StagedContent content = stage(42L, "kunde", "FR", "a,b", "c,d");
+
+        assertThat(content.isSpilled()).isFalse();
+        assertThat(content.asString()).isEqualTo("a,b\nc,d");
+        assertThat(content.recordCount()).isEqualTo(2);
+        assertThat(content.checksumSha256()).isEqualTo(StagedContent.of("a,b\nc,d").checksumSha256());
+        assertThat(stagingArea.memoryInUse()).isEqualTo(8);
+
+        content.discard();
+
+        assertThat(stagingArea.memoryInUse()).isZero();
+    }
+
+    @Test
+    void encodesRecordsAcrossBufferBoundaries() {
+        StagedContent content = stage(42L, "kunde", "DE", "Neuß,Münster");
+
+        assertThat(content.isSpilled()).isFalse();
+        assertThat(content.asString()).isEqualTo("Neuß,Münster");
+        assertThat(content.contentLength()).isEqualTo(14);
+        assertThat(content.checksumSha256()).isEqualTo(StagedContent.of("Neuß,Münster").checksumSha256());
+        assertThat(content.checksumCrc32c()).isEqualTo(StagedContent.of("Neuß,Münster").checksumCrc32c());
+        assertThat(stagingArea.memoryInUse()).isEqualTo(16);
+
+        content.discard();
+    }
+
+    @Test
+    void reusesReleasedBuffersForLaterPartitions() {
+        stage(42L, "kunde", "FR", "a,b").discard();
+        stage(42L, "kunde", "NL", "c,d").discard();
+
+        assertThat(bufferPool.misses()).isEqualTo(1);
+        assertThat(bufferPool.highWaterMark()).isEqualTo(1);
+    }
+
+    @Test
+    void spillsPartitionsAboveBudgetToRunDirectory() {
+        StagedContent content = stage(42L, "kunde", "DE", "first,row", "second,row", "third,row");
+
+        assertThat(content.isSpilled()).isTrue();
+        assertThat(content.asString()).isEqualTo("first,row\nsecond,row\nthird,row");
+        assertThat(content.contentLength()).isEqualTo(30);
+        StagedContent expected = StagedContent.of("first,row\nsecond,row\nthird,row");
+        assertThat(content.checksumSha256()).isEqualTo(expected.checksumSha256());
+        assertThat(content.checksumCrc32c()).isEqualTo(expected.checksumCrc32c());
+        Path file = directory.resolve("run-000042").resolve(PartitionStagingArea.fileName("kunde_DE", 3,
+                expected.checksumSha256(), expected.checksumCrc32c()));
+        assertThat(file).exists();
+        assertThat(stagingArea.memoryInUse()).isZero();
+        assertThat(bufferPool.exhausted()).isEqualTo(1);
+
+        content.discard();
+
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    void findsSpilledFileOfFailedUploadForRetry() {
+        StagedContent failed = stage(42L, "kunde", "DE", "first,row", "second,row", "third,row");
+        failed.close();
+
+        StagedContent resumed = stagingArea.find(42L, "kunde", "DE").orElseThrow();
+
+        assertThat(resumed.recordCount()).isEqualTo(3);
+        assertThat(resumed.contentLength()).isEqualTo(failed.contentLength());
+        assertThat(resumed.checksumSha256()).isEqualTo(failed.checksumSha256());
+        assertThat(resumed.checksumCrc32c()).isEqualTo(failed.checksumCrc32c());
+        assertThat(stagingArea.find(42L, "auftraege", "DE")).isEmpty();
+        assertThat(stagingArea.find(43L, "kunde", "DE")).isEmpty();
+    }
+
+    @Test
+    void purgeRemovesFilesOfOtherRuns() {
+        stage(41L, "kunde", "DE", "first,row", "second,row", "third,row").close();
+        stage(42L, "kunde", "DE", "first,row", "second,row", "third,row").close();
+
+        stagingArea.purgeOtherRuns(42L);
+
+        assertThat(directory.resolve("run-000041")).doesNotExist();
+        assertThat(stagingArea.find(42L, "kunde", "DE")).isPresent();
+    }
+
+    @Test
+    void unfinishedWriterLeavesNoFileBehind() throws Exception {
+        try (StagingWriter writer = stagingArea.open(42L, "kunde", "DE", null)) {
+            writer.append("a row that does not fit into the budget");
+        }
+
+        try (var files = Files.list(directory.resolve("run-000042"))) {
+            assertThat(files).isEmpty();
+        }
+        assertThat(stagingArea.memoryInUse()).isZero();
+    }
+
+    private StagedContent stage(Long runId, String tableName, String country, String... records) {
+        try (StagingWriter writer = stagingArea.open(runId, tableName, country, null)) {
+            for (String record : records) {
+                writer.append(record);
+            }
+            return writer.finish();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.contargo.s3sync.sync;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.contargo.s3sync.config.S3Properties;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.s3.model.NoSuchBucketException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+class S3RetryPolicyTest {
+
+    private final S3Properties.Retry properties = new S3Properties.Retry();
+
+    @Test
+    void classify_distinguishesThrottlingTransientAndPermanentErrors() {
+        S3RetryPolicy policy = new S3RetryPolicy(properties);
+
+        S3Exception slowDown = (S3Exception) S3Exception.builder()
+                .statusCode(503)
+                .awsErrorDetails(AwsErrorDetails.builder().errorCode("SlowDown").build())
+                .build();
+        S3Exception internalError = (S3Exception) S3Exception.builder().statusCode(500).build();
+        S3Exception forbidden = (S3Exception) S3Exception.builder().statusCode(403).build();
+
+        assertThat(policy.classify(slowDown)).isEqualTo(S3RetryPolicy.ErrorType.THROTTLED);
+        assertThat(policy.classify(internalError)).isEqualTo(S3RetryPolicy.ErrorType.TRANSIENT);
+        assertThat(policy.classify(SdkClientException.create("connection reset")))
+                .isEqualTo(S3RetryPolicy.ErrorType.TRANSIENT);
+        assertThat(policy.classify(forbidden)).isEqualTo(S3RetryPolicy.ErrorType.PERMANENT);
+        assertThat(policy.classify(NoSuchBucketException.builder().statusCode(404).build()))
+                .isEqualTo(S3RetryPolicy.ErrorType.PERMANENT);
+    }
+
+    @Test
+    void shouldRetry_stopsAtMaxAttemptsAndOnPermanentErrors() {
+        properties.setMaxAttempts(3);
+        S3RetryPolicy policy = new S3RetryPolicy(properties);
+
+        assertThat(policy.shouldRetry(S3RetryPolicy.ErrorType.THROTTLED, 2)).isTrue();
+        assertThat(policy.shouldRetry(S3RetryPolicy.ErrorType.TRANSIENT, 3)).isFalse();
+        assertThat(policy.shouldRetry(S3RetryPolicy.ErrorType.PERMANENT, 1)).isFalse();
+    }
+
+    @Test
+    void backoff_growsExponentiallyWithFullJitterUpToMaxDelay() {
+        properties.setBaseDelay(Duration.ofMillis(100));
+        properties.setMaxDelay(Duration.ofMillis(1000));
+        S3RetryPolicy upperBound = new S3RetryPolicy(properties, () -> 1.0);
+        S3RetryPolicy halfway = new S3RetryPolicy(properties, () -> 0.5);
+
+        assertThat(upperBound.backoff(1)).isEqualTo(Duration.ofMillis(100));
+        assertThat(upperBound.backoff(3)).isEqualTo(Duration.ofMillis(400));
+        assertThat(upperBound.backoff(10)).isEqualTo(Duration.ofMillis(1000));
+        assertThat(halfway.backoff(3)).isEqualTo(Duration.ofMillis(200));
+    }
+}
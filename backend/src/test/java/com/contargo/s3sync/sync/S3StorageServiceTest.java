@@ -12,79 +12,103 @@ import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.read.ListAppender;
 import com.contargo.s3sync.config.S3Properties;
-import java.time.OffsetDateTime;
+import com.contargo.s3sync.s3.S3TransferMetrics;
+import com.contargo.s3sync.sync.api.SyncProgressEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.LoggerFactory;
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.services.s3.S3Client;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.BucketAlreadyOwnedByYouException;
+import software.amazon.awssdk.services.s3.model.ChecksumAlgorithm;
 import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
+import software.amazon.awssdk.services.s3.model.CreateBucketResponse;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Error;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.transfer.s3.S3TransferManager;
+import software.amazon.awssdk.transfer.s3.model.CompletedUpload;
+import software.amazon.awssdk.transfer.s3.model.Upload;
+import software.amazon.awssdk.transfer.s3.model.UploadRequest;
 
 @ExtendWith(MockitoExtension.class)
 class S3StorageServiceTest {
 
     @Mock
-    private S3Client s3Client;
+    private S3AsyncClient s3Client;
 
+    @Mock
+    private S3TransferManager transferManager;
+
+    @Mock
+    private Upload upload;
+
+    private static final String KEY = "kunde/2025-04-01/DE/customers_DE_2025-04-01_run-000042.csv";
+
+    private S3Properties properties;
     private S3StorageService s3StorageService;
+    private SyncProgressPublisher progressPublisher;
 
     @BeforeEach
     void setUp() {
-        S3Properties properties = new S3Properties();
+        properties = new S3Properties();
         properties.setBucketName("test-bucket");
         properties.setRegion("eu-central-1");
-        s3StorageService = new S3StorageService(s3Client, properties);
+        properties.getRetry().setBaseDelay(Duration.ofMillis(10));
+        progressPublisher = new SyncProgressPublisher(new SyncProperties());
+        s3StorageService = new S3StorageService(s3Client, transferManager, properties, progressPublisher,
+                new S3TransferMetrics(new SimpleMeterRegistry()));
     }
 
-    @Test
-    void store_buildsCustomerCsvKeyWithCountryAndDate() {
-        OffsetDateTime timestamp = OffsetDateTime.parse("2025-01-15T10:15:30Z");
-
-        String key = s3StorageService.store("kunde", "DE", timestamp, "content");
-
-        ArgumentCaptor<CreateBucketRequest> bucketCaptor = ArgumentCaptor.forClass(CreateBucketRequest.class);
-        verify(s3Client).createBucket(bucketCaptor.capture());
-        assertThat(bucketCaptor.getValue().bucket()).isEqualTo("test-bucket");
-
-        ArgumentCaptor<PutObjectRequest> putCaptor = ArgumentCaptor.forClass(PutObjectRequest.class);
-        verify(s3Client).putObject(putCaptor.capture(), any(RequestBody.class));
-
-        assertThat(key).isEqualTo("kunde/2025-01-15/DE/customers_DE_2025-01-15.csv");
-        assertThat(putCaptor.getValue().key()).isEqualTo("kunde/2025-01-15/DE/customers_DE_2025-01-15.csv");
+    private void givenBucketCreated() {
+        when(s3Client.createBucket(any(CreateBucketRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(CreateBucketResponse.builder().build()));
     }
 
     @Test
-    void store_buildsOrderCsvKeyWithCountryAndDate() {
-        OffsetDateTime timestamp = OffsetDateTime.parse("2024-12-24T08:00:00Z");
+    void store_createsBucketAndUploadsUnderGivenKey() {
+        givenBucketCreated();
+        when(s3Client.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class)))
+                .thenReturn(CompletableFuture.completedFuture(PutObjectResponse.builder().build()));
 
-        String key = s3StorageService.store("auftraege", "FR", timestamp, "orders");
+        String key = s3StorageService.store("kunde", "DE", KEY, StagedContent.of("content")).key();
 
         ArgumentCaptor<CreateBucketRequest> bucketCaptor = ArgumentCaptor.forClass(CreateBucketRequest.class);
         verify(s3Client).createBucket(bucketCaptor.capture());
         assertThat(bucketCaptor.getValue().bucket()).isEqualTo("test-bucket");
 
         ArgumentCaptor<PutObjectRequest> putCaptor = ArgumentCaptor.forClass(PutObjectRequest.class);
-        verify(s3Client).putObject(putCaptor.capture(), any(RequestBody.class));
+        verify(s3Client).putObject(putCaptor.capture(), any(AsyncRequestBody.class));
 
-        assertThat(key).isEqualTo("auftraege/2024-12-24/FR/orders_FR_2024-12-24.csv");
-        assertThat(putCaptor.getValue().key()).isEqualTo("auftraege/2024-12-24/FR/orders_FR_2024-12-24.csv");
+        assertThat(key).isEqualTo(KEY);
+        assertThat(putCaptor.getValue().key()).isEqualTo(KEY);
+        assertThat(putCaptor.getValue().contentType()).isEqualTo("text/csv");
     }
 
     @Test
     void store_retriesFailedUploadsAndLogsEachAttempt() {
-        OffsetDateTime timestamp = OffsetDateTime.parse("2025-04-01T12:00:00Z");
+        givenBucketCreated();
 
-        when(s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class)))
-                .thenThrow(new RuntimeException("first failure"))
-                .thenThrow(new RuntimeException("second failure"))
-                .thenReturn(PutObjectResponse.builder().eTag("ok").build());
+        when(s3Client.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("first failure")))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("second failure")))
+                .thenReturn(CompletableFuture.completedFuture(PutObjectResponse.builder().eTag("ok").build()));
 
         Logger logger = (Logger) LoggerFactory.getLogger(S3StorageService.class);
         ListAppender<ILoggingEvent> appender = new ListAppender<>();
@@ -92,15 +116,15 @@ class S3StorageServiceTest {
         logger.addAppender(appender);
 
         try {
-            String key = s3StorageService.store("kunde", "DE", timestamp, "content\nrow2");
-            assertThat(key).isEqualTo("kunde/2025-04-01/DE/customers_DE_2025-04-01.csv");
+            String key = s3StorageService.store("kunde", "DE", KEY, StagedContent.of("content\nrow2")).key();
+            assertThat(key).isEqualTo(KEY);
         } finally {
             logger.detachAppender(appender);
             appender.stop();
         }
 
         verify(s3Client).createBucket(any(CreateBucketRequest.class));
-        verify(s3Client, times(3)).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+        verify(s3Client, times(3)).putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class));
 
         List<ILoggingEvent> events = appender.list;
         assertThat(events).hasSize(3);
@@ -110,16 +134,20 @@ class S3StorageServiceTest {
         assertThat(events.get(1).getFormattedMessage()).contains("attempt 2/3");
         assertThat(events.get(2).getLevel()).isEqualTo(Level.INFO);
         assertThat(events.get(2).getFormattedMessage()).contains("attempt 3/3");
+        assertThat(progressPublisher.latest())
+                .extracting(SyncProgressEvent::type, SyncProgressEvent::tableName, SyncProgressEvent::country,
+                        SyncProgressEvent::attempt)
+                .containsExactly(SyncProgressEvent.Type.UPLOAD_RETRY, "kunde", "DE", 3);
     }
 
     @Test
     void store_throwsAfterMaxRetriesAndLogsFailures() {
-        OffsetDateTime timestamp = OffsetDateTime.parse("2025-04-01T12:00:00Z");
+        givenBucketCreated();
 
-        when(s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class)))
-                .thenThrow(new RuntimeException("first failure"))
-                .thenThrow(new RuntimeException("second failure"))
-                .thenThrow(new RuntimeException("third failure"));
+        when(s3Client.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("first failure")))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("second failure")))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("third failure")));
 
         Logger logger = (Logger) LoggerFactory.getLogger(S3StorageService.class);
         ListAppender<ILoggingEvent> appender = new ListAppender<>();
@@ -127,7 +155,7 @@ class S3StorageServiceTest {
         logger.addAppender(appender);
 
         try {
-            assertThatThrownBy(() -> s3StorageService.store("kunde", "DE", timestamp, "content"))
+            assertThatThrownBy(() -> s3StorageService.store("kunde", "DE", KEY, StagedContent.of("content")))
                     .isInstanceOf(RuntimeException.class)
                     .hasMessage("third failure");
         } finally {
@@ -136,7 +164,7 @@ class S3StorageServiceTest {
         }
 
         verify(s3Client).createBucket(any(CreateBucketRequest.class));
-        verify(s3Client, times(3)).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+        verify(s3Client, times(3)).putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class));
 
         List<ILoggingEvent> events = appender.list;
         assertThat(events).hasSize(3);
@@ -147,4 +175,147 @@ class S3StorageServiceTest {
         assertThat(events.get(2).getLevel()).isEqualTo(Level.ERROR);
         assertThat(events.get(2).getFormattedMessage()).contains("attempt 3/3");
     }
+
+    @Test
+    void storeAsync_ignoresExistingBucketAndCompletesWithKey() {
+        when(s3Client.createBucket(any(CreateBucketRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(BucketAlreadyOwnedByYouException.builder().build()));
+        when(s3Client.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class)))
+                .thenReturn(CompletableFuture.completedFuture(PutObjectResponse.builder().build()));
+
+        CompletableFuture<String> result = s3StorageService
+                .storeAsync("auftraege", "NL", "auftraege/2025-02-01/NL/orders_NL_2025-02-01_run-000042.csv",
+                        StagedContent.of("orders"))
+                .thenApply(StoredObject::key);
+
+        assertThat(result).succeedsWithin(Duration.ofSeconds(1))
+                .isEqualTo("auftraege/2025-02-01/NL/orders_NL_2025-02-01_run-000042.csv");
+    }
+
+    @Test
+    void store_doesNotRetryPermanentClientErrors() {
+        givenBucketCreated();
+        S3Exception accessDenied = (S3Exception) S3Exception.builder()
+                .statusCode(403)
+                .message("Access Denied")
+                .build();
+        when(s3Client.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class)))
+                .thenReturn(CompletableFuture.failedFuture(accessDenied));
+
+        assertThatThrownBy(() -> s3StorageService.store("kunde", "DE", KEY, StagedContent.of("content")))
+                .isSameAs(accessDenied);
+
+        verify(s3Client, times(1)).putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class));
+    }
+
+    @Test
+    void store_retriesThrottledUploads() {
+        givenBucketCreated();
+        S3Exception slowDown = (S3Exception) S3Exception.builder()
+                .statusCode(503)
+                .awsErrorDetails(AwsErrorDetails.builder().errorCode("SlowDown").build())
+                .build();
+        when(s3Client.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class)))
+                .thenReturn(CompletableFuture.failedFuture(slowDown))
+                .thenReturn(CompletableFuture.completedFuture(PutObjectResponse.builder().build()));
+
+        String key = s3StorageService.store("kunde", "DE", KEY, StagedContent.of("content")).key();
+
+        assertThat(key).isEqualTo(KEY);
+        verify(s3Client, times(2)).putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class));
+    }
+
+    @Test
+    void storeDocument_uploadsWithSha256ChecksumAndReportsSizeAndChecksums() {
+        givenBucketCreated();
+        when(s3Client.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class)))
+                .thenReturn(CompletableFuture.completedFuture(PutObjectResponse.builder().build()));
+
+        StoredObject stored = s3StorageService.storeDocument("manifests/latest.json", "application/json", "{}");
+
+        ArgumentCaptor<PutObjectRequest> putCaptor = ArgumentCaptor.forClass(PutObjectRequest.class);
+        verify(s3Client).putObject(putCaptor.capture(), any(AsyncRequestBody.class));
+
+        assertThat(stored.key()).isEqualTo("manifests/latest.json");
+        assertThat(stored.sizeBytes()).isEqualTo(2);
+        assertThat(stored.checksumSha256()).isEqualTo("RBNvo1WzZ4oRRq0W9+hknpT7T8If536DEMBg9hyq/4o=");
+        assertThat(stored.checksumCrc32c()).isEqualTo("KXvQqg==");
+        assertThat(putCaptor.getValue().checksumSHA256()).isEqualTo(stored.checksumSha256());
+        assertThat(putCaptor.getValue().contentType()).isEqualTo("application/json");
+    }
+
+    @Test
+    void store_uploadsSpilledContentFromStagedFile(@TempDir Path stagingDirectory) {
+        givenBucketCreated();
+        when(s3Client.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class)))
+                .thenReturn(CompletableFuture.completedFuture(PutObjectResponse.builder().build()));
+        SyncProperties exhausted = new SyncProperties();
+        exhausted.getStaging().setMemoryBudget(DataSize.ofBytes(0));
+        StagedContent content;
+        try (StagingWriter writer = new StagingWriter(stagingDirectory, "kunde_DE", new DirectBufferPool(exhausted))) {
+            writer.append("first,row");
+            writer.append("second,row");
+            content = writer.finish();
+        }
+
+        StoredObject stored = s3StorageService.store("kunde", "DE", KEY, content);
+
+        ArgumentCaptor<PutObjectRequest> putCaptor = ArgumentCaptor.forClass(PutObjectRequest.class);
+        ArgumentCaptor<AsyncRequestBody> bodyCaptor = ArgumentCaptor.forClass(AsyncRequestBody.class);
+        verify(s3Client).putObject(putCaptor.capture(), bodyCaptor.capture());
+        assertThat(content.isSpilled()).isTrue();
+        assertThat(stored.sizeBytes()).isEqualTo(20);
+        assertThat(putCaptor.getValue().contentLength()).isEqualTo(20);
+        assertThat(putCaptor.getValue().checksumSHA256()).isEqualTo(StagedContent.of("first,row\nsecond,row")
+                .checksumSha256());
+        assertThat(bodyCaptor.getValue().contentLength()).contains(20L);
+    }
+
+    @Test
+    void deleteObjects_removesGivenKeysInOneRequest() {
+        when(s3Client.deleteObjects(any(DeleteObjectsRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(DeleteObjectsResponse.builder().build()));
+
+        s3StorageService.deleteObjects(List.of("a_part-00002.csv", "a_part-00003.csv"));
+
+        ArgumentCaptor<DeleteObjectsRequest> captor = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+        verify(s3Client).deleteObjects(captor.capture());
+        assertThat(captor.getValue().bucket()).isEqualTo("test-bucket");
+        assertThat(captor.getValue().delete().objects()).extracting(ObjectIdentifier::key)
+                .containsExactly("a_part-00002.csv", "a_part-00003.csv");
+    }
+
+    @Test
+    void deleteObjects_failsWhenS3ReportsKeysItCouldNotDelete() {
+        when(s3Client.deleteObjects(any(DeleteObjectsRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(DeleteObjectsResponse.builder()
+                        .errors(S3Error.builder().key("a_part-00002.csv").message("Access Denied").build())
+                        .build()));
+
+        assertThatThrownBy(() -> s3StorageService.deleteObjects(List.of("a_part-00002.csv")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("a_part-00002.csv");
+    }
+
+    @Test
+    void store_uploadsContentAboveMultipartThresholdThroughTransferManager() {
+        givenBucketCreated();
+        properties.getTransfer().setMultipartThreshold(DataSize.ofBytes(16));
+        when(transferManager.upload(any(UploadRequest.class))).thenReturn(upload);
+        when(upload.completionFuture()).thenReturn(CompletableFuture.completedFuture(
+                CompletedUpload.builder().response(PutObjectResponse.builder().build()).build()));
+        StagedContent content = StagedContent.of("first,row\nsecond,row");
+
+        StoredObject stored = s3StorageService.store("kunde", "DE", KEY, content);
+
+        ArgumentCaptor<UploadRequest> uploadCaptor = ArgumentCaptor.forClass(UploadRequest.class);
+        verify(transferManager).upload(uploadCaptor.capture());
+        PutObjectRequest request = uploadCaptor.getValue().putObjectRequest();
+        assertThat(request.key()).isEqualTo(KEY);
+        assertThat(request.checksumAlgorithm()).isEqualTo(ChecksumAlgorithm.CRC32C);
+        assertThat(request.checksumSHA256()).isNull();
+        assertThat(stored.checksumSha256()).isEqualTo(content.checksumSha256());
+        assertThat(stored.checksumCrc32c()).isEqualTo(content.checksumCrc32c());
+        verify(s3Client, times(0)).putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class));
+    }
 }
@@ -0,0 +1,99 @@
+package com.contargo.s3sync.sync;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class SyncManifestWriterTest {
+
+    @Mock
+    private S3StorageService s3StorageService;
+
+    @Mock
+    private SyncRunRepository syncRunRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private SyncManifestWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        writer = new SyncManifestWriter(s3StorageService, syncRunRepository, objectMapper);
+    }
+
+    @Test
+    void publish_writesManifestOfCommittedPartitionsBeforeLatestPointer() throws Exception {
+        OffsetDateTime windowStart = OffsetDateTime.parse("2025-05-01T00:00:00Z");
+        OffsetDateTime windowEnd = OffsetDateTime.parse("2025-05-02T00:00:00Z");
+
+        SyncRun previous = run(41L);
+        previous.setManifestKey("manifests/run-000041.json");
+        SyncRun run = run(42L);
+        SyncRunItem committed = SyncRunItem.pending("kunde", "DE", windowStart, windowEnd);
+        committed.markCommitted(new StoredObject("kunde/2025-05-02/DE/customers_DE_2025-05-02_run-000042.csv",
+                128, "checksum", "crc"), 2);
+        SyncRunItem failed = SyncRunItem.pending("kunde", "FR", windowStart, windowEnd);
+        failed.markFailed();
+        run.addItem(committed);
+        run.addItem(failed);
+
+        when(syncRunRepository.findFirstByIdLessThanAndManifestKeyIsNotNullOrderByIdDesc(42L))
+                .thenReturn(Optional.of(previous));
+
+        String manifestKey = writer.publish(run);
+
+        assertThat(manifestKey).isEqualTo("manifests/run-000042.json");
+        assertThat(run.getManifestKey()).isEqualTo(manifestKey);
+
+        ArgumentCaptor<String> manifestCaptor = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> pointerCaptor = ArgumentCaptor.forClass(String.class);
+        InOrder order = inOrder(s3StorageService);
+        order.verify(s3StorageService).storeDocument(eq(manifestKey), eq("application/json"),
+                manifestCaptor.capture());
+        order.verify(s3StorageService).storeDocument(eq("manifests/latest.json"), eq("application/json"),
+                pointerCaptor.capture());
+
+        JsonNode manifest = objectMapper.readTree(manifestCaptor.getValue());
+        assertThat(manifest.get("runId").asLong()).isEqualTo(42L);
+        assertThat(manifest.get("previousManifestKey").asText()).isEqualTo("manifests/run-000041.json");
+        assertThat(manifest.get("objects")).hasSize(1);
+        JsonNode entry = manifest.get("objects").get(0);
+        assertThat(entry.get("key").asText()).isEqualTo(committed.getS3Key());
+        assertThat(entry.get("rowCount").asInt()).isEqualTo(2);
+        assertThat(entry.get("sizeBytes").asLong()).isEqualTo(128);
+        assertThat(entry.get("checksumSha256").asText()).isEqualTo("checksum");
+        assertThat(entry.get("checksumCrc32c").asText()).isEqualTo("crc");
+        assertThat(OffsetDateTime.parse(entry.get("windowEnd").asText())).isEqualTo(windowEnd);
+
+        JsonNode pointer = objectMapper.readTree(pointerCaptor.getValue());
+        assertThat(pointer.get("runId").asLong()).isEqualTo(42L);
+        assertThat(pointer.get("manifestKey").asText()).isEqualTo(manifestKey);
+    }
+
+    private SyncRun run(Long id) {
+        SyncRun run = new SyncRun();
+        ReflectionTestUtils.setField(run, "id", id);
+        run.setStartedAt(OffsetDateTime.parse("2025-05-02T06:00:00Z"));
+        run.setStatus(SyncStatus.RUNNING);
+        return run;
+    }
+}
@@ -4,7 +4,11 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.when;
 
+import com.contargo.s3sync.customer.CountryLatestChange;
+import com.contargo.s3sync.customer.CustomerRepository;
+import com.contargo.s3sync.order.OrderRepository;
 import com.contargo.s3sync.sync.api.SyncRunResponse;
+import com.contargo.s3sync.sync.api.SyncStateResponse;
 import java.time.OffsetDateTime;
 import java.util.List;
 import org.junit.jupiter.api.Test;
@@ -22,6 +26,12 @@ class SyncMonitoringServiceTest {
     @Mock
     private SyncStateRepository syncStateRepository;
 
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
     @InjectMocks
     private SyncMonitoringService syncMonitoringService;
 
@@ -39,5 +49,36 @@ class SyncMonitoringServiceTest {
         assertThat(result).hasSize(1);
         assertThat(result.get(0).items()).hasSize(1);
     }
-}
 
+    @Test
+    void fetchSyncStates_reportsLagPerCountry() {
+        OffsetDateTime watermark = OffsetDateTime.parse("2025-05-01T10:00:00Z");
+        when(syncStateRepository.findAll()).thenReturn(List.of(
+            new SyncState("kunde", "FR", watermark),
+            new SyncState("kunde", "DE", watermark)));
+        when(customerRepository.findLatestChangePerCountry()).thenReturn(List.of(
+            latestChange("DE", watermark.plusMinutes(30)),
+            latestChange("FR", watermark)));
+        when(orderRepository.findLatestChangePerCountry()).thenReturn(List.of());
+
+        List<SyncStateResponse> result = syncMonitoringService.fetchSyncStates();
+
+        assertThat(result).extracting(SyncStateResponse::country).containsExactly("DE", "FR");
+        assertThat(result.get(0).lagSeconds()).isEqualTo(1800L);
+        assertThat(result.get(1).lagSeconds()).isZero();
+    }
+
+    private CountryLatestChange latestChange(String country, OffsetDateTime latestChange) {
+        return new CountryLatestChange() {
+            @Override
+            public String getCountry() {
+                return country;
+            }
+
+            @Override
+            public OffsetDateTime getLatestChange() {
+                return latestChange;
+            }
+        };
+    }
+}
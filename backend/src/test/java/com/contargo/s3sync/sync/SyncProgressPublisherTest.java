@@ -0,0 +1,107 @@
+package com.contargo.s3sync.sync;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.contargo.s3sync.sync.api.SyncProgressEvent;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class SyncProgressPublisherTest {
+
+    @Test
+    void publish_dropsOldestEventsForSlowSubscriberWithoutBlocking() throws InterruptedException {
+        SyncProperties properties = new SyncProperties();
+        properties.getProgress().setBufferSize(2);
+        SyncProgressPublisher publisher = new SyncProgressPublisher(properties);
+        SlowEmitter emitter = new SlowEmitter();
+        publisher.subscribe(emitter);
+
+        for (int attempt = 1; attempt <= 10; attempt++) {
+            publisher.publish(SyncProgressEvent.uploadRetry("kunde", "DE", attempt, "TRANSIENT"));
+        }
+
+        assertThat(publisher.latest().attempt()).isEqualTo(10);
+        assertThat(publisher.dropped()).isBetween(7L, 8L);
+
+        emitter.release.countDown();
+        waitFor(() -> emitter.received.stream().anyMatch(event -> event.attempt() == 10));
+        assertThat(emitter.received).extracting(SyncProgressEvent::attempt).hasSizeLessThanOrEqualTo(3)
+                .endsWith(9, 10);
+    }
+
+    @Test
+    void subscribe_replaysLatestEventToLateSubscriber() throws InterruptedException {
+        SyncProgressPublisher publisher = new SyncProgressPublisher(new SyncProperties());
+        publisher.publish(SyncProgressEvent.uploadRetry("auftraege", "FR", 2, "THROTTLED"));
+        SlowEmitter emitter = new SlowEmitter();
+        emitter.release.countDown();
+
+        publisher.subscribe(emitter);
+
+        waitFor(() -> !emitter.received.isEmpty());
+        assertThat(emitter.received.get(0).tableName()).isEqualTo("auftraege");
+        assertThat(emitter.received.get(0).attempt()).isEqualTo(2);
+    }
+
+    @Test
+    void publish_stopsDeliveringToCompletedSubscribers() throws InterruptedException {
+        SyncProgressPublisher publisher = new SyncProgressPublisher(new SyncProperties());
+        SlowEmitter emitter = new SlowEmitter();
+        emitter.release.countDown();
+        emitter.failing = true;
+        publisher.subscribe(emitter);
+
+        publisher.publish(SyncProgressEvent.uploadRetry("kunde", "DE", 2, "TRANSIENT"));
+        waitFor(() -> emitter.sendAttempts > 0);
+        Thread.sleep(100);
+        publisher.publish(SyncProgressEvent.uploadRetry("kunde", "DE", 3, "TRANSIENT"));
+
+        assertThat(emitter.sendAttempts).isEqualTo(1);
+        assertThat(publisher.dropped()).isZero();
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within 5s").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Emitter standing in for a browser that reads nothing until {@link #release} is counted down.
+     */
+    private static final class SlowEmitter extends SseEmitter {
+
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final List<SyncProgressEvent> received = new CopyOnWriteArrayList<>();
+        private volatile boolean failing;
+        private volatile int sendAttempts;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException(ex);
+            }
+            sendAttempts++;
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            builder.build().stream()
+                    .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                    .filter(SyncProgressEvent.class::isInstance)
+                    .map(SyncProgressEvent.class::cast)
+                    .forEach(received::add);
+        }
+    }
+}
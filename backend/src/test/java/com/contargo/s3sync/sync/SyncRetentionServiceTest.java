@@ -0,0 +1,142 @@
+package com.contargo.s3sync.sync;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.Trigger;
+
+@ExtendWith(MockitoExtension.class)
+class SyncRetentionServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 15);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private SyncProperties syncProperties;
+    private SyncRetentionService retentionService;
+
+    @BeforeEach
+    void setUp() {
+        syncProperties = new SyncProperties();
+        syncProperties.getRetention().setRunHistory(Duration.ofDays(90));
+        retentionService = new SyncRetentionService(jdbcTemplate, taskScheduler, syncProperties);
+    }
+
+    @Test
+    void applyRetentionCreatesUpcomingPartitions() {
+        givenPartitions();
+
+        retentionService.applyRetention(TODAY);
+
+        verify(jdbcTemplate).queryForObject("SELECT sync_history_ensure_partition(?)", String.class,
+            LocalDate.of(2025, 6, 1));
+        verify(jdbcTemplate).queryForObject("SELECT sync_history_ensure_partition(?)", String.class,
+            LocalDate.of(2025, 7, 1));
+        verify(jdbcTemplate).queryForObject("SELECT sync_history_ensure_partition(?)", String.class,
+            LocalDate.of(2025, 8, 1));
+        verify(jdbcTemplate, never()).queryForObject("SELECT sync_history_ensure_partition(?)", String.class,
+            LocalDate.of(2025, 9, 1));
+    }
+
+    @Test
+    void applyRetentionDropsOnlyMonthsEntirelyBeforeTheCutoff() {
+        // cut-off is 2025-03-17: February ends before it, March still holds runs inside the window
+        givenPartitions("sync_run_p202501", "sync_run_p202502", "sync_run_p202503", "sync_run_pdefault");
+
+        retentionService.applyRetention(TODAY);
+
+        verify(jdbcTemplate).queryForObject("SELECT sync_history_expire_partition(?, ?)", String.class,
+            LocalDate.of(2025, 1, 1), true);
+        verify(jdbcTemplate).queryForObject("SELECT sync_history_expire_partition(?, ?)", String.class,
+            LocalDate.of(2025, 2, 1), true);
+        verify(jdbcTemplate, never()).queryForObject("SELECT sync_history_expire_partition(?, ?)", String.class,
+            LocalDate.of(2025, 3, 1), true);
+    }
+
+    @Test
+    void archiveModeDetachesWithoutDropping() {
+        syncProperties.getRetention().setArchive(true);
+        givenPartitions("sync_run_p202501");
+
+        retentionService.applyRetention(TODAY);
+
+        verify(jdbcTemplate).queryForObject("SELECT sync_history_expire_partition(?, ?)", String.class,
+            LocalDate.of(2025, 1, 1), false);
+    }
+
+    @Test
+    void applyRetentionRollsUpDaysSinceLastRollup() {
+        givenPartitions();
+        when(jdbcTemplate.queryForObject(anyString(), eq(LocalDate.class))).thenReturn(LocalDate.of(2025, 6, 10));
+
+        retentionService.applyRetention(TODAY);
+
+        verify(jdbcTemplate).update(startsWith("INSERT INTO sync_run_daily_stats"), any(), any(), any(), any());
+    }
+
+    @Test
+    void initializeCreatesPartitionsButSkipsExpiryWhenDisabled() {
+        syncProperties.getRetention().setEnabled(false);
+
+        retentionService.initialize();
+
+        verify(taskScheduler).schedule(any(Runnable.class), any(Trigger.class));
+        verify(jdbcTemplate, times(3)).queryForObject(eq("SELECT sync_history_ensure_partition(?)"),
+            eq(String.class), any(LocalDate.class));
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(String.class));
+        verify(jdbcTemplate, never()).update(anyString(), any(), any(), any(), any());
+    }
+
+    @Test
+    void applyRetentionOnlyCreatesPartitionsWhenDisabled() {
+        syncProperties.getRetention().setEnabled(false);
+
+        retentionService.applyRetention(TODAY);
+
+        verify(jdbcTemplate).queryForObject("SELECT sync_history_ensure_partition(?)", String.class,
+            LocalDate.of(2025, 8, 1));
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(LocalDate.class));
+        verify(jdbcTemplate, never()).queryForObject(startsWith("SELECT sync_history_expire_partition"),
+            eq(String.class), any(), any());
+    }
+
+    @Test
+    void initializeSchedulesCronPass() {
+        givenPartitions();
+
+        retentionService.initialize();
+
+        verify(taskScheduler).schedule(any(Runnable.class), any(Trigger.class));
+    }
+
+    @Test
+    void partitionMonthIgnoresDefaultPartition() {
+        assertThat(SyncRetentionService.partitionMonth("sync_run_p202502")).isEqualTo(LocalDate.of(2025, 2, 1));
+        assertThat(SyncRetentionService.partitionMonth("sync_run_pdefault")).isNull();
+    }
+
+    private void givenPartitions(String... partitions) {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(partitions));
+    }
+}
@@ -87,6 +87,21 @@ class SyncSchedulerTest {
         verify(syncService, times(2)).runSync();
     }
 
+    @Test
+    void scheduledTaskSkipsExecutionWhileRunInProgress() {
+        when(syncService.runSync())
+                .thenThrow(new SyncAlreadyRunningException())
+                .thenReturn(new SyncRun());
+        syncScheduler.initialize();
+
+        Runnable task = captureScheduledTask();
+
+        assertThatCode(task::run).doesNotThrowAnyException();
+        task.run();
+
+        verify(syncService, times(2)).runSync();
+    }
+
     private Runnable captureScheduledTask() {
         ArgumentCaptor<Runnable> taskCaptor = ArgumentCaptor.forClass(Runnable.class);
         verify(taskScheduler).scheduleAtFixedRate(taskCaptor.capture(), ArgumentMatchers.notNull(Duration.class));
@@ -1,13 +1,18 @@
 package com.contargo.s3sync.sync;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.contargo.s3sync.config.S3Properties;
+import java.sql.Connection;
+import java.sql.Statement;
 import java.util.List;
+import javax.sql.DataSource;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
@@ -45,6 +50,7 @@ class SyncServiceIntegrationTest {
         registry.add("aws.s3.endpoint", () -> localstack.getEndpointOverride(LocalStackContainer.Service.S3).toString());
         registry.add("aws.s3.region", localstack::getRegion);
         registry.add("aws.s3.bucket-name", () -> "test-bucket");
+        registry.add("sync.visibility-lag", () -> "0s");
     }
 
     @Autowired
@@ -56,6 +62,12 @@ class SyncServiceIntegrationTest {
     @Autowired
     private S3Properties s3Properties;
 
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     void runSync_exportsFilesToS3() {
         SyncRun run = syncService.runSync();
@@ -68,4 +80,55 @@ class SyncServiceIntegrationTest {
 
         assertThat(response.contents()).isNotEmpty();
     }
+
+    @Test
+    void runSync_refusesToRunWhileAnotherSessionHoldsTheRunLock() throws Exception {
+        try (Connection other = dataSource.getConnection(); Statement statement = other.createStatement()) {
+            statement.execute("SELECT pg_advisory_lock(" + SyncRunLock.LOCK_KEY + ")");
+            try {
+                assertThatThrownBy(() -> syncService.runSync()).isInstanceOf(SyncAlreadyRunningException.class);
+            } finally {
+                statement.execute("SELECT pg_advisory_unlock(" + SyncRunLock.LOCK_KEY + ")");
+            }
+        }
+
+        assertThat(syncService.runSync().getStatus()).isEqualTo(SyncStatus.SUCCESS);
+    }
+
+    @Test
+    void runSync_fullExportIncludesCustomersWithoutUpdateTimestamp() {
+        jdbcTemplate.update("UPDATE kunde SET updated_at = NULL WHERE kundeid = '4'");
+        jdbcTemplate.update("DELETE FROM sync_state WHERE table_name = 'kunde' AND country = 'IT'");
+
+        SyncRun run = syncService.runSync();
+
+        assertThat(run.getItems())
+                .filteredOn(item -> "kunde".equals(item.getTableName()) && "IT".equals(item.getCountry()))
+                .extracting(SyncRunItem::getObjectCount)
+                .containsExactly(1);
+    }
+
+    @Test
+    void runSync_exportsRowsThatCommitAfterARunWhichStartedWhileTheyWereWritten() throws Exception {
+        try (Connection writer = dataSource.getConnection()) {
+            writer.setAutoCommit(false);
+            try (Statement statement = writer.createStatement()) {
+                statement.executeUpdate("UPDATE kunde SET firmenname = 'In flight', updated_at = clock_timestamp()"
+                        + " WHERE kundeid = '1'");
+            }
+            // A later change that commits first must not move the watermark past the open one.
+            jdbcTemplate.update(
+                    "UPDATE kunde SET firmenname = 'Committed', updated_at = clock_timestamp() WHERE kundeid = '2'");
+
+            syncService.runSync();
+            writer.commit();
+        }
+
+        SyncRun run = syncService.runSync();
+
+        assertThat(run.getItems())
+                .filteredOn(item -> "kunde".equals(item.getTableName()) && "DE".equals(item.getCountry()))
+                .extracting(SyncRunItem::getObjectCount)
+                .containsExactly(2);
+    }
 }
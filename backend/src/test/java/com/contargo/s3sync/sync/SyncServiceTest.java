@@ -1,33 +1,73 @@
 package com.contargo.s3sync.sync;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
 import static org.assertj.core.api.Assertions.tuple;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
 import org.mockito.AdditionalAnswers;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.invocation.InvocationOnMock;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 
+import com.contargo.s3sync.config.ReadReplicaProperties;
+import com.contargo.s3sync.config.ReplicaAwareDataSource;
+import com.contargo.s3sync.config.ReplicaLagMonitor;
 import com.contargo.s3sync.customer.Customer;
+import com.contargo.s3sync.customer.CustomerExporter;
 import com.contargo.s3sync.customer.CustomerRepository;
 import com.contargo.s3sync.order.Order;
+import com.contargo.s3sync.order.OrderExporter;
 import com.contargo.s3sync.order.OrderRepository;
 import com.contargo.s3sync.s3.S3Service;
+import com.contargo.s3sync.sync.api.SyncProgressEvent;
 
 @ExtendWith(MockitoExtension.class)
 class SyncServiceTest {
@@ -38,19 +78,48 @@ class SyncServiceTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private PartitionReader partitionReader;
+
+    @Mock
+    private VisibilityHorizon visibilityHorizon;
+
+    @Mock
+    private SyncRunLock syncRunLock;
+
     @Mock
     private SyncStateRepository syncStateRepository;
 
     @Mock
     private SyncRunRepository syncRunRepository;
 
+    @Mock
+    private SyncRunItemRepository syncRunItemRepository;
+
     @Mock
     private S3StorageService s3StorageService;
 
     @Mock
     private S3Service s3Service;
 
-    @InjectMocks
+    @Mock
+    private SyncManifestWriter syncManifestWriter;
+
+    @Mock
+    private PartitionStagingArea partitionStagingArea;
+
+    @Mock
+    private SyncProgressPublisher progressPublisher;
+
+    @Spy
+    private SyncProperties syncProperties = new SyncProperties();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @TempDir
+    Path stagingDirectory;
+
     private SyncService syncService;
 
     private Customer customerDe;
@@ -67,23 +136,64 @@ class SyncServiceTest {
         orderDe = buildOrder("A-1", customerDe, OffsetDateTime.now().minusHours(5));
         orderFr = buildOrder("A-2", customerFr, OffsetDateTime.now().minusHours(2));
 
-        when(syncRunRepository.save(any(SyncRun.class))).thenAnswer(AdditionalAnswers.returnsFirstArg());
+        syncService = newSyncService();
+        lenient().when(syncRunRepository.save(any(SyncRun.class))).thenAnswer(AdditionalAnswers.returnsFirstArg());
+        lenient().doAnswer(SyncServiceTest::readInChunks).when(partitionReader).read(anyInt(), any(), any());
+        lenient().when(visibilityHorizon.current()).thenReturn(new VisibilityHorizon.Horizon(null, null));
+        lenient().when(syncRunLock.tryLock()).thenReturn(true);
         when(s3Service.isBucketEmpty()).thenReturn(false);
+        when(customerRepository.findDistinctCountries()).thenReturn(List.of("DE", "FR"));
+        lenient().when(s3StorageService.store(any(), any(), any(), any()))
+                .thenReturn(new StoredObject("key", 3, "checksum", "crc"));
+        DirectBufferPool bufferPool = new DirectBufferPool(new SyncProperties());
+        lenient().when(partitionStagingArea.open(any(), any(), any(), any())).thenAnswer(invocation ->
+                new StagingWriter(stagingDirectory, "partition", bufferPool));
     }
 
     @Test
     void runSync_exportsCustomersAndOrdersGroupedByCountry() {
-        when(syncStateRepository.findById("kunde")).thenReturn(Optional.empty());
-        when(syncStateRepository.findById("auftraege")).thenReturn(Optional.empty());
-        when(customerRepository.findAll()).thenReturn(List.of(customerDe, customerFr));
-        when(orderRepository.findAll()).thenReturn(List.of(orderDe, orderFr));
+        when(customerRepository.findByCountry("DE")).thenAnswer(invocation -> Stream.of(customerDe));
+        when(customerRepository.findByCountry("FR")).thenAnswer(invocation -> Stream.of(customerFr));
+        when(orderRepository.findByCustomerCountry("DE")).thenAnswer(invocation -> Stream.of(orderDe));
+        when(orderRepository.findByCustomerCountry("FR")).thenAnswer(invocation -> Stream.of(orderFr));
+        List<SyncRunItem> inserted = new CopyOnWriteArrayList<>();
+        when(syncRunItemRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            inserted.addAll(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
 
         SyncRun run = syncService.runSync();
 
         verify(s3StorageService, times(2)).store(eq("kunde"), any(), any(), any());
         verify(s3StorageService, times(2)).store(eq("auftraege"), any(), any(), any());
+        verify(syncManifestWriter).publish(run);
+        verify(syncRunRepository).updateState(run);
+        // One batched progress write per table pipeline.
+        verify(syncRunItemRepository, times(2)).saveProgress(anyList());
+        // Checkpoints are inserted in batches, never one transaction per row.
+        verify(syncRunItemRepository, never()).save(any());
+        assertThat(inserted).containsExactlyInAnyOrderElementsOf(run.getItems());
 
         assertThat(run.getStatus()).isEqualTo(SyncStatus.SUCCESS);
+        assertThat(run.getItems())
+                .extracting(SyncRunItem::getSizeBytes, SyncRunItem::getChecksumSha256, SyncRunItem::getChecksumCrc32c)
+                .containsOnly(tuple(3L, "checksum", "crc"));
+    }
+
+    @Test
+    void runSync_timesReadStageAndUploadPerTable() {
+        when(customerRepository.findByCountry("DE")).thenAnswer(invocation -> Stream.of(customerDe));
+        when(customerRepository.findByCountry("FR")).thenAnswer(invocation -> Stream.of());
+        when(orderRepository.findByCustomerCountry("DE")).thenAnswer(invocation -> Stream.of(orderDe));
+        when(orderRepository.findByCustomerCountry("FR")).thenAnswer(invocation -> Stream.of(orderFr));
+
+        syncService.runSync();
+
+        assertThat(meterRegistry.get("sync.partition.read").tag("table", "kunde").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("sync.partition.stage").tag("table", "kunde").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("sync.partition.upload").tag("table", "kunde").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("sync.partition.upload").tag("table", "auftraege").timer().count())
+                .isEqualTo(2);
     }
 
     @Test
@@ -94,21 +204,19 @@ class SyncServiceTest {
         List<Customer> deCustomers = List.of(customerDe, anotherDe);
         List<Customer> frCustomers = List.of(customerFr, anotherFr);
 
-        when(syncStateRepository.findById("kunde")).thenReturn(Optional.empty());
-        when(syncStateRepository.findById("auftraege")).thenReturn(Optional.empty());
-        when(customerRepository.findAll()).thenReturn(List.of(customerDe, anotherDe, customerFr, anotherFr));
-        when(orderRepository.findAll()).thenReturn(List.of());
+        when(customerRepository.findByCountry("DE")).thenAnswer(invocation -> deCustomers.stream());
+        when(customerRepository.findByCountry("FR")).thenAnswer(invocation -> frCustomers.stream());
 
         syncService.runSync();
 
         ArgumentCaptor<String> countryCaptor = ArgumentCaptor.forClass(String.class);
-        ArgumentCaptor<String> contentCaptor = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<StagedContent> contentCaptor = ArgumentCaptor.forClass(StagedContent.class);
 
         verify(s3StorageService, times(2)).store(eq("kunde"), countryCaptor.capture(), any(), contentCaptor.capture());
 
         Map<String, String> csvByCountry = new HashMap<>();
         List<String> countries = countryCaptor.getAllValues();
-        List<String> contents = contentCaptor.getAllValues();
+        List<String> contents = contentCaptor.getAllValues().stream().map(StagedContent::asString).toList();
         for (int i = 0; i < countries.size(); i++) {
             csvByCountry.put(countries.get(i), contents.get(i));
         }
@@ -130,18 +238,16 @@ class SyncServiceTest {
 
     @Test
     void runSync_writesCustomerCsvWithExpectedColumnOrderAndNoHeader() {
-        when(syncStateRepository.findById("kunde")).thenReturn(Optional.empty());
-        when(syncStateRepository.findById("auftraege")).thenReturn(Optional.empty());
-        when(customerRepository.findAll()).thenReturn(List.of(customerDe));
-        when(orderRepository.findAll()).thenReturn(List.of());
+        when(customerRepository.findByCountry("DE")).thenAnswer(invocation -> Stream.of(customerDe));
+        when(customerRepository.findByCountry("FR")).thenAnswer(invocation -> Stream.of());
 
         syncService.runSync();
 
-        ArgumentCaptor<String> contentCaptor = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<StagedContent> contentCaptor = ArgumentCaptor.forClass(StagedContent.class);
         verify(s3StorageService).store(eq("kunde"), eq(customerDe.getCountry()), any(), contentCaptor.capture());
         verify(s3StorageService, never()).store(eq("auftraege"), any(), any(), any());
 
-        String csv = contentCaptor.getValue();
+        String csv = contentCaptor.getValue().asString();
         assertThat(csv.split("\n")).hasSize(1);
 
         String expected = String.join(",",
@@ -168,23 +274,21 @@ class SyncServiceTest {
         List<Order> deOrders = List.of(orderDe, anotherOrderDe);
         List<Order> frOrders = List.of(orderFr, anotherOrderFr);
 
-        when(syncStateRepository.findById("kunde")).thenReturn(Optional.empty());
-        when(syncStateRepository.findById("auftraege")).thenReturn(Optional.empty());
-        when(customerRepository.findAll()).thenReturn(List.of());
-        when(orderRepository.findAll()).thenReturn(List.of(orderDe, anotherOrderDe, orderFr, anotherOrderFr));
+        when(orderRepository.findByCustomerCountry("DE")).thenAnswer(invocation -> deOrders.stream());
+        when(orderRepository.findByCustomerCountry("FR")).thenAnswer(invocation -> frOrders.stream());
 
         syncService.runSync();
 
         verify(s3StorageService, never()).store(eq("kunde"), any(), any(), any());
 
         ArgumentCaptor<String> countryCaptor = ArgumentCaptor.forClass(String.class);
-        ArgumentCaptor<String> contentCaptor = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<StagedContent> contentCaptor = ArgumentCaptor.forClass(StagedContent.class);
 
         verify(s3StorageService, times(2)).store(eq("auftraege"), countryCaptor.capture(), any(), contentCaptor.capture());
 
         Map<String, String> csvByCountry = new HashMap<>();
         List<String> countries = countryCaptor.getAllValues();
-        List<String> contents = contentCaptor.getAllValues();
+        List<String> contents = contentCaptor.getAllValues().stream().map(StagedContent::asString).toList();
         for (int i = 0; i < countries.size(); i++) {
             csvByCountry.put(countries.get(i), contents.get(i));
         }
@@ -204,19 +308,17 @@ class SyncServiceTest {
 
     @Test
     void runSync_writesOrderCsvWithExpectedColumnOrderAndNoHeader() {
-        when(syncStateRepository.findById("kunde")).thenReturn(Optional.empty());
-        when(syncStateRepository.findById("auftraege")).thenReturn(Optional.empty());
-        when(customerRepository.findAll()).thenReturn(List.of());
-        when(orderRepository.findAll()).thenReturn(List.of(orderDe));
+        when(orderRepository.findByCustomerCountry("DE")).thenAnswer(invocation -> Stream.of(orderDe));
+        when(orderRepository.findByCustomerCountry("FR")).thenAnswer(invocation -> Stream.of());
 
         syncService.runSync();
 
         verify(s3StorageService, never()).store(eq("kunde"), any(), any(), any());
 
-        ArgumentCaptor<String> contentCaptor = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<StagedContent> contentCaptor = ArgumentCaptor.forClass(StagedContent.class);
         verify(s3StorageService).store(eq("auftraege"), eq(orderDe.getCustomer().getCountry()), any(), contentCaptor.capture());
 
-        String csv = contentCaptor.getValue();
+        String csv = contentCaptor.getValue().asString();
         assertThat(csv.split("\n")).hasSize(1);
 
         String expected = String.join(",",
@@ -231,10 +333,10 @@ class SyncServiceTest {
 
     @Test
     void runSync_recordsCompletionTimestamp() {
-        when(syncStateRepository.findById("kunde")).thenReturn(Optional.empty());
-        when(syncStateRepository.findById("auftraege")).thenReturn(Optional.empty());
-        when(customerRepository.findAll()).thenReturn(List.of(customerDe));
-        when(orderRepository.findAll()).thenReturn(List.of(orderDe));
+        when(customerRepository.findByCountry("DE")).thenAnswer(invocation -> Stream.of(customerDe));
+        when(customerRepository.findByCountry("FR")).thenAnswer(invocation -> Stream.of());
+        when(orderRepository.findByCustomerCountry("DE")).thenAnswer(invocation -> Stream.of(orderDe));
+        when(orderRepository.findByCustomerCountry("FR")).thenAnswer(invocation -> Stream.of());
 
         SyncRun run = syncService.runSync();
 
@@ -246,108 +348,170 @@ class SyncServiceTest {
     void runSync_forcesFullExportWhenBucketIsEmpty() {
         when(s3Service.isBucketEmpty()).thenReturn(true);
         OffsetDateTime lastSync = OffsetDateTime.now().minusDays(2);
-        when(syncStateRepository.findById("kunde")).thenReturn(Optional.of(new SyncState("kunde", lastSync)));
-        when(syncStateRepository.findById("auftraege")).thenReturn(Optional.of(new SyncState("auftraege", lastSync)));
-        when(customerRepository.findAll()).thenReturn(List.of(customerDe));
-        when(orderRepository.findAll()).thenReturn(List.of(orderDe));
+        when(syncStateRepository.findByTableName("kunde")).thenReturn(List.of(
+                new SyncState("kunde", "DE", lastSync), new SyncState("kunde", "FR", lastSync)));
+        when(syncStateRepository.findByTableName("auftraege")).thenReturn(List.of(
+                new SyncState("auftraege", "DE", lastSync), new SyncState("auftraege", "FR", lastSync)));
+        when(customerRepository.findByCountry("DE")).thenAnswer(invocation -> Stream.of(customerDe));
+        when(customerRepository.findByCountry("FR")).thenAnswer(invocation -> Stream.of());
+        when(orderRepository.findByCustomerCountry("DE")).thenAnswer(invocation -> Stream.of(orderDe));
+        when(orderRepository.findByCustomerCountry("FR")).thenAnswer(invocation -> Stream.of());
 
         syncService.runSync();
 
-        verify(customerRepository).findAll();
-        verify(customerRepository, never()).findByUpdatedAtAfter(any(OffsetDateTime.class));
-        verify(orderRepository).findAll();
-        verify(orderRepository, never()).findByLastChangeAfter(any(OffsetDateTime.class));
+        verify(customerRepository).findByCountry("DE");
+        verify(customerRepository).findByCountry("FR");
+        verify(customerRepository, never()).findByCountryAndUpdatedAtAfter(any(), any(OffsetDateTime.class));
+        verify(orderRepository).findByCustomerCountry("DE");
+        verify(orderRepository).findByCustomerCountry("FR");
+        verify(orderRepository, never()).findByCustomerCountryAndLastChangeAfter(any(), any(OffsetDateTime.class));
     }
 
     @Test
     @SuppressWarnings({"NullAway", "null"})
-    void runSync_updatesSyncStateWithLatestTimestampsPerTable() {
+    void runSync_updatesSyncStateWithLatestTimestampsPerPartition() {
         OffsetDateTime lastCustomerSync = OffsetDateTime.now().minusDays(5).withNano(0);
         OffsetDateTime lastOrderSync = OffsetDateTime.now().minusDays(6).withNano(0);
         OffsetDateTime latestCustomerUpdate = lastCustomerSync.plusHours(12);
         OffsetDateTime latestOrderChange = lastOrderSync.plusHours(8);
 
-        customerDe.setCountry("DE");
         customerDe.setUpdatedAt(latestCustomerUpdate.minusHours(2));
-        customerFr.setCountry("FR");
         customerFr.setUpdatedAt(latestCustomerUpdate);
-
-        orderDe.setCustomer(customerDe);
         orderDe.setLastChange(latestOrderChange.minusHours(1));
-        orderFr.setCustomer(customerFr);
         orderFr.setLastChange(latestOrderChange);
 
-        when(syncStateRepository.findById("kunde")).thenReturn(Optional.of(new SyncState("kunde", lastCustomerSync)));
-        when(syncStateRepository.findById("auftraege")).thenReturn(Optional.of(new SyncState("auftraege", lastOrderSync)));
-        when(customerRepository.findByUpdatedAtAfter(lastCustomerSync)).thenReturn(List.of(customerDe, customerFr));
-        when(orderRepository.findByLastChangeAfter(lastOrderSync)).thenReturn(List.of(orderDe, orderFr));
+        when(syncStateRepository.findByTableName("kunde")).thenReturn(List.of(
+                new SyncState("kunde", "DE", lastCustomerSync), new SyncState("kunde", "FR", lastCustomerSync)));
+        when(syncStateRepository.findByTableName("auftraege")).thenReturn(List.of(
+                new SyncState("auftraege", "DE", lastOrderSync), new SyncState("auftraege", "FR", lastOrderSync)));
+        when(customerRepository.findByCountryAndUpdatedAtAfter("DE", lastCustomerSync))
+                .thenAnswer(invocation -> Stream.of(customerDe));
+        when(customerRepository.findByCountryAndUpdatedAtAfter("FR", lastCustomerSync))
+                .thenAnswer(invocation -> Stream.of(customerFr));
+        when(orderRepository.findByCustomerCountryAndLastChangeAfter("DE", lastOrderSync))
+                .thenAnswer(invocation -> Stream.of(orderDe));
+        when(orderRepository.findByCustomerCountryAndLastChangeAfter("FR", lastOrderSync))
+                .thenAnswer(invocation -> Stream.of(orderFr));
 
         syncService.runSync();
 
         ArgumentCaptor<SyncState> stateCaptor = ArgumentCaptor.forClass(SyncState.class);
-        verify(syncStateRepository, times(2)).save(stateCaptor.capture());
+        verify(syncStateRepository, times(4)).save(stateCaptor.capture());
 
-        List<SyncState> savedStates = stateCaptor.getAllValues();
-        assertThat(savedStates).hasSize(2);
+        assertThat(stateCaptor.getAllValues())
+                .extracting(SyncState::getTableName, SyncState::getCountry, SyncState::getLastSuccessfulSync)
+                .containsExactlyInAnyOrder(
+                        tuple("kunde", "DE", customerDe.getUpdatedAt()),
+                        tuple("kunde", "FR", customerFr.getUpdatedAt()),
+                        tuple("auftraege", "DE", orderDe.getLastChange()),
+                        tuple("auftraege", "FR", orderFr.getLastChange())
+                );
+    }
 
-        SyncState customerState = savedStates.stream()
-                .filter(state -> "kunde".equals(state.getTableName()))
-                .findFirst()
-                .orElseThrow();
-        SyncState orderState = savedStates.stream()
-                .filter(state -> "auftraege".equals(state.getTableName()))
-                .findFirst()
-                .orElseThrow();
+    @Test
+    void runSync_filtersDataUsingPerCountryWatermarks() {
+        OffsetDateTime lastSync = OffsetDateTime.now().minusDays(3);
+
+        when(syncStateRepository.findByTableName("kunde")).thenReturn(List.of(new SyncState("kunde", "DE", lastSync)));
+        when(syncStateRepository.findByTableName("auftraege"))
+                .thenReturn(List.of(new SyncState("auftraege", "DE", lastSync)));
+        when(customerRepository.findByCountryAndUpdatedAtAfter("DE", lastSync))
+                .thenAnswer(invocation -> Stream.of(customerDe));
+        when(orderRepository.findByCustomerCountryAndLastChangeAfter("DE", lastSync))
+                .thenAnswer(invocation -> Stream.of(orderDe));
+
+        syncService.runSync();
 
-        assertThat(customerState.getLastSuccessfulSync()).isEqualTo(customerFr.getUpdatedAt());
-        assertThat(orderState.getLastSuccessfulSync()).isEqualTo(orderFr.getLastChange());
+        verify(customerRepository).findByCountryAndUpdatedAtAfter("DE", lastSync);
+        verify(customerRepository, never()).findByCountry("DE");
+        verify(customerRepository).findByCountry("FR");
+        verify(orderRepository).findByCustomerCountryAndLastChangeAfter("DE", lastSync);
+        verify(orderRepository, never()).findByCustomerCountry("DE");
+        verify(orderRepository).findByCustomerCountry("FR");
     }
 
     @Test
-    void runSync_filtersDataUsingLastSuccessfulSyncTimestamps() {
+    void runSync_endsChangeWindowsAtVisibilityHorizon() {
         OffsetDateTime lastSync = OffsetDateTime.now().minusDays(3);
+        OffsetDateTime horizon = OffsetDateTime.now().minusMinutes(5);
+        when(visibilityHorizon.current()).thenReturn(new VisibilityHorizon.Horizon(horizon, OffsetDateTime.now()));
+        when(syncStateRepository.findByTableName("kunde")).thenReturn(List.of(new SyncState("kunde", "DE", lastSync)));
+        when(customerRepository.findByCountryAndUpdatedAtAfterAndUpdatedAtLessThanEqual("DE", lastSync, horizon))
+                .thenAnswer(invocation -> Stream.of(customerDe));
+        when(customerRepository.findByCountryUpdatedUpToOrUnstamped("FR", horizon))
+                .thenAnswer(invocation -> Stream.of());
+        when(orderRepository.findByCustomerCountryAndLastChangeLessThanEqual(any(), eq(horizon)))
+                .thenAnswer(invocation -> Stream.of());
+
+        SyncRun run = syncService.runSync();
+
+        verify(customerRepository, never()).findByCountryAndUpdatedAtAfter(any(), any());
+        verify(customerRepository, never()).findByCountry(any());
+        assertThat(run.getItems())
+                .extracting(SyncRunItem::getCountry, SyncRunItem::getWindowStart, SyncRunItem::getWindowEnd)
+                .containsExactly(tuple("DE", lastSync, horizon));
+    }
 
-        when(syncStateRepository.findById("kunde")).thenReturn(Optional.of(new SyncState("kunde", lastSync)));
-        when(syncStateRepository.findById("auftraege")).thenReturn(Optional.of(new SyncState("auftraege", lastSync)));
-        when(customerRepository.findByUpdatedAtAfter(lastSync)).thenReturn(List.of(customerDe));
-        when(orderRepository.findByLastChangeAfter(lastSync)).thenReturn(List.of(orderDe));
+    @Test
+    void runSync_readsNewWindowOnPrimaryUntilReplicaReplayedPastHorizonMeasurement() throws Exception {
+        OffsetDateTime measuredAt = OffsetDateTime.now();
+        OffsetDateTime lastSync = measuredAt.minusHours(1);
+        when(visibilityHorizon.current())
+                .thenReturn(new VisibilityHorizon.Horizon(measuredAt.minusSeconds(1), measuredAt));
+        SyncProperties.Table orders = new SyncProperties.Table();
+        orders.setEnabled(false);
+        syncProperties.getTables().put("auftraege", orders);
+        when(syncStateRepository.findByTableName("kunde")).thenReturn(List.of(
+                new SyncState("kunde", "DE", lastSync), new SyncState("kunde", "FR", lastSync)));
+        // replayed well past the window start and within max-lag, but not up to the measurement
+        DataSource readOnly = replicaAwareDataSource(measuredAt, measuredAt.minusSeconds(10));
+        List<String> servedBy = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            try (Connection connection = readOnly.getConnection()) {
+                servedBy.add(connection.getCatalog());
+            }
+            return readInChunks(invocation);
+        }).when(partitionReader).read(anyInt(), any(), any());
 
         syncService.runSync();
 
-        verify(customerRepository).findByUpdatedAtAfter(lastSync);
-        verify(customerRepository, never()).findAll();
-        verify(orderRepository).findByLastChangeAfter(lastSync);
-        verify(orderRepository, never()).findAll();
+        assertThat(servedBy).containsExactly("primary", "primary");
     }
 
     @Test
     void runSync_exportsNewAndModifiedRecords() {
-        OffsetDateTime lastCustomerSync = OffsetDateTime.now().minusDays(7).withNano(0);
-        OffsetDateTime lastOrderSync = OffsetDateTime.now().minusDays(7).withNano(0);
-
-        Customer newCustomer = buildCustomer("3", "DE", lastCustomerSync.plusHours(1));
-        Customer modifiedCustomer = buildCustomer("4", "FR", lastCustomerSync.plusHours(3));
-        Order newOrder = buildOrder("B-1", newCustomer, lastOrderSync.plusHours(2));
-        Order modifiedOrder = buildOrder("B-2", modifiedCustomer, lastOrderSync.plusHours(4));
-
-        when(syncStateRepository.findById("kunde")).thenReturn(Optional.of(new SyncState("kunde", lastCustomerSync)));
-        when(syncStateRepository.findById("auftraege")).thenReturn(Optional.of(new SyncState("auftraege", lastOrderSync)));
-        when(customerRepository.findByUpdatedAtAfter(lastCustomerSync)).thenReturn(List.of(newCustomer, modifiedCustomer));
-        when(orderRepository.findByLastChangeAfter(lastOrderSync)).thenReturn(List.of(newOrder, modifiedOrder));
+        OffsetDateTime lastSync = OffsetDateTime.now().minusDays(7).withNano(0);
+
+        Customer newCustomer = buildCustomer("3", "DE", lastSync.plusHours(1));
+        Customer modifiedCustomer = buildCustomer("4", "FR", lastSync.plusHours(3));
+        Order newOrder = buildOrder("B-1", newCustomer, lastSync.plusHours(2));
+        Order modifiedOrder = buildOrder("B-2", modifiedCustomer, lastSync.plusHours(4));
+
+        when(syncStateRepository.findByTableName("kunde")).thenReturn(List.of(
+                new SyncState("kunde", "DE", lastSync), new SyncState("kunde", "FR", lastSync)));
+        when(syncStateRepository.findByTableName("auftraege")).thenReturn(List.of(
+                new SyncState("auftraege", "DE", lastSync), new SyncState("auftraege", "FR", lastSync)));
+        when(customerRepository.findByCountryAndUpdatedAtAfter("DE", lastSync))
+                .thenAnswer(invocation -> Stream.of(newCustomer));
+        when(customerRepository.findByCountryAndUpdatedAtAfter("FR", lastSync))
+                .thenAnswer(invocation -> Stream.of(modifiedCustomer));
+        when(orderRepository.findByCustomerCountryAndLastChangeAfter("DE", lastSync))
+                .thenAnswer(invocation -> Stream.of(newOrder));
+        when(orderRepository.findByCustomerCountryAndLastChangeAfter("FR", lastSync))
+                .thenAnswer(invocation -> Stream.of(modifiedOrder));
 
         SyncRun run = syncService.runSync();
 
         ArgumentCaptor<String> tableCaptor = ArgumentCaptor.forClass(String.class);
         ArgumentCaptor<String> countryCaptor = ArgumentCaptor.forClass(String.class);
-        ArgumentCaptor<OffsetDateTime> timestampCaptor = ArgumentCaptor.forClass(OffsetDateTime.class);
-        ArgumentCaptor<String> contentCaptor = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<StagedContent> contentCaptor = ArgumentCaptor.forClass(StagedContent.class);
 
         verify(s3StorageService, times(4))
-                .store(tableCaptor.capture(), countryCaptor.capture(), timestampCaptor.capture(), contentCaptor.capture());
+                .store(tableCaptor.capture(), countryCaptor.capture(), any(), contentCaptor.capture());
 
         assertThat(tableCaptor.getAllValues()).containsExactlyInAnyOrder("kunde", "kunde", "auftraege", "auftraege");
         assertThat(countryCaptor.getAllValues()).containsExactlyInAnyOrder("DE", "FR", "DE", "FR");
-        assertThat(contentCaptor.getAllValues())
+        assertThat(contentCaptor.getAllValues()).extracting(StagedContent::asString)
                 .anySatisfy(content -> assertThat(content).contains(newCustomer.getId()))
                 .anySatisfy(content -> assertThat(content).contains(modifiedCustomer.getId()))
                 .anySatisfy(content -> assertThat(content).contains(newOrder.getId()))
@@ -365,17 +529,583 @@ class SyncServiceTest {
 
     @Test
     void runSync_skipsExportWhenNoChangesDetected() {
-        OffsetDateTime lastSync = OffsetDateTime.now().minusHours(12);
-
-        when(syncStateRepository.findById("kunde")).thenReturn(Optional.of(new SyncState("kunde", lastSync)));
-        when(syncStateRepository.findById("auftraege")).thenReturn(Optional.of(new SyncState("auftraege", lastSync)));
-        when(customerRepository.findByUpdatedAtAfter(lastSync)).thenReturn(List.of());
-        when(orderRepository.findByLastChangeAfter(lastSync)).thenReturn(List.of());
-
         SyncRun run = syncService.runSync();
 
         verify(s3StorageService, never()).store(any(), any(), any(), any());
+        verify(syncManifestWriter, never()).publish(any());
+        verify(syncStateRepository, never()).save(any());
         assertThat(run.getItems()).isEmpty();
+        assertThat(run.getStatus()).isEqualTo(SyncStatus.SUCCESS);
+    }
+
+    @Test
+    void runSync_keepsHealthyPartitionsFlowingWhenOneCountryFails() {
+        when(customerRepository.findByCountry("DE")).thenAnswer(invocation -> Stream.of(customerDe));
+        when(customerRepository.findByCountry("FR")).thenAnswer(invocation -> Stream.of(customerFr));
+        when(orderRepository.findByCustomerCountry("DE")).thenAnswer(invocation -> Stream.of());
+        when(orderRepository.findByCustomerCountry("FR")).thenAnswer(invocation -> Stream.of(orderFr));
+        when(s3StorageService.store(any(), any(), any(), any())).thenAnswer(invocation -> {
+            if ("kunde".equals(invocation.getArgument(0)) && "FR".equals(invocation.getArgument(1))) {
+                throw new RuntimeException("upload failed");
+            }
+            return new StoredObject("key", 3, "checksum", "crc");
+        });
+
+        assertThatThrownBy(() -> syncService.runSync())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("kunde/FR");
+
+        verify(syncManifestWriter, never()).publish(any());
+        ArgumentCaptor<SyncRun> runCaptor = ArgumentCaptor.forClass(SyncRun.class);
+        verify(syncRunRepository).save(any(SyncRun.class));
+        verify(syncRunRepository).updateState(runCaptor.capture());
+        SyncRun run = runCaptor.getValue();
+
+        assertThat(run.getStatus()).isEqualTo(SyncStatus.FAILED);
+        assertThat(run.getItems())
+                .extracting(SyncRunItem::getTableName, SyncRunItem::getCountry, SyncRunItem::getStatus)
+                .containsExactlyInAnyOrder(
+                        tuple("kunde", "DE", SyncPartitionStatus.COMMITTED),
+                        tuple("kunde", "FR", SyncPartitionStatus.FAILED),
+                        tuple("auftraege", "FR", SyncPartitionStatus.COMMITTED)
+                );
+
+        ArgumentCaptor<SyncState> stateCaptor = ArgumentCaptor.forClass(SyncState.class);
+        verify(syncStateRepository, times(2)).save(stateCaptor.capture());
+        assertThat(stateCaptor.getAllValues())
+                .extracting(SyncState::getTableName, SyncState::getCountry)
+                .containsExactlyInAnyOrder(tuple("kunde", "DE"), tuple("auftraege", "FR"));
+    }
+
+    @Test
+    void runSync_continuesWithNextCountryWhenReadingPartitionFails() {
+        when(customerRepository.findByCountry("DE")).thenThrow(new IllegalStateException("connection reset"));
+        when(customerRepository.findByCountry("FR")).thenAnswer(invocation -> Stream.of(customerFr));
+        when(orderRepository.findByCustomerCountry("DE")).thenAnswer(invocation -> Stream.of(orderDe));
+        when(orderRepository.findByCustomerCountry("FR")).thenAnswer(invocation -> Stream.of(orderFr));
+
+        assertThatThrownBy(() -> syncService.runSync())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("kunde/DE");
+
+        verify(s3StorageService).store(eq("kunde"), eq("FR"), any(), any());
+        verify(s3StorageService, never()).store(eq("kunde"), eq("DE"), any(), any());
+        ArgumentCaptor<SyncRun> runCaptor = ArgumentCaptor.forClass(SyncRun.class);
+        verify(syncRunRepository).updateState(runCaptor.capture());
+        SyncRun run = runCaptor.getValue();
+
+        assertThat(run.getStatus()).isEqualTo(SyncStatus.FAILED);
+        assertThat(run.getItems())
+                .extracting(SyncRunItem::getTableName, SyncRunItem::getCountry, SyncRunItem::getStatus)
+                .containsExactlyInAnyOrder(
+                        tuple("kunde", "DE", SyncPartitionStatus.FAILED),
+                        tuple("kunde", "FR", SyncPartitionStatus.COMMITTED),
+                        tuple("auftraege", "DE", SyncPartitionStatus.COMMITTED),
+                        tuple("auftraege", "FR", SyncPartitionStatus.COMMITTED)
+                );
+        SyncRunItem failed = run.getItems().stream()
+                .filter(item -> "DE".equals(item.getCountry()) && "kunde".equals(item.getTableName()))
+                .findFirst()
+                .orElseThrow();
+        assertThat(failed.getWindowStart()).isNull();
+        assertThat(failed.getWindowEnd()).isEqualTo(run.getStartedAt());
+
+        ArgumentCaptor<SyncState> stateCaptor = ArgumentCaptor.forClass(SyncState.class);
+        verify(syncStateRepository, times(3)).save(stateCaptor.capture());
+        assertThat(stateCaptor.getAllValues())
+                .extracting(SyncState::getTableName, SyncState::getCountry)
+                .doesNotContain(tuple("kunde", "DE"));
+    }
+
+    @Test
+    void runSync_resumesOnlyUncommittedPartitionsOfFailedRun() {
+        OffsetDateTime windowStart = OffsetDateTime.now().minusDays(2);
+        OffsetDateTime windowEnd = OffsetDateTime.now().minusHours(1);
+
+        SyncRun failedRun = new SyncRun();
+        failedRun.setStartedAt(OffsetDateTime.parse("2025-03-01T06:00:00Z"));
+        failedRun.setStatus(SyncStatus.FAILED);
+        SyncRunItem committed = SyncRunItem.pending("kunde", "DE", windowStart, windowEnd);
+        committed.markCommitted("kunde/2025-03-01/DE/customers_DE_2025-03-01.csv", 1);
+        SyncRunItem failed = SyncRunItem.pending("kunde", "FR", windowStart, windowEnd);
+        failed.markFailed();
+        failedRun.addItem(committed);
+        failedRun.addItem(failed);
+
+        when(syncRunRepository.findFirstByOrderByStartedAtDesc()).thenReturn(Optional.of(failedRun));
+        when(customerRepository.findByCountryAndUpdatedAtAfterAndUpdatedAtLessThanEqual("FR", windowStart, windowEnd))
+                .thenAnswer(invocation -> Stream.of(customerFr));
+
+        SyncRun run = syncService.runSync();
+
+        assertThat(run).isSameAs(failedRun);
+        assertThat(run.getStatus()).isEqualTo(SyncStatus.SUCCESS);
+        assertThat(run.getAttempts()).isEqualTo(2);
+        assertThat(run.getItems()).extracting(SyncRunItem::getStatus)
+                .containsOnly(SyncPartitionStatus.COMMITTED);
+
+        verify(s3StorageService).store(eq("kunde"), eq("FR"),
+                startsWith("kunde/2025-03-01/FR/customers_FR_2025-03-01_run-"), any());
+        verify(s3StorageService, never()).store(eq("kunde"), eq("DE"), any(), any());
+        verify(customerRepository, never()).findByCountry(any());
+        verify(syncRunRepository, never()).save(any(SyncRun.class));
+
+        ArgumentCaptor<SyncState> stateCaptor = ArgumentCaptor.forClass(SyncState.class);
+        verify(syncStateRepository).save(stateCaptor.capture());
+        assertThat(stateCaptor.getValue().getCountry()).isEqualTo("FR");
+        assertThat(stateCaptor.getValue().getLastSuccessfulSync()).isEqualTo(windowEnd);
+    }
+
+    @Test
+    void runSync_startsNewRunWhenLatestRunSucceeded() {
+        SyncRun previous = new SyncRun();
+        previous.setStartedAt(OffsetDateTime.now().minusHours(3));
+        previous.setStatus(SyncStatus.SUCCESS);
+
+        when(syncRunRepository.findFirstByOrderByStartedAtDesc()).thenReturn(Optional.of(previous));
+
+        SyncRun run = syncService.runSync();
+
+        assertThat(run).isNotSameAs(previous);
+        assertThat(run.getAttempts()).isEqualTo(1);
+        assertThat(previous.getStatus()).isEqualTo(SyncStatus.SUCCESS);
+    }
+
+    @Test
+    void runSync_refusesToStartOrResumeWhileAnotherRunHoldsTheLock() {
+        when(syncRunLock.tryLock()).thenReturn(false, true);
+
+        assertThatThrownBy(() -> syncService.runSync()).isInstanceOf(SyncAlreadyRunningException.class);
+        verifyNoInteractions(syncRunRepository, s3Service, s3StorageService);
+        verify(syncRunLock, never()).unlock();
+
+        syncService.runSync();
+        verify(syncRunLock).unlock();
+    }
+
+    @Test
+    void runSync_releasesLockAfterFailedRun() {
+        when(customerRepository.findByCountry("DE")).thenThrow(new IllegalStateException("connection reset"));
+
+        assertThatThrownBy(() -> syncService.runSync()).hasMessageContaining("kunde/DE");
+
+        verify(syncRunLock).unlock();
+    }
+
+    @Test
+    void runSync_givesUpRunAfterMaxAttemptsSoHealthyCountriesExportNewChanges() {
+        syncProperties.setMaxAttempts(2);
+        SyncProperties.Table orders = new SyncProperties.Table();
+        orders.setEnabled(false);
+        syncProperties.getTables().put("auftraege", orders);
+        AtomicReference<SyncRun> latestRun = new AtomicReference<>();
+        when(syncRunRepository.save(any(SyncRun.class))).thenAnswer(invocation -> {
+            latestRun.set(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(syncRunRepository.findFirstByOrderByStartedAtDesc())
+                .thenAnswer(invocation -> Optional.ofNullable(latestRun.get()));
+        Map<String, SyncState> watermarks = new ConcurrentHashMap<>();
+        when(syncStateRepository.save(any(SyncState.class))).thenAnswer(invocation -> {
+            SyncState state = invocation.getArgument(0);
+            watermarks.put(state.getCountry(), state);
+            return state;
+        });
+        when(syncStateRepository.findByTableName("kunde"))
+                .thenAnswer(invocation -> List.copyOf(watermarks.values()));
+        when(customerRepository.findByCountry("DE")).thenThrow(new IllegalStateException("corrupt row"));
+        when(customerRepository.findByCountryUpdatedUpToOrUnstamped(eq("DE"), any()))
+                .thenThrow(new IllegalStateException("corrupt row"));
+        when(customerRepository.findByCountry("FR")).thenAnswer(invocation -> Stream.of(customerFr));
+        Customer changedFr = buildCustomer("5", "FR", customerFr.getUpdatedAt().plusHours(1));
+        when(customerRepository.findByCountryAndUpdatedAtAfter("FR", customerFr.getUpdatedAt()))
+                .thenAnswer(invocation -> Stream.of(changedFr));
+
+        assertThatThrownBy(() -> syncService.runSync()).hasMessageContaining("kunde/DE");
+        SyncRun first = latestRun.get();
+        assertThatThrownBy(() -> syncService.runSync()).hasMessageContaining("kunde/DE");
+        assertThat(latestRun.get()).isSameAs(first);
+        assertThat(first.getAttempts()).isEqualTo(2);
+        assertThatThrownBy(() -> syncService.runSync()).hasMessageContaining("kunde/DE");
+
+        assertThat(latestRun.get()).isNotSameAs(first);
+        assertThat(first.getStatus()).isEqualTo(SyncStatus.FAILED);
+        verify(s3StorageService, times(2)).store(eq("kunde"), eq("FR"), any(), any());
+        assertThat(watermarks.get("FR").getLastSuccessfulSync()).isEqualTo(changedFr.getUpdatedAt());
+        assertThat(watermarks).doesNotContainKey("DE");
+    }
+
+    @Test
+    void runSync_exportsCustomerAndOrderPipelinesConcurrently() {
+        CountDownLatch bothTablesUploading = new CountDownLatch(2);
+        when(customerRepository.findByCountry("DE")).thenAnswer(invocation -> Stream.of(customerDe));
+        when(customerRepository.findByCountry("FR")).thenAnswer(invocation -> Stream.of());
+        when(orderRepository.findByCustomerCountry("DE")).thenAnswer(invocation -> Stream.of(orderDe));
+        when(orderRepository.findByCustomerCountry("FR")).thenAnswer(invocation -> Stream.of());
+        when(s3StorageService.store(any(), any(), any(), any())).thenAnswer(invocation -> {
+            bothTablesUploading.countDown();
+            // Only returns once the other table pipeline is uploading at the same time.
+            if (!bothTablesUploading.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("table pipelines did not overlap");
+            }
+            return new StoredObject("key", 3, "checksum", "crc");
+        });
+
+        SyncRun run = syncService.runSync();
+
+        assertThat(run.getStatus()).isEqualTo(SyncStatus.SUCCESS);
+        assertThat(run.getItems()).extracting(SyncRunItem::getStatus)
+                .containsOnly(SyncPartitionStatus.COMMITTED);
+    }
+
+    @Test
+    void runSync_readsNextPartitionWhileEarlierPartitionUploads() {
+        syncProperties.setUploadConcurrency(1);
+        syncProperties.getPipeline().setReadAhead(1);
+        CountDownLatch frenchPartitionRead = new CountDownLatch(1);
+        when(customerRepository.findByCountry("DE")).thenAnswer(invocation -> Stream.of(customerDe));
+        when(customerRepository.findByCountry("FR")).thenAnswer(invocation -> {
+            frenchPartitionRead.countDown();
+            return Stream.of(customerFr);
+        });
+        when(orderRepository.findByCustomerCountry(any())).thenAnswer(invocation -> Stream.of());
+        when(s3StorageService.store(eq("kunde"), any(), any(), any())).thenAnswer(invocation -> {
+            // The only upload slot is busy, so the reader must run ahead on its own.
+            if ("DE".equals(invocation.getArgument(1)) && !frenchPartitionRead.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("reader waited for the upload");
+            }
+            return new StoredObject("key", 3, "checksum", "crc");
+        });
+
+        SyncRun run = syncService.runSync();
+
+        assertThat(run.getStatus()).isEqualTo(SyncStatus.SUCCESS);
+        assertThat(run.getItems()).extracting(SyncRunItem::getStatus)
+                .containsOnly(SyncPartitionStatus.COMMITTED);
+    }
+
+    @Test
+    void runSync_uploadsOnVirtualThreadsWhenEnabled() {
+        syncProperties.setVirtualThreads(true);
+        List<String> uploadThreads = new CopyOnWriteArrayList<>();
+        when(customerRepository.findByCountry("DE")).thenAnswer(invocation -> Stream.of(customerDe));
+        when(customerRepository.findByCountry("FR")).thenAnswer(invocation -> Stream.of(customerFr));
+        when(orderRepository.findByCustomerCountry("DE")).thenAnswer(invocation -> Stream.of());
+        when(orderRepository.findByCustomerCountry("FR")).thenAnswer(invocation -> Stream.of());
+        when(s3StorageService.store(any(), any(), any(), any())).thenAnswer(invocation -> {
+            Thread current = Thread.currentThread();
+            uploadThreads.add((current.isVirtual() ? "virtual:" : "platform:") + current.getName());
+            return new StoredObject("key", 3, "checksum", "crc");
+        });
+
+        SyncRun run = syncService.runSync();
+
+        assertThat(run.getStatus()).isEqualTo(SyncStatus.SUCCESS);
+        assertThat(uploadThreads).hasSize(2).allMatch(name -> name.startsWith("virtual:sync-kunde-"));
+    }
+
+    @Test
+    void runSync_stopsSchedulingPartitionsWithFailFastPolicy() {
+        syncProperties.setFailurePolicy(SyncFailurePolicy.FAIL_FAST);
+        syncProperties.setUploadConcurrency(1);
+        syncProperties.getPipeline().setReadAhead(0);
+        when(customerRepository.findByCountry("DE")).thenAnswer(invocation -> Stream.of(customerDe));
+        when(s3StorageService.store(any(), any(), any(), any())).thenAnswer(invocation -> {
+            if ("kunde".equals(invocation.getArgument(0))) {
+                throw new RuntimeException("upload failed");
+            }
+            return new StoredObject("key", 3, "checksum", "crc");
+        });
+
+        assertThatThrownBy(() -> syncService.runSync())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("kunde/DE");
+
+        verify(customerRepository, never()).findByCountry("FR");
+        verify(s3StorageService, never()).store(eq("kunde"), eq("FR"), any(), any());
+    }
+
+    @Test
+    void runSync_appliesTableFetchSizeAndKeyTemplate() {
+        SyncProperties.Table customers = new SyncProperties.Table();
+        customers.setFetchSize(250);
+        customers.setKeyTemplate("exports/{table}/{partition}/{run}.csv");
+        syncProperties.getTables().put("kunde", customers);
+        when(customerRepository.findByCountry("DE")).thenAnswer(invocation -> Stream.of(customerDe));
+
+        syncService.runSync();
+
+        verify(partitionReader, times(2)).read(eq(250), any(), any());
+        verify(partitionReader, times(2)).read(eq(1_000), any(), any());
+        verify(s3StorageService).store(eq("kunde"), eq("DE"), startsWith("exports/kunde/DE/run-"), any());
+    }
+
+    @Test
+    void runSync_skipsDisabledTables() {
+        SyncProperties.Table orders = new SyncProperties.Table();
+        orders.setEnabled(false);
+        syncProperties.getTables().put("auftraege", orders);
+        when(customerRepository.findByCountry("DE")).thenAnswer(invocation -> Stream.of(customerDe));
+
+        SyncRun run = syncService.runSync();
+
+        assertThat(run.getStatus()).isEqualTo(SyncStatus.SUCCESS);
+        verify(s3StorageService).store(eq("kunde"), eq("DE"), any(), any());
+        verify(s3StorageService, never()).store(eq("auftraege"), any(), any(), any());
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void runSync_rollsLargePartitionsOverIntoPartObjects() {
+        SyncProperties.Table customers = new SyncProperties.Table();
+        customers.setMaxRowsPerFile(2);
+        syncProperties.getTables().put("kunde", customers);
+        Customer second = buildCustomer("3", "DE", OffsetDateTime.now().minusHours(3));
+        Customer third = buildCustomer("4", "DE", OffsetDateTime.now().minusHours(2));
+        when(customerRepository.findByCountry("DE")).thenAnswer(invocation -> Stream.of(customerDe, second, third));
+        List<String> keys = new CopyOnWriteArrayList<>();
+        List<Long> rows = new CopyOnWriteArrayList<>();
+        when(s3StorageService.store(eq("kunde"), eq("DE"), any(), any())).thenAnswer(invocation -> {
+            keys.add(invocation.getArgument(2));
+            rows.add(invocation.<StagedContent>getArgument(3).recordCount());
+            return new StoredObject(invocation.getArgument(2), 3, "checksum", "crc");
+        });
+
+        SyncRun run = syncService.runSync();
+
+        assertThat(keys).hasSize(2)
+                .anyMatch(key -> key.startsWith("kunde/") && key.endsWith("_part-00001.csv"))
+                .anyMatch(key -> key.startsWith("kunde/") && key.endsWith("_part-00002.csv"));
+        assertThat(rows).containsExactlyInAnyOrder(2L, 1L);
+        assertThat(run.getItems()).filteredOn(item -> item.getTableName().equals("kunde"))
+                .extracting(SyncRunItem::getCountry, SyncRunItem::getPartNumber, SyncRunItem::getStatus)
+                .containsExactlyInAnyOrder(
+                        tuple("DE", 1, SyncPartitionStatus.COMMITTED),
+                        tuple("DE", 2, SyncPartitionStatus.COMMITTED));
+        ArgumentCaptor<SyncState> stateCaptor = ArgumentCaptor.forClass(SyncState.class);
+        verify(syncStateRepository).save(stateCaptor.capture());
+        assertThat(stateCaptor.getValue().getCountry()).isEqualTo("DE");
+    }
+
+    @Test
+    void runSync_stagesPartitionReadInFetchSizeChunksAsOneObject() {
+        SyncProperties.Table customers = new SyncProperties.Table();
+        customers.setFetchSize(2);
+        syncProperties.getTables().put("kunde", customers);
+        Customer second = buildCustomer("3", "DE", OffsetDateTime.now().minusHours(3));
+        Customer third = buildCustomer("4", "DE", OffsetDateTime.now().minusHours(2));
+        when(customerRepository.findByCountry("DE")).thenAnswer(invocation -> Stream.of(customerDe, second, third));
+        List<Long> rows = new CopyOnWriteArrayList<>();
+        when(s3StorageService.store(eq("kunde"), eq("DE"), any(), any())).thenAnswer(invocation -> {
+            rows.add(invocation.<StagedContent>getArgument(3).recordCount());
+            return new StoredObject(invocation.getArgument(2), 3, "checksum", "crc");
+        });
+
+        SyncRun run = syncService.runSync();
+
+        assertThat(run.getStatus()).isEqualTo(SyncStatus.SUCCESS);
+        assertThat(rows).containsExactly(3L);
+        ArgumentCaptor<SyncState> stateCaptor = ArgumentCaptor.forClass(SyncState.class);
+        verify(syncStateRepository).save(stateCaptor.capture());
+        assertThat(stateCaptor.getValue().getLastSuccessfulSync()).isEqualTo(third.getUpdatedAt());
+    }
+
+    @Test
+    void runSync_failsPartitionWhoseReadBreaksOffAfterRowsWereHandedOn() {
+        SyncProperties.Table customers = new SyncProperties.Table();
+        customers.setFetchSize(1);
+        syncProperties.getTables().put("kunde", customers);
+        when(customerRepository.findByCountry("DE")).thenAnswer(invocation -> Stream.concat(Stream.of(customerDe),
+                Stream.<Customer>generate(() -> {
+                    throw new IllegalStateException("connection reset");
+                }).limit(1)));
+        when(customerRepository.findByCountry("FR")).thenAnswer(invocation -> Stream.of(customerFr));
+
+        assertThatThrownBy(() -> syncService.runSync())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("kunde/DE");
+
+        verify(s3StorageService, never()).store(eq("kunde"), eq("DE"), any(), any());
+        verify(s3StorageService).store(eq("kunde"), eq("FR"), any(), any());
+        ArgumentCaptor<SyncRun> runCaptor = ArgumentCaptor.forClass(SyncRun.class);
+        verify(syncRunRepository).updateState(runCaptor.capture());
+        assertThat(runCaptor.getValue().getItems()).filteredOn(item -> item.getTableName().equals("kunde"))
+                .extracting(SyncRunItem::getCountry, SyncRunItem::getStatus)
+                .containsExactlyInAnyOrder(
+                        tuple("DE", SyncPartitionStatus.FAILED),
+                        tuple("FR", SyncPartitionStatus.COMMITTED));
+        ArgumentCaptor<SyncState> stateCaptor = ArgumentCaptor.forClass(SyncState.class);
+        verify(syncStateRepository).save(stateCaptor.capture());
+        assertThat(stateCaptor.getValue().getCountry()).isEqualTo("FR");
+    }
+
+    @Test
+    void runSync_deletesObjectsOfSurplusPartsWhenResumedPartitionShrinks() {
+        SyncProperties.Table customers = new SyncProperties.Table();
+        customers.setMaxRowsPerFile(2);
+        syncProperties.getTables().put("kunde", customers);
+        OffsetDateTime windowStart = OffsetDateTime.now().minusDays(2);
+        OffsetDateTime windowEnd = OffsetDateTime.now().minusHours(1);
+        SyncRun failedRun = new SyncRun();
+        failedRun.setStartedAt(OffsetDateTime.parse("2025-03-01T06:00:00Z"));
+        failedRun.setStatus(SyncStatus.FAILED);
+        ObjectKeyTemplate template = new CustomerExporter(customerRepository).keyTemplate();
+        SyncRunItem first = SyncRunItem.pending("kunde", "DE", windowStart, windowEnd);
+        first.restage(1);
+        first.markCommitted(template.renderPart("kunde", "DE", null, failedRun.getStartedAt(), 1), 2);
+        SyncRunItem second = SyncRunItem.pendingPart(first, 2);
+        second.markCommitted(template.renderPart("kunde", "DE", null, failedRun.getStartedAt(), 2), 2);
+        SyncRunItem third = SyncRunItem.pendingPart(first, 3);
+        third.markFailed();
+        failedRun.addItem(first);
+        failedRun.addItem(second);
+        failedRun.addItem(third);
+        when(syncRunRepository.findFirstByOrderByStartedAtDesc()).thenReturn(Optional.of(failedRun));
+        Customer another = buildCustomer("3", "DE", windowEnd.minusHours(1));
+        when(customerRepository.findByCountryAndUpdatedAtAfterAndUpdatedAtLessThanEqual("DE", windowStart, windowEnd))
+                .thenAnswer(invocation -> Stream.of(customerDe, another));
+        when(s3StorageService.store(eq("kunde"), eq("DE"), any(), any())).thenAnswer(invocation ->
+                new StoredObject(invocation.getArgument(2), 3, "checksum", "crc"));
+
+        SyncRun run = syncService.runSync();
+
+        assertThat(run.getStatus()).isEqualTo(SyncStatus.SUCCESS);
+        verify(s3StorageService).store(eq("kunde"), eq("DE"), eq(first.getS3Key()), any());
+        verify(s3StorageService).deleteObjects(List.of(second.getS3Key()));
+        verify(syncRunItemRepository).deleteAll(List.of(second, third));
+        assertThat(run.getItems()).containsExactly(first);
+        assertThat(first.getStatus()).isEqualTo(SyncPartitionStatus.COMMITTED);
+    }
+
+    @Test
+    void runSync_splitsSkewedPartitionsIntoHashSubPartitionsWithStablePartNumbers() {
+        SyncProperties.Table customers = new SyncProperties.Table();
+        customers.setSkewThreshold(2);
+        customers.setSubPartitions(2);
+        syncProperties.getTables().put("kunde", customers);
+        Customer second = buildCustomer("3", "DE", OffsetDateTime.now().minusHours(3));
+        Customer third = buildCustomer("4", "DE", OffsetDateTime.now().minusHours(2));
+        when(customerRepository.countByCountry("DE")).thenReturn(3L);
+        when(customerRepository.findByCountry("DE")).thenAnswer(invocation -> Stream.of(customerDe, second, third));
+        Map<String, List<String>> idsByKeySuffix = new ConcurrentHashMap<>();
+        when(s3StorageService.store(eq("kunde"), eq("DE"), any(), any())).thenAnswer(invocation -> {
+            String key = invocation.getArgument(2);
+            idsByKeySuffix.put(key.substring(key.lastIndexOf('_')), invocation.<StagedContent>getArgument(3)
+                    .asString().lines()
+                    .map(line -> line.substring(line.lastIndexOf(',') + 1))
+                    .toList());
+            return new StoredObject(key, 3, "checksum", "crc");
+        });
+
+        SyncRun run = syncService.runSync();
+
+        assertThat(run.getStatus()).isEqualTo(SyncStatus.SUCCESS);
+        // sub-partition 0 holds id 4 and numbers its parts from 1, sub-partition 1 holds ids 1 and 3 from 1001
+        assertThat(idsByKeySuffix).containsOnly(
+                entry("_part-00001.csv", List.of("4")),
+                entry("_part-01001.csv", List.of("1", "3")));
+        assertThat(run.getItems()).filteredOn(item -> item.getTableName().equals("kunde"))
+                .extracting(SyncRunItem::getPartNumber, SyncRunItem::getStatus)
+                .containsExactlyInAnyOrder(
+                        tuple(1, SyncPartitionStatus.COMMITTED),
+                        tuple(1001, SyncPartitionStatus.COMMITTED));
+        verify(syncStateRepository).save(any(SyncState.class));
+    }
+
+    @Test
+    void runSync_exportsTableAgainOnlyAfterItsScheduleInterval() {
+        SyncProperties.Table orders = new SyncProperties.Table();
+        orders.setScheduleInterval(Duration.ofHours(1));
+        syncProperties.getTables().put("auftraege", orders);
+        when(orderRepository.findByCustomerCountry("DE")).thenAnswer(invocation -> Stream.of(orderDe));
+
+        syncService.runSync();
+        syncService.runSync();
+
+        verify(customerRepository, times(2)).findByCountry("DE");
+        verify(orderRepository, times(1)).findByCustomerCountry("DE");
+        verify(s3StorageService, times(1)).store(eq("auftraege"), eq("DE"), any(), any());
+    }
+
+    @Test
+    void runSync_publishesRunAndPartitionProgress() {
+        when(customerRepository.findByCountry("DE")).thenAnswer(invocation -> Stream.of(customerDe));
+        when(orderRepository.findByCustomerCountry("FR")).thenAnswer(invocation -> Stream.of(orderFr));
+
+        syncService.runSync();
+
+        ArgumentCaptor<SyncProgressEvent> eventCaptor = ArgumentCaptor.forClass(SyncProgressEvent.class);
+        verify(progressPublisher, atLeastOnce()).publish(eventCaptor.capture());
+        List<SyncProgressEvent> events = eventCaptor.getAllValues();
+        assertThat(events.get(0).type()).isEqualTo(SyncProgressEvent.Type.RUN_STARTED);
+        assertThat(events).filteredOn(event -> event.type() == SyncProgressEvent.Type.PARTITION_FINISHED)
+                .extracting(SyncProgressEvent::tableName, SyncProgressEvent::country, SyncProgressEvent::rows)
+                .containsExactlyInAnyOrder(tuple("kunde", "DE", 1L), tuple("auftraege", "FR", 1L));
+        SyncProgressEvent finished = events.get(events.size() - 1);
+        assertThat(finished.type()).isEqualTo(SyncProgressEvent.Type.RUN_FINISHED);
+        assertThat(finished.message()).isEqualTo("SUCCESS");
+        assertThat(finished.completedPartitions()).isEqualTo(4);
+        assertThat(finished.plannedPartitions()).isEqualTo(4);
+        assertThat(finished.totalRows()).isEqualTo(2);
+        assertThat(finished.etaSeconds()).isZero();
+    }
+
+    private SyncService newSyncService() {
+        List<TableExporter<?>> exporters = List.of(new CustomerExporter(customerRepository),
+                new OrderExporter(orderRepository, customerRepository));
+        return new SyncService(exporters, partitionReader, visibilityHorizon, syncRunLock, syncStateRepository,
+                syncRunRepository, syncRunItemRepository, s3StorageService, s3Service, syncManifestWriter,
+                partitionStagingArea, progressPublisher, syncProperties, meterRegistry);
+    }
+
+    /**
+     * Answers {@link PartitionReader#read} like the real reader: streams the query and passes its
+     * rows on in chunks of the fetch size.
+     */
+    private static Void readInChunks(InvocationOnMock invocation) {
+        int fetchSize = invocation.getArgument(0);
+        Consumer<List<Object>> chunks = invocation.getArgument(2);
+        try (Stream<Object> rows = invocation.<Supplier<Stream<Object>>>getArgument(1).get()) {
+            List<Object> chunk = new ArrayList<>();
+            for (Iterator<Object> iterator = rows.iterator(); iterator.hasNext(); ) {
+                chunk.add(iterator.next());
+                if (chunk.size() == fetchSize) {
+                    chunks.accept(chunk);
+                    chunk = new ArrayList<>();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                chunks.accept(chunk);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A read-only data source whose replica, checked at {@code checkedAt}, reports it has replayed
+     * the primary up to {@code replayedUpTo}; connections name their pool as catalog.
+     */
+    private DataSource replicaAwareDataSource(OffsetDateTime checkedAt, OffsetDateTime replayedUpTo)
+            throws SQLException {
+        JdbcTemplate replicaJdbcTemplate = mock(JdbcTemplate.class);
+        ResultSet replay = mock(ResultSet.class);
+        when(replay.getObject("checked_at", OffsetDateTime.class)).thenReturn(checkedAt);
+        when(replay.getObject("replayed_up_to", OffsetDateTime.class)).thenReturn(replayedUpTo);
+        when(replicaJdbcTemplate.queryForObject(anyString(), ArgumentMatchers.<RowMapper<?>>any()))
+                .thenAnswer(invocation -> invocation.<RowMapper<?>>getArgument(1).mapRow(replay, 0));
+        ReadReplicaProperties properties = new ReadReplicaProperties();
+        properties.setMaxLag(Duration.ofSeconds(30));
+        properties.setLagCheckInterval(Duration.ofSeconds(5));
+        return new ReplicaAwareDataSource(pool("replica"), pool("primary"),
+                new ReplicaLagMonitor(replicaJdbcTemplate, properties));
+    }
+
+    private static DataSource pool(String name) throws SQLException {
+        Connection connection = mock(Connection.class);
+        lenient().when(connection.getCatalog()).thenReturn(name);
+        DataSource pool = mock(DataSource.class);
+        lenient().when(pool.getConnection()).thenReturn(connection);
+        return pool;
     }
 
     private Customer buildCustomer(String id, String country, OffsetDateTime updatedAt) {
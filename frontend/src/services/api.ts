@@ -39,14 +39,18 @@ export interface OrderUpdateResponse {
 
 export interface SyncState {
   tableName: string;
+  country: string;
   lastSuccessfulSync: string | null;
+  latestChange: string | null;
+  lagSeconds: number | null;
 }
 
 export interface SyncRunItem {
   tableName: string;
   country: string;
   objectCount: number;
-  s3Key: string;
+  s3Key: string | null;
+  status: "PENDING" | "COMMITTED" | "FAILED";
 }
 
 export interface SyncRun {
@@ -55,9 +59,69 @@ export interface SyncRun {
   finishedAt: string | null;
   status: string;
   errorMessage: string | null;
+  manifestKey: string | null;
   items: SyncRunItem[];
 }
 
+export type SyncProgressEventType =
+  | "RUN_STARTED"
+  | "TABLE_STARTED"
+  | "PARTITION_STARTED"
+  | "PARTITION_FINISHED"
+  | "PARTITION_FAILED"
+  | "UPLOAD_RETRY"
+  | "RUN_FINISHED";
+
+export interface SyncProgressEvent {
+  type: SyncProgressEventType;
+  runId?: number;
+  tableName?: string;
+  country?: string;
+  rows?: number;
+  bytes?: number;
+  attempt?: number;
+  completedPartitions?: number;
+  plannedPartitions?: number;
+  totalRows?: number;
+  totalBytes?: number;
+  etaSeconds?: number;
+  message?: string;
+  timestamp: string;
+}
+
+export interface CountrySummary {
+  country: string;
+  customers: number;
+  orders: number;
+  lastCustomerChange: string | null;
+  lastOrderChange: string | null;
+}
+
+export interface CountryCustomer {
+  id: string;
+  firstName: string;
+  lastName: string;
+  companyName: string | null;
+  city: string | null;
+  orders: number;
+  lastOrderChange: string | null;
+}
+
+export interface CustomerOrder {
+  id: string;
+  articleNumber: string;
+  created: string;
+  lastChange: string;
+}
+
+export interface PageResult<T> {
+  content: T[];
+  page: number;
+  size: number;
+  totalElements: number;
+  totalPages: number;
+}
+
 export interface SyncScheduleResponse {
   hours: number;
   minutes: number;
@@ -75,6 +139,7 @@ const endpointBase = {
   s3: "/api/s3",
   customers: "/api/customers",
   orders: "/api/orders",
+  countries: "/api/countries",
   sync: "/api/sync",
 } as const;
 
@@ -83,16 +148,26 @@ export const endpoints = {
     listFiles: `${endpointBase.s3}/files`,
     file: (key: string) =>
       `${endpointBase.s3}/files?key=${encodeURIComponent(key)}`,
+    archive: (prefix: string) =>
+      `${endpointBase.s3}/archive?prefix=${encodeURIComponent(prefix)}`,
   },
   customers: endpointBase.customers,
   orders: {
     list: endpointBase.orders,
     touchLastChange: `${endpointBase.orders}/lastchange/touch`,
   },
+  countries: {
+    list: endpointBase.countries,
+    customers: (country: string) =>
+      `${endpointBase.countries}/${encodeURIComponent(country)}/customers`,
+    orders: (country: string, customerId: string) =>
+      `${endpointBase.countries}/${encodeURIComponent(country)}/customers/${encodeURIComponent(customerId)}/orders`,
+  },
   sync: {
     run: `${endpointBase.sync}/run`,
     runs: `${endpointBase.sync}/runs`,
     state: `${endpointBase.sync}/state`,
+    progress: `${endpointBase.sync}/progress`,
   },
   syncSchedule: `${endpointBase.sync}/schedule`,
 } as const;
@@ -110,6 +185,15 @@ export const s3Service = {
       ...config,
     });
   },
+  downloadArchive(
+    prefix: string,
+    config?: AxiosRequestConfig
+  ): Promise<AxiosResponse<Blob>> {
+    return api.get(endpoints.s3.archive(prefix), {
+      responseType: "blob",
+      ...config,
+    });
+  },
 };
 
 export const customerService = {
@@ -127,6 +211,29 @@ export const orderService = {
   },
 };
 
+export const countryService = {
+  listCountries(): Promise<AxiosResponse<CountrySummary[]>> {
+    return api.get(endpoints.countries.list);
+  },
+  listCustomers(
+    country: string,
+    page: number
+  ): Promise<AxiosResponse<PageResult<CountryCustomer>>> {
+    return api.get(endpoints.countries.customers(country), {
+      params: { page },
+    });
+  },
+  listOrders(
+    country: string,
+    customerId: string,
+    page: number
+  ): Promise<AxiosResponse<PageResult<CustomerOrder>>> {
+    return api.get(endpoints.countries.orders(country, customerId), {
+      params: { page },
+    });
+  },
+};
+
 export const syncService = {
   triggerRun(): Promise<AxiosResponse<SyncRun>> {
     return api.post(endpoints.sync.run);
@@ -139,6 +246,24 @@ export const syncService = {
   listStates(): Promise<AxiosResponse<SyncState[]>> {
     return api.get(endpoints.sync.state);
   },
+  streamProgress(onEvent: (event: SyncProgressEvent) => void): EventSource {
+    const source = new EventSource(`${baseURL}${endpoints.sync.progress}`);
+    const eventTypes: SyncProgressEventType[] = [
+      "RUN_STARTED",
+      "TABLE_STARTED",
+      "PARTITION_STARTED",
+      "PARTITION_FINISHED",
+      "PARTITION_FAILED",
+      "UPLOAD_RETRY",
+      "RUN_FINISHED",
+    ];
+    eventTypes.forEach((type) =>
+      source.addEventListener(type, (message) =>
+        onEvent(JSON.parse((message as MessageEvent<string>).data))
+      )
+    );
+    return source;
+  },
 };
 
 export const syncScheduleService = {